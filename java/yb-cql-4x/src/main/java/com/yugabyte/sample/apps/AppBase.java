@@ -14,6 +14,7 @@
 package com.yugabyte.sample.apps;
 
 import java.io.FileInputStream;
+import java.io.IOException;
 import java.net.InetAddress;
 import java.net.InetSocketAddress;
 import java.net.UnknownHostException;
@@ -55,8 +56,13 @@ import com.datastax.oss.driver.internal.core.retry.DefaultRetryPolicy;
 
 import com.yugabyte.sample.common.CmdLineOpts;
 import com.yugabyte.sample.common.CmdLineOpts.ContactPoint;
+import com.yugabyte.sample.common.KeyDistribution;
+import com.yugabyte.sample.common.KeyValueEncoder;
 import com.yugabyte.sample.common.SimpleLoadGenerator;
 import com.yugabyte.sample.common.SimpleLoadGenerator.Key;
+import com.yugabyte.sample.common.WorkloadMix.OpType;
+import com.yugabyte.sample.common.metrics.CsvResultSink;
+import com.yugabyte.sample.common.metrics.JsonResultSink;
 import com.yugabyte.sample.common.metrics.MetricsTracker;
 import com.yugabyte.sample.common.metrics.MetricsTracker.MetricName;
 
@@ -79,7 +85,9 @@ public abstract class AppBase implements MetricsTracker.StatusMessageAppender {
   public static final int NUM_UNIQUE_KEYS = 1000000;
 
   // Variable to track start time of the workload.
-  private long workloadStartTime = -1;
+  private volatile long workloadStartTime = -1;
+  // Whether the workload start time has been reset to the start time of the coordinated run.
+  private boolean coordinatedStartDone = false;
   // Instance of the workload configuration.
   public static AppConfig appConfig = new AppConfig();
   // The configuration of the load tester.
@@ -154,6 +162,7 @@ public abstract class AppBase implements MetricsTracker.StatusMessageAppender {
     }
     props.setProperty("sslmode", "disable");
     props.setProperty("reWriteBatchedInserts", "true");
+    props.setProperty("prepareThreshold", String.valueOf(appConfig.sqlPrepareThreshold));
     if (appConfig.localReads) {
       props.setProperty("options", "-c yb_read_from_followers=true");
     }
@@ -361,11 +370,17 @@ public abstract class AppBase implements MetricsTracker.StatusMessageAppender {
   }
 
   protected void getRandomValue(Key key, int valueSize, byte[] outBuffer) {
-    final byte[] keyValueBytes = key.getValueStr().getBytes();
-    getRandomValue(keyValueBytes, valueSize, outBuffer);
+    final KeyValueEncoder encoder = KeyValueEncoder.forCurrentThread();
+    final int keyValueSize = encoder.encodeValuePrefix(key.asNumber());
+    getRandomValue(encoder.getValuePrefixBuffer(), keyValueSize, valueSize, outBuffer);
   }
 
   protected void getRandomValue(byte[] keyValueBytes, int valueSize, byte[] outBuffer) {
+    getRandomValue(keyValueBytes, keyValueBytes.length, valueSize, outBuffer);
+  }
+
+  private void getRandomValue(byte[] keyValueBytes, int keyValueSize, int valueSize,
+                              byte[] outBuffer) {
     outBuffer[0] = appConfig.restrictValuesToAscii ? ASCII_MARKER : BINARY_MARKER;
     final int checksumSize = appConfig.restrictValuesToAscii ? CHECKSUM_ASCII_SIZE : CHECKSUM_SIZE;
     final boolean isUseChecksum = isUseChecksum(valueSize, checksumSize);
@@ -376,7 +391,7 @@ public abstract class AppBase implements MetricsTracker.StatusMessageAppender {
       // Beginning of value is not random, but has format "<MARKER><PREFIX>", where prefix is
       // "val: $key" (or part of it in case small value size). This is needed to verify expected
       // value during read.
-      final int prefixSize = Math.min(contentSize - 1 /* marker */, keyValueBytes.length);
+      final int prefixSize = Math.min(contentSize - 1 /* marker */, keyValueSize);
       System.arraycopy(keyValueBytes, 0, outBuffer, 1, prefixSize);
       i += prefixSize;
     }
@@ -407,12 +422,8 @@ public abstract class AppBase implements MetricsTracker.StatusMessageAppender {
       checksum.update(outBuffer, 0, contentSize);
       long cs = checksum.getValue();
       if (appConfig.restrictValuesToAscii) {
-        String csHexStr = Long.toHexString(cs);
-        // Prepend zeros
-        while (i < valueSize - csHexStr.length()) {
-          outBuffer[i++] = (byte) '0';
-        }
-        System.arraycopy(csHexStr.getBytes(), 0, outBuffer, i, csHexStr.length());
+        // Zero-padded hex string.
+        KeyValueEncoder.encodeHex(cs, outBuffer, i, valueSize - i);
       } else {
         while (i < valueSize) {
           outBuffer[i++] = (byte) cs;
@@ -427,16 +438,19 @@ public abstract class AppBase implements MetricsTracker.StatusMessageAppender {
     final int checksumSize = isAscii ? CHECKSUM_ASCII_SIZE : CHECKSUM_SIZE;
     final boolean hasChecksum = isUseChecksum(value.length, checksumSize);
     if (isUsePrefix(value.length)) {
-      final String keyValueStr = key.getValueStr();
-      final int prefixSize = Math.min(keyValueStr.length(), value.length -
+      final KeyValueEncoder encoder = KeyValueEncoder.forCurrentThread();
+      final int keyValueSize = encoder.encodeValuePrefix(key.asNumber());
+      final byte[] keyValueBytes = encoder.getValuePrefixBuffer();
+      final int prefixSize = Math.min(keyValueSize, value.length -
                              (hasChecksum ? checksumSize : 0) - 1 /* marker */);
-      final String prefix = new String(value, 1, prefixSize);
       // Check prefix.
-      if (!prefix.equals(keyValueStr.substring(0, prefixSize))) {
-        LOG.fatal("Value mismatch for key: " + key.toString() +
-                  ", expected to start with: " + keyValueStr +
-                  ", got: " + prefix);
-        return false;
+      for (int i = 0; i < prefixSize; i++) {
+        if (value[i + 1] != keyValueBytes[i]) {
+          LOG.fatal("Value mismatch for key: " + key.toString() +
+                    ", expected to start with: " + key.getValueStr() +
+                    ", got: " + new String(value, 1, prefixSize));
+          return false;
+        }
       }
     }
     if (hasChecksum) {
@@ -445,8 +459,14 @@ public abstract class AppBase implements MetricsTracker.StatusMessageAppender {
       checksum.update(value, 0, value.length - checksumSize);
       long expectedCs;
       if (isAscii) {
-        String csHexStr = new String(value, value.length - checksumSize, checksumSize);
-        expectedCs = Long.parseUnsignedLong(csHexStr, 16);
+        try {
+          expectedCs =
+              KeyValueEncoder.decodeHex(value, value.length - checksumSize, checksumSize);
+        } catch (NumberFormatException e) {
+          LOG.fatal("Value mismatch for key: " + key.toString() +
+                    ", invalid checksum: " + e.getMessage());
+          return false;
+        }
       } else {
         expectedCs = 0;
         for (int i = value.length - 1; i >= value.length - checksumSize; --i) {
@@ -468,6 +488,10 @@ public abstract class AppBase implements MetricsTracker.StatusMessageAppender {
     this.mainInstance = mainInstance;
   }
 
+  protected boolean isMainInstance() {
+    return mainInstance;
+  }
+
   ///////////////////// The following methods are overridden by the apps ///////////////////////////
 
   /**
@@ -535,6 +559,41 @@ public abstract class AppBase implements MetricsTracker.StatusMessageAppender {
    */
   public long doWrite(int threadIdx) { return 0; }
 
+  /**
+   * This call models an update of an already written key in a workload mix. Apps supporting the
+   * mix (e.g. CassandraKeyValue, SqlBatchedKeyValue) override it, the default implementation
+   * falls back to doWrite().
+   * @return Number of updates done, a value of 0 or less indicates no ops were done.
+   * @param threadIdx index of thread that invoked this update.
+   */
+  public long doUpdate(int threadIdx) { return doWrite(threadIdx); }
+
+  /**
+   * This call models an insert of a new key in a workload mix. Apps supporting the mix override
+   * it, the default implementation falls back to doWrite().
+   * @return Number of inserts done, a value of 0 or less indicates no ops were done.
+   * @param threadIdx index of thread that invoked this insert.
+   */
+  public long doInsert(int threadIdx) { return doWrite(threadIdx); }
+
+  /**
+   * This call models a range scan in a workload mix. Apps supporting the mix override it, the
+   * default implementation falls back to a single key doRead().
+   * @return Number of rows read, a value of 0 or less indicates no ops were done.
+   * @param scanLength the number of rows to read.
+   */
+  public long doScan(int scanLength) { return doRead(); }
+
+  /**
+   * This call models a read followed by a write of the same key in a workload mix. The default
+   * implementation does a doRead() followed by a doWrite().
+   * @return Number of keys updated, a value of 0 or less indicates no ops were done.
+   * @param threadIdx index of thread that invoked this operation.
+   */
+  public long doReadModifyWrite(int threadIdx) {
+    return doRead() > 0 ? doWrite(threadIdx) : 0;
+  }
+
   /**
    * This call should implement the main logic in non-OLTP apps. Not called for OLTP apps.
    */
@@ -608,14 +667,39 @@ public abstract class AppBase implements MetricsTracker.StatusMessageAppender {
     if (metricsTracker == null) {
       metricsTracker = new MetricsTracker();
       if (appConfig.appType == AppConfig.Type.OLTP) {
-        metricsTracker.createMetric(MetricName.Read);
-        metricsTracker.createMetric(MetricName.Write);
+        if (appConfig.workloadMix != null) {
+          for (OpType op : appConfig.workloadMix.getOpTypes()) {
+            metricsTracker.createMetric(MetricName.valueOf(op.name()));
+          }
+        } else {
+          metricsTracker.createMetric(MetricName.Read);
+          metricsTracker.createMetric(MetricName.Write);
+        }
         metricsTracker.registerStatusMessageAppender(this);
+        addResultSinks();
         metricsTracker.start();
       }
     }
   }
 
+  private void addResultSinks() {
+    try {
+      if (appConfig.resultsJsonPath != null) {
+        metricsTracker.addResultSink(new JsonResultSink(appConfig.resultsJsonPath));
+        LOG.info("Writing JSON results to " + appConfig.resultsJsonPath);
+      }
+      if (appConfig.resultsCsvPath != null) {
+        metricsTracker.addResultSink(new CsvResultSink(appConfig.resultsCsvPath));
+        LOG.info("Writing CSV results to " + appConfig.resultsCsvPath);
+      }
+      if (configuration != null && configuration.getLoadWorker() != null) {
+        metricsTracker.addResultSink(configuration.getLoadWorker().getResultSink());
+      }
+    } catch (IOException e) {
+      throw new IllegalArgumentException("Failed to open the results file", e);
+    }
+  }
+
   /**
    * Helper method to get a random proxy-service contact point to do io against.
    * @return a random proxy-service contact point.
@@ -658,6 +742,22 @@ public abstract class AppBase implements MetricsTracker.StatusMessageAppender {
     hasFinished.set(true);
   }
 
+  /**
+   * Blocks until the synchronized start time when running as a worker of a load coordinator.
+   */
+  public void awaitCoordinatedStart() throws InterruptedException {
+    if (configuration != null && configuration.getLoadWorker() != null) {
+      configuration.getLoadWorker().awaitStart();
+      // Runtime is measured from the synchronized start.
+      synchronized (this) {
+        if (!coordinatedStartDone) {
+          coordinatedStartDone = true;
+          workloadStartTime = System.currentTimeMillis();
+        }
+      }
+    }
+  }
+
   private boolean isOutOfTime() {
     return appConfig.runTimeSeconds > 0 &&
         (System.currentTimeMillis() - workloadStartTime > appConfig.runTimeSeconds * 1000);
@@ -678,7 +778,13 @@ public abstract class AppBase implements MetricsTracker.StatusMessageAppender {
     }
     // Perform the write and track the number of successfully written keys.
     long startTs = System.nanoTime();
-    long count = doWrite(threadIdx);
+    long count = 0;
+    try {
+      count = doWrite(threadIdx);
+    } catch (RuntimeException e) {
+      recordError(MetricName.Write);
+      throw e;
+    }
     long endTs = System.nanoTime();
     if (count > 0) {
       numKeysWritten.addAndGet(count);
@@ -703,7 +809,13 @@ public abstract class AppBase implements MetricsTracker.StatusMessageAppender {
     }
     // Perform the read and track the number of successfully read keys.
     long startTs = System.nanoTime();
-    long count = doRead();
+    long count = 0;
+    try {
+      count = doRead();
+    } catch (RuntimeException e) {
+      recordError(MetricName.Read);
+      throw e;
+    }
     long endTs = System.nanoTime();
     if (count > 0) {
       numKeysRead.addAndGet(count);
@@ -713,6 +825,53 @@ public abstract class AppBase implements MetricsTracker.StatusMessageAppender {
     }
   }
 
+  /**
+   * Called by the framework to perform the next operation of the workload mix - internally
+   * measures the time taken by the op and tracks it in the metric of its op type. Read and scan
+   * ops count as reads, the others count as writes.
+   * @param threadIdx index of thread that invoked this op.
+   */
+  public void performMixedOp(int threadIdx) {
+    final OpType op = appConfig.workloadMix.nextOp();
+    final boolean isRead = op.isRead();
+    // If we have done enough ops of this kind, we are done.
+    if (isRead && appConfig.numKeysToRead >= 0 && numKeysRead.get() >= appConfig.numKeysToRead
+        || !isRead && appConfig.numKeysToWrite >= 0 &&
+           numKeysWritten.get() >= appConfig.numKeysToWrite
+        || isOutOfTime()) {
+      hasFinished.set(true);
+      return;
+    }
+    long startTs = System.nanoTime();
+    long count = 0;
+    try {
+      switch (op) {
+        case Read: count = doRead(); break;
+        case Update: count = doUpdate(threadIdx); break;
+        case Insert: count = doInsert(threadIdx); break;
+        case Scan: count = doScan(appConfig.workloadMix.nextScanLength()); break;
+        case ReadModifyWrite: count = doReadModifyWrite(threadIdx); break;
+      }
+    } catch (RuntimeException e) {
+      recordError(MetricName.valueOf(op.name()));
+      throw e;
+    }
+    long endTs = System.nanoTime();
+    if (count > 0) {
+      (isRead ? numKeysRead : numKeysWritten).addAndGet(count);
+      if (metricsTracker != null) {
+        metricsTracker.getMetric(MetricName.valueOf(op.name()))
+            .accumulate(count, endTs - startTs);
+      }
+    }
+  }
+
+  private void recordError(MetricName metricName) {
+    if (metricsTracker != null) {
+      metricsTracker.getMetric(metricName).recordError();
+    }
+  }
+
   @Override
   public String appenderName() {
     return this.getClass().getSimpleName();
@@ -741,9 +900,11 @@ public abstract class AppBase implements MetricsTracker.StatusMessageAppender {
     if (simpleLoadGenerator == null) {
       synchronized (AppBase.class) {
         if (simpleLoadGenerator == null) {
-          simpleLoadGenerator = new SimpleLoadGenerator(0,
+          simpleLoadGenerator = new SimpleLoadGenerator(appConfig.keyRangeStart,
               appConfig.numUniqueKeysToWrite,
               appConfig.maxWrittenKey);
+          simpleLoadGenerator.setKeyDistribution(
+              KeyDistribution.create(appConfig.keyDistribution, appConfig));
         }
       }
     }
@@ -14,6 +14,8 @@
 package com.yugabyte.sample.apps;
 
 import com.yugabyte.sample.apps.AppBase.TableOp;
+import com.yugabyte.sample.common.KeyDistribution;
+import com.yugabyte.sample.common.WorkloadMix;
 
 /**
  * This class encapsulates the various configuration parameters for the various apps.
@@ -71,6 +73,10 @@ public class AppConfig {
   // updates to existing keys.
   public long numUniqueKeysToWrite;
 
+  // The first key of this load tester. Keys [keyRangeStart, numUniqueKeysToWrite) are written by
+  // this load tester, the ones below are owned by other load testers of a coordinated run.
+  public long keyRangeStart = 0;
+
   // Used for RedisHash workloads. The number of subkeys that we want per key.
   public int numSubkeysPerKey = 100;
   public int numSubkeysPerWrite = 10;
@@ -80,6 +86,18 @@ public class AppConfig {
   public double valueSizeZipfExponent = 0;
   public int maxValueSize = 64 * 1024; // 64K
 
+  // The distribution used to pick existing keys to read and update. keyUpdateFreqZipfExponent is
+  // the exponent for the Zipfian and Latest distributions.
+  public KeyDistribution.Type keyDistribution = KeyDistribution.Type.Uniform;
+  // Used by the Hotspot key distribution: hotspotOpFraction of the operations access the first
+  // hotspotKeyFraction of the keys.
+  public double hotspotKeyFraction = 0.2;
+  public double hotspotOpFraction = 0.8;
+
+  // Mix of operations performed by the IO threads. When set, all the IO threads run this mix
+  // instead of being split into reader and writer threads.
+  public WorkloadMix workloadMix = null;
+
   // Maximum written key in case we reuse existing table.
   public long maxWrittenKey = -1;
 
@@ -140,6 +158,10 @@ public class AppConfig {
   // Run time for workload. Negative values means no limit.
   public long runTimeSeconds = -1;
 
+  // Files to export the per-interval and summary results to, as JSON lines and CSV respectively.
+  public String resultsJsonPath = null;
+  public String resultsCsvPath = null;
+
   public String localDc;
 
   // Used by CassandraPersonalization workload.
@@ -187,4 +209,12 @@ public class AppConfig {
 
   // Configurations for SqlGeoPartitionedTable workload.
   public int numPartitions = 2;
+
+  // Configurations for the batched YSQL workloads (see SqlAppBase).
+  public SqlAppBase.BatchMode sqlBatchMode = SqlAppBase.BatchMode.MultiRow;
+  // Size of the shared connection pool, defaults to the number of IO threads if <= 0.
+  public int sqlPoolSize = 0;
+  // Number of executions after which the JDBC driver switches a statement to a server-side
+  // prepared statement.
+  public int sqlPrepareThreshold = 1;
 }
@@ -0,0 +1,262 @@
+// Copyright (c) YugaByte, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+// in compliance with the License.  You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software distributed under the License
+// is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+// or implied.  See the License for the specific language governing permissions and limitations
+// under the License.
+//
+
+package com.yugabyte.sample.apps;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.log4j.Logger;
+
+import com.datastax.oss.driver.api.core.cql.PreparedStatement;
+import com.datastax.oss.driver.api.core.cql.ResultSet;
+import com.datastax.oss.driver.api.core.cql.Row;
+import com.yugabyte.sample.common.SimpleLoadGenerator;
+import com.yugabyte.sample.common.SimpleLoadGenerator.Key;
+
+/**
+ * This workload writes and reads some random string keys from a CQL table. With --workload_mix
+ * the threads also run inserts of new keys, updates of existing keys, token range scans and
+ * read-modify-writes.
+ */
+public class CassandraKeyValue extends AppBase {
+  private static final Logger LOG = Logger.getLogger(CassandraKeyValue.class);
+
+  // Static initialization of this workload's config. These are good defaults for getting a decent
+  // read dominated workload on a reasonably powered machine. Exact IOPS will of course vary
+  // depending on the machine and what resources it has to spare.
+  static {
+    // Disable the read-write percentage.
+    appConfig.readIOPSPercentage = -1;
+    // Set the read and write threads to 24 and 2 respectively.
+    appConfig.numReaderThreads = 24;
+    appConfig.numWriterThreads = 2;
+    // The number of keys to read.
+    appConfig.numKeysToRead = 1500000;
+    // The number of keys to write. This is the combined total number of inserts and updates.
+    appConfig.numKeysToWrite = 2000000;
+    // The number of unique keys to write. This determines the number of inserts (as opposed to
+    // updates).
+    appConfig.numUniqueKeysToWrite = NUM_UNIQUE_KEYS;
+  }
+
+  // The default table name to create and use for CRUD ops.
+  private static final String DEFAULT_TABLE_NAME = "CassandraKeyValue";
+
+  // The shared prepared statements.
+  private static volatile PreparedStatement preparedSelect;
+  private static volatile PreparedStatement preparedInsert;
+  private static volatile PreparedStatement preparedUpdate;
+  private static volatile PreparedStatement preparedScan;
+  // Lock for initializing prepared statement objects.
+  private static final Object prepareInitLock = new Object();
+
+  public String getTableName() {
+    return appConfig.tableName != null ? appConfig.tableName : DEFAULT_TABLE_NAME;
+  }
+
+  @Override
+  public void dropTable() {
+    dropCassandraTable(getTableName());
+  }
+
+  @Override
+  public List<String> getCreateTableStatements() {
+    String create_stmt = "CREATE TABLE IF NOT EXISTS " + getTableName() +
+                         " (k varchar, v varchar, primary key (k))";
+    if (appConfig.tableTTLSeconds > 0) {
+      create_stmt += " WITH default_time_to_live = " + appConfig.tableTTLSeconds;
+    }
+    return Arrays.asList(create_stmt + ";");
+  }
+
+  private PreparedStatement getPreparedSelect() {
+    if (preparedSelect == null) {
+      synchronized (prepareInitLock) {
+        if (preparedSelect == null) {
+          preparedSelect = getCassandraClient().prepare(
+              String.format("SELECT k, v FROM %s WHERE k = ?;", getTableName()));
+        }
+      }
+    }
+    return preparedSelect;
+  }
+
+  private PreparedStatement getPreparedInsert() {
+    if (preparedInsert == null) {
+      synchronized (prepareInitLock) {
+        if (preparedInsert == null) {
+          preparedInsert = getCassandraClient().prepare(
+              String.format("INSERT INTO %s (k, v) VALUES (?, ?);", getTableName()));
+        }
+      }
+    }
+    return preparedInsert;
+  }
+
+  private PreparedStatement getPreparedUpdate() {
+    if (preparedUpdate == null) {
+      synchronized (prepareInitLock) {
+        if (preparedUpdate == null) {
+          preparedUpdate = getCassandraClient().prepare(
+              String.format("UPDATE %s SET v = ? WHERE k = ?;", getTableName()));
+        }
+      }
+    }
+    return preparedUpdate;
+  }
+
+  private PreparedStatement getPreparedScan() {
+    if (preparedScan == null) {
+      synchronized (prepareInitLock) {
+        if (preparedScan == null) {
+          // The rows are hash partitioned, so scan the range of the partition key tokens.
+          preparedScan = getCassandraClient().prepare(
+              String.format("SELECT k, v FROM %s WHERE token(k) >= token(?) LIMIT ?;",
+                            getTableName()));
+        }
+      }
+    }
+    return preparedScan;
+  }
+
+  @Override
+  public synchronized void resetClients() {
+    clearPreparedStatements();
+    super.resetClients();
+  }
+
+  @Override
+  public synchronized void destroyClients() {
+    clearPreparedStatements();
+    super.destroyClients();
+  }
+
+  private static void clearPreparedStatements() {
+    synchronized (prepareInitLock) {
+      preparedSelect = null;
+      preparedInsert = null;
+      preparedUpdate = null;
+      preparedScan = null;
+    }
+  }
+
+  @Override
+  public long doRead() {
+    Key key = getSimpleLoadGenerator().getKeyToRead();
+    if (key == null) {
+      // There are no keys to read yet.
+      return 0;
+    }
+    return read(key) ? 1 : 0;
+  }
+
+  private boolean read(Key key) {
+    ResultSet rs = getCassandraClient().execute(getPreparedSelect().bind(key.asString()));
+    List<Row> rows = rs.all();
+    if (rows.size() != 1) {
+      LOG.error("Read key: " + key.asString() + " expected 1 row in result, got " +
+                rows.size());
+      return false;
+    }
+    key.verify(rows.get(0).getString("v"));
+    return true;
+  }
+
+  @Override
+  public long doWrite(int threadIdx) {
+    return insert(getSimpleLoadGenerator().getKeyToWrite());
+  }
+
+  @Override
+  public long doInsert(int threadIdx) {
+    Key key = getSimpleLoadGenerator().getKeyToInsert();
+    if (key == null) {
+      // All the keys have been inserted.
+      return 0;
+    }
+    return insert(key);
+  }
+
+  private long insert(Key key) {
+    SimpleLoadGenerator loadGenerator = getSimpleLoadGenerator();
+    try {
+      getCassandraClient().execute(
+          getPreparedInsert().bind(key.asString(), key.getValueStr()));
+    } catch (RuntimeException e) {
+      loadGenerator.recordWriteFailure(key);
+      throw e;
+    }
+    loadGenerator.recordWriteSuccess(key);
+    return 1;
+  }
+
+  @Override
+  public long doUpdate(int threadIdx) {
+    Key key = getSimpleLoadGenerator().getKeyToUpdate();
+    if (key == null) {
+      // There are no keys to update yet.
+      return 0;
+    }
+    update(key);
+    return 1;
+  }
+
+  private void update(Key key) {
+    getCassandraClient().execute(getPreparedUpdate().bind(key.getValueStr(), key.asString()));
+  }
+
+  @Override
+  public long doScan(int scanLength) {
+    Key key = getSimpleLoadGenerator().getKeyToRead();
+    if (key == null) {
+      // There are no keys to read yet.
+      return 0;
+    }
+    ResultSet rs =
+        getCassandraClient().execute(getPreparedScan().bind(key.asString(), scanLength));
+    return rs.all().size();
+  }
+
+  @Override
+  public long doReadModifyWrite(int threadIdx) {
+    Key key = getSimpleLoadGenerator().getKeyToUpdate();
+    if (key == null || !read(key)) {
+      return 0;
+    }
+    update(key);
+    return 1;
+  }
+
+  @Override
+  public List<String> getWorkloadDescription() {
+    return Arrays.asList(
+      "Sample key-value app built on CQL with concurrent readers and writers. The app inserts",
+      " unique string keys, each with a string value, and reads them back. With --workload_mix",
+      " the threads run a weighted mix of reads, inserts, updates, token range scans and",
+      " read-modify-writes instead.");
+  }
+
+  @Override
+  public List<String> getWorkloadOptionalArguments() {
+    return Arrays.asList(
+      "--num_unique_keys " + appConfig.numUniqueKeysToWrite,
+      "--num_reads " + appConfig.numKeysToRead,
+      "--num_writes " + appConfig.numKeysToWrite,
+      "--num_threads_read " + appConfig.numReaderThreads,
+      "--num_threads_write " + appConfig.numWriterThreads,
+      "--table_ttl_seconds " + appConfig.tableTTLSeconds,
+      "--workload_mix read=50,update=45,scan=5",
+      "--key_distribution Zipfian");
+  }
+}
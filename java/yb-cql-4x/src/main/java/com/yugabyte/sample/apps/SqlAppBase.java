@@ -0,0 +1,309 @@
+// Copyright (c) YugaByte, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+// in compliance with the License.  You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software distributed under the License
+// is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+// or implied.  See the License for the specific language governing permissions and limitations
+// under the License.
+//
+
+package com.yugabyte.sample.apps;
+
+import java.io.StringReader;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.log4j.Logger;
+import org.postgresql.PGConnection;
+
+import com.yugabyte.sample.common.SimpleLoadGenerator;
+import com.yugabyte.sample.common.SimpleLoadGenerator.Key;
+import com.yugabyte.sample.common.SqlConnectionPool;
+import com.yugabyte.sample.common.SqlConnectionPool.PooledConnection;
+
+/**
+ * Base class for YSQL apps that write rows in batches. The IO threads share a bounded connection
+ * pool, and every pooled connection caches its prepared statements, so that the workload measures
+ * the database rather than client-side connection and statement setup. Each write inserts
+ * --batch_size keys using one of the following modes (--sql_batch_mode):
+ *   - MultiRow  : a single prepared INSERT ... VALUES (...), (...), ... statement.
+ *   - JdbcBatch : a prepared single-row INSERT executed with addBatch()/executeBatch(), which the
+ *                 driver rewrites into multi-row inserts (reWriteBatchedInserts).
+ *   - Copy      : COPY ... FROM STDIN. Only used while loading new keys, updates of existing keys
+ *                 use MultiRow since COPY cannot handle conflicts. A batch which still hits an
+ *                 existing key, such as one built as the loading ends or a key whose failed write
+ *                 went through, is written again as MultiRow.
+ */
+public abstract class SqlAppBase extends AppBase {
+  private static final Logger LOG = Logger.getLogger(SqlAppBase.class);
+
+  public static enum BatchMode {
+    MultiRow,
+    JdbcBatch,
+    Copy,
+  }
+
+  // SQLSTATE of a unique constraint violation.
+  private static final String UNIQUE_VIOLATION = "23505";
+
+  // Max number of prepared statements cached per connection.
+  private static final int STATEMENT_CACHE_SIZE = 64;
+
+  // The connection pool shared by all the IO threads.
+  private static volatile SqlConnectionPool connectionPool = null;
+
+  // Multi-row insert statements of this thread by batch size.
+  private final Map<Integer, String> multiRowInsertSql = new HashMap<>();
+  // Reused buffer for COPY data.
+  private final StringBuilder copyBuffer = new StringBuilder();
+
+  /**
+   * @return the name of the table the rows are written to.
+   */
+  protected abstract String getTableName();
+
+  /**
+   * @return the columns of an inserted row.
+   */
+  protected abstract List<String> getInsertColumns();
+
+  /**
+   * Fills the column values of the row for the given key.
+   * @param key the key to write.
+   * @param row the values, in the order of getInsertColumns().
+   */
+  protected abstract void getRowValues(Key key, Object[] row);
+
+  /**
+   * @return the ON CONFLICT clause to append to inserts, or null to fail on conflicts.
+   */
+  protected String getConflictClause() {
+    return null;
+  }
+
+  /**
+   * Returns the connection pool shared by the IO threads, creating it on first use.
+   */
+  protected SqlConnectionPool getConnectionPool() {
+    if (connectionPool == null) {
+      synchronized (SqlAppBase.class) {
+        if (connectionPool == null) {
+          int poolSize = appConfig.sqlPoolSize;
+          if (poolSize <= 0) {
+            poolSize = Math.max(1, configuration.getNumReaderThreads() +
+                                   configuration.getNumWriterThreads() +
+                                   configuration.getNumMixedThreads());
+          }
+          LOG.info("Creating a YSQL connection pool of " + poolSize + " connections");
+          connectionPool = new SqlConnectionPool(this::getPostgresConnection, poolSize,
+                                                 STATEMENT_CACHE_SIZE);
+        }
+      }
+    }
+    return connectionPool;
+  }
+
+  /**
+   * Work done on a pooled connection.
+   */
+  protected static interface ConnectionWork<T> {
+    T run(PooledConnection connection) throws Exception;
+  }
+
+  /**
+   * Runs the work on a connection acquired from the pool. Connections that hit a connection
+   * level error are discarded. Errors are rethrown as runtime exceptions to the IO thread.
+   */
+  protected <T> T withConnection(ConnectionWork<T> work) {
+    PooledConnection connection;
+    try {
+      connection = getConnectionPool().acquire();
+    } catch (Exception e) {
+      throw new RuntimeException("Failed to get a YSQL connection", e);
+    }
+    boolean broken = false;
+    try {
+      return work.run(connection);
+    } catch (SQLException e) {
+      broken = isConnectionError(connection, e);
+      throw new RuntimeException(e);
+    } catch (RuntimeException e) {
+      throw e;
+    } catch (Exception e) {
+      broken = true;
+      throw new RuntimeException(e);
+    } finally {
+      getConnectionPool().release(connection, broken);
+    }
+  }
+
+  private static boolean isConnectionError(PooledConnection connection, SQLException e) {
+    // SQLSTATE class 08 is "Connection Exception".
+    if (e.getSQLState() != null && e.getSQLState().startsWith("08")) {
+      return true;
+    }
+    try {
+      return connection.getConnection().isClosed();
+    } catch (SQLException ce) {
+      return true;
+    }
+  }
+
+  @Override
+  public long doWrite(int threadIdx) {
+    SimpleLoadGenerator loadGenerator = getSimpleLoadGenerator();
+    final boolean loading = loadGenerator.stillLoading();
+    // Dedup the keys, a batch can't update the same row twice.
+    final Map<Long, Key> keys = new LinkedHashMap<>();
+    for (int i = 0; i < appConfig.batchSize; i++) {
+      Key key = loadGenerator.getKeyToWrite();
+      keys.put(key.asNumber(), key);
+    }
+    final List<Key> batch = new ArrayList<>(keys.values());
+    try {
+      withConnection(connection -> {
+        BatchMode mode = appConfig.sqlBatchMode;
+        if (mode == BatchMode.Copy && !loading) {
+          mode = BatchMode.MultiRow;
+        }
+        switch (mode) {
+          case MultiRow: insertMultiRow(connection, batch); break;
+          case JdbcBatch: insertJdbcBatch(connection, batch); break;
+          case Copy: insertCopyOrMultiRow(connection, batch); break;
+        }
+        return null;
+      });
+    } catch (RuntimeException e) {
+      for (Key key : batch) {
+        loadGenerator.recordWriteFailure(key);
+      }
+      throw e;
+    }
+    for (Key key : batch) {
+      loadGenerator.recordWriteSuccess(key);
+    }
+    return batch.size();
+  }
+
+  private String getInsertSql(int numRows) {
+    String sql = multiRowInsertSql.get(numRows);
+    if (sql == null) {
+      List<String> columns = getInsertColumns();
+      StringBuilder sb = new StringBuilder();
+      sb.append("INSERT INTO ").append(getTableName()).append(" (")
+        .append(String.join(", ", columns)).append(") VALUES ");
+      for (int row = 0; row < numRows; row++) {
+        sb.append(row == 0 ? "(" : ", (");
+        for (int col = 0; col < columns.size(); col++) {
+          sb.append(col == 0 ? "?" : ", ?");
+        }
+        sb.append(")");
+      }
+      String conflictClause = getConflictClause();
+      if (conflictClause != null) {
+        sb.append(" ").append(conflictClause);
+      }
+      sql = sb.toString();
+      multiRowInsertSql.put(numRows, sql);
+    }
+    return sql;
+  }
+
+  private void insertMultiRow(PooledConnection connection, List<Key> batch) throws SQLException {
+    PreparedStatement statement = connection.prepare(getInsertSql(batch.size()));
+    Object[] row = new Object[getInsertColumns().size()];
+    int paramIdx = 1;
+    for (Key key : batch) {
+      getRowValues(key, row);
+      for (Object value : row) {
+        statement.setObject(paramIdx++, value);
+      }
+    }
+    statement.executeUpdate();
+  }
+
+  private void insertJdbcBatch(PooledConnection connection, List<Key> batch) throws SQLException {
+    PreparedStatement statement = connection.prepare(getInsertSql(1));
+    Object[] row = new Object[getInsertColumns().size()];
+    for (Key key : batch) {
+      getRowValues(key, row);
+      for (int col = 0; col < row.length; col++) {
+        statement.setObject(col + 1, row[col]);
+      }
+      statement.addBatch();
+    }
+    statement.executeBatch();
+  }
+
+  private void insertCopy(PooledConnection connection, List<Key> batch) throws Exception {
+    Object[] row = new Object[getInsertColumns().size()];
+    copyBuffer.setLength(0);
+    for (Key key : batch) {
+      getRowValues(key, row);
+      for (int col = 0; col < row.length; col++) {
+        if (col > 0) {
+          copyBuffer.append(',');
+        }
+        appendCsvValue(copyBuffer, row[col]);
+      }
+      copyBuffer.append('\n');
+    }
+    String copySql = "COPY " + getTableName() + " (" + String.join(", ", getInsertColumns()) +
+                     ") FROM STDIN WITH (FORMAT csv)";
+    connection.getConnection().unwrap(PGConnection.class).getCopyAPI()
+        .copyIn(copySql, new StringReader(copyBuffer.toString()));
+  }
+
+  private void insertCopyOrMultiRow(PooledConnection connection, List<Key> batch)
+      throws Exception {
+    try {
+      insertCopy(connection, batch);
+    } catch (SQLException e) {
+      if (!UNIQUE_VIOLATION.equals(e.getSQLState())) {
+        throw e;
+      }
+      LOG.debug("COPY hit an existing key, writing the batch as a multi-row insert", e);
+      insertMultiRow(connection, batch);
+    }
+  }
+
+  private static void appendCsvValue(StringBuilder sb, Object value) {
+    // Unquoted empty values are NULLs in the CSV format.
+    if (value == null) {
+      return;
+    }
+    String str = value.toString();
+    sb.append('"');
+    for (int i = 0; i < str.length(); i++) {
+      char c = str.charAt(i);
+      if (c == '"') {
+        sb.append('"');
+      }
+      sb.append(c);
+    }
+    sb.append('"');
+  }
+
+  @Override
+  protected synchronized void destroyClients() {
+    super.destroyClients();
+    // Like the Cassandra session, only the main instance closes the shared pool.
+    if (isMainInstance() && connectionPool != null) {
+      synchronized (SqlAppBase.class) {
+        if (connectionPool != null) {
+          connectionPool.close();
+          connectionPool = null;
+        }
+      }
+    }
+  }
+}
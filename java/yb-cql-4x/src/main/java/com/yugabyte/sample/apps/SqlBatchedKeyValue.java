@@ -0,0 +1,236 @@
+// Copyright (c) YugaByte, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+// in compliance with the License.  You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software distributed under the License
+// is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+// or implied.  See the License for the specific language governing permissions and limitations
+// under the License.
+//
+
+package com.yugabyte.sample.apps;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.log4j.Logger;
+
+import com.yugabyte.sample.common.SimpleLoadGenerator.Key;
+import com.yugabyte.sample.common.SqlConnectionPool.PooledConnection;
+
+/**
+ * This workload writes and reads some random string keys from a YSQL table, writing the keys in
+ * batches through the pooled connections and cached prepared statements of SqlAppBase.
+ */
+public class SqlBatchedKeyValue extends SqlAppBase {
+  private static final Logger LOG = Logger.getLogger(SqlBatchedKeyValue.class);
+
+  // Static initialization of this workload's config. These are good defaults for getting a decent
+  // read dominated workload on a reasonably powered machine. Exact IOPS will of course vary
+  // depending on the machine and what resources it has to spare.
+  static {
+    // Disable the read-write percentage.
+    appConfig.readIOPSPercentage = -1;
+    // Set the read and write threads to 2 each.
+    appConfig.numReaderThreads = 2;
+    appConfig.numWriterThreads = 2;
+    // The number of keys to read.
+    appConfig.numKeysToRead = 1500000;
+    // The number of keys to write. This is the combined total number of inserts and updates.
+    appConfig.numKeysToWrite = 2000000;
+    // The number of unique keys to write. This determines the number of inserts (as opposed to
+    // updates).
+    appConfig.numUniqueKeysToWrite = NUM_UNIQUE_KEYS;
+    // Number of rows per write.
+    appConfig.batchSize = 100;
+  }
+
+  // The default table name to create and use for CRUD ops.
+  private static final String DEFAULT_TABLE_NAME = "SqlBatchedKeyValue";
+
+  @Override
+  protected String getTableName() {
+    String tableName = appConfig.tableName != null ? appConfig.tableName : DEFAULT_TABLE_NAME;
+    return tableName.toLowerCase();
+  }
+
+  @Override
+  protected List<String> getInsertColumns() {
+    return Arrays.asList("k", "v");
+  }
+
+  @Override
+  protected void getRowValues(Key key, Object[] row) {
+    row[0] = key.asString();
+    row[1] = key.getValueStr();
+  }
+
+  @Override
+  protected String getConflictClause() {
+    return "ON CONFLICT (k) DO UPDATE SET v = EXCLUDED.v";
+  }
+
+  @Override
+  public void createTablesIfNeeded(TableOp tableOp) throws Exception {
+    try (Connection connection = getPostgresConnection();
+         Statement statement = connection.createStatement()) {
+      if (tableOp == TableOp.DropTable) {
+        statement.execute("DROP TABLE IF EXISTS " + getTableName());
+        LOG.info("Dropping any table(s) left from previous runs if any");
+      }
+      statement.execute("CREATE TABLE IF NOT EXISTS " + getTableName() +
+                        " (k text PRIMARY KEY, v text)");
+      LOG.info(String.format("Created table: %s", getTableName()));
+      if (tableOp == TableOp.TruncateTable) {
+        statement.execute("TRUNCATE TABLE " + getTableName());
+        LOG.info(String.format("Truncated table: %s", getTableName()));
+      }
+    }
+  }
+
+  @Override
+  public long doRead() {
+    final Key key = getSimpleLoadGenerator().getKeyToRead();
+    if (key == null) {
+      // There are no keys to read yet.
+      return 0;
+    }
+    return withConnection(connection -> {
+      PreparedStatement statement =
+          connection.prepare("SELECT v FROM " + getTableName() + " WHERE k = ?");
+      statement.setString(1, key.asString());
+      try (ResultSet rs = statement.executeQuery()) {
+        if (!rs.next()) {
+          LOG.error("Read key: " + key.asString() + " expected 1 row in result, got 0");
+          return 0L;
+        }
+        key.verify(rs.getString("v"));
+        if (rs.next()) {
+          LOG.error("Read key: " + key.asString() + " expected 1 row in result, got more");
+        }
+      }
+      return 1L;
+    });
+  }
+
+  @Override
+  public long doInsert(int threadIdx) {
+    final Key key = getSimpleLoadGenerator().getKeyToInsert();
+    if (key == null) {
+      // All the keys have been inserted.
+      return 0;
+    }
+    try {
+      withConnection(connection -> {
+        PreparedStatement statement =
+            connection.prepare("INSERT INTO " + getTableName() + " (k, v) VALUES (?, ?)");
+        statement.setString(1, key.asString());
+        statement.setString(2, key.getValueStr());
+        return statement.executeUpdate();
+      });
+    } catch (RuntimeException e) {
+      getSimpleLoadGenerator().recordWriteFailure(key);
+      throw e;
+    }
+    getSimpleLoadGenerator().recordWriteSuccess(key);
+    return 1;
+  }
+
+  @Override
+  public long doUpdate(int threadIdx) {
+    final Key key = getSimpleLoadGenerator().getKeyToUpdate();
+    if (key == null) {
+      // There are no keys to update yet.
+      return 0;
+    }
+    return withConnection(connection -> (long) update(connection, key));
+  }
+
+  @Override
+  public long doScan(int scanLength) {
+    final Key key = getSimpleLoadGenerator().getKeyToRead();
+    if (key == null) {
+      // There are no keys to read yet.
+      return 0;
+    }
+    return withConnection(connection -> {
+      // The rows are hash partitioned on k, so scan the range of the hash codes of the keys, which
+      // reads the tablets in order rather than sorting the whole table.
+      PreparedStatement statement = connection.prepare(
+          "SELECT k, v FROM " + getTableName() + " WHERE yb_hash_code(k) >= yb_hash_code(?::text)" +
+          " LIMIT ?");
+      statement.setString(1, key.asString());
+      statement.setInt(2, scanLength);
+      long numRows = 0;
+      try (ResultSet rs = statement.executeQuery()) {
+        while (rs.next()) {
+          numRows++;
+        }
+      }
+      return numRows;
+    });
+  }
+
+  @Override
+  public long doReadModifyWrite(int threadIdx) {
+    final Key key = getSimpleLoadGenerator().getKeyToUpdate();
+    if (key == null) {
+      // There are no keys to update yet.
+      return 0;
+    }
+    return withConnection(connection -> {
+      PreparedStatement select =
+          connection.prepare("SELECT v FROM " + getTableName() + " WHERE k = ?");
+      select.setString(1, key.asString());
+      try (ResultSet rs = select.executeQuery()) {
+        if (!rs.next()) {
+          LOG.error("Read key: " + key.asString() + " expected 1 row in result, got 0");
+          return 0L;
+        }
+        key.verify(rs.getString("v"));
+      }
+      return (long) update(connection, key);
+    });
+  }
+
+  private int update(PooledConnection connection, Key key) throws SQLException {
+    PreparedStatement statement =
+        connection.prepare("UPDATE " + getTableName() + " SET v = ? WHERE k = ?");
+    statement.setString(1, key.getValueStr());
+    statement.setString(2, key.asString());
+    return statement.executeUpdate();
+  }
+
+  @Override
+  public List<String> getWorkloadDescription() {
+    return Arrays.asList(
+      "Sample key-value app built on PostgreSQL with concurrent readers and writers. The app",
+      " inserts unique string keys, each with a string value, in batches of --batch_size rows",
+      " using pooled connections and cached server-side prepared statements. --sql_batch_mode",
+      " selects multi-row INSERT, JDBC batches or COPY for the batched writes. With",
+      " --workload_mix the threads also run single-row inserts, updates, hash range scans and",
+      " read-modify-writes.");
+  }
+
+  @Override
+  public List<String> getWorkloadOptionalArguments() {
+    return Arrays.asList(
+      "--num_unique_keys " + appConfig.numUniqueKeysToWrite,
+      "--num_reads " + appConfig.numKeysToRead,
+      "--num_writes " + appConfig.numKeysToWrite,
+      "--num_threads_read " + appConfig.numReaderThreads,
+      "--num_threads_write " + appConfig.numWriterThreads,
+      "--batch_size " + appConfig.batchSize,
+      "--sql_batch_mode " + appConfig.sqlBatchMode,
+      "--sql_pool_size " + appConfig.sqlPoolSize,
+      "--sql_prepare_threshold " + appConfig.sqlPrepareThreshold);
+  }
+}
@@ -13,6 +13,7 @@
 
 package com.yugabyte.sample.common;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
@@ -33,6 +34,7 @@ import com.google.common.collect.ImmutableList;
 // Import * so we can list the sample apps.
 import com.yugabyte.sample.apps.*;
 import com.yugabyte.sample.apps.AppBase.TableOp;
+import com.yugabyte.sample.common.coordinator.LoadWorker;
 
 /**
  * This is a helper class to parse the user specified command-line options if they were specified,
@@ -66,6 +68,7 @@ public class CmdLineOpts {
     "RedisPipelinedKeyValue",
     "RedisHashPipelined",
     "RedisYBClientKeyValue",
+    "SqlBatchedKeyValue",
     "SqlDataLoad",
     "SqlForeignKeysAndJoins",
     "SqlInserts",
@@ -82,12 +85,16 @@ public class CmdLineOpts {
   int numReaderThreads;
   // The number of writer threads to spawn for OLTP apps.
   int numWriterThreads;
+  // The number of threads running the workload mix, if one was specified.
+  int numMixedThreads;
   boolean readOnly = false;
   boolean localReads = false;
   // Random number generator.
   Random random = new Random();
   // Command line opts parser.
   CommandLine commandLine;
+  // Connection to the load coordinator, if this load tester is a worker of a coordinated run.
+  LoadWorker loadWorker;
 
   public void initialize(CommandLine commandLine) throws ClassNotFoundException {
     this.commandLine = commandLine;
@@ -124,6 +131,13 @@ public class CmdLineOpts {
     }
     LOG.info("Run time (seconds): " + AppBase.appConfig.runTimeSeconds);
 
+    if (commandLine.hasOption("results_json")) {
+      AppBase.appConfig.resultsJsonPath = commandLine.getOptionValue("results_json");
+    }
+    if (commandLine.hasOption("results_csv")) {
+      AppBase.appConfig.resultsCsvPath = commandLine.getOptionValue("results_csv");
+    }
+
     // Get the proxy contact points.
     List<String> hostPortList = Arrays.asList(commandLine.getOptionValue("nodes").split(","));
     for (String hostPort : hostPortList) {
@@ -141,12 +155,18 @@ public class CmdLineOpts {
       }
     }
 
+    // This needs to be done before initializeThreadCount is called.
+    initializeWorkloadMix(commandLine);
     // Set the number of threads.
     initializeThreadCount(commandLine);
     // Initialize num keys.
     initializeNumKeys(commandLine);
     // Initialize table properties.
     initializeTableProperties(commandLine);
+    // This needs to be done after initializeNumKeys is called.
+    if (commandLine.hasOption("coordinator")) {
+      initializeLoadWorker(commandLine);
+    }
     if (commandLine.hasOption("local_reads")) {
       AppBase.appConfig.localReads = true;
       localReads = true;
@@ -197,6 +217,19 @@ public class CmdLineOpts {
       AppBase.appConfig.numIndexes =
           Integer.parseInt(commandLine.getOptionValue("num_indexes"));
     }
+
+    if (commandLine.hasOption("sql_batch_mode")) {
+      AppBase.appConfig.sqlBatchMode =
+          SqlAppBase.BatchMode.valueOf(commandLine.getOptionValue("sql_batch_mode"));
+    }
+    if (commandLine.hasOption("sql_pool_size")) {
+      AppBase.appConfig.sqlPoolSize =
+          Integer.parseInt(commandLine.getOptionValue("sql_pool_size"));
+    }
+    if (commandLine.hasOption("sql_prepare_threshold")) {
+      AppBase.appConfig.sqlPrepareThreshold =
+          Integer.parseInt(commandLine.getOptionValue("sql_prepare_threshold"));
+    }
   }
 
   /**
@@ -225,10 +258,40 @@ public class CmdLineOpts {
     return workload;
   }
 
+  /**
+   * Creates the IO threads of an OLTP app: the reader and writer threads, or the threads running
+   * the workload mix if one was specified. Each thread gets its own app instance.
+   * @return the threads, not started yet.
+   */
+  public List<IOPSThread> createIOPSThreads() {
+    List<IOPSThread> threads = new ArrayList<>();
+    final boolean printAllExceptions = AppBase.appConfig.printAllExceptions;
+    for (int i = 0; i < numWriterThreads; i++) {
+      threads.add(new IOPSThread(threads.size(), createAppInstance(), IOPSThread.IOType.Write,
+                                 printAllExceptions));
+    }
+    for (int i = 0; i < numReaderThreads; i++) {
+      threads.add(new IOPSThread(threads.size(), createAppInstance(), IOPSThread.IOType.Read,
+                                 printAllExceptions));
+    }
+    for (int i = 0; i < numMixedThreads; i++) {
+      threads.add(new IOPSThread(threads.size(), createAppInstance(), IOPSThread.IOType.Mixed,
+                                 printAllExceptions));
+    }
+    return threads;
+  }
+
   public CommandLine getCommandLine() {
     return commandLine;
   }
 
+  /**
+   * @return the connection to the load coordinator, or null if not running as a worker.
+   */
+  public LoadWorker getLoadWorker() {
+    return loadWorker;
+  }
+
   public List<ContactPoint> getContactPoints() {
     return contactPoints;
   }
@@ -247,6 +310,10 @@ public class CmdLineOpts {
     return numWriterThreads;
   }
 
+  public int getNumMixedThreads() {
+    return numMixedThreads;
+  }
+
   public boolean getReadOnly() {
     return readOnly;
   }
@@ -308,10 +375,67 @@ public class CmdLineOpts {
         numWriterThreads = Integer.parseInt(cmd.getOptionValue("num_threads_write"));
       }
     }
+    // With a workload mix every IO thread performs all the ops of the mix.
+    if (AppBase.appConfig.workloadMix != null) {
+      numMixedThreads = numReaderThreads + numWriterThreads;
+      numReaderThreads = 0;
+      numWriterThreads = 0;
+      LOG.info("Num mixed workload threads: " + numMixedThreads);
+    }
     LOG.info("Num reader threads: " + numReaderThreads +
              ", num writer threads: " + numWriterThreads);
   }
 
+  private void initializeLoadWorker(CommandLine cmd) {
+    ContactPoint coordinator = ContactPoint.fromHostPort(cmd.getOptionValue("coordinator"));
+    try {
+      loadWorker = LoadWorker.connect(coordinator.getHost(), coordinator.getPort());
+    } catch (IOException e) {
+      LOG.error("Could not connect to the load coordinator " + coordinator.ToString(), e);
+      System.exit(1);
+    }
+    AppBase.appConfig.keyRangeStart = loadWorker.getStartKey();
+    AppBase.appConfig.numUniqueKeysToWrite = loadWorker.getEndKey();
+    // Unless given explicitly, all the workers share the key prefix of the coordinator.
+    if (!cmd.hasOption("uuid") && !cmd.hasOption("nouuid")) {
+      loadTesterUUID = loadWorker.getUUID();
+      LOG.info("Using the UUID of the load coordinator : " + loadTesterUUID);
+    }
+  }
+
+  private void initializeWorkloadMix(CommandLine cmd) {
+    if (cmd.hasOption("key_distribution")) {
+      AppBase.appConfig.keyDistribution =
+          KeyDistribution.Type.valueOf(cmd.getOptionValue("key_distribution"));
+    }
+    if (cmd.hasOption("key_freq_zipf_exponent")) {
+      AppBase.appConfig.keyUpdateFreqZipfExponent =
+          Double.parseDouble(cmd.getOptionValue("key_freq_zipf_exponent"));
+    }
+    if (cmd.hasOption("hotspot_key_fraction")) {
+      AppBase.appConfig.hotspotKeyFraction =
+          Double.parseDouble(cmd.getOptionValue("hotspot_key_fraction"));
+    }
+    if (cmd.hasOption("hotspot_op_fraction")) {
+      AppBase.appConfig.hotspotOpFraction =
+          Double.parseDouble(cmd.getOptionValue("hotspot_op_fraction"));
+    }
+    LOG.info("Key distribution: " +
+        KeyDistribution.create(AppBase.appConfig.keyDistribution, AppBase.appConfig));
+
+    if (cmd.hasOption("workload_mix")) {
+      if (readOnly) {
+        LOG.error("--workload_mix cannot be used with --read_only");
+        System.exit(1);
+      }
+      int minScanLength = Integer.parseInt(cmd.getOptionValue("min_scan_length", "1"));
+      int maxScanLength = Integer.parseInt(cmd.getOptionValue("max_scan_length", "100"));
+      AppBase.appConfig.workloadMix = WorkloadMix.parse(cmd.getOptionValue("workload_mix"),
+                                                        minScanLength, maxScanLength);
+      LOG.info("Workload mix: " + AppBase.appConfig.workloadMix);
+    }
+  }
+
   private void initializeNumKeys(CommandLine cmd) {
     if (cmd.hasOption("num_writes")) {
       AppBase.appConfig.numKeysToWrite = Long.parseLong(cmd.getOptionValue("num_writes"));
@@ -471,6 +595,18 @@ public class CmdLineOpts {
     options.addOption("skip_workload", false, "Skip running workload.");
     options.addOption("run_time", true,
         "Run time for workload. Negative value means forever (default).");
+    options.addOption("results_json", true,
+        "Write the throughput, latency percentiles and errors of every reporting interval, " +
+        "followed by a summary of the run, to this file as JSON lines.");
+    options.addOption("results_csv", true,
+        "Write the throughput, latency percentiles and errors of every reporting interval, " +
+        "followed by a summary of the run, to this file as CSV. Summaries of two runs can be " +
+        "compared with com.yugabyte.sample.common.metrics.ResultComparator.");
+    options.addOption("coordinator", true,
+        "Run as a worker of the load coordinator at host:port, see " +
+        "com.yugabyte.sample.common.coordinator.LoadCoordinator. The coordinator assigns the " +
+        "key range of this worker, starts all workers at the same time and aggregates their " +
+        "metrics.");
     options.addOption("use_redis_cluster", false, "Use redis cluster client.");
     options.addOption("username", true,
         "User name to connect to the database using. ");
@@ -484,6 +620,24 @@ public class CmdLineOpts {
     options.addOption("batch_size", true,
                       "Number of keys to write in a batch (for apps that support batching).");
 
+    // Options for the workload mix.
+    options.addOption("workload_mix", true,
+        "Run all IO threads with a weighted mix of operations instead of separate reader and " +
+        "writer threads, e.g. read=50,update=45,scan=5. Supported operations: read, update, " +
+        "insert, scan, rmw (read-modify-write).");
+    options.addOption("key_distribution", true,
+        "Distribution used to pick existing keys to read and update: Uniform (default), " +
+        "Zipfian, Latest or Hotspot. Zipfian and Latest use --key_freq_zipf_exponent.");
+    options.addOption("hotspot_key_fraction", true,
+        "[Hotspot key distribution] Fraction of the keys in the hot set (default 0.2).");
+    options.addOption("hotspot_op_fraction", true,
+        "[Hotspot key distribution] Fraction of the operations accessing the hot set " +
+        "(default 0.8).");
+    options.addOption("min_scan_length", true,
+        "[Workload mix] Min number of rows read by a scan (default 1).");
+    options.addOption("max_scan_length", true,
+        "[Workload mix] Max number of rows read by a scan (default 100).");
+
     // Options for CassandraTimeseries workload.
     options.addOption("num_users", true, "[CassandraTimeseries] The total number of users.");
     options.addOption("min_nodes_per_user", true,
@@ -563,8 +717,8 @@ public class CmdLineOpts {
 
     options.addOption(
         "key_freq_zipf_exponent", true,
-        "[RedisHashPipelined] The zipf distribution exponent, if keys " +
-        "should be picked using a Zipf distribution. If <= 0, we use " +
+        "[RedisHashPipelined, Zipfian/Latest key distribution] The zipf distribution " +
+        "exponent, if keys should be picked using a Zipf distribution. If <= 0, we use " +
         "a uniform distribution");
     options.addOption(
         "subkey_freq_zipf_exponent", true,
@@ -601,6 +755,17 @@ public class CmdLineOpts {
     options.addOption("num_partitions", true,
                       "[SqlGeoPartitionedTable] Number of partitions to create.");
 
+    // Options for the batched YSQL workloads.
+    options.addOption("sql_batch_mode", true,
+                      "[SqlBatchedKeyValue] How to write a batch of rows: MultiRow (default), " +
+                      "JdbcBatch or Copy.");
+    options.addOption("sql_pool_size", true,
+                      "[SqlBatchedKeyValue] Number of pooled YSQL connections shared by the " +
+                      "IO threads. Defaults to the number of IO threads.");
+    options.addOption("sql_prepare_threshold", true,
+                      "Number of executions after which a statement is prepared on the " +
+                      "server (JDBC prepareThreshold, default 1).");
+
     // First check if a "--help" argument is passed with a simple parser. Note that if we add
     // required args, then the help string would not work.
     // The first function check if help was called with an app name to print details. The second
@@ -34,6 +34,8 @@ public class IOPSThread extends Thread {
   public static enum IOType {
     Write,
     Read,
+    // Performs the operations of the configured workload mix.
+    Mixed,
   }
   // The io type this thread performs.
   IOType ioType;
@@ -80,12 +82,20 @@ public class IOPSThread extends Thread {
   public void run() {
     try {
       LOG.debug("Starting " + ioType.toString() + " IOPS thread #" + threadIdx);
+      try {
+        app.awaitCoordinatedStart();
+      } catch (InterruptedException e) {
+        LOG.error("Interrupted while waiting for the coordinated start.", e);
+        ioThreadFailed = true;
+        return;
+      }
       int numConsecutiveExceptions = 0;
       while (!app.hasFinished()) {
         try {
           switch (ioType) {
             case Write: app.performWrite(threadIdx); break;
             case Read: app.performRead(); break;
+            case Mixed: app.performMixedOp(threadIdx); break;
           }
           numConsecutiveExceptions = 0;
         } catch (RuntimeException e) {
@@ -0,0 +1,205 @@
+// Copyright (c) YugaByte, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+// in compliance with the License.  You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software distributed under the License
+// is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+// or implied.  See the License for the specific language governing permissions and limitations
+// under the License.
+//
+
+package com.yugabyte.sample.common;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+import com.yugabyte.sample.apps.AppConfig;
+
+/**
+ * Picks which of the already written keys an operation should access. The key space grows while
+ * the workload is loading, so every call gets the current number of keys. The supported
+ * distributions are:
+ *   - Uniform : every key is equally likely.
+ *   - Zipfian : key k is picked with a probability proportional to 1 / (k + 1)^exponent, so the
+ *               oldest keys are the hottest.
+ *   - Latest  : same as Zipfian, but the most recently written keys are the hottest.
+ *   - Hotspot : a fraction of the operations goes to a fraction of the keys (the hot set), the
+ *               rest is spread uniformly over the remaining keys.
+ */
+public abstract class KeyDistribution {
+
+  public static enum Type {
+    Uniform,
+    Zipfian,
+    Latest,
+    Hotspot,
+  }
+
+  /**
+   * Returns the next key to access.
+   * @param numKeys number of keys to choose from, must be positive.
+   * @return a key in the range [0, numKeys).
+   */
+  public abstract long nextKey(long numKeys);
+
+  public static KeyDistribution uniform() {
+    return new Uniform();
+  }
+
+  public static KeyDistribution zipfian(double exponent) {
+    return exponent <= 0 ? uniform() : new Zipfian(exponent, false /* latest */);
+  }
+
+  public static KeyDistribution latest(double exponent) {
+    return exponent <= 0 ? uniform() : new Zipfian(exponent, true /* latest */);
+  }
+
+  public static KeyDistribution hotspot(double hotKeyFraction, double hotOpFraction) {
+    return new Hotspot(hotKeyFraction, hotOpFraction);
+  }
+
+  /**
+   * Creates a key distribution from the app config.
+   * @param type the distribution type.
+   * @param appConfig the config to take the distribution parameters from.
+   */
+  public static KeyDistribution create(Type type, AppConfig appConfig) {
+    switch (type) {
+      case Uniform: return uniform();
+      case Zipfian: return zipfian(appConfig.keyUpdateFreqZipfExponent);
+      case Latest: return latest(appConfig.keyUpdateFreqZipfExponent);
+      case Hotspot: return hotspot(appConfig.hotspotKeyFraction, appConfig.hotspotOpFraction);
+    }
+    throw new IllegalArgumentException("Unknown key distribution: " + type);
+  }
+
+  private static class Uniform extends KeyDistribution {
+    @Override
+    public long nextKey(long numKeys) {
+      return ThreadLocalRandom.current().nextLong(numKeys);
+    }
+
+    @Override
+    public String toString() {
+      return "Uniform";
+    }
+  }
+
+  /**
+   * Zipf distribution over a growing number of keys, using rejection-inversion sampling
+   * (W. Hormann, G. Derflinger, "Rejection-inversion to generate variates from monotone discrete
+   * distributions"). Unlike the classic zeta based method, sampling is O(1) and does not need any
+   * precomputation when the number of keys changes.
+   */
+  private static class Zipfian extends KeyDistribution {
+    private final double exponent;
+    private final boolean latest;
+    private final double hIntegralX1;
+    private final double s;
+
+    Zipfian(double exponent, boolean latest) {
+      this.exponent = exponent;
+      this.latest = latest;
+      this.hIntegralX1 = hIntegral(1.5) - 1.0;
+      this.s = 2.0 - hIntegralInverse(hIntegral(2.5) - h(2));
+    }
+
+    @Override
+    public long nextKey(long numKeys) {
+      long rank = sampleRank(numKeys);
+      return latest ? numKeys - rank : rank - 1;
+    }
+
+    // Returns a rank in [1, numKeys], rank 1 being the most frequent one.
+    private long sampleRank(long numKeys) {
+      final ThreadLocalRandom random = ThreadLocalRandom.current();
+      final double hIntegralNumKeys = hIntegral(numKeys + 0.5);
+      while (true) {
+        double u = hIntegralNumKeys + random.nextDouble() * (hIntegralX1 - hIntegralNumKeys);
+        double x = hIntegralInverse(u);
+        long k = (long) (x + 0.5);
+        if (k < 1) {
+          k = 1;
+        } else if (k > numKeys) {
+          k = numKeys;
+        }
+        if (k - x <= s || u >= hIntegral(k + 0.5) - h(k)) {
+          return k;
+        }
+      }
+    }
+
+    private double hIntegral(double x) {
+      final double logX = Math.log(x);
+      return helper2((1.0 - exponent) * logX) * logX;
+    }
+
+    private double h(double x) {
+      return Math.exp(-exponent * Math.log(x));
+    }
+
+    private double hIntegralInverse(double x) {
+      double t = x * (1.0 - exponent);
+      if (t < -1.0) {
+        t = -1.0;
+      }
+      return Math.exp(helper1(t) * x);
+    }
+
+    // log(1 + x) / x, numerically stable around 0.
+    private static double helper1(double x) {
+      if (Math.abs(x) > 1e-8) {
+        return Math.log1p(x) / x;
+      }
+      return 1.0 - x * (0.5 - x * (1.0 / 3.0 - 0.25 * x));
+    }
+
+    // (exp(x) - 1) / x, numerically stable around 0.
+    private static double helper2(double x) {
+      if (Math.abs(x) > 1e-8) {
+        return Math.expm1(x) / x;
+      }
+      return 1.0 + x * 0.5 * (1.0 + x * 1.0 / 3.0 * (1.0 + 0.25 * x));
+    }
+
+    @Override
+    public String toString() {
+      return (latest ? "Latest" : "Zipfian") + "(exponent=" + exponent + ")";
+    }
+  }
+
+  private static class Hotspot extends KeyDistribution {
+    private final double hotKeyFraction;
+    private final double hotOpFraction;
+
+    Hotspot(double hotKeyFraction, double hotOpFraction) {
+      if (hotKeyFraction <= 0 || hotKeyFraction > 1) {
+        throw new IllegalArgumentException(
+            "Hotspot key fraction should be in (0, 1], got " + hotKeyFraction);
+      }
+      if (hotOpFraction < 0 || hotOpFraction > 1) {
+        throw new IllegalArgumentException(
+            "Hotspot operation fraction should be in [0, 1], got " + hotOpFraction);
+      }
+      this.hotKeyFraction = hotKeyFraction;
+      this.hotOpFraction = hotOpFraction;
+    }
+
+    @Override
+    public long nextKey(long numKeys) {
+      final ThreadLocalRandom random = ThreadLocalRandom.current();
+      long numHotKeys = Math.max(1, (long) (numKeys * hotKeyFraction));
+      if (numHotKeys >= numKeys || random.nextDouble() < hotOpFraction) {
+        return random.nextLong(numHotKeys);
+      }
+      return numHotKeys + random.nextLong(numKeys - numHotKeys);
+    }
+
+    @Override
+    public String toString() {
+      return "Hotspot(keys=" + hotKeyFraction + ", ops=" + hotOpFraction + ")";
+    }
+  }
+}
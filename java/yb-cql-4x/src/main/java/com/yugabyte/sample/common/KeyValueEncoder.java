@@ -0,0 +1,221 @@
+// Copyright (c) YugaByte, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+// in compliance with the License.  You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software distributed under the License
+// is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+// or implied.  See the License for the specific language governing permissions and limitations
+// under the License.
+//
+
+package com.yugabyte.sample.common;
+
+import java.security.DigestException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Encodes load tester keys and values directly into reusable byte buffers, so that generating
+ * a value does not allocate strings or digests on every write. An encoder is not thread-safe,
+ * use {@link #forCurrentThread()} to get the instance owned by the calling IO thread.
+ */
+public class KeyValueEncoder {
+  private static final ThreadLocal<KeyValueEncoder> THREAD_ENCODER =
+      ThreadLocal.withInitial(KeyValueEncoder::new);
+
+  private static final byte[] VALUE_PREFIX = { 'v', 'a', 'l', ':' };
+  private static final byte[] HEX_DIGITS = {
+    '0', '1', '2', '3', '4', '5', '6', '7', '8', '9', 'a', 'b', 'c', 'd', 'e', 'f'
+  };
+  // Long.MIN_VALUE has 19 digits plus the sign.
+  private static final int MAX_LONG_ASCII_SIZE = 20;
+  // Max size of the "val:$key" string.
+  public static final int MAX_VALUE_PREFIX_SIZE = VALUE_PREFIX.length + MAX_LONG_ASCII_SIZE;
+
+  // Scratch buffer holding the last encoded "val:$key" string.
+  private final byte[] valuePrefix = new byte[MAX_VALUE_PREFIX_SIZE];
+  // Scratch buffers for the "$prefix:$key" string, as chars and as the bytes hashed by MD5.
+  private char[] keyChars = new char[64];
+  private byte[] keyBytes = new byte[64];
+  // Scratch buffer for the hash prefixed key.
+  private char[] hashPrefixedKey = new char[64];
+  // Scratch buffer for the MD5 digest.
+  private final byte[] digest;
+  private final MessageDigest md5;
+
+  private KeyValueEncoder() {
+    try {
+      md5 = MessageDigest.getInstance("MD5");
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("MD5 digest is not available", e);
+    }
+    digest = new byte[md5.getDigestLength()];
+  }
+
+  /**
+   * @return the encoder owned by the calling thread.
+   */
+  public static KeyValueEncoder forCurrentThread() {
+    return THREAD_ENCODER.get();
+  }
+
+  /**
+   * Encodes the "val:$key" string for the given key into the internal buffer.
+   * @param key the key number.
+   * @return number of valid bytes in {@link #getValuePrefixBuffer()}.
+   */
+  public int encodeValuePrefix(long key) {
+    System.arraycopy(VALUE_PREFIX, 0, valuePrefix, 0, VALUE_PREFIX.length);
+    return VALUE_PREFIX.length + encodeAscii(key, valuePrefix, VALUE_PREFIX.length);
+  }
+
+  /**
+   * @return the buffer filled by the last {@link #encodeValuePrefix(long)} call.
+   */
+  public byte[] getValuePrefixBuffer() {
+    return valuePrefix;
+  }
+
+  /**
+   * Returns "$prefix:$key", built in the scratch buffer of this encoder.
+   * @param keyPrefix the key prefix.
+   * @param key the key number.
+   * @return the key string.
+   */
+  public String getKey(String keyPrefix, long key) {
+    final int size = encodeKey(keyPrefix, key);
+    return new String(keyChars, 0, size);
+  }
+
+  /**
+   * Returns "md5($prefix:$key):$prefix:$key" using the cached digest of this encoder. Only the
+   * returned string is allocated.
+   * @param keyPrefix the key prefix.
+   * @param key the key number.
+   * @return the key prefixed with the hex encoded MD5 hash of it.
+   */
+  public String getKeyWithHashPrefix(String keyPrefix, long key) {
+    final int keyLength = encodeKey(keyPrefix, key);
+    md5.reset();
+    if (keyBytes.length < keyLength) {
+      keyBytes = new byte[keyChars.length];
+    }
+    boolean ascii = true;
+    for (int i = 0; i < keyLength && ascii; i++) {
+      char c = keyChars[i];
+      ascii = c < 0x80;
+      keyBytes[i] = (byte) c;
+    }
+    if (ascii) {
+      md5.update(keyBytes, 0, keyLength);
+    } else {
+      // Not an ASCII key, fall back to the platform encoding to keep the hash unchanged.
+      md5.update(new String(keyChars, 0, keyLength).getBytes());
+    }
+    try {
+      md5.digest(digest, 0, digest.length);
+    } catch (DigestException e) {
+      throw new IllegalStateException("Cannot compute the MD5 digest", e);
+    }
+    final int size = digest.length * 2 + 1 + keyLength;
+    if (hashPrefixedKey.length < size) {
+      hashPrefixedKey = new char[size];
+    }
+    int pos = 0;
+    for (byte b : digest) {
+      hashPrefixedKey[pos++] = (char) HEX_DIGITS[(b >> 4) & 0xF];
+      hashPrefixedKey[pos++] = (char) HEX_DIGITS[b & 0xF];
+    }
+    hashPrefixedKey[pos++] = ':';
+    System.arraycopy(keyChars, 0, hashPrefixedKey, pos, keyLength);
+    return new String(hashPrefixedKey, 0, size);
+  }
+
+  /**
+   * Writes "$prefix:$key" into the key scratch buffer.
+   * @return number of valid chars in the buffer.
+   */
+  private int encodeKey(String keyPrefix, long key) {
+    final int prefixLength = keyPrefix.length();
+    final int size = prefixLength + 1 + asciiSize(key);
+    if (keyChars.length < size) {
+      keyChars = new char[size];
+    }
+    keyPrefix.getChars(0, prefixLength, keyChars, 0);
+    keyChars[prefixLength] = ':';
+    // Same digit loop as encodeAscii, written to chars.
+    int pos = size;
+    long remainder = key < 0 ? key : -key;
+    do {
+      keyChars[--pos] = (char) ('0' - (remainder % 10));
+      remainder /= 10;
+    } while (remainder != 0);
+    if (key < 0) {
+      keyChars[--pos] = '-';
+    }
+    return size;
+  }
+
+  /**
+   * Writes the decimal representation of the value into the buffer.
+   * @return number of bytes written.
+   */
+  public static int encodeAscii(long value, byte[] out, int offset) {
+    int size = asciiSize(value);
+    int pos = offset + size;
+    // Work with the negative remainder, so that Long.MIN_VALUE does not overflow.
+    long remainder = value < 0 ? value : -value;
+    do {
+      out[--pos] = (byte) ('0' - (remainder % 10));
+      remainder /= 10;
+    } while (remainder != 0);
+    if (value < 0) {
+      out[--pos] = '-';
+    }
+    return size;
+  }
+
+  /**
+   * @return the number of bytes needed for the decimal representation of the value.
+   */
+  public static int asciiSize(long value) {
+    int size = value < 0 ? 2 : 1;
+    long remainder = value < 0 ? value : -value;
+    while (remainder <= -10) {
+      remainder /= 10;
+      size++;
+    }
+    return size;
+  }
+
+  /**
+   * Writes the lowest numDigits hex digits of the value, zero-padded, into the buffer.
+   */
+  public static void encodeHex(long value, byte[] out, int offset, int numDigits) {
+    for (int pos = offset + numDigits - 1; pos >= offset; pos--) {
+      out[pos] = HEX_DIGITS[(int) (value & 0xF)];
+      value >>>= 4;
+    }
+  }
+
+  /**
+   * Parses numDigits hex digits from the buffer.
+   * @return the parsed value.
+   * @throws NumberFormatException if the buffer contains a non-hex character.
+   */
+  public static long decodeHex(byte[] in, int offset, int numDigits) {
+    long value = 0;
+    for (int pos = offset; pos < offset + numDigits; pos++) {
+      int digit = Character.digit(in[pos], 16);
+      if (digit < 0) {
+        throw new NumberFormatException("Invalid hex digit '" + (char) in[pos] +
+                                        "' at offset " + pos);
+      }
+      value = (value << 4) | digit;
+    }
+    return value;
+  }
+}
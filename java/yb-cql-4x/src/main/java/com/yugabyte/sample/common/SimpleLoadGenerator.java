@@ -13,14 +13,14 @@
 
 package com.yugabyte.sample.common;
 
-import java.security.MessageDigest;
+import java.util.AbstractMap;
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Random;
 import java.util.Set;
-import java.util.concurrent.ThreadLocalRandom;
+import java.util.UUID;
 import java.util.concurrent.atomic.AtomicLong;
 
-import org.apache.commons.codec.binary.Hex;
 import org.apache.log4j.Logger;
 
 public class SimpleLoadGenerator {
@@ -28,34 +28,29 @@ public class SimpleLoadGenerator {
 
   public static class Key {
     // The underlying key is an integer.
-    Long key;
+    long key;
     // The randomized loadtester prefix.
-    String keyPrefix = (CmdLineOpts.loadTesterUUID != null)
-                           ? CmdLineOpts.loadTesterUUID.toString()
-                           : "key";
+    String keyPrefix;
 
     public Key(long key, String keyPrefix) {
-      this.key = new Long(key);
-      if (keyPrefix != null) {
-        this.keyPrefix = keyPrefix;
-      }
+      this.key = key;
+      this.keyPrefix = (keyPrefix != null) ? keyPrefix : getDefaultKeyPrefix();
     }
 
     public long asNumber() {
       return key;
     }
 
-    public String asString() { return keyPrefix + ":" + key.toString(); }
+    public String asString() {
+      return KeyValueEncoder.forCurrentThread().getKey(keyPrefix, key);
+    }
 
     public String getKeyWithHashPrefix() throws Exception {
-      String k = asString();
-      MessageDigest md = MessageDigest.getInstance("MD5");
-      md.update(k.getBytes());
-      return Hex.encodeHexString(md.digest()) + ":" + k;
+      return KeyValueEncoder.forCurrentThread().getKeyWithHashPrefix(keyPrefix, key);
     }
 
     public String getValueStr() {
-      return ("val:" + key.toString());
+      return ("val:" + key);
     }
 
     public String getValueStr(int idx, int size) {
@@ -63,7 +58,7 @@ public class SimpleLoadGenerator {
       sb.append("val");
       sb.append(idx);
       sb.append(":");
-      sb.append(key.toString());
+      sb.append(key);
       for (int i = sb.length(); i < size; ++i) {
         sb.append("_");
       }
@@ -72,7 +67,7 @@ public class SimpleLoadGenerator {
 
     public void verify(String value) {
       if (value == null || !value.equals(getValueStr())) {
-        LOG.fatal("Value mismatch for key: " + key.toString() +
+        LOG.fatal("Value mismatch for key: " + key +
                   ", expected: " + getValueStr() +
                   ", got: " + value);
       }
@@ -84,6 +79,22 @@ public class SimpleLoadGenerator {
     }
   }
 
+  // Cached default key prefix, so that keys do not render the load tester UUID on every creation.
+  private static volatile Map.Entry<UUID, String> defaultKeyPrefix;
+
+  private static String getDefaultKeyPrefix() {
+    UUID uuid = CmdLineOpts.loadTesterUUID;
+    if (uuid == null) {
+      return "key";
+    }
+    Map.Entry<UUID, String> cached = defaultKeyPrefix;
+    if (cached == null || !uuid.equals(cached.getKey())) {
+      cached = new AbstractMap.SimpleImmutableEntry<>(uuid, uuid.toString());
+      defaultKeyPrefix = cached;
+    }
+    return cached.getValue();
+  }
+
   // The key to start from.
   final long startKey;
   // The key to write till.
@@ -102,11 +113,15 @@ public class SimpleLoadGenerator {
   String keyPrefix;
   // Random number generator.
   Random random = new Random();
+  // Distribution used to pick the existing keys to read and update.
+  volatile KeyDistribution keyDistribution = KeyDistribution.uniform();
 
   public SimpleLoadGenerator(long startKey, final long endKey,
                              long maxWrittenKey) {
     this.startKey = startKey;
     this.endKey = endKey;
+    // Keys below startKey belong to other load testers, treat them as already written.
+    maxWrittenKey = Math.max(maxWrittenKey, startKey - 1);
     this.maxWrittenKey = new AtomicLong(maxWrittenKey);
     this.maxGeneratedKey = new AtomicLong(maxWrittenKey);
     failedKeys = new HashSet<Long>();
@@ -145,6 +160,10 @@ public class SimpleLoadGenerator {
     keyPrefix = prefix;
   }
 
+  public void setKeyDistribution(KeyDistribution keyDistribution) {
+    this.keyDistribution = keyDistribution;
+  }
+
   public void recordWriteSuccess(Key key) {
     if (key.asNumber() > maxWrittenKey.get()) {
       synchronized (writtenKeysTracker) {
@@ -169,8 +188,8 @@ public class SimpleLoadGenerator {
     do {
       long maxKey = maxWrittenKey.get();
       // Return a random key to update if we have already written all keys.
-      if (maxKey != -1 && maxKey == endKey - 1) {
-        retKey = generateKey(ThreadLocalRandom.current().nextLong(maxKey));
+      if (maxKey >= startKey && maxKey == endKey - 1) {
+        retKey = generateKey(startKey + keyDistribution.nextKey(maxKey - startKey));
       } else {
         retKey = generateKey(maxGeneratedKey.incrementAndGet());
       }
@@ -187,18 +206,41 @@ public class SimpleLoadGenerator {
 
   public Key getKeyToRead() {
     long maxKey = maxWrittenKey.get();
-    if (maxKey < 0) {
+    if (maxKey < startKey) {
       return null;
-    } else if (maxKey == 0) {
-      return generateKey(0);
+    } else if (maxKey == startKey) {
+      return generateKey(startKey);
     }
     do {
-      long key = ThreadLocalRandom.current().nextLong(maxKey);
+      long key = startKey + keyDistribution.nextKey(maxKey - startKey);
       if (!failedKeys.contains(key))
         return generateKey(key);
     } while (true);
   }
 
+  /**
+   * Returns a key that has not been written yet, to insert.
+   * @return the key, or null if all the keys have been handed out.
+   */
+  public Key getKeyToInsert() {
+    long key;
+    do {
+      key = maxGeneratedKey.get();
+      if (key >= endKey - 1) {
+        return null;
+      }
+    } while (!maxGeneratedKey.compareAndSet(key, key + 1));
+    return generateKey(key + 1);
+  }
+
+  /**
+   * Returns an already written key to update, picked using the key distribution.
+   * @return the key, or null if no key has been written yet.
+   */
+  public Key getKeyToUpdate() {
+    return getKeyToRead();
+  }
+
   public long getMaxWrittenKey() {
     return maxWrittenKey.get();
   }
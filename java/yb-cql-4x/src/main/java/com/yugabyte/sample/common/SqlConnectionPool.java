@@ -0,0 +1,175 @@
+// Copyright (c) YugaByte, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+// in compliance with the License.  You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software distributed under the License
+// is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+// or implied.  See the License for the specific language governing permissions and limitations
+// under the License.
+//
+
+package com.yugabyte.sample.common;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.log4j.Logger;
+
+/**
+ * A bounded pool of JDBC connections shared by the IO threads of a SQL app. Each pooled
+ * connection caches its prepared statements, so that a statement is parsed and planned once per
+ * connection instead of once per operation.
+ */
+public class SqlConnectionPool implements AutoCloseable {
+  private static final Logger LOG = Logger.getLogger(SqlConnectionPool.class);
+
+  /**
+   * Creates new connections for the pool.
+   */
+  public static interface ConnectionFactory {
+    Connection create() throws Exception;
+  }
+
+  /**
+   * A pooled connection along with its prepared statement cache.
+   */
+  public static class PooledConnection {
+    private final Connection connection;
+    private final Map<String, PreparedStatement> statements;
+
+    PooledConnection(Connection connection, final int statementCacheSize) {
+      this.connection = connection;
+      this.statements = new LinkedHashMap<String, PreparedStatement>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, PreparedStatement> eldest) {
+          if (size() <= statementCacheSize) {
+            return false;
+          }
+          closeQuietly(eldest.getValue());
+          return true;
+        }
+      };
+    }
+
+    public Connection getConnection() {
+      return connection;
+    }
+
+    /**
+     * Returns the cached prepared statement for the query, preparing it on first use.
+     */
+    public PreparedStatement prepare(String sql) throws SQLException {
+      PreparedStatement statement = statements.get(sql);
+      if (statement == null) {
+        statement = connection.prepareStatement(sql);
+        statements.put(sql, statement);
+      }
+      return statement;
+    }
+
+    void close() {
+      for (PreparedStatement statement : statements.values()) {
+        closeQuietly(statement);
+      }
+      statements.clear();
+      try {
+        connection.close();
+      } catch (SQLException e) {
+        LOG.debug("Failed to close connection", e);
+      }
+    }
+
+    private static void closeQuietly(PreparedStatement statement) {
+      try {
+        statement.close();
+      } catch (SQLException e) {
+        LOG.debug("Failed to close prepared statement", e);
+      }
+    }
+  }
+
+  private final ConnectionFactory factory;
+  private final int maxSize;
+  private final int statementCacheSize;
+  private final LinkedBlockingQueue<PooledConnection> idle = new LinkedBlockingQueue<>();
+  private final AtomicInteger numConnections = new AtomicInteger(0);
+  private volatile boolean closed = false;
+
+  public SqlConnectionPool(ConnectionFactory factory, int maxSize, int statementCacheSize) {
+    if (maxSize < 1) {
+      throw new IllegalArgumentException("Connection pool size should be positive: " + maxSize);
+    }
+    this.factory = factory;
+    this.maxSize = maxSize;
+    this.statementCacheSize = statementCacheSize;
+  }
+
+  /**
+   * Returns an idle connection, creating a new one if the pool is not full yet, otherwise waits
+   * for a connection to be released.
+   */
+  public PooledConnection acquire() throws Exception {
+    while (true) {
+      if (closed) {
+        throw new IllegalStateException("Connection pool is closed");
+      }
+      PooledConnection connection = idle.poll();
+      if (connection != null) {
+        return connection;
+      }
+      int current = numConnections.get();
+      if (current < maxSize) {
+        if (numConnections.compareAndSet(current, current + 1)) {
+          try {
+            return new PooledConnection(factory.create(), statementCacheSize);
+          } catch (Exception e) {
+            numConnections.decrementAndGet();
+            throw e;
+          }
+        }
+        continue;
+      }
+      connection = idle.poll(100, TimeUnit.MILLISECONDS);
+      if (connection != null) {
+        return connection;
+      }
+    }
+  }
+
+  /**
+   * Returns the connection to the pool.
+   * @param connection the connection acquired from this pool.
+   * @param broken true if the connection hit an error and should not be reused.
+   */
+  public void release(PooledConnection connection, boolean broken) {
+    if (broken || closed) {
+      connection.close();
+      numConnections.decrementAndGet();
+      return;
+    }
+    idle.offer(connection);
+  }
+
+  public int getNumConnections() {
+    return numConnections.get();
+  }
+
+  @Override
+  public void close() {
+    closed = true;
+    PooledConnection connection;
+    while ((connection = idle.poll()) != null) {
+      connection.close();
+      numConnections.decrementAndGet();
+    }
+  }
+}
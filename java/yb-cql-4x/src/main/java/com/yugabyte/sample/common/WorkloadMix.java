@@ -0,0 +1,156 @@
+// Copyright (c) YugaByte, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+// in compliance with the License.  You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software distributed under the License
+// is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+// or implied.  See the License for the specific language governing permissions and limitations
+// under the License.
+//
+
+package com.yugabyte.sample.common;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Declarative mix of operations performed by the IO threads of type
+ * {@link IOPSThread.IOType#Mixed}. Each thread picks the next operation at random according to
+ * the weights, similar to the YCSB core workloads. The mix is specified on the command line as
+ * comma separated op=weight pairs, e.g. "read=50,update=45,scan=5".
+ */
+public class WorkloadMix {
+
+  /**
+   * The operation types supported in a mix. Read and Scan count as reads, the rest as writes.
+   */
+  public static enum OpType {
+    Read,
+    Update,
+    Insert,
+    Scan,
+    ReadModifyWrite;
+
+    public boolean isRead() {
+      return this == Read || this == Scan;
+    }
+  }
+
+  // Cumulative weights of the ops with non-zero weight, in the order of opTypes.
+  private final OpType[] opTypes;
+  private final long[] cumulativeWeights;
+  private final Map<OpType, Integer> weights;
+  // The number of rows to read in a scan, picked uniformly from [minScanLength, maxScanLength].
+  private final int minScanLength;
+  private final int maxScanLength;
+
+  public WorkloadMix(Map<OpType, Integer> weights, int minScanLength, int maxScanLength) {
+    if (minScanLength < 1 || maxScanLength < minScanLength) {
+      throw new IllegalArgumentException("Invalid scan length range [" + minScanLength + ", " +
+                                         maxScanLength + "]");
+    }
+    List<OpType> ops = new ArrayList<>();
+    List<Long> cumulative = new ArrayList<>();
+    long total = 0;
+    for (OpType op : OpType.values()) {
+      Integer weight = weights.get(op);
+      if (weight == null || weight == 0) {
+        continue;
+      }
+      if (weight < 0) {
+        throw new IllegalArgumentException("Negative weight for " + op + ": " + weight);
+      }
+      total += weight;
+      ops.add(op);
+      cumulative.add(total);
+    }
+    if (total == 0) {
+      throw new IllegalArgumentException("Workload mix should have at least one operation");
+    }
+    this.opTypes = ops.toArray(new OpType[0]);
+    this.cumulativeWeights = new long[cumulative.size()];
+    for (int i = 0; i < cumulativeWeights.length; i++) {
+      cumulativeWeights[i] = cumulative.get(i);
+    }
+    this.weights = new EnumMap<>(weights);
+    this.minScanLength = minScanLength;
+    this.maxScanLength = maxScanLength;
+  }
+
+  /**
+   * Parses a mix of the form "read=50,update=45,scan=5". Op names are case insensitive, and
+   * "rmw" can be used as a short form of "readmodifywrite".
+   */
+  public static WorkloadMix parse(String mix, int minScanLength, int maxScanLength) {
+    Map<OpType, Integer> weights = new EnumMap<>(OpType.class);
+    for (String entry : mix.split(",")) {
+      String[] parts = entry.trim().split("=");
+      if (parts.length != 2) {
+        throw new IllegalArgumentException("Invalid workload mix entry '" + entry +
+                                           "', expected <op>=<weight>");
+      }
+      weights.put(parseOpType(parts[0].trim()), Integer.parseInt(parts[1].trim()));
+    }
+    return new WorkloadMix(weights, minScanLength, maxScanLength);
+  }
+
+  private static OpType parseOpType(String name) {
+    String lowerName = name.toLowerCase(Locale.ROOT);
+    if (lowerName.equals("rmw")) {
+      return OpType.ReadModifyWrite;
+    }
+    for (OpType op : OpType.values()) {
+      if (op.name().toLowerCase(Locale.ROOT).equals(lowerName)) {
+        return op;
+      }
+    }
+    throw new IllegalArgumentException("Unknown operation '" + name + "' in workload mix");
+  }
+
+  /**
+   * @return the next operation to perform.
+   */
+  public OpType nextOp() {
+    long r = ThreadLocalRandom.current().nextLong(cumulativeWeights[cumulativeWeights.length - 1]);
+    for (int i = 0; i < cumulativeWeights.length; i++) {
+      if (r < cumulativeWeights[i]) {
+        return opTypes[i];
+      }
+    }
+    return opTypes[opTypes.length - 1];
+  }
+
+  /**
+   * @return the number of rows the next scan should read.
+   */
+  public int nextScanLength() {
+    return ThreadLocalRandom.current().nextInt(minScanLength, maxScanLength + 1);
+  }
+
+  /**
+   * @return the operations with a non-zero weight.
+   */
+  public OpType[] getOpTypes() {
+    return opTypes.clone();
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder sb = new StringBuilder();
+    for (OpType op : opTypes) {
+      if (sb.length() > 0) {
+        sb.append(",");
+      }
+      sb.append(op.name().toLowerCase(Locale.ROOT)).append("=").append(weights.get(op));
+    }
+    return sb.append(" (scan length ").append(minScanLength).append("-").append(maxScanLength)
+             .append(")").toString();
+  }
+}
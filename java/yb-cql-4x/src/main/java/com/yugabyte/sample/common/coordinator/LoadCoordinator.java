@@ -0,0 +1,329 @@
+// Copyright (c) YugaByte, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+// in compliance with the License.  You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software distributed under the License
+// is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+// or implied.  See the License for the specific language governing permissions and limitations
+// under the License.
+//
+
+package com.yugabyte.sample.common.coordinator;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.cli.BasicParser;
+import org.apache.commons.cli.CommandLine;
+import org.apache.commons.cli.Options;
+import org.apache.log4j.Logger;
+
+import com.yugabyte.sample.apps.AppBase;
+import com.yugabyte.sample.common.metrics.CsvResultSink;
+import com.yugabyte.sample.common.metrics.JsonResultSink;
+import com.yugabyte.sample.common.metrics.LatencyHistogram;
+import com.yugabyte.sample.common.metrics.Metric;
+import com.yugabyte.sample.common.metrics.MetricSnapshot;
+import com.yugabyte.sample.common.metrics.ResultSink;
+
+/**
+ * Coordinates several load tester processes (workers), started with --coordinator host:port, so
+ * that they can drive a cluster larger than a single load tester JVM can. The coordinator:
+ *   - waits for the expected number of workers to connect,
+ *   - splits the key range [startKey, endKey) evenly between them and tells all of them to start
+ *     at the same time,
+ *   - aggregates the metric snapshots streamed by the workers, including latency percentiles,
+ *     and reports them every few seconds and at the end of the run.
+ *
+ * The protocol is line based text over TCP:
+ *   worker:      HELLO <host>
+ *   coordinator: ASSIGN <worker index> <start key> <end key> <start delay ms> <uuid>
+ *   worker:      INTERVAL|SUMMARY <metric> <elapsed ns> <ops> <errors> <total ops>
+ *                  <sum latency ns> <encoded latency histogram>
+ *   worker:      DONE
+ */
+public class LoadCoordinator {
+  private static final Logger LOG = Logger.getLogger(LoadCoordinator.class);
+
+  static final String HELLO = "HELLO";
+  static final String ASSIGN = "ASSIGN";
+  static final String INTERVAL = "INTERVAL";
+  static final String SUMMARY = "SUMMARY";
+  static final String DONE = "DONE";
+
+  // The default port to listen on for workers. Not one of the YugabyteDB ports, so that the
+  // coordinator can run on a database node.
+  public static final int DEFAULT_PORT = 17500;
+
+  // The interval at which aggregated metrics are reported.
+  private static final long REPORT_INTERVAL_MS = 5000;
+
+  private final int port;
+  private final int numWorkers;
+  private final long startKey;
+  private final long endKey;
+  // Delay between the last worker connecting and the synchronized start of the workload, so that
+  // all workers receive their assignment before the start.
+  private final long startDelayMs;
+  // The key prefix shared by all the workers.
+  private final UUID uuid = UUID.randomUUID();
+
+  private ServerSocket serverSocket;
+  // Metrics aggregated over the current reporting interval, by metric name.
+  private final Map<String, Metric> intervalMetrics = new ConcurrentSkipListMap<>();
+  // Summaries of the whole run, merged over the workers, by metric name.
+  private final Map<String, MetricSnapshot> summaries = new ConcurrentSkipListMap<>();
+  private final List<ResultSink> resultSinks = new CopyOnWriteArrayList<>();
+  private long runStartNanos;
+
+  public LoadCoordinator(int port, int numWorkers, long startKey, long endKey,
+                         long startDelayMs) {
+    if (numWorkers < 1) {
+      throw new IllegalArgumentException("Need at least one worker, got " + numWorkers);
+    }
+    if (endKey - startKey < numWorkers) {
+      throw new IllegalArgumentException("Key range [" + startKey + ", " + endKey +
+                                         ") is too small for " + numWorkers + " workers");
+    }
+    this.port = port;
+    this.numWorkers = numWorkers;
+    this.startKey = startKey;
+    this.endKey = endKey;
+    this.startDelayMs = startDelayMs;
+  }
+
+  public void addResultSink(ResultSink sink) {
+    resultSinks.add(sink);
+  }
+
+  /**
+   * Binds the server socket. Called by run() if not called before.
+   * @return the port the coordinator listens on.
+   */
+  public synchronized int bind() throws IOException {
+    if (serverSocket == null) {
+      serverSocket = new ServerSocket(port);
+      LOG.info("Load coordinator listening on port " + serverSocket.getLocalPort());
+    }
+    return serverSocket.getLocalPort();
+  }
+
+  /**
+   * Splits [startKey, endKey) into numWorkers contiguous ranges.
+   * @return the [start, end) pair of each worker.
+   */
+  static long[][] splitKeyRange(long startKey, long endKey, int numWorkers) {
+    long[][] ranges = new long[numWorkers][];
+    long rangeSize = (endKey - startKey) / numWorkers;
+    for (int i = 0; i < numWorkers; i++) {
+      long rangeStart = startKey + i * rangeSize;
+      long rangeEnd = (i == numWorkers - 1) ? endKey : rangeStart + rangeSize;
+      ranges[i] = new long[] { rangeStart, rangeEnd };
+    }
+    return ranges;
+  }
+
+  /**
+   * Runs the coordinator until all the workers are done.
+   */
+  public void run() throws IOException, InterruptedException {
+    bind();
+    List<Socket> workers = new ArrayList<>();
+    List<BufferedReader> readers = new ArrayList<>();
+    try {
+      while (workers.size() < numWorkers) {
+        Socket socket = serverSocket.accept();
+        BufferedReader in = newReader(socket);
+        String hello = in.readLine();
+        if (hello == null || !hello.startsWith(HELLO)) {
+          LOG.warn("Ignoring connection from " + socket.getRemoteSocketAddress() +
+                   ", unexpected greeting: " + hello);
+          socket.close();
+          continue;
+        }
+        LOG.info("Worker " + workers.size() + " connected: " + hello.substring(HELLO.length()));
+        workers.add(socket);
+        readers.add(in);
+      }
+
+      // Assign the key ranges and start all the workers at the same time.
+      long[][] ranges = splitKeyRange(startKey, endKey, numWorkers);
+      long startAtNanos = System.nanoTime() + startDelayMs * 1000000;
+      for (int i = 0; i < numWorkers; i++) {
+        long delayMs = Math.max(0, (startAtNanos - System.nanoTime()) / 1000000);
+        PrintWriter out = newWriter(workers.get(i));
+        out.println(String.join(" ", ASSIGN, String.valueOf(i), String.valueOf(ranges[i][0]),
+                                String.valueOf(ranges[i][1]), String.valueOf(delayMs),
+                                uuid.toString()));
+        out.flush();
+        LOG.info("Worker " + i + " assigned keys [" + ranges[i][0] + ", " + ranges[i][1] + ")");
+      }
+      runStartNanos = startAtNanos;
+
+      CountDownLatch workersDone = new CountDownLatch(numWorkers);
+      for (int i = 0; i < numWorkers; i++) {
+        final BufferedReader in = readers.get(i);
+        final int workerIdx = i;
+        Thread reader = new Thread(() -> {
+          try {
+            readSnapshots(workerIdx, in);
+          } catch (IOException e) {
+            LOG.warn("Lost connection to worker " + workerIdx, e);
+          } finally {
+            workersDone.countDown();
+          }
+        }, "Worker " + i + " Reader");
+        reader.setDaemon(true);
+        reader.start();
+      }
+
+      while (!workersDone.await(REPORT_INTERVAL_MS, TimeUnit.MILLISECONDS)) {
+        reportInterval();
+      }
+      reportInterval();
+      reportSummary();
+    } finally {
+      for (Socket socket : workers) {
+        socket.close();
+      }
+      serverSocket.close();
+    }
+  }
+
+  private void readSnapshots(int workerIdx, BufferedReader in) throws IOException {
+    String line;
+    while ((line = in.readLine()) != null) {
+      if (line.equals(DONE)) {
+        LOG.info("Worker " + workerIdx + " is done");
+        return;
+      }
+      String[] parts = line.split(" ");
+      if (parts.length != 8 || !(parts[0].equals(INTERVAL) || parts[0].equals(SUMMARY))) {
+        LOG.warn("Ignoring unexpected message from worker " + workerIdx + ": " + line);
+        continue;
+      }
+      MetricSnapshot snapshot = new MetricSnapshot(parts[1], Long.parseLong(parts[2]),
+          Long.parseLong(parts[3]), Long.parseLong(parts[4]), Long.parseLong(parts[5]),
+          Long.parseLong(parts[6]), LatencyHistogram.decode(parts[7]));
+      if (parts[0].equals(INTERVAL)) {
+        intervalMetrics.computeIfAbsent(snapshot.name, Metric::new).accumulate(snapshot);
+      } else {
+        summaries.merge(snapshot.name, snapshot, LoadCoordinator::mergeSummaries);
+      }
+    }
+    LOG.warn("Worker " + workerIdx + " disconnected before sending its summary");
+  }
+
+  private static MetricSnapshot mergeSummaries(MetricSnapshot a, MetricSnapshot b) {
+    LatencyHistogram latencies = new LatencyHistogram(a.latencies);
+    latencies.add(b.latencies);
+    return new MetricSnapshot(a.name, Math.max(a.elapsedNanos, b.elapsedNanos),
+        a.numOps + b.numOps, a.numErrors + b.numErrors, a.totalOps + b.totalOps,
+        a.sumLatencyNanos + b.sumLatencyNanos, latencies);
+  }
+
+  private void reportInterval() {
+    List<MetricSnapshot> snapshots = new ArrayList<>();
+    StringBuilder sb = new StringBuilder();
+    for (Metric metric : intervalMetrics.values()) {
+      MetricSnapshot snapshot = metric.getSnapshotAndReset();
+      snapshots.add(snapshot);
+      sb.append(String.format("%s (p99 %.2f ms)  |  ", snapshot, snapshot.p99LatencyMs));
+    }
+    if (snapshots.isEmpty()) {
+      return;
+    }
+    LOG.info("All workers: " + sb);
+    long timestampMs = System.currentTimeMillis();
+    for (ResultSink sink : resultSinks) {
+      try {
+        sink.writeInterval(timestampMs, snapshots);
+      } catch (IOException e) {
+        LOG.error("Failed to write interval results", e);
+      }
+    }
+  }
+
+  private void reportSummary() {
+    // Throughput of the run is computed over the coordinator's view of the run duration.
+    long elapsedNanos = System.nanoTime() - runStartNanos;
+    List<MetricSnapshot> runSummaries = new ArrayList<>();
+    for (MetricSnapshot s : summaries.values()) {
+      MetricSnapshot summary = new MetricSnapshot(s.name, elapsedNanos, s.numOps, s.numErrors,
+                                                  s.totalOps, s.sumLatencyNanos, s.latencies);
+      runSummaries.add(summary);
+      LOG.info(String.format("Summary: %s, p50 %.2f ms, p99 %.2f ms, p99.9 %.2f ms, %d errors",
+                             summary, summary.p50LatencyMs, summary.p99LatencyMs,
+                             summary.p999LatencyMs, summary.numErrors));
+    }
+    long timestampMs = System.currentTimeMillis();
+    for (ResultSink sink : resultSinks) {
+      try {
+        sink.writeSummary(timestampMs, runSummaries);
+        sink.close();
+      } catch (IOException e) {
+        LOG.error("Failed to write the result summary", e);
+      }
+    }
+  }
+
+  static BufferedReader newReader(Socket socket) throws IOException {
+    return new BufferedReader(
+        new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+  }
+
+  static PrintWriter newWriter(Socket socket) throws IOException {
+    return new PrintWriter(new OutputStreamWriter(socket.getOutputStream(),
+                                                StandardCharsets.UTF_8));
+  }
+
+  public static void main(String[] args) throws Exception {
+    Options options = new Options();
+    options.addOption("port", true,
+                      "The port to listen on for workers (default " + DEFAULT_PORT + ").");
+    options.addOption("num_workers", true, "The number of workers to wait for.");
+    options.addOption("num_unique_keys", true,
+                      "Number of unique keys to split between the workers.");
+    options.addOption("start_delay_ms", true,
+                      "Delay before the synchronized start of the workers (default 5000).");
+    options.addOption("results_json", true, "Write the aggregated results as JSON lines.");
+    options.addOption("results_csv", true, "Write the aggregated results as CSV.");
+    CommandLine cmd = new BasicParser().parse(options, args);
+    if (!cmd.hasOption("num_workers")) {
+      LOG.error("--num_workers is required");
+      System.exit(1);
+    }
+
+    LoadCoordinator coordinator = new LoadCoordinator(
+        Integer.parseInt(cmd.getOptionValue("port", String.valueOf(DEFAULT_PORT))),
+        Integer.parseInt(cmd.getOptionValue("num_workers")),
+        0,
+        Long.parseLong(cmd.getOptionValue("num_unique_keys",
+                                          String.valueOf(AppBase.NUM_UNIQUE_KEYS))),
+        Long.parseLong(cmd.getOptionValue("start_delay_ms", "5000")));
+    if (cmd.hasOption("results_json")) {
+      coordinator.addResultSink(new JsonResultSink(cmd.getOptionValue("results_json")));
+    }
+    if (cmd.hasOption("results_csv")) {
+      coordinator.addResultSink(new CsvResultSink(cmd.getOptionValue("results_csv")));
+    }
+    coordinator.run();
+  }
+}
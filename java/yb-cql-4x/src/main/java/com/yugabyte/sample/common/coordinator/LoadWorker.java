@@ -0,0 +1,161 @@
+// Copyright (c) YugaByte, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+// in compliance with the License.  You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software distributed under the License
+// is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+// or implied.  See the License for the specific language governing permissions and limitations
+// under the License.
+//
+
+package com.yugabyte.sample.common.coordinator;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.util.List;
+import java.util.UUID;
+
+import org.apache.log4j.Logger;
+
+import com.yugabyte.sample.common.metrics.MetricSnapshot;
+import com.yugabyte.sample.common.metrics.ResultSink;
+
+/**
+ * The worker side of a coordinated load test, see {@link LoadCoordinator}. Connecting blocks
+ * until the coordinator has assigned a key range to this worker.
+ */
+public class LoadWorker implements Closeable {
+  private static final Logger LOG = Logger.getLogger(LoadWorker.class);
+
+  private final Socket socket;
+  private final PrintWriter out;
+  private final int workerIdx;
+  private final long startKey;
+  private final long endKey;
+  private final UUID uuid;
+  // The System.nanoTime() at which the workload should start.
+  private final long startAtNanos;
+
+  private LoadWorker(Socket socket, PrintWriter out, String assignment) {
+    String[] parts = assignment.split(" ");
+    if (parts.length != 6 || !parts[0].equals(LoadCoordinator.ASSIGN)) {
+      throw new IllegalStateException("Unexpected assignment from coordinator: " + assignment);
+    }
+    this.socket = socket;
+    this.out = out;
+    this.workerIdx = Integer.parseInt(parts[1]);
+    this.startKey = Long.parseLong(parts[2]);
+    this.endKey = Long.parseLong(parts[3]);
+    this.startAtNanos = System.nanoTime() + Long.parseLong(parts[4]) * 1000000;
+    this.uuid = UUID.fromString(parts[5]);
+  }
+
+  /**
+   * Connects to the coordinator and waits for the key range assignment.
+   */
+  public static LoadWorker connect(String host, int port) throws IOException {
+    LOG.info("Connecting to load coordinator at " + host + ":" + port);
+    Socket socket = new Socket(host, port);
+    try {
+      PrintWriter out = LoadCoordinator.newWriter(socket);
+      out.println(LoadCoordinator.HELLO + " " + InetAddress.getLocalHost().getHostName());
+      out.flush();
+      BufferedReader in = LoadCoordinator.newReader(socket);
+      String assignment = in.readLine();
+      if (assignment == null) {
+        throw new IOException("Coordinator closed the connection before assigning keys");
+      }
+      LoadWorker worker = new LoadWorker(socket, out, assignment);
+      LOG.info("Worker " + worker.workerIdx + " assigned keys [" + worker.startKey + ", " +
+               worker.endKey + ")");
+      return worker;
+    } catch (IOException | RuntimeException e) {
+      socket.close();
+      throw e;
+    }
+  }
+
+  public int getWorkerIdx() {
+    return workerIdx;
+  }
+
+  public long getStartKey() {
+    return startKey;
+  }
+
+  public long getEndKey() {
+    return endKey;
+  }
+
+  /**
+   * @return the key prefix shared by all the workers of the coordinator.
+   */
+  public UUID getUUID() {
+    return uuid;
+  }
+
+  /**
+   * Blocks until the synchronized start time of the workload.
+   */
+  public void awaitStart() throws InterruptedException {
+    long remainingNanos;
+    while ((remainingNanos = startAtNanos - System.nanoTime()) > 0) {
+      Thread.sleep(Math.max(1, remainingNanos / 1000000));
+    }
+  }
+
+  /**
+   * @return a sink streaming the metric snapshots of this worker to the coordinator.
+   */
+  public ResultSink getResultSink() {
+    return new ResultSink() {
+      @Override
+      public void writeInterval(long timestampMs, List<MetricSnapshot> snapshots)
+          throws IOException {
+        send(LoadCoordinator.INTERVAL, snapshots);
+      }
+
+      @Override
+      public void writeSummary(long timestampMs, List<MetricSnapshot> summaries)
+          throws IOException {
+        send(LoadCoordinator.SUMMARY, summaries);
+        synchronized (out) {
+          out.println(LoadCoordinator.DONE);
+          out.flush();
+        }
+      }
+
+      @Override
+      public void close() throws IOException {
+        LoadWorker.this.close();
+      }
+    };
+  }
+
+  private void send(String type, List<MetricSnapshot> snapshots) throws IOException {
+    synchronized (out) {
+      for (MetricSnapshot s : snapshots) {
+        out.println(String.join(" ", type, s.name, String.valueOf(s.elapsedNanos),
+                                String.valueOf(s.numOps), String.valueOf(s.numErrors),
+                                String.valueOf(s.totalOps), String.valueOf(s.sumLatencyNanos),
+                                s.latencies.encode()));
+      }
+      out.flush();
+      if (out.checkError()) {
+        throw new IOException("Failed to send metrics to the coordinator");
+      }
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    socket.close();
+  }
+}
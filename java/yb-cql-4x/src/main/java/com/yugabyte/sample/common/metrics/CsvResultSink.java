@@ -0,0 +1,72 @@
+// Copyright (c) YugaByte, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+// in compliance with the License.  You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software distributed under the License
+// is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+// or implied.  See the License for the specific language governing permissions and limitations
+// under the License.
+//
+
+package com.yugabyte.sample.common.metrics;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Writes the load tester results as CSV, one row per metric and interval. The final summary rows
+ * have the type "summary", see {@link ResultComparator} to compare the summaries of two runs.
+ */
+public class CsvResultSink implements ResultSink {
+  static final String HEADER = "timestamp_ms,type,metric,ops,errors,total_ops,ops_per_sec," +
+      "avg_latency_ms,p50_latency_ms,p95_latency_ms,p99_latency_ms,p999_latency_ms," +
+      "max_latency_ms";
+
+  private final Writer writer;
+
+  public CsvResultSink(String path) throws IOException {
+    this(Files.newBufferedWriter(Paths.get(path), StandardCharsets.UTF_8));
+  }
+
+  CsvResultSink(Writer writer) throws IOException {
+    this.writer = writer instanceof BufferedWriter ? writer : new BufferedWriter(writer);
+    this.writer.write(HEADER);
+    this.writer.write('\n');
+  }
+
+  @Override
+  public void writeInterval(long timestampMs, List<MetricSnapshot> snapshots) throws IOException {
+    writeRows(timestampMs, "interval", snapshots);
+  }
+
+  @Override
+  public void writeSummary(long timestampMs, List<MetricSnapshot> summaries) throws IOException {
+    writeRows(timestampMs, "summary", summaries);
+  }
+
+  private void writeRows(long timestampMs, String type, List<MetricSnapshot> snapshots)
+      throws IOException {
+    for (MetricSnapshot s : snapshots) {
+      writer.write(String.format(Locale.ROOT,
+          "%d,%s,%s,%d,%d,%d,%.2f,%.3f,%.3f,%.3f,%.3f,%.3f,%.3f\n",
+          timestampMs, type, s.name, s.numOps, s.numErrors, s.totalOps, s.opsPerSec,
+          s.avgLatencyMs, s.p50LatencyMs, s.p95LatencyMs, s.p99LatencyMs, s.p999LatencyMs,
+          s.maxLatencyMs));
+    }
+    writer.flush();
+  }
+
+  @Override
+  public void close() throws IOException {
+    writer.close();
+  }
+}
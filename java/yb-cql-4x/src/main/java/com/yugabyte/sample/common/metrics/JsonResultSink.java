@@ -0,0 +1,93 @@
+// Copyright (c) YugaByte, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+// in compliance with the License.  You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software distributed under the License
+// is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+// or implied.  See the License for the specific language governing permissions and limitations
+// under the License.
+//
+
+package com.yugabyte.sample.common.metrics;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Writes the load tester results as JSON lines: one object per interval, followed by a final
+ * object with "type": "summary". For example:
+ *   {"type":"interval","timestamp_ms":1600000000000,"metrics":[{"name":"Read","ops":1000,...}]}
+ */
+public class JsonResultSink implements ResultSink {
+  private final Writer writer;
+
+  public JsonResultSink(String path) throws IOException {
+    this(Files.newBufferedWriter(Paths.get(path), StandardCharsets.UTF_8));
+  }
+
+  JsonResultSink(Writer writer) {
+    this.writer = writer instanceof BufferedWriter ? writer : new BufferedWriter(writer);
+  }
+
+  @Override
+  public void writeInterval(long timestampMs, List<MetricSnapshot> snapshots) throws IOException {
+    writeLine(timestampMs, "interval", snapshots);
+  }
+
+  @Override
+  public void writeSummary(long timestampMs, List<MetricSnapshot> summaries) throws IOException {
+    writeLine(timestampMs, "summary", summaries);
+  }
+
+  private void writeLine(long timestampMs, String type, List<MetricSnapshot> snapshots)
+      throws IOException {
+    StringBuilder sb = new StringBuilder();
+    sb.append("{\"type\":\"").append(type).append("\",\"timestamp_ms\":").append(timestampMs)
+      .append(",\"metrics\":[");
+    for (int i = 0; i < snapshots.size(); i++) {
+      MetricSnapshot s = snapshots.get(i);
+      if (i > 0) {
+        sb.append(',');
+      }
+      sb.append("{\"name\":\"").append(s.name).append('"');
+      appendField(sb, "elapsed_ms", s.elapsedNanos / 1000000);
+      appendField(sb, "ops", s.numOps);
+      appendField(sb, "errors", s.numErrors);
+      appendField(sb, "total_ops", s.totalOps);
+      appendField(sb, "ops_per_sec", s.opsPerSec);
+      appendField(sb, "avg_latency_ms", s.avgLatencyMs);
+      appendField(sb, "p50_latency_ms", s.p50LatencyMs);
+      appendField(sb, "p95_latency_ms", s.p95LatencyMs);
+      appendField(sb, "p99_latency_ms", s.p99LatencyMs);
+      appendField(sb, "p999_latency_ms", s.p999LatencyMs);
+      appendField(sb, "max_latency_ms", s.maxLatencyMs);
+      sb.append('}');
+    }
+    sb.append("]}\n");
+    writer.write(sb.toString());
+    writer.flush();
+  }
+
+  private static void appendField(StringBuilder sb, String name, long value) {
+    sb.append(",\"").append(name).append("\":").append(value);
+  }
+
+  private static void appendField(StringBuilder sb, String name, double value) {
+    sb.append(",\"").append(name).append("\":")
+      .append(String.format(Locale.ROOT, "%.3f", value));
+  }
+
+  @Override
+  public void close() throws IOException {
+    writer.close();
+  }
+}
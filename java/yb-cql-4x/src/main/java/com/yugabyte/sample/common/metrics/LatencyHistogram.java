@@ -0,0 +1,154 @@
+// Copyright (c) YugaByte, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+// in compliance with the License.  You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software distributed under the License
+// is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+// or implied.  See the License for the specific language governing permissions and limitations
+// under the License.
+//
+
+package com.yugabyte.sample.common.metrics;
+
+import java.util.Arrays;
+
+/**
+ * Log-linear histogram of latencies in microseconds. Every power of two range is split into
+ * SUB_BUCKETS linear buckets, so percentiles are accurate to within ~6% of the value. Not
+ * thread-safe, callers are expected to synchronize.
+ */
+public class LatencyHistogram {
+  private static final int SUB_BUCKET_BITS = 4;
+  private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+  // Enough buckets for any positive long value.
+  private static final int NUM_BUCKETS = (Long.SIZE - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+
+  private final long[] counts = new long[NUM_BUCKETS];
+  private long totalCount = 0;
+  private long maxValue = 0;
+
+  public LatencyHistogram() {
+  }
+
+  public LatencyHistogram(LatencyHistogram other) {
+    add(other);
+  }
+
+  public void record(long valueMicros, long count) {
+    if (count <= 0) {
+      return;
+    }
+    long value = Math.max(0, valueMicros);
+    counts[bucketIndex(value)] += count;
+    totalCount += count;
+    maxValue = Math.max(maxValue, value);
+  }
+
+  public void add(LatencyHistogram other) {
+    for (int i = 0; i < NUM_BUCKETS; i++) {
+      counts[i] += other.counts[i];
+    }
+    totalCount += other.totalCount;
+    maxValue = Math.max(maxValue, other.maxValue);
+  }
+
+  public void reset() {
+    Arrays.fill(counts, 0);
+    totalCount = 0;
+    maxValue = 0;
+  }
+
+  public long getTotalCount() {
+    return totalCount;
+  }
+
+  public long getMaxValue() {
+    return maxValue;
+  }
+
+  /**
+   * Returns the value at the given percentile.
+   * @param percentile the percentile, in the range [0, 100].
+   * @return the upper bound of the bucket holding the percentile, in microseconds.
+   */
+  public long getValueAtPercentile(double percentile) {
+    if (totalCount == 0) {
+      return 0;
+    }
+    long rank = (long) Math.ceil(percentile / 100.0 * totalCount);
+    rank = Math.min(Math.max(rank, 1), totalCount);
+    long seen = 0;
+    for (int i = 0; i < NUM_BUCKETS; i++) {
+      seen += counts[i];
+      if (seen >= rank) {
+        return Math.min(bucketUpperBound(i), maxValue);
+      }
+    }
+    return maxValue;
+  }
+
+  /**
+   * Encodes the histogram as "max;index:count,index:count,..." listing the non-empty buckets.
+   */
+  public String encode() {
+    StringBuilder sb = new StringBuilder();
+    sb.append(maxValue).append(';');
+    boolean first = true;
+    for (int i = 0; i < NUM_BUCKETS; i++) {
+      if (counts[i] != 0) {
+        if (!first) {
+          sb.append(',');
+        }
+        sb.append(i).append(':').append(counts[i]);
+        first = false;
+      }
+    }
+    return sb.toString();
+  }
+
+  /**
+   * Decodes a histogram encoded by encode().
+   */
+  public static LatencyHistogram decode(String encoded) {
+    LatencyHistogram histogram = new LatencyHistogram();
+    int separator = encoded.indexOf(';');
+    if (separator < 0) {
+      throw new IllegalArgumentException("Invalid encoded histogram: " + encoded);
+    }
+    histogram.maxValue = Long.parseLong(encoded.substring(0, separator));
+    String buckets = encoded.substring(separator + 1);
+    if (buckets.isEmpty()) {
+      return histogram;
+    }
+    for (String bucket : buckets.split(",")) {
+      int colon = bucket.indexOf(':');
+      int index = Integer.parseInt(bucket.substring(0, colon));
+      long count = Long.parseLong(bucket.substring(colon + 1));
+      histogram.counts[index] += count;
+      histogram.totalCount += count;
+    }
+    return histogram;
+  }
+
+  static int bucketIndex(long value) {
+    if (value < SUB_BUCKETS) {
+      return (int) value;
+    }
+    int exponent = (Long.SIZE - 1) - Long.numberOfLeadingZeros(value);
+    int subBucket = (int) ((value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1));
+    return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+  }
+
+  static long bucketUpperBound(int index) {
+    if (index < SUB_BUCKETS) {
+      return index;
+    }
+    int exponent = index / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+    long subBucket = index % SUB_BUCKETS;
+    long lowerBound = (1L << exponent) + (subBucket << (exponent - SUB_BUCKET_BITS));
+    return lowerBound + (1L << (exponent - SUB_BUCKET_BITS)) - 1;
+  }
+}
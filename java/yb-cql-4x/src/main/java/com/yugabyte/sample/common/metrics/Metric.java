@@ -21,12 +21,23 @@ public class Metric {
   private final Object lock = new Object();
   private long curOpCount = 0;
   private long curOpLatencyNanos = 0;
+  private long curErrorCount = 0;
+  private final LatencyHistogram curLatencies = new LatencyHistogram();
   private long totalOpCount = 0;
+  private long totalOpLatencyNanos = 0;
+  private long totalErrorCount = 0;
+  private final LatencyHistogram totalLatencies = new LatencyHistogram();
+  private final long startNanos;
   private long lastSnapshotNanos;
 
   public Metric(String name) {
     this.name = name;
-    lastSnapshotNanos = System.nanoTime();
+    startNanos = System.nanoTime();
+    lastSnapshotNanos = startNanos;
+  }
+
+  public String getName() {
+    return name;
   }
 
   /**
@@ -38,25 +49,70 @@ public class Metric {
     synchronized(lock) {
       curOpCount += numOps;
       curOpLatencyNanos += batchLatencyNanos * numOps;
+      curLatencies.record(batchLatencyNanos / 1000, numOps);
       totalOpCount += numOps;
     }
   }
 
-  public String getMetricsAndReset() {
-    String msg = null;
+  /**
+   * Accumulate the operations of a snapshot taken by another load tester.
+   * @param snapshot the snapshot to add to the current interval.
+   */
+  public void accumulate(MetricSnapshot snapshot) {
+    synchronized(lock) {
+      curOpCount += snapshot.numOps;
+      curOpLatencyNanos += snapshot.sumLatencyNanos;
+      curErrorCount += snapshot.numErrors;
+      curLatencies.add(snapshot.latencies);
+      totalOpCount += snapshot.numOps;
+    }
+  }
+
+  /**
+   * Records a failed operation.
+   */
+  public void recordError() {
+    synchronized(lock) {
+      curErrorCount++;
+    }
+  }
+
+  /**
+   * Returns the statistics since the last snapshot and starts a new interval.
+   */
+  public MetricSnapshot getSnapshotAndReset() {
     synchronized(lock) {
       long currNanos = System.nanoTime();
       long elapsedNanos = currNanos - lastSnapshotNanos;
       LOG.debug("currentOpLatency: " + curOpLatencyNanos + ", currentOpCount: " + curOpCount);
-      double ops_per_sec =
-          (elapsedNanos == 0) ? 0 : (curOpCount * 1000000000 * 1.0 / elapsedNanos);
-      double latency = (curOpCount == 0) ? 0 : (curOpLatencyNanos / 1000000 * 1.0 / curOpCount);
-      msg = String.format("%s: %.2f ops/sec (%.2f ms/op), %d total ops",
-                          name, ops_per_sec, latency, totalOpCount);
+      MetricSnapshot snapshot = new MetricSnapshot(name, elapsedNanos, curOpCount,
+          curErrorCount, totalOpCount, curOpLatencyNanos, curLatencies);
+      totalOpLatencyNanos += curOpLatencyNanos;
+      totalErrorCount += curErrorCount;
+      totalLatencies.add(curLatencies);
       curOpCount = 0;
       curOpLatencyNanos = 0;
+      curErrorCount = 0;
+      curLatencies.reset();
       lastSnapshotNanos = currNanos;
+      return snapshot;
     }
-    return msg;
+  }
+
+  /**
+   * Returns the statistics of the whole run, including the current interval.
+   */
+  public MetricSnapshot getSummary() {
+    synchronized(lock) {
+      LatencyHistogram latencies = new LatencyHistogram(totalLatencies);
+      latencies.add(curLatencies);
+      return new MetricSnapshot(name, System.nanoTime() - startNanos, totalOpCount,
+          totalErrorCount + curErrorCount, totalOpCount,
+          totalOpLatencyNanos + curOpLatencyNanos, latencies);
+    }
+  }
+
+  public String getMetricsAndReset() {
+    return getSnapshotAndReset().toString();
   }
 }
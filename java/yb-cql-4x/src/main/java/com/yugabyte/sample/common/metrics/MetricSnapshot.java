@@ -0,0 +1,61 @@
+// Copyright (c) YugaByte, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+// in compliance with the License.  You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software distributed under the License
+// is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+// or implied.  See the License for the specific language governing permissions and limitations
+// under the License.
+//
+
+package com.yugabyte.sample.common.metrics;
+
+/**
+ * Immutable statistics of one metric over a time interval (or over the whole run for summaries).
+ * Latencies are in milliseconds.
+ */
+public class MetricSnapshot {
+  public final String name;
+  public final long elapsedNanos;
+  public final long numOps;
+  public final long numErrors;
+  public final long totalOps;
+  public final double opsPerSec;
+  public final double avgLatencyMs;
+  public final double p50LatencyMs;
+  public final double p95LatencyMs;
+  public final double p99LatencyMs;
+  public final double p999LatencyMs;
+  public final double maxLatencyMs;
+  // The raw latencies, used to aggregate snapshots of several load testers.
+  public final long sumLatencyNanos;
+  public final LatencyHistogram latencies;
+
+  public MetricSnapshot(String name, long elapsedNanos, long numOps, long numErrors,
+                        long totalOps, long sumLatencyNanos, LatencyHistogram histogram) {
+    this.name = name;
+    this.elapsedNanos = elapsedNanos;
+    this.numOps = numOps;
+    this.numErrors = numErrors;
+    this.totalOps = totalOps;
+    // In double, numOps * 10^9 overflows a long after a few billion ops.
+    this.opsPerSec = (elapsedNanos == 0) ? 0 : (numOps * 1e9 / elapsedNanos);
+    this.avgLatencyMs = (numOps == 0) ? 0 : (sumLatencyNanos / 1000000.0 / numOps);
+    this.p50LatencyMs = histogram.getValueAtPercentile(50) / 1000.0;
+    this.p95LatencyMs = histogram.getValueAtPercentile(95) / 1000.0;
+    this.p99LatencyMs = histogram.getValueAtPercentile(99) / 1000.0;
+    this.p999LatencyMs = histogram.getValueAtPercentile(99.9) / 1000.0;
+    this.maxLatencyMs = histogram.getMaxValue() / 1000.0;
+    this.sumLatencyNanos = sumLatencyNanos;
+    this.latencies = new LatencyHistogram(histogram);
+  }
+
+  @Override
+  public String toString() {
+    return String.format("%s: %.2f ops/sec (%.2f ms/op), %d total ops",
+                         name, opsPerSec, avgLatencyMs, totalOps);
+  }
+}
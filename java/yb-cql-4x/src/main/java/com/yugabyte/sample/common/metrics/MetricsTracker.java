@@ -13,8 +13,12 @@
 
 package com.yugabyte.sample.common.metrics;
 
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import org.apache.log4j.Logger;
 
@@ -31,6 +35,11 @@ public class MetricsTracker extends Thread {
   public static enum MetricName {
     Read,
     Write,
+    // The following are only tracked when running a workload mix.
+    Update,
+    Insert,
+    Scan,
+    ReadModifyWrite,
   }
   // Map to store all the metrics objects.
   Map<MetricName, Metric> metrics = new ConcurrentHashMap<MetricName, Metric>();
@@ -45,10 +54,65 @@ public class MetricsTracker extends Thread {
   Map<String, StatusMessageAppender> appenders =
       new ConcurrentHashMap<String, StatusMessageAppender>();
 
+  // Sinks exporting the results of each interval and of the whole run.
+  List<ResultSink> resultSinks = new CopyOnWriteArrayList<ResultSink>();
+  // Set once the summary has been written to the result sinks.
+  boolean summaryWritten = false;
+
   public MetricsTracker() {
     this.setDaemon(true);
   }
 
+  /**
+   * Adds a sink that receives the statistics of every interval. The summary of the whole run is
+   * written to the sinks by writeSummary(), or when the JVM exits.
+   */
+  public void addResultSink(ResultSink sink) {
+    synchronized (initLock) {
+      if (resultSinks.isEmpty()) {
+        Runtime.getRuntime().addShutdownHook(new Thread(this::writeSummary, "Result Summary"));
+      }
+      resultSinks.add(sink);
+    }
+  }
+
+  /**
+   * Writes the last, partial, interval and the summary of the run to the result sinks and closes
+   * them. Only the first call has an effect.
+   */
+  public void writeSummary() {
+    synchronized (initLock) {
+      if (summaryWritten) {
+        return;
+      }
+      List<MetricSnapshot> snapshots = new ArrayList<>();
+      for (MetricName metricName : MetricName.values()) {
+        Metric metric = metrics.get(metricName);
+        if (metric != null) {
+          snapshots.add(metric.getSnapshotAndReset());
+        }
+      }
+      writeInterval(snapshots);
+      summaryWritten = true;
+      List<MetricSnapshot> summaries = new ArrayList<>();
+      for (MetricName metricName : MetricName.values()) {
+        Metric metric = metrics.get(metricName);
+        if (metric != null) {
+          summaries.add(metric.getSummary());
+        }
+      }
+      long timestampMs = System.currentTimeMillis();
+      for (ResultSink sink : resultSinks) {
+        try {
+          sink.writeSummary(timestampMs, summaries);
+          sink.close();
+        } catch (IOException e) {
+          LOG.error("Failed to write the result summary", e);
+        }
+      }
+    }
+  }
+
   public void registerStatusMessageAppender(StatusMessageAppender appender) {
     appenders.put(appender.appenderName(), appender);
   }
@@ -66,8 +130,31 @@ public class MetricsTracker extends Thread {
   }
 
   public void getMetricsAndReset(StringBuilder sb) {
+    List<MetricSnapshot> snapshots = new ArrayList<>();
     for (MetricName metricName : MetricName.values()) {
-      sb.append(String.format("%s  |  ", metrics.get(metricName).getMetricsAndReset()));
+      Metric metric = metrics.get(metricName);
+      if (metric != null) {
+        MetricSnapshot snapshot = metric.getSnapshotAndReset();
+        snapshots.add(snapshot);
+        sb.append(String.format("%s  |  ", snapshot));
+      }
+    }
+    writeInterval(snapshots);
+  }
+
+  private void writeInterval(List<MetricSnapshot> snapshots) {
+    long timestampMs = System.currentTimeMillis();
+    synchronized (initLock) {
+      if (summaryWritten) {
+        return;
+      }
+      for (ResultSink sink : resultSinks) {
+        try {
+          sink.writeInterval(timestampMs, snapshots);
+        } catch (IOException e) {
+          LOG.error("Failed to write interval results", e);
+        }
+      }
     }
   }
 
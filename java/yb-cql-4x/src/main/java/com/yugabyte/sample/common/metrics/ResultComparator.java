@@ -0,0 +1,110 @@
+// Copyright (c) YugaByte, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+// in compliance with the License.  You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software distributed under the License
+// is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+// or implied.  See the License for the specific language governing permissions and limitations
+// under the License.
+//
+
+package com.yugabyte.sample.common.metrics;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compares the summaries of two CSV result files written by {@link CsvResultSink}, e.g. a
+ * nightly run against a baseline. A metric regresses if its throughput drops, or its p99 latency
+ * grows, by more than the threshold percentage.
+ *
+ * Usage: ResultComparator baseline.csv candidate.csv [threshold_pct (default 10)]
+ * Exits with status 1 if any metric regressed.
+ */
+public class ResultComparator {
+  private static final int METRIC_COL = 2;
+  private static final int TYPE_COL = 1;
+  private static final int OPS_PER_SEC_COL = 6;
+  private static final int P99_LATENCY_COL = 10;
+
+  /**
+   * Summary values of one metric.
+   */
+  static class Summary {
+    final double opsPerSec;
+    final double p99LatencyMs;
+
+    Summary(double opsPerSec, double p99LatencyMs) {
+      this.opsPerSec = opsPerSec;
+      this.p99LatencyMs = p99LatencyMs;
+    }
+  }
+
+  static Map<String, Summary> readSummaries(List<String> lines) {
+    Map<String, Summary> summaries = new LinkedHashMap<>();
+    for (String line : lines) {
+      String[] cols = line.split(",");
+      if (cols.length <= P99_LATENCY_COL || !cols[TYPE_COL].equals("summary")) {
+        continue;
+      }
+      summaries.put(cols[METRIC_COL], new Summary(Double.parseDouble(cols[OPS_PER_SEC_COL]),
+                                                  Double.parseDouble(cols[P99_LATENCY_COL])));
+    }
+    return summaries;
+  }
+
+  private static double changePct(double baseline, double candidate) {
+    return baseline == 0 ? 0 : (candidate - baseline) * 100.0 / baseline;
+  }
+
+  /**
+   * Compares the summaries and appends a report line per metric to the report.
+   * @return true if any metric present in both runs regressed by more than thresholdPct.
+   */
+  static boolean compare(Map<String, Summary> baseline, Map<String, Summary> candidate,
+                         double thresholdPct, StringBuilder report) {
+    boolean regressed = false;
+    for (Map.Entry<String, Summary> entry : baseline.entrySet()) {
+      Summary base = entry.getValue();
+      Summary cand = candidate.get(entry.getKey());
+      if (cand == null) {
+        report.append(String.format("%s: missing in candidate run\n", entry.getKey()));
+        continue;
+      }
+      double throughputChange = changePct(base.opsPerSec, cand.opsPerSec);
+      double p99Change = changePct(base.p99LatencyMs, cand.p99LatencyMs);
+      boolean metricRegressed = throughputChange < -thresholdPct || p99Change > thresholdPct;
+      regressed |= metricRegressed;
+      report.append(String.format(
+          "%s: %.2f -> %.2f ops/sec (%+.1f%%), p99 %.3f -> %.3f ms (%+.1f%%)%s\n",
+          entry.getKey(), base.opsPerSec, cand.opsPerSec, throughputChange,
+          base.p99LatencyMs, cand.p99LatencyMs, p99Change,
+          metricRegressed ? "  REGRESSION" : ""));
+    }
+    return regressed;
+  }
+
+  public static void main(String[] args) throws IOException {
+    if (args.length < 2) {
+      System.err.println("Usage: ResultComparator baseline.csv candidate.csv [threshold_pct]");
+      System.exit(2);
+    }
+    double thresholdPct = args.length > 2 ? Double.parseDouble(args[2]) : 10;
+    Map<String, Summary> baseline =
+        readSummaries(Files.readAllLines(Paths.get(args[0]), StandardCharsets.UTF_8));
+    Map<String, Summary> candidate =
+        readSummaries(Files.readAllLines(Paths.get(args[1]), StandardCharsets.UTF_8));
+    StringBuilder report = new StringBuilder();
+    boolean regressed = compare(baseline, candidate, thresholdPct, report);
+    System.out.print(report);
+    System.exit(regressed ? 1 : 0);
+  }
+}
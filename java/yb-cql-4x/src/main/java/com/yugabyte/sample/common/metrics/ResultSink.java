@@ -0,0 +1,38 @@
+// Copyright (c) YugaByte, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+// in compliance with the License.  You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software distributed under the License
+// is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+// or implied.  See the License for the specific language governing permissions and limitations
+// under the License.
+//
+
+package com.yugabyte.sample.common.metrics;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Receives the per-interval and final statistics of the load tester run, e.g. to export them in
+ * a machine-readable format.
+ */
+public interface ResultSink extends Closeable {
+  /**
+   * Called once per reporting interval of the metrics tracker.
+   * @param timestampMs the wall clock time at the end of the interval.
+   * @param snapshots the statistics of each tracked metric during the interval.
+   */
+  void writeInterval(long timestampMs, List<MetricSnapshot> snapshots) throws IOException;
+
+  /**
+   * Called once at the end of the run.
+   * @param timestampMs the wall clock time at the end of the run.
+   * @param summaries the statistics of each tracked metric over the whole run.
+   */
+  void writeSummary(long timestampMs, List<MetricSnapshot> summaries) throws IOException;
+}
@@ -0,0 +1,111 @@
+// Copyright (c) YugaByte, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+// in compliance with the License.  You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software distributed under the License
+// is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+// or implied.  See the License for the specific language governing permissions and limitations
+// under the License.
+//
+package org.yb.loadtest;
+
+import com.yugabyte.sample.common.KeyDistribution;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.yb.YBTestRunner;
+
+import static org.yb.AssertionWrappers.assertEquals;
+import static org.yb.AssertionWrappers.assertTrue;
+import static org.yb.AssertionWrappers.fail;
+
+@RunWith(value=YBTestRunner.class)
+public class TestKeyDistribution {
+  private static final int NUM_SAMPLES = 200000;
+
+  // Returns the fraction of the samples that picked each key.
+  private static double[] sample(KeyDistribution distribution, int numKeys) {
+    long[] counts = new long[numKeys];
+    for (int i = 0; i < NUM_SAMPLES; i++) {
+      long key = distribution.nextKey(numKeys);
+      assertTrue("Key out of range: " + key, key >= 0 && key < numKeys);
+      counts[(int) key]++;
+    }
+    double[] frequencies = new double[numKeys];
+    for (int i = 0; i < numKeys; i++) {
+      frequencies[i] = counts[i] / (double) NUM_SAMPLES;
+    }
+    return frequencies;
+  }
+
+  // The probabilities of the ranks 1..numKeys of a Zipf distribution.
+  private static double[] zipfProbabilities(int numKeys, double exponent) {
+    double[] probabilities = new double[numKeys];
+    double sum = 0;
+    for (int i = 0; i < numKeys; i++) {
+      probabilities[i] = Math.pow(i + 1, -exponent);
+      sum += probabilities[i];
+    }
+    for (int i = 0; i < numKeys; i++) {
+      probabilities[i] /= sum;
+    }
+    return probabilities;
+  }
+
+  @Test
+  public void testUniform() {
+    for (double frequency : sample(KeyDistribution.uniform(), 10)) {
+      assertEquals(0.1, frequency, 0.01);
+    }
+    // A single key is always picked.
+    assertEquals(0, KeyDistribution.uniform().nextKey(1));
+  }
+
+  @Test
+  public void testZipfian() {
+    for (double exponent : new double[] {0.5, 0.99, 1.0, 1.5}) {
+      double[] expected = zipfProbabilities(10, exponent);
+      double[] zipfian = sample(KeyDistribution.zipfian(exponent), 10);
+      double[] latest = sample(KeyDistribution.latest(exponent), 10);
+      for (int i = 0; i < 10; i++) {
+        assertEquals("Zipfian(" + exponent + ") key " + i, expected[i], zipfian[i], 0.01);
+        // Latest is the mirror image, the last key is the hottest.
+        assertEquals("Latest(" + exponent + ") key " + i, expected[i], latest[9 - i], 0.01);
+      }
+    }
+    // Large key spaces stay in range.
+    KeyDistribution zipfian = KeyDistribution.zipfian(0.99);
+    for (int i = 0; i < 1000; i++) {
+      long key = zipfian.nextKey(Long.MAX_VALUE / 2);
+      assertTrue(key >= 0 && key < Long.MAX_VALUE / 2);
+    }
+    // A non-positive exponent means uniform.
+    assertEquals("Uniform", KeyDistribution.zipfian(0).toString());
+    assertEquals("Uniform", KeyDistribution.latest(-1).toString());
+  }
+
+  @Test
+  public void testHotspot() {
+    double[] frequencies = sample(KeyDistribution.hotspot(0.2, 0.8), 10);
+    // 80% of the ops go to the first 2 keys, the rest to the other 8.
+    for (int i = 0; i < 10; i++) {
+      assertEquals("Key " + i, i < 2 ? 0.4 : 0.025, frequencies[i], 0.01);
+    }
+    // The hot set has at least one key.
+    assertEquals(1.0, sample(KeyDistribution.hotspot(0.01, 1.0), 10)[0], 0.0);
+    try {
+      KeyDistribution.hotspot(0, 0.5);
+      fail("Expected an empty hot set to be rejected");
+    } catch (IllegalArgumentException e) {
+      // Expected.
+    }
+    try {
+      KeyDistribution.hotspot(0.5, 1.5);
+      fail("Expected an operation fraction above 1 to be rejected");
+    } catch (IllegalArgumentException e) {
+      // Expected.
+    }
+  }
+}
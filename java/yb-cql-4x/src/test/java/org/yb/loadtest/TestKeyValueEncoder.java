@@ -0,0 +1,95 @@
+// Copyright (c) YugaByte, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+// in compliance with the License.  You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software distributed under the License
+// is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+// or implied.  See the License for the specific language governing permissions and limitations
+// under the License.
+//
+package org.yb.loadtest;
+
+import com.yugabyte.sample.common.KeyValueEncoder;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.yb.YBTestRunner;
+
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+import static org.yb.AssertionWrappers.assertEquals;
+import static org.yb.AssertionWrappers.fail;
+
+@RunWith(value=YBTestRunner.class)
+public class TestKeyValueEncoder {
+  private static final long[] NUMBERS = {
+    0, 1, -1, 9, 10, -10, 12345, 999999999999L, Long.MAX_VALUE, Long.MIN_VALUE
+  };
+
+  // The hash prefixed key as built before the encoder, with a new digest and strings.
+  private static String expectedKeyWithHashPrefix(String key) throws Exception {
+    MessageDigest md5 = MessageDigest.getInstance("MD5");
+    String hash = String.format("%032x", new BigInteger(1, md5.digest(key.getBytes())));
+    return hash + ":" + key;
+  }
+
+  @Test
+  public void testAsciiRoundTrip() {
+    byte[] buffer = new byte[KeyValueEncoder.MAX_VALUE_PREFIX_SIZE];
+    for (long n : NUMBERS) {
+      int size = KeyValueEncoder.encodeAscii(n, buffer, 2);
+      assertEquals(KeyValueEncoder.asciiSize(n), size);
+      assertEquals(Long.toString(n), new String(buffer, 2, size, StandardCharsets.US_ASCII));
+    }
+  }
+
+  @Test
+  public void testHexRoundTrip() {
+    byte[] buffer = new byte[16];
+    for (long n : new long[] {0, 1, 0xabcdef, 0xffffffffL, Long.MAX_VALUE}) {
+      KeyValueEncoder.encodeHex(n, buffer, 0, 16);
+      assertEquals(String.format("%016x", n), new String(buffer, StandardCharsets.US_ASCII));
+      assertEquals(n, KeyValueEncoder.decodeHex(buffer, 0, 16));
+    }
+    // Only the lowest digits are kept.
+    KeyValueEncoder.encodeHex(0x1234, buffer, 0, 2);
+    assertEquals(0x34, KeyValueEncoder.decodeHex(buffer, 0, 2));
+    // All the digits set is a valid value, distinct from an invalid one.
+    KeyValueEncoder.encodeHex(-1, buffer, 0, 16);
+    assertEquals(-1, KeyValueEncoder.decodeHex(buffer, 0, 16));
+    buffer[0] = 'x';
+    try {
+      KeyValueEncoder.decodeHex(buffer, 0, 2);
+      fail("Expected a non-hex digit to be rejected");
+    } catch (NumberFormatException e) {
+      // Expected.
+    }
+  }
+
+  @Test
+  public void testValuePrefix() {
+    KeyValueEncoder encoder = KeyValueEncoder.forCurrentThread();
+    for (long n : NUMBERS) {
+      int size = encoder.encodeValuePrefix(n);
+      assertEquals("val:" + n,
+                   new String(encoder.getValuePrefixBuffer(), 0, size, StandardCharsets.US_ASCII));
+    }
+  }
+
+  @Test
+  public void testKeys() throws Exception {
+    KeyValueEncoder encoder = KeyValueEncoder.forCurrentThread();
+    String longPrefix = new String(new char[100]).replace('\0', 'k');
+    for (String prefix : new String[] {"key", "", longPrefix, "cl\u00e9"}) {
+      for (long n : NUMBERS) {
+        String key = prefix + ":" + n;
+        assertEquals(key, encoder.getKey(prefix, n));
+        assertEquals(expectedKeyWithHashPrefix(key), encoder.getKeyWithHashPrefix(prefix, n));
+      }
+    }
+  }
+}
@@ -0,0 +1,113 @@
+// Copyright (c) YugaByte, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+// in compliance with the License.  You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software distributed under the License
+// is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+// or implied.  See the License for the specific language governing permissions and limitations
+// under the License.
+//
+package org.yb.loadtest;
+
+import com.yugabyte.sample.common.coordinator.LoadCoordinator;
+import com.yugabyte.sample.common.coordinator.LoadWorker;
+import com.yugabyte.sample.common.metrics.Metric;
+import com.yugabyte.sample.common.metrics.MetricSnapshot;
+import com.yugabyte.sample.common.metrics.ResultSink;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.yb.YBTestRunner;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.yb.AssertionWrappers.assertEquals;
+import static org.yb.AssertionWrappers.assertTrue;
+
+@RunWith(value=YBTestRunner.class)
+public class TestLoadCoordinator {
+  private static final int NUM_KEYS = 1000;
+
+  // Keeps the summaries written by the coordinator.
+  private static class CollectingSink implements ResultSink {
+    final List<MetricSnapshot> summaries = Collections.synchronizedList(new ArrayList<>());
+
+    @Override
+    public void writeInterval(long timestampMs, List<MetricSnapshot> snapshots) {}
+
+    @Override
+    public void writeSummary(long timestampMs, List<MetricSnapshot> snapshots) {
+      summaries.addAll(snapshots);
+    }
+
+    @Override
+    public void close() {}
+  }
+
+  // Connects a worker, waits for the start and reports numOps writes to the coordinator.
+  private static LoadWorker runWorker(int port, int numOps) throws Exception {
+    LoadWorker worker = LoadWorker.connect("localhost", port);
+    worker.awaitStart();
+    Metric metric = new Metric("Write");
+    metric.accumulate(numOps, 1000000);
+    ResultSink sink = worker.getResultSink();
+    sink.writeInterval(System.currentTimeMillis(),
+                       Collections.singletonList(metric.getSnapshotAndReset()));
+    sink.writeSummary(System.currentTimeMillis(), Collections.singletonList(metric.getSummary()));
+    sink.close();
+    return worker;
+  }
+
+  @Test(timeout = 60000)
+  public void testTwoWorkers() throws Exception {
+    // Port 0 picks a free port, so the test can run next to a real coordinator.
+    LoadCoordinator coordinator = new LoadCoordinator(0, 2, 0, NUM_KEYS, 100);
+    CollectingSink sink = new CollectingSink();
+    coordinator.addResultSink(sink);
+    final int port = coordinator.bind();
+
+    ExecutorService executor = Executors.newFixedThreadPool(3);
+    try {
+      Future<?> coordinatorRun = executor.submit(() -> {
+        coordinator.run();
+        return null;
+      });
+      Future<LoadWorker> worker1 = executor.submit(() -> runWorker(port, 10));
+      Future<LoadWorker> worker2 = executor.submit(() -> runWorker(port, 20));
+      LoadWorker first = worker1.get(30, TimeUnit.SECONDS);
+      LoadWorker second = worker2.get(30, TimeUnit.SECONDS);
+      coordinatorRun.get(30, TimeUnit.SECONDS);
+
+      // The workers got the two halves of the key range, and share the key prefix.
+      if (first.getWorkerIdx() == 1) {
+        LoadWorker tmp = first;
+        first = second;
+        second = tmp;
+      }
+      assertEquals(0, first.getWorkerIdx());
+      assertEquals(1, second.getWorkerIdx());
+      assertEquals(0, first.getStartKey());
+      assertEquals(first.getEndKey(), second.getStartKey());
+      assertEquals(NUM_KEYS, second.getEndKey());
+      assertTrue(first.getEndKey() > 0 && first.getEndKey() < NUM_KEYS);
+      assertEquals(first.getUUID(), second.getUUID());
+
+      // The summaries of the workers are merged.
+      assertEquals(1, sink.summaries.size());
+      MetricSnapshot summary = sink.summaries.get(0);
+      assertEquals("Write", summary.name);
+      assertEquals(30, summary.numOps);
+      assertEquals(30, summary.latencies.getTotalCount());
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+}
@@ -0,0 +1,106 @@
+// Copyright (c) YugaByte, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+// in compliance with the License.  You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software distributed under the License
+// is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+// or implied.  See the License for the specific language governing permissions and limitations
+// under the License.
+//
+package org.yb.loadtest;
+
+import com.yugabyte.sample.common.metrics.LatencyHistogram;
+import com.yugabyte.sample.common.metrics.Metric;
+import com.yugabyte.sample.common.metrics.MetricSnapshot;
+import com.yugabyte.sample.common.metrics.MetricsTracker;
+import com.yugabyte.sample.common.metrics.MetricsTracker.MetricName;
+import com.yugabyte.sample.common.metrics.ResultSink;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.yb.YBTestRunner;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.yb.AssertionWrappers.assertEquals;
+import static org.yb.AssertionWrappers.assertTrue;
+
+@RunWith(value=YBTestRunner.class)
+public class TestMetricsTracker {
+
+  // Keeps the snapshots written by the tracker.
+  private static class CollectingSink implements ResultSink {
+    final List<MetricSnapshot> intervals = new ArrayList<>();
+    final List<MetricSnapshot> summaries = new ArrayList<>();
+    boolean closed = false;
+
+    @Override
+    public void writeInterval(long timestampMs, List<MetricSnapshot> snapshots) {
+      intervals.addAll(snapshots);
+    }
+
+    @Override
+    public void writeSummary(long timestampMs, List<MetricSnapshot> snapshots) {
+      summaries.addAll(snapshots);
+    }
+
+    @Override
+    public void close() {
+      closed = true;
+    }
+  }
+
+  @Test
+  public void testSummaryIncludesPartialInterval() {
+    Metric metric = new Metric("Write");
+    metric.accumulate(10, 2000000);
+    metric.recordError();
+    MetricSnapshot interval = metric.getSnapshotAndReset();
+    assertEquals(10, interval.numOps);
+
+    // Ops done after the last snapshot are part of the summary.
+    metric.accumulate(5, 4000000);
+    metric.recordError();
+    MetricSnapshot summary = metric.getSummary();
+    assertEquals(15, summary.numOps);
+    assertEquals(15, summary.totalOps);
+    assertEquals(2, summary.numErrors);
+    assertEquals(10 * 2000000L + 5 * 4000000L, summary.sumLatencyNanos);
+    assertEquals(15, summary.latencies.getTotalCount());
+    assertTrue(summary.elapsedNanos >= interval.elapsedNanos);
+  }
+
+  @Test
+  public void testWriteSummaryFlushesLastInterval() {
+    MetricsTracker tracker = new MetricsTracker();
+    tracker.createMetric(MetricName.Read);
+    CollectingSink sink = new CollectingSink();
+    tracker.addResultSink(sink);
+
+    tracker.getMetric(MetricName.Read).accumulate(3, 1000000);
+    tracker.writeSummary();
+    assertEquals(1, sink.intervals.size());
+    assertEquals(3, sink.intervals.get(0).numOps);
+    assertEquals(1, sink.summaries.size());
+    assertEquals(3, sink.summaries.get(0).numOps);
+    assertTrue(sink.closed);
+
+    // Only the first call writes.
+    tracker.writeSummary();
+    assertEquals(1, sink.intervals.size());
+    assertEquals(1, sink.summaries.size());
+  }
+
+  @Test
+  public void testOpsPerSecDoesNotOverflow() {
+    // 20 billion ops over 10 seconds, numOps * 10^9 does not fit in a long.
+    MetricSnapshot snapshot = new MetricSnapshot("Read", 10000000000L, 20000000000L, 0,
+                                                 20000000000L, 0, new LatencyHistogram());
+    assertEquals(2e9, snapshot.opsPerSec, 1e-3);
+    MetricSnapshot empty = new MetricSnapshot("Read", 0, 0, 0, 0, 0, new LatencyHistogram());
+    assertEquals(0, empty.opsPerSec, 0);
+  }
+}
@@ -0,0 +1,94 @@
+// Copyright (c) YugaByte, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+// in compliance with the License.  You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software distributed under the License
+// is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+// or implied.  See the License for the specific language governing permissions and limitations
+// under the License.
+//
+package org.yb.loadtest;
+
+import com.yugabyte.sample.common.WorkloadMix;
+import com.yugabyte.sample.common.WorkloadMix.OpType;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.yb.YBTestRunner;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+import static org.yb.AssertionWrappers.assertArrayEquals;
+import static org.yb.AssertionWrappers.assertEquals;
+import static org.yb.AssertionWrappers.assertTrue;
+import static org.yb.AssertionWrappers.fail;
+
+@RunWith(value=YBTestRunner.class)
+public class TestWorkloadMix {
+  private static final int NUM_SAMPLES = 100000;
+
+  private static void assertInvalid(String mix, int minScanLength, int maxScanLength) {
+    try {
+      WorkloadMix.parse(mix, minScanLength, maxScanLength);
+      fail("Expected '" + mix + "' to be rejected");
+    } catch (IllegalArgumentException e) {
+      // Expected.
+    }
+  }
+
+  @Test
+  public void testParse() {
+    WorkloadMix mix = WorkloadMix.parse(" READ=50, update = 45,Scan=5,rmw=0", 1, 100);
+    // Ops with a zero weight are dropped, the others are in the OpType order.
+    assertArrayEquals(new OpType[] {OpType.Read, OpType.Update, OpType.Scan}, mix.getOpTypes());
+    assertEquals("read=50,update=45,scan=5 (scan length 1-100)", mix.toString());
+
+    mix = WorkloadMix.parse("readmodifywrite=1,insert=2", 1, 1);
+    assertArrayEquals(new OpType[] {OpType.Insert, OpType.ReadModifyWrite}, mix.getOpTypes());
+  }
+
+  @Test
+  public void testParseInvalid() {
+    assertInvalid("read", 1, 10);
+    assertInvalid("read=50,delete=50", 1, 10);
+    assertInvalid("read=-1,update=2", 1, 10);
+    assertInvalid("read=0,update=0", 1, 10);
+    assertInvalid("read=1", 0, 10);
+    assertInvalid("read=1", 10, 5);
+    try {
+      WorkloadMix.parse("read=abc", 1, 10);
+      fail("Expected a non-numeric weight to be rejected");
+    } catch (NumberFormatException e) {
+      // Expected.
+    }
+  }
+
+  @Test
+  public void testOpFrequencies() {
+    WorkloadMix mix = WorkloadMix.parse("read=50,update=30,scan=15,insert=5", 1, 100);
+    Map<OpType, Integer> counts = new EnumMap<>(OpType.class);
+    for (int i = 0; i < NUM_SAMPLES; i++) {
+      counts.merge(mix.nextOp(), 1, Integer::sum);
+    }
+    assertEquals(null, counts.get(OpType.ReadModifyWrite));
+    assertEquals(0.50, counts.get(OpType.Read) / (double) NUM_SAMPLES, 0.01);
+    assertEquals(0.30, counts.get(OpType.Update) / (double) NUM_SAMPLES, 0.01);
+    assertEquals(0.15, counts.get(OpType.Scan) / (double) NUM_SAMPLES, 0.01);
+    assertEquals(0.05, counts.get(OpType.Insert) / (double) NUM_SAMPLES, 0.01);
+  }
+
+  @Test
+  public void testScanLength() {
+    WorkloadMix mix = WorkloadMix.parse("scan=1", 5, 8);
+    boolean[] seen = new boolean[4];
+    for (int i = 0; i < 1000; i++) {
+      int length = mix.nextScanLength();
+      assertTrue("Scan length out of range: " + length, length >= 5 && length <= 8);
+      seen[length - 5] = true;
+    }
+    assertArrayEquals(new boolean[] {true, true, true, true}, seen);
+  }
+}
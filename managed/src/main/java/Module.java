@@ -16,6 +16,7 @@ import com.yugabyte.yw.common.services.LocalYBClientService;
 import com.yugabyte.yw.common.services.YBClientService;
 import com.yugabyte.yw.controllers.PlatformHttpActionAdapter;
 import com.yugabyte.yw.metrics.MetricQueryHelper;
+import com.yugabyte.yw.metrics.TimeSeriesStore;
 import com.yugabyte.yw.queries.QueryHelper;
 import com.yugabyte.yw.scheduler.Scheduler;
 import org.pac4j.core.client.Clients;
@@ -65,6 +66,8 @@ public class Module extends AbstractModule {
       bind(HealthManager.class).asEagerSingleton();
       bind(NodeManager.class).asEagerSingleton();
       bind(MetricQueryHelper.class).asEagerSingleton();
+      bind(TimeSeriesStore.class).asEagerSingleton();
+      bind(TaskInfoWriteBuffer.class).asEagerSingleton();
       bind(QueryHelper.class).asEagerSingleton();
       bind(ShellProcessHandler.class).asEagerSingleton();
       bind(NetworkManager.class).asEagerSingleton();
@@ -24,7 +24,11 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
 
 import static com.yugabyte.yw.cloud.PublicCloudConstants.*;
@@ -79,6 +83,10 @@ public class UniverseResourceDetails {
   }
 
   public void addPrice(UniverseDefinitionTaskParams params) {
+    addPrice(params, new Context());
+  }
+
+  private void addPrice(UniverseDefinitionTaskParams params, Context context) {
 
     // Calculate price
     double hourlyPrice = 0.0;
@@ -88,17 +96,17 @@ public class UniverseResourceDetails {
       if (nodeDetails.placementUuid != null) {
         userIntent = params.getClusterByUuid(nodeDetails.placementUuid).userIntent;
       }
-      Provider provider = Provider.get(UUID.fromString(userIntent.provider));
+      Provider provider = context.getProvider(UUID.fromString(userIntent.provider));
       if (!nodeDetails.isActive()) {
         continue;
       }
-      Region region = Region.getByCode(provider, nodeDetails.cloudInfo.region);
+      Region region = context.getRegion(provider, nodeDetails.cloudInfo.region);
 
       if (region == null) {
         continue;
       }
       PriceComponent instancePrice =
-          PriceComponent.get(provider.uuid, region.code, userIntent.instanceType);
+          context.getPrice(provider, region.code, userIntent.instanceType);
       if (instancePrice == null) {
         continue;
       }
@@ -120,17 +128,17 @@ public class UniverseResourceDetails {
         PriceComponent mibpsPrice = null;
         switch (userIntent.deviceInfo.storageType) {
           case IO1:
-            piopsPrice = PriceComponent.get(provider.uuid, region.code, IO1_PIOPS);
-            sizePrice = PriceComponent.get(provider.uuid, region.code, IO1_SIZE);
+            piopsPrice = context.getPrice(provider, region.code, IO1_PIOPS);
+            sizePrice = context.getPrice(provider, region.code, IO1_SIZE);
             billedDiskIops = diskIops;
             break;
           case GP2:
-            sizePrice = PriceComponent.get(provider.uuid, region.code, GP2_SIZE);
+            sizePrice = context.getPrice(provider, region.code, GP2_SIZE);
             break;
           case GP3:
-            piopsPrice = PriceComponent.get(provider.uuid, region.code, GP3_PIOPS);
-            sizePrice = PriceComponent.get(provider.uuid, region.code, GP3_SIZE);
-            mibpsPrice = PriceComponent.get(provider.uuid, region.code, GP3_THROUGHPUT);
+            piopsPrice = context.getPrice(provider, region.code, GP3_PIOPS);
+            sizePrice = context.getPrice(provider, region.code, GP3_SIZE);
+            mibpsPrice = context.getPrice(provider, region.code, GP3_THROUGHPUT);
             billedDiskIops = diskIops > gp3FreePiops ? diskIops - gp3FreePiops : null;
             billedThroughput =
                 throughput > gp3FreeThroughput ? throughput - gp3FreeThroughput : null;
@@ -161,6 +169,15 @@ public class UniverseResourceDetails {
     return create(params.nodeDetailsSet, params, config);
   }
 
+  /**
+   * Create the resource details of a universe, reading the providers, prices and instance types
+   * through the context, so that the context can be shared by the details of several universes.
+   */
+  public static UniverseResourceDetails create(
+      UniverseDefinitionTaskParams params, Config config, Context context) {
+    return create(params.nodeDetailsSet, params, config, context);
+  }
+
   /**
    * Create a UniverseResourceDetails object, which contains info on the various pricing and other
    * sorts of resources used by this universe.
@@ -171,6 +188,14 @@ public class UniverseResourceDetails {
    */
   public static UniverseResourceDetails create(
       Collection<NodeDetails> nodes, UniverseDefinitionTaskParams params, Config config) {
+    return create(nodes, params, config, new Context());
+  }
+
+  private static UniverseResourceDetails create(
+      Collection<NodeDetails> nodes,
+      UniverseDefinitionTaskParams params,
+      Config config,
+      Context context) {
     UniverseResourceDetails details = new UniverseResourceDetails();
     for (Cluster cluster : params.clusters) {
       details.addNumNodes(cluster.userIntent.numNodes);
@@ -193,7 +218,8 @@ public class UniverseResourceDetails {
             && node.cloudInfo.instance_type != null) {
           details.addAz(node.cloudInfo.az);
           InstanceType instanceType =
-              InstanceType.get(UUID.fromString(userIntent.provider), node.cloudInfo.instance_type);
+              context.getInstanceType(
+                  UUID.fromString(userIntent.provider), node.cloudInfo.instance_type);
           if (instanceType == null) {
             LOG.error(
                 "Couldn't find instance type "
@@ -210,7 +236,70 @@ public class UniverseResourceDetails {
 
     details.gp3FreePiops = config.getInt(GP3_FREE_PIOPS_PARAM);
     details.gp3FreeThroughput = config.getInt(GP3_FREE_THROUGHPUT_PARAM);
-    details.addPrice(params);
+    details.addPrice(params, context);
     return details;
   }
+
+  /**
+   * The providers, regions, prices and instance types used by the resource details. The regions and
+   * prices of a provider are all read at once the first time the provider is used, so the details
+   * of many universes sharing the context are computed without reading them for every node. The
+   * context is meant to be used for a single request, it is not thread safe and does not see the
+   * price updates done after the prices are read.
+   */
+  public static class Context {
+    private final Map<UUID, Provider> providers = new HashMap<>();
+
+    // The regions of the providers, by code.
+    private final Map<UUID, Map<String, Region>> regions = new HashMap<>();
+
+    // The price components of the providers, by region code and component code.
+    private final Map<UUID, Map<String, Map<String, PriceComponent>>> prices = new HashMap<>();
+
+    // The instance types of the providers, by code.
+    private final Map<UUID, Map<String, Optional<InstanceType>>> instanceTypes = new HashMap<>();
+
+    Provider getProvider(UUID providerUuid) {
+      return providers.computeIfAbsent(providerUuid, Provider::get);
+    }
+
+    Region getRegion(Provider provider, String regionCode) {
+      return regions
+          .computeIfAbsent(
+              provider.uuid,
+              providerUuid -> {
+                Map<String, Region> providerRegions = new HashMap<>();
+                for (Region region : Region.getByProvider(providerUuid)) {
+                  providerRegions.put(region.code, region);
+                }
+                return providerRegions;
+              })
+          .get(regionCode);
+    }
+
+    PriceComponent getPrice(Provider provider, String regionCode, String componentCode) {
+      return prices
+          .computeIfAbsent(
+              provider.uuid,
+              providerUuid -> {
+                Map<String, Map<String, PriceComponent>> providerPrices = new HashMap<>();
+                for (PriceComponent component : PriceComponent.findByProvider(provider)) {
+                  providerPrices
+                      .computeIfAbsent(component.getRegionCode(), code -> new HashMap<>())
+                      .put(component.getComponentCode(), component);
+                }
+                return providerPrices;
+              })
+          .getOrDefault(regionCode, Collections.emptyMap())
+          .get(componentCode);
+    }
+
+    InstanceType getInstanceType(UUID providerUuid, String instanceTypeCode) {
+      return instanceTypes
+          .computeIfAbsent(providerUuid, uuid -> new HashMap<>())
+          .computeIfAbsent(
+              instanceTypeCode, code -> Optional.ofNullable(InstanceType.get(providerUuid, code)))
+          .orElse(null);
+    }
+  }
 }
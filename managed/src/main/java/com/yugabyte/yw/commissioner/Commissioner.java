@@ -2,7 +2,10 @@
 
 package com.yugabyte.yw.commissioner;
 
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Map.Entry;
@@ -14,9 +17,13 @@ import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
 
+import com.typesafe.config.Config;
 import com.yugabyte.yw.common.YWServiceException;
 import com.yugabyte.yw.forms.ITaskParams;
+import com.yugabyte.yw.forms.UniverseTaskParams;
+import com.yugabyte.yw.models.Customer;
 import com.yugabyte.yw.models.CustomerTask;
+import com.yugabyte.yw.models.Universe;
 import com.yugabyte.yw.models.helpers.TaskType;
 import com.yugabyte.yw.models.TaskInfo;
 import org.slf4j.Logger;
@@ -25,6 +32,7 @@ import org.slf4j.LoggerFactory;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.inject.Inject;
 import com.google.inject.Singleton;
 
 import play.libs.Json;
@@ -52,12 +60,16 @@ public class Commissioner {
   // Threadpool to run user submitted tasks.
   static ExecutorService executor;
 
+  // Decides when the submitted tasks run on the threadpool.
+  static TaskScheduler taskScheduler;
+
   // A map of all task UUID's to the task runner objects for all the user tasks that are currently
   // active. Recently completed tasks are also in this list, their completion percentage should be
   // persisted before removing the task from this map.
   static Map<UUID, TaskRunner> runningTasks = new ConcurrentHashMap<UUID, TaskRunner>();
 
-  public Commissioner() {
+  @Inject
+  public Commissioner(Config config) {
     // Initialize the tasks threadpool.
     ThreadFactory namedThreadFactory =
         new ThreadFactoryBuilder().setNameFormat("TaskPool-%d").build();
@@ -73,6 +85,18 @@ public class Commissioner {
             namedThreadFactory);
     LOG.info("Started Commissioner TaskPool.");
 
+    TaskScheduler.Limits limits = new TaskScheduler.Limits();
+    limits.maxRunningTasks = TASK_THREADS;
+    limits.maxRunningTasksPerCustomer =
+        config.getInt("yb.commissioner.max_running_tasks_per_customer");
+    limits.maxRunningTasksPerType = config.getInt("yb.commissioner.max_running_tasks_per_type");
+    for (TaskScheduler.Priority priority : TaskScheduler.Priority.values()) {
+      limits.maxQueuedTasks.put(
+          priority,
+          config.getInt("yb.commissioner.max_queued_tasks." + priority.name().toLowerCase()));
+    }
+    taskScheduler = new TaskScheduler(executor, limits);
+
     // TODO: Conisder replacing simple thread sleep with ScheduledExecutorService
     // Initialize the task manager.
     progressMonitor = new ProgressMonitor();
@@ -84,11 +108,21 @@ public class Commissioner {
    * Creates a new task runner to run the required task, and submits it to a threadpool if needed.
    */
   public UUID submit(TaskType taskType, ITaskParams taskParams) {
+    return submit(taskType, taskParams, TaskScheduler.Priority.Interactive);
+  }
+
+  /**
+   * Creates a new task runner to run the required task, and queues it to run with the given
+   * priority.
+   *
+   * @throws YWServiceException if there are too many tasks of the priority waiting to run.
+   */
+  public UUID submit(TaskType taskType, ITaskParams taskParams, TaskScheduler.Priority priority) {
+    // Reject the task before creating it if there are too many tasks waiting to run.
+    taskScheduler.checkAdmission(taskType, priority);
     try {
-      // Claim the task if we can - check if we will go above the max local concurrent task
-      // threshold. If we can claim it, set ourselves as the owner of the task. Otherwise, do not
-      // claim the task so that some other process can claim it.
-      // TODO: enforce a limit on number of tasks here.
+      // Claim the task if we can. If we can claim it, set ourselves as the owner of the task.
+      // Otherwise, do not claim the task so that some other process can claim it.
       boolean claimTask = true;
 
       // Create the task runner object based on the various parameters passed in.
@@ -98,8 +132,8 @@ public class Commissioner {
         // Add this task to our queue.
         runningTasks.put(taskRunner.getTaskUUID(), taskRunner);
 
-        // If we had claimed ownership of the task, submit it to the task threadpool.
-        executor.submit(taskRunner);
+        // If we had claimed ownership of the task, queue it to run on the task threadpool.
+        taskScheduler.submit(taskRunner, taskType, getCustomerUUID(taskParams), priority);
       }
       return taskRunner.getTaskUUID();
     } catch (Throwable t) {
@@ -109,6 +143,22 @@ public class Commissioner {
     }
   }
 
+  // Returns the customer of the universe the task is run on, null for the tasks which are not
+  // run on a universe.
+  private static UUID getCustomerUUID(ITaskParams taskParams) {
+    if (!(taskParams instanceof UniverseTaskParams)) {
+      return null;
+    }
+    UUID universeUUID = ((UniverseTaskParams) taskParams).universeUUID;
+    if (universeUUID == null) {
+      return null;
+    }
+    return Universe.maybeGet(universeUUID)
+        .map(universe -> Customer.get(universe.customerId))
+        .map(customer -> customer.uuid)
+        .orElse(null);
+  }
+
   public ObjectNode getStatusOrBadRequest(UUID taskUUID) {
     return mayGetStatus(taskUUID)
         .orElseThrow(
@@ -116,26 +166,13 @@ public class Commissioner {
   }
 
   public Optional<ObjectNode> mayGetStatus(UUID taskUUID) {
-    ObjectNode responseJson = Json.newObject();
-
     // Check if the task is in the DB
     TaskInfo taskInfo = TaskInfo.get(taskUUID);
     CustomerTask task = CustomerTask.find.query().where().eq("task_uuid", taskUUID).findOne();
     if (taskInfo != null && task != null) {
-      // Add some generic information about the task
-      responseJson.put("title", task.getFriendlyDescription());
-      responseJson.put("createTime", task.getCreateTime().toString());
-      responseJson.put("target", task.getTargetName());
-      responseJson.put("targetUUID", task.getTargetUUID().toString());
-      responseJson.put("type", task.getType().name());
-      // Find out the state of the task.
-      responseJson.put("status", taskInfo.getTaskState().toString());
-      // Get the percentage of subtasks that ran and completed
-      responseJson.put("percent", taskInfo.getPercentCompleted());
-      // Get subtask groups
-      UserTaskDetails userTaskDetails = taskInfo.getUserTaskDetails();
-      responseJson.set("details", Json.toJson(userTaskDetails));
-      return Optional.of(responseJson);
+      TaskInfo.SubTasksSummary summary =
+          TaskInfo.getSubTasksSummaries(Collections.singletonList(taskInfo)).get(taskUUID);
+      return Optional.of(buildStatus(task, taskInfo, summary));
     }
 
     // We are not able to find the task. Report an error.
@@ -144,6 +181,56 @@ public class Commissioner {
     return Optional.empty();
   }
 
+  /**
+   * Bulk version of mayGetStatus for listing many customer tasks. The TaskInfos and the subtask
+   * states of all the tasks are fetched with a few batched queries instead of several per task.
+   *
+   * @return the status of each task by task UUID. Tasks without a TaskInfo are left out.
+   */
+  public Map<UUID, ObjectNode> getStatuses(List<CustomerTask> tasks) {
+    Map<UUID, CustomerTask> tasksByUUID = new HashMap<>();
+    for (CustomerTask task : tasks) {
+      tasksByUUID.put(task.getTaskUUID(), task);
+    }
+    Map<UUID, TaskInfo> taskInfos = TaskInfo.getAll(tasksByUUID.keySet());
+    Map<UUID, TaskInfo.SubTasksSummary> summaries =
+        TaskInfo.getSubTasksSummaries(taskInfos.values());
+
+    Map<UUID, ObjectNode> statuses = new HashMap<>();
+    for (CustomerTask task : tasksByUUID.values()) {
+      TaskInfo taskInfo = taskInfos.get(task.getTaskUUID());
+      if (taskInfo == null) {
+        LOG.error(
+            "Error fetching Task Progress for "
+                + task.getTaskUUID()
+                + ", TaskInfo with that taskUUID not found");
+        continue;
+      }
+      statuses.put(
+          task.getTaskUUID(), buildStatus(task, taskInfo, summaries.get(task.getTaskUUID())));
+    }
+    return statuses;
+  }
+
+  private static ObjectNode buildStatus(
+      CustomerTask task, TaskInfo taskInfo, TaskInfo.SubTasksSummary summary) {
+    ObjectNode responseJson = Json.newObject();
+    // Add some generic information about the task
+    responseJson.put("title", task.getFriendlyDescription());
+    responseJson.put("createTime", task.getCreateTime().toString());
+    responseJson.put("target", task.getTargetName());
+    responseJson.put("targetUUID", task.getTargetUUID().toString());
+    responseJson.put("type", task.getType().name());
+    // Find out the state of the task.
+    responseJson.put("status", taskInfo.getTaskState().toString());
+    // Get the percentage of subtasks that ran and completed
+    responseJson.put("percent", summary.getPercentCompleted());
+    // Get subtask groups
+    UserTaskDetails userTaskDetails = summary.getUserTaskDetails();
+    responseJson.set("details", Json.toJson(userTaskDetails));
+    return responseJson;
+  }
+
   public JsonNode getTaskDetails(UUID taskUUID) {
     TaskInfo taskInfo = TaskInfo.get(taskUUID);
     if (taskInfo != null) {
@@ -24,6 +24,7 @@ import com.yugabyte.yw.common.config.RuntimeConfigFactory;
 import com.yugabyte.yw.forms.CustomerRegisterFormData.AlertingData;
 import com.yugabyte.yw.forms.CustomerRegisterFormData.SmtpData;
 import com.yugabyte.yw.forms.UniverseDefinitionTaskParams;
+import com.yugabyte.yw.metrics.TimeSeriesStore;
 import com.yugabyte.yw.models.*;
 import com.yugabyte.yw.models.helpers.NodeDetails;
 import io.prometheus.client.CollectorRegistry;
@@ -56,6 +57,8 @@ public class HealthChecker {
 
   private static final String MAX_NUM_THREADS_KEY = "yb.health.max_num_parallel_checks";
 
+  private static final String MAX_UNCHANGED_CHECK_AGE_KEY = "yb.health.max_unchanged_check_age";
+
   private final play.Configuration config;
 
   // Last time we sent a status update email per customer.
@@ -85,6 +88,8 @@ public class HealthChecker {
 
   private final RuntimeConfigFactory runtimeConfigFactory;
 
+  private final TimeSeriesStore timeSeriesStore;
+
   // The thread pool executor for parallelized health checks.
   private final ExecutorService executor;
 
@@ -104,7 +109,8 @@ public class HealthChecker {
       EmailHelper emailHelper,
       AlertManager alertManager,
       RuntimeConfigFactory runtimeConfigFactory,
-      ApplicationLifecycle lifecycle) {
+      ApplicationLifecycle lifecycle,
+      TimeSeriesStore timeSeriesStore) {
     this.actorSystem = actorSystem;
     this.config = config;
     this.executionContext = executionContext;
@@ -115,6 +121,7 @@ public class HealthChecker {
     this.alertManager = alertManager;
     this.runtimeConfigFactory = runtimeConfigFactory;
     this.lifecycle = lifecycle;
+    this.timeSeriesStore = timeSeriesStore;
     this.executor = this.createExecutor();
 
     this.initialize();
@@ -130,7 +137,8 @@ public class HealthChecker {
       EmailHelper emailHelper,
       AlertManager alertManager,
       RuntimeConfigFactory runtimeConfigFactory,
-      ApplicationLifecycle lifecycle) {
+      ApplicationLifecycle lifecycle,
+      TimeSeriesStore timeSeriesStore) {
     this(
         globalActorSystem,
         config,
@@ -141,7 +149,8 @@ public class HealthChecker {
         emailHelper,
         alertManager,
         runtimeConfigFactory,
-        lifecycle);
+        lifecycle,
+        timeSeriesStore);
   }
 
   private void initialize() {
@@ -203,17 +212,21 @@ public class HealthChecker {
     if (healthJSON != null) {
       boolean hasErrors = false;
       try {
+        // The number of failed checks by node, kept in the platform metrics.
+        Map<String, Integer> nodeErrors = new HashMap<>();
         for (JsonNode entry : healthJSON.path("data")) {
           String nodeName = entry.path("node").asText();
           String checkName = entry.path("message").asText();
           boolean checkResult = entry.path("has_error").asBoolean();
           hasErrors = checkResult || hasErrors;
+          nodeErrors.merge(nodeName, checkResult ? 1 : 0, Integer::sum);
           if (null == healthMetric) continue;
 
           Gauge.Child prometheusVal =
               healthMetric.labels(u.universeUUID.toString(), u.name, nodeName, checkName);
           prometheusVal.set(checkResult ? 1 : 0);
         }
+        recordHealthMetrics(c, u, nodeErrors, durationMs);
         LOG.info(
             "Health check for universe {} reported {}. [ {} ms ]",
             u.name,
@@ -249,6 +262,22 @@ public class HealthChecker {
     }
   }
 
+  private void recordHealthMetrics(
+      Customer c, Universe u, Map<String, Integer> nodeErrors, long durationMs) {
+    String nodePrefix = u.getUniverseDetails().nodePrefix;
+    for (Map.Entry<String, Integer> entry : nodeErrors.entrySet()) {
+      Map<String, String> labels = new HashMap<>();
+      labels.put("node_prefix", nodePrefix);
+      labels.put("exported_instance", entry.getKey());
+      timeSeriesStore.record(c.uuid, TimeSeriesStore.HEALTH_NODE_ERRORS, labels, entry.getValue());
+    }
+    timeSeriesStore.record(
+        c.uuid,
+        TimeSeriesStore.HEALTH_CHECK_DURATION,
+        Collections.singletonMap("node_prefix", nodePrefix),
+        durationMs / 1000.0);
+  }
+
   private String sendEmailReport(
       Universe u,
       Customer c,
@@ -373,6 +402,46 @@ public class HealthChecker {
     return this.getRuntimeConfig().getInt(HealthChecker.MAX_NUM_THREADS_KEY);
   }
 
+  // Stores the check. The latest stored check always has the last report, so that the current
+  // state of the universe is shown. The older checks are the history, which only keeps the checks
+  // changing the state of the universe, so that the checks of stable universes do not pile up the
+  // same report. An unchanged check replaces the latest one when that one is itself unchanged from
+  // the check before it, unless that would leave more than the max unchanged check age since the
+  // check before it.
+  private void storeCheck(Universe universe, String report) {
+    List<HealthCheck> lastChecks = HealthCheck.getLatest(universe.universeUUID, 2);
+    if (shouldAddCheck(lastChecks, report)) {
+      HealthCheck.addAndPrune(universe.universeUUID, universe.customerId, report);
+    } else {
+      lastChecks.get(0).refresh(report);
+    }
+  }
+
+  private boolean shouldAddCheck(List<HealthCheck> lastChecks, String report) {
+    if (lastChecks.size() < 2) {
+      // The first check is kept as the start of the history.
+      return true;
+    }
+    HealthCheck lastCheck = lastChecks.get(0);
+    HealthCheck previousCheck = lastChecks.get(1);
+    try {
+      Set<String> lastStates = lastCheck.getCheckStates();
+      if (!lastStates.equals(HealthCheck.getCheckStates(Util.convertStringToJson(report)))) {
+        return true;
+      }
+      if (!lastStates.equals(previousCheck.getCheckStates())) {
+        // The latest check is the first one with its state, it is kept as the time of the change.
+        return true;
+      }
+    } catch (RuntimeException e) {
+      return true;
+    }
+    long previousCheckAgeMs = System.currentTimeMillis() - previousCheck.idKey.checkTime.getTime();
+    long maxUnchangedCheckAgeMs =
+        getRuntimeConfig().getDuration(MAX_UNCHANGED_CHECK_AGE_KEY, TimeUnit.MILLISECONDS);
+    return previousCheckAgeMs >= maxUnchangedCheckAgeMs;
+  }
+
   public void checkAllUniverses(Customer c, CustomerConfig config, boolean shouldSendStatusUpdate) {
 
     AlertingData alertingData =
@@ -661,8 +730,7 @@ public class HealthChecker {
           params.emailDestinations,
           sendMailAlways,
           params.reportOnlyErrors);
-      HealthCheck.addAndPrune(
-          params.universe.universeUUID, params.universe.customerId, response.message);
+      storeCheck(params.universe, response.message);
     } else {
       LOG.error(
           "Health check script got error: {} code ({}) [ {} ms ]",
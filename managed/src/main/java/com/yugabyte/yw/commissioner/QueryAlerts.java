@@ -15,11 +15,14 @@ import akka.actor.ActorSystem;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
+import com.yugabyte.yw.common.AlertDefinitionTemplate;
 import com.yugabyte.yw.common.AlertManager;
+import com.yugabyte.yw.common.FanOutExecutor;
 import com.yugabyte.yw.common.alerts.AlertTemplateSubstitutor;
 import com.yugabyte.yw.common.config.ConfigSubstitutor;
 import com.yugabyte.yw.common.config.RuntimeConfigFactory;
 import com.yugabyte.yw.metrics.MetricQueryHelper;
+import com.yugabyte.yw.metrics.MetricQueryResponse;
 import com.yugabyte.yw.models.*;
 import com.yugabyte.yw.models.helpers.DataConverters;
 import org.apache.commons.collections.CollectionUtils;
@@ -29,8 +32,13 @@ import scala.concurrent.ExecutionContext;
 import scala.concurrent.duration.Duration;
 
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 @Singleton
@@ -49,20 +57,35 @@ public class QueryAlerts {
 
   private final int YB_QUERY_ALERTS_INTERVAL = 1;
 
+  // Maximum number of universes whose definitions are evaluated by the same query.
+  private static final int MAX_BATCHED_UNIVERSES = 100;
+
+  private static final String NODE_PREFIX_LABEL = "node_prefix";
+
+  // Placeholder for the node prefixes matched by a batched query.
+  private static final String NODE_PREFIXES = "__nodePrefixes__";
+
+  // The characters of the node prefixes to escape in a regular expression.
+  private static final Pattern REGEX_SPECIAL_CHARS = Pattern.compile("[\\\\.^$|?*+()\\[\\]{}]");
+
   private final RuntimeConfigFactory configFactory;
 
+  private final FanOutExecutor fanOutExecutor;
+
   @Inject
   public QueryAlerts(
       ExecutionContext executionContext,
       ActorSystem actorSystem,
       AlertManager alertManager,
       MetricQueryHelper queryHelper,
-      RuntimeConfigFactory configFactory) {
+      RuntimeConfigFactory configFactory,
+      FanOutExecutor fanOutExecutor) {
     this.actorSystem = actorSystem;
     this.executionContext = executionContext;
     this.queryHelper = queryHelper;
     this.alertManager = alertManager;
     this.configFactory = configFactory;
+    this.fanOutExecutor = fanOutExecutor;
     this.initialize();
   }
 
@@ -80,68 +103,236 @@ public class QueryAlerts {
             this.executionContext);
   }
 
+  /**
+   * The query evaluated for a group of definitions. The definitions of different universes
+   * generated from the same template, with the same parameters, are batched into one query
+   * matching all their node prefixes, and the results are split back by the node_prefix label.
+   */
+  private static class DefinitionsQuery {
+    // The query, with the node prefixes placeholder if batched.
+    private final String query;
+    private final boolean batched;
+    // The definitions, by the node prefix of their universe if batched.
+    private final Map<String, List<AlertDefinition>> definitions = new LinkedHashMap<>();
+    // The query of each node prefix, if batched.
+    private final Map<String, String> prefixQueries = new HashMap<>();
+
+    private DefinitionsQuery(String query, boolean batched) {
+      this.query = query;
+      this.batched = batched;
+    }
+  }
+
   public Set<Alert> processAlertDefinitions(UUID customerUUID) {
+    // The universes and their config, looked up once per universe for the cycle.
+    Map<UUID, Universe> universes = new HashMap<>();
+    Map<UUID, ConfigSubstitutor> substitutors = new HashMap<>();
+    Map<String, DefinitionsQuery> queries = new LinkedHashMap<>();
+    List<AlertDefinition> definitions = AlertDefinition.listActive(customerUUID);
+    for (AlertDefinition definition : definitions) {
+      try {
+        // TODO Need to store threshold and duration in definition itself - this way custom
+        // logic will not be needed for each definition target type
+        switch (definition.targetType) {
+          case Universe:
+            Universe universe =
+                universes.computeIfAbsent(definition.getUniverseUUID(), Universe::getOrBadRequest);
+            ConfigSubstitutor substitutor =
+                substitutors.computeIfAbsent(
+                    universe.universeUUID,
+                    uuid -> new ConfigSubstitutor(configFactory.forUniverse(universe)));
+            String query = substitutor.replace(definition.query);
+            String nodePrefix = universe.getUniverseDetails().nodePrefix;
+            AlertDefinitionTemplate template = getTemplate(definition, nodePrefix);
+            String batchedQuery =
+                template == null
+                    ? null
+                    : substitutor
+                        .replace(template.buildTemplate(NODE_PREFIXES))
+                        .replace(
+                            NODE_PREFIX_LABEL + "=\"" + NODE_PREFIXES + "\"",
+                            NODE_PREFIX_LABEL + "=~\"" + NODE_PREFIXES + "\"");
+            addDefinitionQuery(queries, definition, query, batchedQuery, nodePrefix);
+            break;
+          default:
+            throw new IllegalStateException(
+                "Unexpected definition type " + definition.targetType.name());
+        }
+      } catch (Exception e) {
+        LOG.error("Error processing alert definition '{}'", definition.name, e);
+      }
+    }
+
+    List<DefinitionsQuery> definitionsQueries = new ArrayList<>(queries.values());
+    List<Callable<Set<UUID>>> tasks =
+        definitionsQueries
+            .stream()
+            .map(q -> (Callable<Set<UUID>>) () -> getFiringDefinitions(q))
+            .collect(Collectors.toList());
+    List<Future<Set<UUID>>> futures = fanOutExecutor.invokeAll("alert_queries", tasks);
+    Set<UUID> firingDefinitions = new HashSet<>();
+    for (int i = 0; i < futures.size(); i++) {
+      try {
+        firingDefinitions.addAll(futures.get(i).get());
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        LOG.error("Interrupted while querying for alerts", e);
+        break;
+      } catch (ExecutionException | CancellationException e) {
+        for (List<AlertDefinition> failed : definitionsQueries.get(i).definitions.values()) {
+          for (AlertDefinition definition : failed) {
+            LOG.error("Error processing alert definition '{}'", definition.name, e);
+          }
+        }
+      }
+    }
+
     Set<Alert> alertsStillActive = new HashSet<>();
-    AlertDefinition.listActive(customerUUID)
-        .forEach(
-            definition -> {
-              try {
-                String query;
-                // TODO Need to store threshold and duration in definition itself - this way custom
-                // logic will not be needed for each definition target type
-                switch (definition.targetType) {
-                  case Universe:
-                    Universe universe = Universe.getOrBadRequest(definition.getUniverseUUID());
-                    query =
-                        new ConfigSubstitutor(configFactory.forUniverse(universe))
-                            .replace(definition.query);
-                    break;
-                  default:
-                    throw new IllegalStateException(
-                        "Unexpected definition type " + definition.targetType.name());
-                }
-                if (!queryHelper.queryDirect(query).isEmpty()) {
-                  List<Alert> existingAlerts =
-                      Alert.getActiveCustomerAlerts(customerUUID, definition.uuid);
-                  // Create an alert to activate if it doesn't exist already.
-                  if (CollectionUtils.isEmpty(existingAlerts)) {
-                    // For now - copy labels from definition to alert. Later, alert will also
-                    // have own labels from Prometheus.
-                    List<AlertLabel> labels =
-                        definition
-                            .getEffectiveLabels()
-                            .stream()
-                            .map(l -> new AlertLabel(l.getName(), l.getValue()))
-                            .collect(Collectors.toList());
-
-                    UUID targetUUID = definition.getTargetUUID();
-                    Alert.TargetType targetType =
-                        DataConverters.definitionToAlertTargetType(definition.targetType);
-                    AlertTemplateSubstitutor substitutor = new AlertTemplateSubstitutor(definition);
-                    String message = substitutor.replace(definition.getMessageTemplate());
-
-                    Alert.create(
-                        customerUUID,
-                        targetUUID,
-                        targetType,
-                        "CUSTOMER_ALERT",
-                        "Error",
-                        message,
-                        definition.isActive,
-                        definition.uuid,
-                        labels);
-                  } else {
-                    alertsStillActive.addAll(existingAlerts);
-                  }
-                }
-              } catch (Exception e) {
-                LOG.error("Error processing alert definition '{}'", definition.name, e);
-              }
-            });
+    for (AlertDefinition definition : definitions) {
+      if (!firingDefinitions.contains(definition.uuid)) {
+        continue;
+      }
+      try {
+        List<Alert> existingAlerts = Alert.getActiveCustomerAlerts(customerUUID, definition.uuid);
+        // Create an alert to activate if it doesn't exist already.
+        if (CollectionUtils.isEmpty(existingAlerts)) {
+          // For now - copy labels from definition to alert. Later, alert will also
+          // have own labels from Prometheus.
+          List<AlertLabel> labels =
+              definition
+                  .getEffectiveLabels()
+                  .stream()
+                  .map(l -> new AlertLabel(l.getName(), l.getValue()))
+                  .collect(Collectors.toList());
+
+          UUID targetUUID = definition.getTargetUUID();
+          Alert.TargetType targetType =
+              DataConverters.definitionToAlertTargetType(definition.targetType);
+          AlertTemplateSubstitutor substitutor = new AlertTemplateSubstitutor(definition);
+          String message = substitutor.replace(definition.getMessageTemplate());
+
+          Alert.create(
+              customerUUID,
+              targetUUID,
+              targetType,
+              "CUSTOMER_ALERT",
+              "Error",
+              message,
+              definition.isActive,
+              definition.uuid,
+              labels);
+        } else {
+          alertsStillActive.addAll(existingAlerts);
+        }
+      } catch (Exception e) {
+        LOG.error("Error processing alert definition '{}'", definition.name, e);
+      }
+    }
 
     return alertsStillActive;
   }
 
+  // Returns the template the query of the definition was generated from, or null if it is a custom
+  // query. Only the template queries are known to aggregate all their sub-expressions by node
+  // prefix, so that the results of a batched query can be split back by universe.
+  private static AlertDefinitionTemplate getTemplate(
+      AlertDefinition definition, String nodePrefix) {
+    if (nodePrefix == null) {
+      return null;
+    }
+    for (AlertDefinitionTemplate template : AlertDefinitionTemplate.values()) {
+      if (template.buildTemplate(nodePrefix).equals(definition.query)) {
+        return template;
+      }
+    }
+    return null;
+  }
+
+  private static void addDefinitionQuery(
+      Map<String, DefinitionsQuery> queries,
+      AlertDefinition definition,
+      String query,
+      String batchedQuery,
+      String nodePrefix) {
+    if (batchedQuery != null) {
+      // Split the batches matching too many node prefixes.
+      for (int i = 0; ; i++) {
+        DefinitionsQuery batch =
+            queries.computeIfAbsent(
+                i + ":" + batchedQuery, q -> new DefinitionsQuery(batchedQuery, true));
+        if (batch.definitions.containsKey(nodePrefix)
+            || batch.definitions.size() < MAX_BATCHED_UNIVERSES) {
+          batch.definitions.computeIfAbsent(nodePrefix, p -> new ArrayList<>()).add(definition);
+          batch.prefixQueries.put(nodePrefix, query);
+          return;
+        }
+      }
+    }
+    queries
+        .computeIfAbsent(query, q -> new DefinitionsQuery(query, false))
+        .definitions
+        .computeIfAbsent("", p -> new ArrayList<>())
+        .add(definition);
+  }
+
+  // Escapes the node prefix, to be matched literally by a regular expression in a query string.
+  private static String escapeNodePrefix(String nodePrefix) {
+    String regex = REGEX_SPECIAL_CHARS.matcher(nodePrefix).replaceAll("\\\\$0");
+    return regex.replace("\\", "\\\\").replace("\"", "\\\"");
+  }
+
+  /** Runs the query of the definitions, and returns the UUIDs of the ones firing. */
+  private Set<UUID> getFiringDefinitions(DefinitionsQuery definitionsQuery) {
+    Set<UUID> firing = new HashSet<>();
+    if (!definitionsQuery.batched) {
+      if (!queryHelper.queryDirect(definitionsQuery.query).isEmpty()) {
+        definitionsQuery.definitions.values().forEach(l -> l.forEach(d -> firing.add(d.uuid)));
+      }
+      return firing;
+    }
+
+    Set<String> firingPrefixes = new HashSet<>();
+    if (definitionsQuery.definitions.size() > 1) {
+      String query =
+          definitionsQuery.query.replace(
+              NODE_PREFIXES,
+              definitionsQuery
+                  .definitions
+                  .keySet()
+                  .stream()
+                  .map(QueryAlerts::escapeNodePrefix)
+                  .collect(Collectors.joining("|")));
+      List<MetricQueryResponse.Entry> result = queryHelper.queryDirect(query);
+      if (result
+          .stream()
+          .allMatch(e -> e.labels != null && e.labels.containsKey(NODE_PREFIX_LABEL))) {
+        result.forEach(e -> firingPrefixes.add(e.labels.get(NODE_PREFIX_LABEL)));
+      } else {
+        // The results can't be split back by universe, so each universe is queried on its own.
+        firingPrefixes.addAll(getFiringPrefixes(definitionsQuery));
+      }
+    } else {
+      firingPrefixes.addAll(getFiringPrefixes(definitionsQuery));
+    }
+    firingPrefixes.forEach(
+        prefix ->
+            definitionsQuery
+                .definitions
+                .getOrDefault(prefix, Collections.emptyList())
+                .forEach(d -> firing.add(d.uuid)));
+    return firing;
+  }
+
+  private Set<String> getFiringPrefixes(DefinitionsQuery definitionsQuery) {
+    return definitionsQuery
+        .prefixQueries
+        .entrySet()
+        .stream()
+        .filter(e -> !queryHelper.queryDirect(e.getValue()).isEmpty())
+        .map(Map.Entry::getKey)
+        .collect(Collectors.toSet());
+  }
+
   @VisibleForTesting
   void scheduleRunner() {
     if (HighAvailabilityConfig.isFollower()) {
@@ -4,11 +4,21 @@ package com.yugabyte.yw.commissioner;
 
 import java.net.InetAddress;
 import java.net.UnknownHostException;
-import java.util.HashMap;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import com.fasterxml.jackson.databind.node.ObjectNode;
@@ -17,6 +27,7 @@ import com.yugabyte.yw.models.helpers.TaskType;
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import play.api.Play;
 
 public class SubTaskGroup implements Runnable {
 
@@ -34,16 +45,29 @@ public class SubTaskGroup implements Runnable {
   // Task list name.
   private String name;
 
-  // The list of tasks in this task list.
+  // The list of tasks in this task list, in the order they were added.
   private Map<AbstractTaskBase, TaskInfo> taskMap;
 
-  // The list of futures to wait for.
-  private Map<Future<?>, TaskInfo> futuresMap;
+  // The tasks which have not been started yet.
+  private final Deque<AbstractTaskBase> pendingTasks = new ArrayDeque<>();
+
+  // The futures of the tasks which have been started and are not done yet. Guarded, like the
+  // pending tasks, by the lock of pendingTasks.
+  private final Set<TaskFuture> runningTasks = new HashSet<>();
+
+  // Completed with true once all the tasks are done, false if some of them failed.
+  private final CompletableFuture<Boolean> completionFuture = new CompletableFuture<>();
 
   private AtomicInteger numTasksCompleted;
 
-  // The number of threads to run in parallel.
-  int numThreads;
+  // Flag to denote that one of the tasks failed.
+  private volatile boolean hasErrored = false;
+
+  // Flag to denote the tasks have been started.
+  private volatile boolean started = false;
+
+  // The max number of tasks running at the same time, 0 to run all the tasks at once.
+  private int maxParallelTasks = 0;
 
   // The threadpool executor in case parallel execution is requested.
   ExecutorService executor;
@@ -54,6 +78,10 @@ public class SubTaskGroup implements Runnable {
   // Flag to denote if an exception needs to be thrown on failure.
   boolean ignoreErrors = false;
 
+  // Buffers the updates of the TaskInfos of the tasks.
+  private final TaskInfoWriteBuffer writeBuffer =
+      Play.current().injector().instanceOf(TaskInfoWriteBuffer.class);
+
   /**
    * Creates the task list.
    *
@@ -74,8 +102,7 @@ public class SubTaskGroup implements Runnable {
   public SubTaskGroup(String name, ExecutorService executor, boolean ignoreErrors) {
     this.name = name;
     this.executor = executor;
-    this.taskMap = new HashMap<>();
-    this.futuresMap = new HashMap<>();
+    this.taskMap = new LinkedHashMap<>();
     this.numTasksCompleted = new AtomicInteger(0);
     this.ignoreErrors = ignoreErrors;
   }
@@ -84,7 +111,7 @@ public class SubTaskGroup implements Runnable {
     this.subTaskGroupType = subTaskGroupType;
     for (TaskInfo taskInfo : taskMap.values()) {
       taskInfo.setSubTaskGroupType(subTaskGroupType);
-      taskInfo.save();
+      writeBuffer.save(taskInfo);
     }
   }
 
@@ -96,7 +123,11 @@ public class SubTaskGroup implements Runnable {
     this.userSubTaskState = userTaskState;
     for (TaskInfo taskInfo : taskMap.values()) {
       taskInfo.setTaskState(userTaskState);
-      taskInfo.save();
+      writeBuffer.save(taskInfo);
+    }
+    // Persist the completion of the group right away.
+    if (userTaskState == TaskInfo.State.Success || userTaskState == TaskInfo.State.Failure) {
+      writeBuffer.flush();
     }
   }
 
@@ -133,10 +164,23 @@ public class SubTaskGroup implements Runnable {
     if (this.subTaskGroupType != null) {
       taskInfo.setSubTaskGroupType(this.subTaskGroupType);
     }
-    taskInfo.save();
+    // The TaskInfo gets inserted by the next flush of the write buffer, so the UUID is assigned
+    // here to identify the task right away.
+    taskInfo.setTaskUUID(UUID.randomUUID());
+    writeBuffer.insert(taskInfo);
     taskMap.put(task, taskInfo);
   }
 
+  /**
+   * Limits the number of tasks of this group running at the same time. The tasks are started in
+   * the order they were added, each one as soon as a running task completes.
+   *
+   * @param maxParallelTasks : the max number of running tasks, 0 for no limit.
+   */
+  public void setMaxParallelTasks(int maxParallelTasks) {
+    this.maxParallelTasks = maxParallelTasks;
+  }
+
   public int getNumTasks() {
     return taskMap.size();
   }
@@ -149,66 +193,157 @@ public class SubTaskGroup implements Runnable {
     for (TaskInfo taskInfo : taskMap.values()) {
       taskInfo.setPosition(position);
       taskInfo.setParentUuid(userTaskUUID);
-      taskInfo.save();
+      writeBuffer.save(taskInfo);
     }
   }
 
   /**
-   * Asynchronously starts the tasks and returns. To wait for the tasks to complete, call the
-   * waitFor() method.
+   * Asynchronously starts the tasks and returns. The tasks are started as the previous ones
+   * complete, so that at most maxParallelTasks of them are running. If a task fails, the tasks not
+   * started yet are not run and the running ones are cancelled, unless errors are ignored. To wait
+   * for the tasks to complete, call the waitFor() method or use the getCompletionFuture().
    */
   @Override
   public void run() {
     if (taskMap.isEmpty()) {
       LOG.error("No tasks in task list {}.", getName());
       tasksDone = true;
+      started = true;
+      completionFuture.complete(true);
       return;
     }
     LOG.info("Running task list {}.", getName());
-    for (AbstractTaskBase task : taskMap.keySet()) {
-      Future<?> future = executor.submit(task);
-      futuresMap.put(future, taskMap.get(task));
+    started = true;
+    int numToStart;
+    synchronized (pendingTasks) {
+      pendingTasks.addAll(taskMap.keySet());
+      numToStart =
+          maxParallelTasks > 0 ? Math.min(maxParallelTasks, taskMap.size()) : taskMap.size();
+    }
+    for (int i = 0; i < numToStart; i++) {
+      startNextTask();
     }
   }
 
+  /** @return a future completed once the tasks are done, with false if some of them failed. */
+  public CompletableFuture<Boolean> getCompletionFuture() {
+    return completionFuture;
+  }
+
   public boolean waitFor() {
-    boolean hasErrored = false;
-    for (Future<?> future : futuresMap.keySet()) {
-      TaskInfo taskInfo = futuresMap.get(future);
-
-      // Wait for each future to finish.
-      String errorString = null;
-      try {
-        if (future.get() == null) {
-          // Task succeeded.
-          numTasksCompleted.incrementAndGet();
-        } else {
-          errorString =
-              "ERROR: while running task "
-                  + taskInfo.toString()
-                  + " "
-                  + taskInfo.getTaskUUID().toString();
-          LOG.error(errorString);
+    if (!started) {
+      // There is nothing to wait for.
+      return true;
+    }
+    return completionFuture.join();
+  }
+
+  /** The future of a started task, which reports the completion of the task to the group. */
+  private class TaskFuture extends FutureTask<Void> {
+    private final TaskInfo taskInfo;
+
+    private TaskFuture(AbstractTaskBase task, TaskInfo taskInfo) {
+      super(task, null);
+      this.taskInfo = taskInfo;
+    }
+
+    // Completes the future with the error, for a task which could not be started.
+    private void fail(Throwable error) {
+      setException(error);
+    }
+
+    // Called once the task is done, including when it is cancelled before or while running.
+    @Override
+    protected void done() {
+      Throwable error = null;
+      if (isCancelled()) {
+        error = new CancellationException("Cancelled after the failure of another task");
+      } else {
+        try {
+          get();
+        } catch (ExecutionException e) {
+          error = e.getCause();
+        } catch (InterruptedException e) {
+          // Not possible, the task is done.
+          Thread.currentThread().interrupt();
         }
-      } catch (Exception e) {
-        errorString =
-            "Failed to execute task "
-                + StringUtils.abbreviate(taskInfo.getTaskDetails().toString(), 200)
-                + ", hit error "
-                + StringUtils.abbreviate(e.getMessage(), 2000)
-                + ".";
-        LOG.error("Failed to execute task " + taskInfo.getTaskDetails() + ", hit error.", e);
-      } finally {
-        if (errorString != null) {
-          hasErrored = true;
-          // TODO: Avoid this deepCopy
-          ObjectNode details = taskInfo.getTaskDetails().deepCopy();
-          details.put("errorString", errorString);
-          taskInfo.setTaskDetails(details);
-          taskInfo.save();
+      }
+      onTaskDone(this, error);
+    }
+  }
+
+  // Starts the next pending task, if any.
+  private void startNextTask() {
+    TaskFuture future;
+    synchronized (pendingTasks) {
+      AbstractTaskBase task = pendingTasks.poll();
+      if (task == null) {
+        return;
+      }
+      future = new TaskFuture(task, taskMap.get(task));
+      runningTasks.add(future);
+    }
+    try {
+      executor.execute(future);
+    } catch (RuntimeException e) {
+      // The executor rejected the task.
+      future.fail(e);
+    }
+  }
+
+  private void onTaskDone(TaskFuture future, Throwable error) {
+    TaskInfo taskInfo = future.taskInfo;
+    if (error == null) {
+      numTasksCompleted.incrementAndGet();
+    } else if (error instanceof CancellationException) {
+      LOG.info("Cancelled task {} of task list {}.", taskInfo.getTaskUUID(), getName());
+      ObjectNode details = taskInfo.getTaskDetails().deepCopy();
+      details.put("errorString", error.getMessage());
+      taskInfo.setTaskDetails(details);
+      writeBuffer.save(taskInfo);
+    } else {
+      String errorString =
+          "Failed to execute task "
+              + StringUtils.abbreviate(taskInfo.getTaskDetails().toString(), 200)
+              + ", hit error "
+              + StringUtils.abbreviate(error.toString(), 2000)
+              + ".";
+      LOG.error("Failed to execute task " + taskInfo.getTaskDetails() + ", hit error.", error);
+      // TODO: Avoid this deepCopy
+      ObjectNode details = taskInfo.getTaskDetails().deepCopy();
+      details.put("errorString", errorString);
+      taskInfo.setTaskDetails(details);
+      writeBuffer.save(taskInfo);
+    }
+
+    boolean done;
+    List<TaskFuture> toCancel = Collections.emptyList();
+    synchronized (pendingTasks) {
+      runningTasks.remove(future);
+      if (error != null) {
+        hasErrored = true;
+        if (!ignoreErrors && !(error instanceof CancellationException)) {
+          // Fail fast, the tasks not started yet are not run and the running ones are cancelled.
+          if (!pendingTasks.isEmpty() || !runningTasks.isEmpty()) {
+            LOG.warn(
+                "Cancelling {} pending and {} running tasks of task list {} after a failure.",
+                pendingTasks.size(),
+                runningTasks.size(),
+                getName());
+          }
+          pendingTasks.clear();
+          toCancel = new ArrayList<>(runningTasks);
         }
       }
+      done = pendingTasks.isEmpty() && runningTasks.isEmpty();
+    }
+    // The cancelled tasks report their own completion, the last one completing the group.
+    toCancel.forEach(f -> f.cancel(true));
+    if (done) {
+      tasksDone = true;
+      completionFuture.complete(!hasErrored);
+    } else {
+      startNextTask();
     }
-    return !hasErrored;
   }
 }
@@ -2,8 +2,12 @@
 
 package com.yugabyte.yw.commissioner;
 
+import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import com.yugabyte.yw.models.TaskInfo;
 import org.slf4j.Logger;
@@ -28,36 +32,85 @@ public class SubTaskGroupQueue {
     return subTaskGroups.add(subTaskGroup);
   }
 
-  /** Execute the sequence of task lists in a sequential manner. */
+  /**
+   * Execute the sequence of task lists in a sequential manner. The calling thread waits until all
+   * the task lists are done.
+   */
   public void run() {
-    boolean runSuccess = true;
-    for (SubTaskGroup subTaskGroup : subTaskGroups) {
-      boolean subTaskGroupSuccess = false;
-      subTaskGroup.setUserSubTaskState(TaskInfo.State.Running);
-      try {
-        subTaskGroup.run();
-        subTaskGroupSuccess = subTaskGroup.waitFor();
-      } catch (Throwable t) {
-        // Update task state to failure
-        subTaskGroup.setUserSubTaskState(TaskInfo.State.Failure);
-        if (!subTaskGroup.ignoreErrors) {
-          throw t;
-        }
+    try {
+      runAsync().join();
+    } catch (CompletionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
       }
-
-      if (!subTaskGroupSuccess) {
-        LOG.error("SubTaskGroup '{}' waitFor() returned failed status.", subTaskGroup.toString());
-        subTaskGroup.setUserSubTaskState(TaskInfo.State.Failure);
-        if (!subTaskGroup.ignoreErrors) {
-          throw new RuntimeException(subTaskGroup.toString() + " failed.");
-        }
+      if (cause instanceof Error) {
+        throw (Error) cause;
       }
+      throw e;
+    }
+  }
 
-      runSuccess = runSuccess && subTaskGroupSuccess;
+  /**
+   * Asynchronously executes the sequence of task lists, each task list being started by the
+   * completion of the previous one.
+   *
+   * @return a future completed once all the task lists are done, or exceptionally as soon as a
+   *     task list fails, unless its errors are ignored.
+   */
+  public CompletableFuture<Void> runAsync() {
+    return runSequentially(subTaskGroups);
+  }
 
-      if (subTaskGroupSuccess) subTaskGroup.setUserSubTaskState(TaskInfo.State.Success);
+  public boolean isEmpty() {
+    return subTaskGroups.isEmpty();
+  }
+
+  // Runs the task lists one after the other, each one being started by the completion of the
+  // previous one.
+  static CompletableFuture<Void> runSequentially(List<SubTaskGroup> subTaskGroups) {
+    AtomicBoolean runSuccess = new AtomicBoolean(true);
+    CompletableFuture<Void> future = CompletableFuture.completedFuture(null);
+    for (SubTaskGroup subTaskGroup : subTaskGroups) {
+      future = future.thenCompose(v -> runSubTaskGroup(subTaskGroup, runSuccess));
     }
+    return future.thenRun(
+        () -> {
+          if (!runSuccess.get()) {
+            throw new RuntimeException("One or more subTaskGroups failed while running.");
+          }
+        });
+  }
 
-    if (!runSuccess) throw new RuntimeException("One or more subTaskGroups failed while running.");
+  private static CompletableFuture<Void> runSubTaskGroup(
+      SubTaskGroup subTaskGroup, AtomicBoolean runSuccess) {
+    subTaskGroup.setUserSubTaskState(TaskInfo.State.Running);
+    try {
+      subTaskGroup.run();
+    } catch (Throwable t) {
+      // Update task state to failure
+      subTaskGroup.setUserSubTaskState(TaskInfo.State.Failure);
+      if (!subTaskGroup.ignoreErrors) {
+        throw t;
+      }
+      runSuccess.set(false);
+      return CompletableFuture.completedFuture(null);
+    }
+    return subTaskGroup
+        .getCompletionFuture()
+        .thenAccept(
+            subTaskGroupSuccess -> {
+              if (!subTaskGroupSuccess) {
+                LOG.error(
+                    "SubTaskGroup '{}' waitFor() returned failed status.", subTaskGroup.toString());
+                subTaskGroup.setUserSubTaskState(TaskInfo.State.Failure);
+                if (!subTaskGroup.ignoreErrors) {
+                  throw new RuntimeException(subTaskGroup.toString() + " failed.");
+                }
+                runSuccess.set(false);
+              } else {
+                subTaskGroup.setUserSubTaskState(TaskInfo.State.Success);
+              }
+            });
   }
 }
@@ -0,0 +1,230 @@
+// Copyright (c) YugaByte, Inc.
+
+package com.yugabyte.yw.commissioner;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A graph of steps, each step being a sequence of task lists run one after the other. A step starts
+ * once all the steps it depends on are done, so independent steps run concurrently. Steps can also
+ * hold resources: two steps holding the same resource with different values never run at the same
+ * time. For instance, steps holding the "MASTER" resource with the node name as value take down at
+ * most one master at a time, and steps holding the "TSERVER" resource with the zone as value only
+ * run in one zone at a time.
+ *
+ * <p>A step can only depend on the steps added before it, so the graph has no cycles. When several
+ * steps are ready to run, they are started in the order they were added. If a step fails, no new
+ * step is started and the graph fails once the running steps are done.
+ */
+public class TaskGraph {
+
+  public static final Logger LOG = LoggerFactory.getLogger(TaskGraph.class);
+
+  /** A sequence of task lists in the graph. */
+  public static class Step {
+    private final String name;
+
+    private final List<SubTaskGroup> subTaskGroups;
+
+    private final Set<Step> dependencies;
+
+    // The resources held by the step while it runs, with their values.
+    private final Map<String, Object> resources = new HashMap<>();
+
+    private Step(String name, List<SubTaskGroup> subTaskGroups, Set<Step> dependencies) {
+      this.name = name;
+      this.subTaskGroups = subTaskGroups;
+      this.dependencies = dependencies;
+    }
+
+    /**
+     * Holds the resource while the step runs, so that it does not run at the same time as the
+     * steps holding the same resource with a different value.
+     */
+    public Step holding(String resource, Object value) {
+      resources.put(resource, value);
+      return this;
+    }
+
+    public String getName() {
+      return name;
+    }
+
+    private boolean conflictsWith(Step other) {
+      for (Map.Entry<String, Object> entry : resources.entrySet()) {
+        if (other.resources.containsKey(entry.getKey())
+            && !Objects.equals(entry.getValue(), other.resources.get(entry.getKey()))) {
+          return true;
+        }
+      }
+      return false;
+    }
+
+    @Override
+    public String toString() {
+      return name;
+    }
+  }
+
+  private final UUID userTaskUUID;
+
+  // The steps in the order they were added.
+  private final List<Step> steps = new ArrayList<>();
+
+  // The number of task lists in the graph, used as the position of the next task list.
+  private int numSubTaskGroups = 0;
+
+  // The state of the run.
+  private final Set<Step> pendingSteps = new LinkedHashSet<>();
+  private final Set<Step> runningSteps = new HashSet<>();
+  private final Set<Step> doneSteps = new HashSet<>();
+  private Throwable error;
+  private final CompletableFuture<Void> completionFuture = new CompletableFuture<>();
+
+  public TaskGraph(UUID userTaskUUID) {
+    this.userTaskUUID = userTaskUUID;
+  }
+
+  /**
+   * Adds the task lists of the queue as a step of the graph.
+   *
+   * @param name : the name of the step, for logging.
+   * @param subTaskGroupQueue : the task lists run by the step, in order.
+   * @param dependencies : the steps which have to be done before the step starts.
+   * @return the step.
+   */
+  public synchronized Step addStep(
+      String name, SubTaskGroupQueue subTaskGroupQueue, Collection<Step> dependencies) {
+    for (Step dependency : dependencies) {
+      if (!steps.contains(dependency)) {
+        throw new IllegalArgumentException(
+            "Step " + name + " depends on " + dependency + " which is not in the graph.");
+      }
+    }
+    List<SubTaskGroup> subTaskGroups = new ArrayList<>(subTaskGroupQueue.subTaskGroups);
+    // The task lists are displayed to the user in the order they were added to the graph.
+    for (SubTaskGroup subTaskGroup : subTaskGroups) {
+      subTaskGroup.setTaskContext(numSubTaskGroups++, userTaskUUID);
+    }
+    Step step = new Step(name, subTaskGroups, new HashSet<>(dependencies));
+    steps.add(step);
+    return step;
+  }
+
+  public synchronized int getNumSteps() {
+    return steps.size();
+  }
+
+  /** Runs the steps and waits for them to be done. */
+  public void run() {
+    try {
+      runAsync().join();
+    } catch (CompletionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      if (cause instanceof Error) {
+        throw (Error) cause;
+      }
+      throw e;
+    }
+  }
+
+  /**
+   * Asynchronously runs the steps.
+   *
+   * @return a future completed once all the steps are done, or exceptionally if a step failed.
+   */
+  public CompletableFuture<Void> runAsync() {
+    List<Step> toStart;
+    synchronized (this) {
+      if (!pendingSteps.isEmpty() || !doneSteps.isEmpty() || !runningSteps.isEmpty()) {
+        throw new IllegalStateException("Task graph is already running.");
+      }
+      pendingSteps.addAll(steps);
+      toStart = dispatch();
+    }
+    toStart.forEach(this::start);
+    return completionFuture;
+  }
+
+  // Picks the steps which can start and marks them running. Completes the run if there is nothing
+  // left to do.
+  private List<Step> dispatch() {
+    List<Step> toStart = new ArrayList<>();
+    if (error == null) {
+      for (Step step : pendingSteps) {
+        if (doneSteps.containsAll(step.dependencies) && !conflictsWithRunning(step)) {
+          toStart.add(step);
+          runningSteps.add(step);
+        }
+      }
+      pendingSteps.removeAll(toStart);
+    }
+    if (runningSteps.isEmpty()) {
+      if (error != null) {
+        completionFuture.completeExceptionally(error);
+      } else if (pendingSteps.isEmpty()) {
+        completionFuture.complete(null);
+      }
+    }
+    return toStart;
+  }
+
+  private boolean conflictsWithRunning(Step step) {
+    for (Step running : runningSteps) {
+      if (step.conflictsWith(running)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private void start(Step step) {
+    LOG.info("Starting step {}.", step);
+    CompletableFuture<Void> future;
+    try {
+      future = SubTaskGroupQueue.runSequentially(step.subTaskGroups);
+    } catch (Throwable t) {
+      future = new CompletableFuture<>();
+      future.completeExceptionally(t);
+    }
+    future.whenComplete((result, t) -> onStepDone(step, t));
+  }
+
+  private void onStepDone(Step step, Throwable t) {
+    List<Step> toStart;
+    synchronized (this) {
+      runningSteps.remove(step);
+      if (t == null) {
+        LOG.info("Step {} is done.", step);
+        doneSteps.add(step);
+      } else {
+        if (t instanceof CompletionException && t.getCause() != null) {
+          t = t.getCause();
+        }
+        LOG.error("Step {} failed, not starting the {} pending steps.", step, pendingSteps.size());
+        if (error == null) {
+          error = t;
+        }
+      }
+      toStart = dispatch();
+    }
+    toStart.forEach(this::start);
+  }
+}
@@ -0,0 +1,211 @@
+// Copyright (c) YugaByte, Inc.
+
+package com.yugabyte.yw.commissioner;
+
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import akka.actor.ActorSystem;
+import akka.actor.Cancellable;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import com.yugabyte.yw.models.TaskInfo;
+import io.ebean.Ebean;
+import io.ebean.EbeanServer;
+import io.ebean.SqlUpdate;
+import io.ebean.Transaction;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import play.inject.ApplicationLifecycle;
+import scala.concurrent.ExecutionContext;
+import scala.concurrent.duration.Duration;
+
+/**
+ * Write-behind buffer for TaskInfo updates. Running tasks update their subtasks and heartbeat
+ * frequently, so instead of saving the TaskInfo on every change, the changed TaskInfos are
+ * buffered and written in JDBC batches on a short interval. Multiple changes to the same TaskInfo
+ * between two flushes result in a single insert or update. Terminal state changes are flushed
+ * synchronously, so once a task is seen as completed in the DB all its updates are persisted.
+ *
+ * <p>The TaskInfo beans keep being changed by the task threads, so the buffer never writes them:
+ * the thread changing a TaskInfo hands over a copy of it, which only the flush uses.
+ */
+@Singleton
+public class TaskInfoWriteBuffer {
+
+  public static final Logger LOG = LoggerFactory.getLogger(TaskInfoWriteBuffer.class);
+
+  // The interval at which the buffered updates are written to the DB.
+  private static final long FLUSH_INTERVAL_MS = 1000;
+
+  // The max number of statements sent to the DB in a single JDBC batch.
+  private static final int JDBC_BATCH_SIZE = 100;
+
+  private static final String TOUCH_QUERY =
+      "UPDATE task_info SET update_time = :updateTime WHERE uuid = :uuid";
+
+  // A pending write of a TaskInfo.
+  private static class PendingWrite {
+    // The copy of the TaskInfo to write, null if only its update time has to be bumped.
+    final TaskInfo snapshot;
+
+    // True if the TaskInfo is not in the DB yet.
+    final boolean insert;
+
+    PendingWrite(TaskInfo snapshot, boolean insert) {
+      this.snapshot = snapshot;
+      this.insert = insert;
+    }
+
+    // Combines this write with the following one, which has the most recent state.
+    PendingWrite mergeWith(PendingWrite next) {
+      TaskInfo snapshot = next.snapshot != null ? next.snapshot : this.snapshot;
+      return new PendingWrite(snapshot, insert || next.insert);
+    }
+  }
+
+  // The pending writes by task UUID.
+  private final Map<UUID, PendingWrite> pending = new LinkedHashMap<>();
+
+  // Serializes the writes, so that a TaskInfo is never written by two flushes at the same time.
+  private final Object writeLock = new Object();
+
+  @Inject
+  public TaskInfoWriteBuffer(
+      ActorSystem actorSystem, ExecutionContext executionContext, ApplicationLifecycle lifecycle) {
+    Cancellable flusher =
+        actorSystem
+            .scheduler()
+            .schedule(
+                Duration.create(FLUSH_INTERVAL_MS, TimeUnit.MILLISECONDS), // initialDelay
+                Duration.create(FLUSH_INTERVAL_MS, TimeUnit.MILLISECONDS), // interval
+                this::flushQuietly,
+                executionContext);
+    lifecycle.addStopHook(
+        () -> {
+          flusher.cancel();
+          flushQuietly();
+          return CompletableFuture.completedFuture(null);
+        });
+  }
+
+  @VisibleForTesting
+  TaskInfoWriteBuffer() {
+    // No background flushes, the pending writes are only written by explicit flushes.
+  }
+
+  /** Buffers a new TaskInfo, to be inserted by the next flush. */
+  public void insert(TaskInfo taskInfo) {
+    add(taskInfo.getTaskUUID(), new PendingWrite(snapshot(taskInfo), true));
+  }
+
+  /**
+   * Buffers the changes to the TaskInfo, to be written by the next flush. Has to be called by the
+   * thread changing the TaskInfo, once done with the changes.
+   */
+  public void save(TaskInfo taskInfo) {
+    add(taskInfo.getTaskUUID(), new PendingWrite(snapshot(taskInfo), false));
+  }
+
+  /** Buffers a heartbeat of the task, the next flush bumps its update time. */
+  public void touch(UUID taskUUID) {
+    add(taskUUID, new PendingWrite(null, false));
+  }
+
+  /** Buffers the changes to the TaskInfo and synchronously writes all the pending changes. */
+  public void saveAndFlush(TaskInfo taskInfo) {
+    save(taskInfo);
+    flush();
+  }
+
+  /**
+   * Synchronously writes all the pending changes. If the write fails, the changes stay pending
+   * and are written by the next flush, unless they are superseded by more recent changes.
+   */
+  public void flush() {
+    synchronized (writeLock) {
+      Map<UUID, PendingWrite> toWrite;
+      synchronized (pending) {
+        if (pending.isEmpty()) {
+          return;
+        }
+        toWrite = new LinkedHashMap<>(pending);
+        pending.clear();
+      }
+      try {
+        write(toWrite);
+      } catch (RuntimeException e) {
+        synchronized (pending) {
+          // The writes buffered in the meantime are more recent.
+          for (Map.Entry<UUID, PendingWrite> entry : toWrite.entrySet()) {
+            pending.merge(
+                entry.getKey(), entry.getValue(), (next, failed) -> failed.mergeWith(next));
+          }
+        }
+        throw e;
+      }
+    }
+  }
+
+  private void flushQuietly() {
+    try {
+      flush();
+    } catch (Exception e) {
+      LOG.error("Error writing buffered task updates, will retry", e);
+    }
+  }
+
+  private void add(UUID taskUUID, PendingWrite write) {
+    synchronized (pending) {
+      pending.merge(taskUUID, write, PendingWrite::mergeWith);
+    }
+  }
+
+  // Copies the persisted state of the TaskInfo. The copy gets written as a stateless update, as
+  // its properties are set but it is not loaded from the DB.
+  private static TaskInfo snapshot(TaskInfo taskInfo) {
+    TaskInfo snapshot = new TaskInfo(taskInfo.getTaskType());
+    snapshot.setTaskUUID(taskInfo.getTaskUUID());
+    snapshot.setParentUuid(taskInfo.getParentUUID());
+    snapshot.setPosition(taskInfo.getPosition());
+    snapshot.setTaskState(taskInfo.getTaskState());
+    snapshot.setSubTaskGroupType(taskInfo.getSubTaskGroupType());
+    snapshot.setPercentDone(taskInfo.getPercentDone());
+    snapshot.setOwner(taskInfo.getOwner());
+    if (taskInfo.getTaskDetails() != null) {
+      snapshot.setTaskDetails(taskInfo.getTaskDetails().deepCopy());
+    }
+    return snapshot;
+  }
+
+  private static void write(Map<UUID, PendingWrite> toWrite) {
+    EbeanServer server = Ebean.getDefaultServer();
+    Transaction txn = server.createTransaction();
+    try {
+      txn.setBatchMode(true);
+      txn.setBatchSize(JDBC_BATCH_SIZE);
+      for (Map.Entry<UUID, PendingWrite> entry : toWrite.entrySet()) {
+        PendingWrite write = entry.getValue();
+        if (write.snapshot == null) {
+          SqlUpdate touch = server.createSqlUpdate(TOUCH_QUERY);
+          touch.setParameter("updateTime", new Date());
+          touch.setParameter("uuid", entry.getKey());
+          server.execute(touch, txn);
+        } else if (write.insert) {
+          server.insert(write.snapshot, txn);
+        } else {
+          server.update(write.snapshot, txn);
+        }
+      }
+      txn.commit();
+    } finally {
+      txn.end();
+    }
+    LOG.trace("Wrote {} buffered task updates.", toWrite.size());
+  }
+}
@@ -10,6 +10,10 @@ import java.util.Map;
 import java.util.UUID;
 
 import com.yugabyte.yw.common.ha.PlatformReplicationManager;
+import com.yugabyte.yw.forms.UniverseDefinitionTaskParams;
+import com.yugabyte.yw.forms.UniverseTaskParams;
+import com.yugabyte.yw.metrics.TimeSeriesStore;
+import com.yugabyte.yw.models.Universe;
 import com.yugabyte.yw.models.helpers.TaskType;
 import com.yugabyte.yw.models.ScheduleTask;
 import com.yugabyte.yw.models.CustomerTask;
@@ -41,6 +45,15 @@ public class TaskRunner implements Runnable {
   // A utility for Platform HA.
   private final PlatformReplicationManager replicationManager;
 
+  // Buffers the updates of the TaskInfo.
+  private final TaskInfoWriteBuffer writeBuffer;
+
+  // Keeps the durations of the tasks in the platform metrics.
+  private final TimeSeriesStore timeSeriesStore;
+
+  // The labels of the task in the platform metrics.
+  private final Map<String, String> metricLabels = new HashMap<>();
+
   static {
     // Initialize the map which holds the task types to their task class.
     Map<TaskType, Class<? extends ITask>> typeMap = new HashMap<TaskType, Class<? extends ITask>>();
@@ -103,6 +116,30 @@ public class TaskRunner implements Runnable {
     }
     taskInfo.setOwner(hostname);
     replicationManager = Play.current().injector().instanceOf(PlatformReplicationManager.class);
+    writeBuffer = Play.current().injector().instanceOf(TaskInfoWriteBuffer.class);
+    timeSeriesStore = Play.current().injector().instanceOf(TimeSeriesStore.class);
+    metricLabels.put("task_type", taskType.toString());
+    String nodePrefix = getNodePrefix(taskParams);
+    if (nodePrefix != null) {
+      metricLabels.put("node_prefix", nodePrefix);
+    }
+  }
+
+  // Returns the node prefix of the universe of the task, if any.
+  private static String getNodePrefix(ITaskParams taskParams) {
+    if (taskParams instanceof UniverseDefinitionTaskParams
+        && ((UniverseDefinitionTaskParams) taskParams).nodePrefix != null) {
+      return ((UniverseDefinitionTaskParams) taskParams).nodePrefix;
+    }
+    if (taskParams instanceof UniverseTaskParams) {
+      UUID universeUUID = ((UniverseTaskParams) taskParams).universeUUID;
+      if (universeUUID != null) {
+        return Universe.maybeGet(universeUUID)
+            .map(universe -> universe.getUniverseDetails().nodePrefix)
+            .orElse(null);
+      }
+    }
+    return null;
   }
 
   public UUID getTaskUUID() {
@@ -131,15 +168,16 @@ public class TaskRunner implements Runnable {
    * Second, it gives the underlying task to checkpoint its work if needed.
    */
   public void doHeartbeat() {
-    // Set the last updated timestamp of the task to now by force saving it.
-    taskInfo.markAsDirty();
-    taskInfo.save();
+    // Set the last updated timestamp of the task to now by force saving it on the next flush of
+    // the write buffer.
+    writeBuffer.touch(getTaskUUID());
   }
 
   @Override
   public void run() {
     LOG.debug("Running task {}", getTaskUUID());
     task.setUserTaskUUID(getTaskUUID());
+    long startMs = System.currentTimeMillis();
     updateTaskState(TaskInfo.State.Running);
     try {
       // Run the task.
@@ -167,6 +205,18 @@ public class TaskRunner implements Runnable {
         scheduleTask.setCompletedTime();
       }
 
+      // The durations are shown to the customer of the task, the tasks without customer task
+      // are not recorded.
+      if (customerTask != null) {
+        Map<String, String> labels = new HashMap<>(metricLabels);
+        labels.put("task_state", getState());
+        timeSeriesStore.record(
+            customerTask.getCustomerUUID(),
+            TimeSeriesStore.TASK_DURATION,
+            labels,
+            (System.currentTimeMillis() - startMs) / 1000.0);
+      }
+
       // Run a one-off Platform HA sync every time a task finishes.
       replicationManager.oneOffSync();
     }
@@ -184,7 +234,9 @@ public class TaskRunner implements Runnable {
   private void updateTaskState(TaskInfo.State newState) {
     LOG.info("Updating task [" + taskInfo.toString() + "] to new state " + newState);
     taskInfo.setTaskState(newState);
-    taskInfo.save();
+    // Also writes the buffered updates of the subtasks, so they are persisted before the state
+    // of the task changes.
+    writeBuffer.saveAndFlush(taskInfo);
   }
 
   @Override
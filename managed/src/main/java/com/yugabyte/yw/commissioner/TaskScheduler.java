@@ -0,0 +1,226 @@
+// Copyright (c) YugaByte, Inc.
+
+package com.yugabyte.yw.commissioner;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+
+import com.yugabyte.yw.common.YWServiceException;
+import com.yugabyte.yw.models.helpers.TaskType;
+import io.prometheus.client.Counter;
+import io.prometheus.client.Gauge;
+import io.prometheus.client.Histogram;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import static play.mvc.Http.Status.SERVICE_UNAVAILABLE;
+
+/**
+ * Decides when the submitted user tasks run. Tasks wait in per priority queues and are handed to
+ * the executor in priority order, oldest first, as long as the number of running tasks stays
+ * within the total, per customer and per task type limits. A task which is over a limit does not
+ * block the tasks queued behind it. Tasks are rejected when the queue of their priority is full.
+ */
+public class TaskScheduler {
+
+  public static final Logger LOG = LoggerFactory.getLogger(TaskScheduler.class);
+
+  /** The priorities of the tasks, from the highest to the lowest. */
+  public enum Priority {
+    // Tasks requested by a user.
+    Interactive,
+
+    // Tasks run on a schedule, such as the scheduled backups.
+    Scheduled,
+
+    // Background housekeeping, such as deleting expired backups.
+    Maintenance,
+  }
+
+  private static final Gauge QUEUED_TASKS =
+      Gauge.build("yw_commissioner_queued_tasks", "Number of tasks waiting to run")
+          .labelNames("priority")
+          .register();
+
+  private static final Gauge RUNNING_TASKS =
+      Gauge.build("yw_commissioner_running_tasks", "Number of tasks running").register();
+
+  private static final Counter REJECTED_TASKS =
+      Counter.build("yw_commissioner_rejected_tasks", "Number of tasks rejected as queue is full")
+          .labelNames("priority")
+          .register();
+
+  private static final Histogram QUEUE_WAIT_TIME =
+      Histogram.build("yw_commissioner_queue_wait_seconds", "Time spent by the tasks in the queue")
+          .labelNames("priority")
+          .buckets(0.1, 1, 10, 60, 300, 1800)
+          .register();
+
+  /** The limits of the scheduler. */
+  public static class Limits {
+    // Max number of tasks running at a time.
+    public int maxRunningTasks;
+
+    // Max number of tasks of the same customer running at a time.
+    public int maxRunningTasksPerCustomer;
+
+    // Max number of tasks of the same type running at a time.
+    public int maxRunningTasksPerType;
+
+    // Max number of tasks waiting to run, by priority.
+    public final Map<Priority, Integer> maxQueuedTasks = new EnumMap<>(Priority.class);
+  }
+
+  private static class QueuedTask {
+    final Runnable task;
+    final TaskType taskType;
+    final UUID customerUUID;
+    final Priority priority;
+    final long queuedAtNanos = System.nanoTime();
+
+    QueuedTask(Runnable task, TaskType taskType, UUID customerUUID, Priority priority) {
+      this.task = task;
+      this.taskType = taskType;
+      this.customerUUID = customerUUID;
+      this.priority = priority;
+    }
+  }
+
+  private final ExecutorService executor;
+
+  private final Limits limits;
+
+  private final Map<Priority, Deque<QueuedTask>> queues = new EnumMap<>(Priority.class);
+
+  private final Map<UUID, Integer> numRunningPerCustomer = new HashMap<>();
+
+  private final Map<TaskType, Integer> numRunningPerType = new EnumMap<>(TaskType.class);
+
+  private int numRunning = 0;
+
+  public TaskScheduler(ExecutorService executor, Limits limits) {
+    this.executor = executor;
+    this.limits = limits;
+    for (Priority priority : Priority.values()) {
+      queues.put(priority, new ArrayDeque<>());
+      QUEUED_TASKS.labels(priority.name()).set(0);
+    }
+    RUNNING_TASKS.set(0);
+  }
+
+  /**
+   * Checks that a task of the given priority can be queued, so that it is rejected before being
+   * created.
+   *
+   * @throws YWServiceException if the queue of the priority is full.
+   */
+  public synchronized void checkAdmission(TaskType taskType, Priority priority) {
+    Integer maxQueued = limits.maxQueuedTasks.get(priority);
+    if (maxQueued != null && queues.get(priority).size() >= maxQueued) {
+      REJECTED_TASKS.labels(priority.name()).inc();
+      String msg =
+          String.format(
+              "Too many %s tasks waiting to run (%d), rejecting %s task.",
+              priority, queues.get(priority).size(), taskType);
+      LOG.warn(msg);
+      throw new YWServiceException(SERVICE_UNAVAILABLE, msg);
+    }
+  }
+
+  /**
+   * Queues the task and runs it once it is its turn.
+   *
+   * @param task : the task to run.
+   * @param taskType : the type of the task, for the per task type limit.
+   * @param customerUUID : the customer the task is run for, or null if not limited per customer.
+   * @param priority : the priority of the task.
+   */
+  public synchronized void submit(
+      Runnable task, TaskType taskType, UUID customerUUID, Priority priority) {
+    queues.get(priority).addLast(new QueuedTask(task, taskType, customerUUID, priority));
+    QUEUED_TASKS.labels(priority.name()).inc();
+    dispatch();
+  }
+
+  public synchronized int getNumQueued(Priority priority) {
+    return queues.get(priority).size();
+  }
+
+  public synchronized int getNumRunning() {
+    return numRunning;
+  }
+
+  // Starts as many queued tasks as the limits allow.
+  private void dispatch() {
+    for (Priority priority : Priority.values()) {
+      Iterator<QueuedTask> iter = queues.get(priority).iterator();
+      while (iter.hasNext()) {
+        if (numRunning >= limits.maxRunningTasks) {
+          return;
+        }
+        QueuedTask queuedTask = iter.next();
+        if (canRun(queuedTask)) {
+          iter.remove();
+          QUEUED_TASKS.labels(priority.name()).dec();
+          start(queuedTask);
+        }
+      }
+    }
+  }
+
+  private boolean canRun(QueuedTask queuedTask) {
+    if (numRunningPerType.getOrDefault(queuedTask.taskType, 0)
+        >= limits.maxRunningTasksPerType) {
+      return false;
+    }
+    return queuedTask.customerUUID == null
+        || numRunningPerCustomer.getOrDefault(queuedTask.customerUUID, 0)
+            < limits.maxRunningTasksPerCustomer;
+  }
+
+  private void start(QueuedTask queuedTask) {
+    numRunning++;
+    RUNNING_TASKS.inc();
+    numRunningPerType.merge(queuedTask.taskType, 1, Integer::sum);
+    if (queuedTask.customerUUID != null) {
+      numRunningPerCustomer.merge(queuedTask.customerUUID, 1, Integer::sum);
+    }
+    QUEUE_WAIT_TIME
+        .labels(queuedTask.priority.name())
+        .observe((System.nanoTime() - queuedTask.queuedAtNanos) / 1e9);
+    try {
+      executor.submit(
+          () -> {
+            try {
+              queuedTask.task.run();
+            } finally {
+              onCompletion(queuedTask);
+            }
+          });
+    } catch (RuntimeException e) {
+      LOG.error("Failed to start " + queuedTask.taskType + " task", e);
+      release(queuedTask);
+    }
+  }
+
+  private synchronized void onCompletion(QueuedTask queuedTask) {
+    release(queuedTask);
+    dispatch();
+  }
+
+  private void release(QueuedTask queuedTask) {
+    numRunning--;
+    RUNNING_TASKS.dec();
+    numRunningPerType.computeIfPresent(queuedTask.taskType, (k, v) -> v > 1 ? v - 1 : null);
+    if (queuedTask.customerUUID != null) {
+      numRunningPerCustomer.computeIfPresent(
+          queuedTask.customerUUID, (k, v) -> v > 1 ? v - 1 : null);
+    }
+  }
+}
@@ -459,7 +459,7 @@ public abstract class UniverseDefinitionTaskBase extends UniverseTaskBase {
       return;
     }
 
-    SubTaskGroup subTaskGroup = new SubTaskGroup("AnsibleConfigureServersGFlags", executor);
+    SubTaskGroup subTaskGroup = createNodeTaskGroup("AnsibleConfigureServersGFlags");
     for (NodeDetails node : nodes) {
       UserIntent userIntent = taskParams().getClusterByUuid(node.placementUuid).userIntent;
       Map<String, String> gflags =
@@ -626,7 +626,7 @@ public abstract class UniverseDefinitionTaskBase extends UniverseTaskBase {
    */
   public SubTaskGroup createFailedPrecheckTask(
       Map<NodeInstance, String> failedNodes, boolean reserveNodes) {
-    SubTaskGroup subTaskGroup = new SubTaskGroup("PrecheckNode", executor);
+    SubTaskGroup subTaskGroup = createNodeTaskGroup("PrecheckNode");
     PrecheckNode.Params params = new PrecheckNode.Params();
     params.failedNodes = failedNodes;
     params.reserveNodes = reserveNodes;
@@ -643,7 +643,7 @@ public abstract class UniverseDefinitionTaskBase extends UniverseTaskBase {
    * @param nodes : a collection of nodes that need to be created
    */
   public SubTaskGroup createSetupServerTasks(Collection<NodeDetails> nodes) {
-    SubTaskGroup subTaskGroup = new SubTaskGroup("AnsibleSetupServer", executor);
+    SubTaskGroup subTaskGroup = createNodeTaskGroup("AnsibleSetupServer");
     for (NodeDetails node : nodes) {
       UserIntent userIntent = taskParams().getClusterByUuid(node.placementUuid).userIntent;
       AnsibleSetupServer.Params params = new AnsibleSetupServer.Params();
@@ -715,7 +715,7 @@ public abstract class UniverseDefinitionTaskBase extends UniverseTaskBase {
       boolean isMasterInShellMode,
       boolean updateMasterAddrsOnly,
       boolean isMaster) {
-    SubTaskGroup subTaskGroup = new SubTaskGroup("AnsibleConfigureServers", executor);
+    SubTaskGroup subTaskGroup = createNodeTaskGroup("AnsibleConfigureServers");
     for (NodeDetails node : nodes) {
       UserIntent userIntent = taskParams().getClusterByUuid(node.placementUuid).userIntent;
       AnsibleConfigureServers.Params params = new AnsibleConfigureServers.Params();
@@ -781,7 +781,7 @@ public abstract class UniverseDefinitionTaskBase extends UniverseTaskBase {
    * @return subtask group
    */
   public SubTaskGroup createServerInfoTasks(Collection<NodeDetails> nodes) {
-    SubTaskGroup subTaskGroup = new SubTaskGroup("AnsibleUpdateNodeInfo", executor);
+    SubTaskGroup subTaskGroup = createNodeTaskGroup("AnsibleUpdateNodeInfo");
 
     for (NodeDetails node : nodes) {
       NodeTaskParams params = new NodeTaskParams();
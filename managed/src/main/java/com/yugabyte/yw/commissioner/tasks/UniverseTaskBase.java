@@ -45,6 +45,10 @@ public abstract class UniverseTaskBase extends AbstractTaskBase {
   // Flag to indicate if we have locked the universe.
   private boolean universeLocked = false;
 
+  // The max number of nodes a task list provisions, configures or destroys at the same time.
+  public static final String MAX_PARALLEL_NODE_TASKS_KEY =
+      "yb.commissioner.max_parallel_node_tasks";
+
   protected Config config;
 
   // The task params.
@@ -197,6 +201,16 @@ public abstract class UniverseTaskBase extends AbstractTaskBase {
     return subTaskGroup;
   }
 
+  /**
+   * Creates a task list for the tasks of many nodes, of which at most max_parallel_node_tasks run
+   * at the same time.
+   */
+  protected SubTaskGroup createNodeTaskGroup(String name) {
+    SubTaskGroup subTaskGroup = new SubTaskGroup(name, executor);
+    subTaskGroup.setMaxParallelTasks(config.getInt(MAX_PARALLEL_NODE_TASKS_KEY));
+    return subTaskGroup;
+  }
+
   @Override
   public void initialize(ITaskParams params) {
     super.initialize(params);
@@ -355,7 +369,7 @@ public abstract class UniverseTaskBase extends AbstractTaskBase {
    */
   public SubTaskGroup createDestroyServerTasks(
       Collection<NodeDetails> nodes, boolean isForceDelete, boolean deleteNode) {
-    SubTaskGroup subTaskGroup = new SubTaskGroup("AnsibleDestroyServers", executor);
+    SubTaskGroup subTaskGroup = createNodeTaskGroup("AnsibleDestroyServers");
     for (NodeDetails node : nodes) {
       // Check if the private ip for the node is set. If not, that means we don't have
       // a clean state to delete the node. Log it, free up the onprem node
@@ -1373,8 +1387,8 @@ public abstract class UniverseTaskBase extends AbstractTaskBase {
 
     // For backwards compatibility (see V56__Alter_Universe_Version.sql)
     if (universe.version == -1) {
-      universe.version = clusterConfigVersion;
-      universe.save();
+      Universe.setResetVersion(universeUUID, clusterConfigVersion);
+      return true;
     }
 
     return universe.version == clusterConfigVersion;
@@ -1393,7 +1407,7 @@ public abstract class UniverseTaskBase extends AbstractTaskBase {
   }
 
   /** Increment the cluster config version */
-  private static synchronized void incrementClusterConfigVersion(UUID universeUUID) {
+  private static void incrementClusterConfigVersion(UUID universeUUID) {
     Universe universe = Universe.getOrBadRequest(universeUUID);
     YBClientService ybService = Play.current().injector().instanceOf(YBClientService.class);
     final String hostPorts = universe.getMasterAddresses();
@@ -1421,12 +1435,15 @@ public abstract class UniverseTaskBase extends AbstractTaskBase {
    * @param updater the universe updater to run
    * @return the updated universe
    */
-  protected static synchronized Universe saveUniverseDetails(
+  protected static Universe saveUniverseDetails(
       UUID universeUUID, boolean shouldIncrementVersion, UniverseUpdater updater) {
+    // The master RPC is done before taking the update lock of the universe in
+    // Universe.saveDetails, so that a slow master doesn't block the other updates of the universe.
+    // The RPC only increments the cluster config version if it still matches the universe version,
+    // so a concurrent increment fails rather than getting the two versions out of step.
     if (shouldIncrementVersion) {
       incrementClusterConfigVersion(universeUUID);
     }
-
     return Universe.saveDetails(universeUUID, updater, shouldIncrementVersion);
   }
 
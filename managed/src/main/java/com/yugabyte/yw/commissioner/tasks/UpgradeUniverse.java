@@ -13,12 +13,15 @@ package com.yugabyte.yw.commissioner.tasks;
 import com.yugabyte.yw.commissioner.Common;
 import com.yugabyte.yw.commissioner.SubTaskGroup;
 import com.yugabyte.yw.commissioner.SubTaskGroupQueue;
+import com.yugabyte.yw.commissioner.TaskGraph;
 import com.yugabyte.yw.commissioner.UserTaskDetails.SubTaskGroupType;
 import com.yugabyte.yw.commissioner.tasks.UniverseDefinitionTaskBase.ServerType;
 import com.yugabyte.yw.commissioner.tasks.subtasks.AnsibleConfigureServers;
 import com.yugabyte.yw.commissioner.tasks.subtasks.UniverseSetTlsParams;
 import com.yugabyte.yw.common.CertificateHelper;
 import com.yugabyte.yw.common.PlacementInfoUtil;
+import com.yugabyte.yw.common.config.RuntimeConfigFactory;
+import com.yugabyte.yw.forms.UniverseDefinitionTaskParams.Cluster;
 import com.yugabyte.yw.forms.UniverseDefinitionTaskParams.UserIntent;
 import com.yugabyte.yw.forms.UpgradeParams;
 import com.yugabyte.yw.models.CertificateInfo;
@@ -28,14 +31,17 @@ import com.yugabyte.yw.models.helpers.PlacementInfo;
 import org.apache.commons.lang3.tuple.ImmutablePair;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import play.api.Play;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
@@ -50,6 +56,17 @@ public class UpgradeUniverse extends UniverseTaskBase {
   // Variable to mark if the loadbalancer state was changed.
   boolean loadbalancerOff = false;
 
+  public static final String PARALLEL_ROLLING_UPGRADE_KEY = "yb.upgrade.parallel_rolling_upgrade";
+
+  // The task graph when the nodes of a rolling upgrade are upgraded in parallel, null otherwise.
+  private TaskGraph taskGraph;
+
+  // The steps of the task graph the next steps depend on.
+  private List<TaskGraph.Step> lastSteps = new ArrayList<>();
+
+  // The software download step of each node, by node name.
+  private final Map<String, TaskGraph.Step> downloadSteps = new HashMap<>();
+
   // Upgrade Task Type
   public enum UpgradeTaskType {
     Everything,
@@ -202,6 +219,15 @@ public class UpgradeUniverse extends UniverseTaskBase {
       ImmutablePair<List<NodeDetails>, List<NodeDetails>> nodes =
           nodesToUpgrade(universe, primIntent);
 
+      if (taskParams().upgradeOption == UpgradeParams.UpgradeOption.ROLLING_UPGRADE
+          && Play.current()
+              .injector()
+              .instanceOf(RuntimeConfigFactory.class)
+              .forUniverse(universe)
+              .getBoolean(PARALLEL_ROLLING_UPGRADE_KEY)) {
+        taskGraph = new TaskGraph(userTaskUUID);
+      }
+
       // Create all the necessary subtasks required for the required taskType and upgradeOption
       // combination.
       createServerUpgradeTasks(nodes.getLeft(), nodes.getRight());
@@ -211,7 +237,15 @@ public class UpgradeUniverse extends UniverseTaskBase {
           .setSubTaskGroupType(SubTaskGroupType.ConfigureUniverse);
 
       // Run all the tasks.
-      subTaskGroupQueue.run();
+      if (taskGraph != null) {
+        // The last step waits for all the others, including the downloads.
+        List<TaskGraph.Step> dependencies = new ArrayList<>(lastSteps);
+        dependencies.addAll(downloadSteps.values());
+        addStep("Finish upgrade", dependencies);
+        taskGraph.run();
+      } else {
+        subTaskGroupQueue.run();
+      }
     } catch (Throwable t) {
       LOG.error("Error executing task {} with error={}.", getName(), t);
 
@@ -294,7 +328,16 @@ public class UpgradeUniverse extends UniverseTaskBase {
     if (taskParams().taskType == UpgradeTaskType.Software) {
       // TODO: This is assuming that master nodes is a subset of tserver node,
       // instead we should do a union.
-      createDownloadTasks(tServerNodes);
+      if (taskGraph != null) {
+        // Each node gets upgraded as soon as its own download is done.
+        for (NodeDetails node : tServerNodes) {
+          createDownloadTasks(Collections.singletonList(node));
+          downloadSteps.put(
+              node.nodeName, addStep("Download software on " + node.nodeName, lastSteps));
+        }
+      } else {
+        createDownloadTasks(tServerNodes);
+      }
     } else if (taskParams().taskType == UpgradeTaskType.Certs) {
       createCertUpdateTasks(tServerNodes);
     } else if (taskParams().taskType == UpgradeTaskType.ToggleTls) {
@@ -375,6 +418,10 @@ public class UpgradeUniverse extends UniverseTaskBase {
       UpgradeParams.UpgradeOption upgradeOption) {
     switch (upgradeOption) {
       case ROLLING_UPGRADE:
+        if (taskGraph != null) {
+          createParallelRollingUpgradeTasks(nodes, processType, upgradeIteration);
+          break;
+        }
         // For a rolling upgrade, we need the data to not move, so
         // we disable the data load balancing.
         if (processType == ServerType.TSERVER) {
@@ -450,6 +497,81 @@ public class UpgradeUniverse extends UniverseTaskBase {
     createSetNodeStateTask(node, NodeDetails.NodeState.Live).setSubTaskGroupType(subGroupType);
   }
 
+  // This is used for rolling upgrade when the nodes which can be down at the same time are upgraded
+  // in parallel: the masters are upgraded one at a time and the tservers one zone at a time.
+  private void createParallelRollingUpgradeTasks(
+      List<NodeDetails> nodes, ServerType processType, UpgradeIteration upgradeIteration) {
+    if (processType == ServerType.TSERVER) {
+      createLoadBalancerStateChangeTask(false /*enable*/)
+          .setSubTaskGroupType(getTaskSubGroupType());
+      loadbalancerOff = true;
+    }
+    appendStep("Prepare " + processType + " upgrade");
+
+    Set<UUID> zoneSafeClusters =
+        getZoneSafeClusters(Universe.getOrBadRequest(taskParams().universeUUID));
+    List<TaskGraph.Step> nodeSteps = new ArrayList<>();
+    for (NodeDetails node : nodes) {
+      createSingleNodeUpgradeTasks(node, processType, upgradeIteration);
+      List<TaskGraph.Step> dependencies = new ArrayList<>(lastSteps);
+      if (downloadSteps.containsKey(node.nodeName)) {
+        dependencies.add(downloadSteps.get(node.nodeName));
+      }
+      // Nodes holding a different value are never down at the same time.
+      Object downValue =
+          processType == ServerType.TSERVER && zoneSafeClusters.contains(node.placementUuid)
+              ? node.azUuid
+              : node.nodeName;
+      TaskGraph.Step step =
+          addStep("Upgrade " + processType + " on " + node.nodeName, dependencies);
+      nodeSteps.add(step.holding(processType.name(), downValue));
+    }
+    lastSteps = nodeSteps;
+
+    if (loadbalancerOff) {
+      createLoadBalancerStateChangeTask(true /*enable*/)
+          .setSubTaskGroupType(getTaskSubGroupType());
+      loadbalancerOff = false;
+    }
+  }
+
+  // Returns the clusters where all the tservers of a zone can be down at the same time, as each
+  // zone holds a minority of the replicas.
+  private Set<UUID> getZoneSafeClusters(Universe universe) {
+    Map<UUID, Map<UUID, PlacementInfo.PlacementAZ>> placementAZMapPerCluster =
+        PlacementInfoUtil.getPlacementAZMapPerCluster(universe);
+    Set<UUID> clusters = new HashSet<>();
+    for (Cluster cluster : universe.getUniverseDetails().clusters) {
+      int replicationFactor = cluster.userIntent.replicationFactor;
+      Map<UUID, PlacementInfo.PlacementAZ> placementAZMap =
+          placementAZMapPerCluster.get(cluster.uuid);
+      if (replicationFactor >= 3
+          && placementAZMap != null
+          && placementAZMap
+              .values()
+              .stream()
+              .allMatch(az -> az.replicationFactor <= (replicationFactor - 1) / 2)) {
+        clusters.add(cluster.uuid);
+      }
+    }
+    return clusters;
+  }
+
+  // Adds the subtasks created so far to the task graph as a step running after the given steps.
+  private TaskGraph.Step addStep(String name, Collection<TaskGraph.Step> dependencies) {
+    TaskGraph.Step step = taskGraph.addStep(name, subTaskGroupQueue, dependencies);
+    subTaskGroupQueue = new SubTaskGroupQueue(userTaskUUID);
+    return step;
+  }
+
+  // Adds the subtasks created so far, if any, to the task graph as a step running after the last
+  // steps.
+  private void appendStep(String name) {
+    if (!subTaskGroupQueue.isEmpty()) {
+      lastSteps = Collections.singletonList(addStep(name, lastSteps));
+    }
+  }
+
   private void createNonRestartUpgradeTasks(
       List<NodeDetails> nodes, ServerType processType, UpgradeIteration upgradeIteration) {
     NodeDetails.NodeState nodeState = null;
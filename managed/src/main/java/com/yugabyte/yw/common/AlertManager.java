@@ -11,19 +11,35 @@
 package com.yugabyte.yw.common;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.typesafe.config.Config;
 import com.yugabyte.yw.forms.CustomerRegisterFormData;
 import com.yugabyte.yw.models.*;
 import com.yugabyte.yw.models.Alert.State;
 
+import io.prometheus.client.Counter;
+import io.prometheus.client.Gauge;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import play.inject.ApplicationLifecycle;
 import javax.inject.Inject;
 import javax.inject.Singleton;
 import javax.mail.MessagingException;
 
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 @Singleton
@@ -31,12 +47,107 @@ public class AlertManager {
 
   @VisibleForTesting static final String ALERT_MANAGER_ERROR_CODE = "ALERT_MANAGER_FAILURE";
 
-  @Inject private EmailHelper emailHelper;
+  private static final String MAX_QUEUED_KEY = "yb.alert.notifications.max_queued";
+  private static final String MAX_BATCH_SIZE_KEY = "yb.alert.notifications.max_batch_size";
+  private static final String BATCH_INTERVAL_KEY = "yb.alert.notifications.batch_interval";
+  private static final String MAX_ATTEMPTS_KEY = "yb.alert.notifications.max_attempts";
+  private static final String RETRY_DELAY_KEY = "yb.alert.notifications.retry_delay";
+
+  // How long the shutdown waits for the notifications being sent, before sending the pending ones.
+  private static final long SHUTDOWN_TIMEOUT_SECONDS = 10;
+
+  private static final String CONTENT_TYPE = "text/plain; charset=\"us-ascii\"";
+
+  // The results of the alert notifications, counted once per alert.
+  private static final String RESULT_SENT = "sent";
+  private static final String RESULT_RETRIED = "retried";
+  private static final String RESULT_FAILED = "failed";
+  private static final String RESULT_DROPPED = "dropped";
+
+  private static final Counter NOTIFICATIONS =
+      Counter.build("yw_alert_notifications", "Number of alert notifications by delivery result")
+          .labelNames("result")
+          .register();
+
+  private static final Gauge QUEUED_NOTIFICATIONS =
+      Gauge.build("yw_alert_notifications_queued", "Number of alert notifications waiting to send")
+          .register();
 
   public static final Logger LOG = LoggerFactory.getLogger(AlertManager.class);
 
   /**
-   * Sends email notification with information about the alert. Doesn't send email if:<br>
+   * A state change of an alert to notify the customer of. The alert is moved from its previous
+   * state to the new one once the notification is sent.
+   */
+  private static class Notification {
+    private final Alert alert;
+    private final String state;
+    // The states of the alert before and after the notification, null if it has no transition.
+    private final State fromState;
+    private final State toState;
+
+    private Notification(Alert alert, String state, State toState) {
+      this.alert = alert;
+      this.state = state;
+      this.fromState = toState == null ? null : alert.state;
+      this.toState = toState;
+    }
+  }
+
+  private final EmailHelper emailHelper;
+
+  private final BlockingQueue<Notification> queue;
+
+  // The notifications queued or waiting for a retry, by alert UUID. An alert has at most one, as
+  // it only gets a new one once moved to the state of the previous one, so they are sent in order.
+  private final Map<UUID, Notification> pending = new ConcurrentHashMap<>();
+
+  private final int maxBatchSize;
+
+  private final int maxAttempts;
+
+  private final long retryDelayMs;
+
+  // Sends the queued notifications and retries the failed ones. A single thread, so that a slow
+  // SMTP server only delays the notifications and not the alert evaluation.
+  private final ScheduledExecutorService sender;
+
+  @Inject
+  public AlertManager(EmailHelper emailHelper, Config config, ApplicationLifecycle lifecycle) {
+    this(emailHelper, config);
+    long batchIntervalMs = config.getDuration(BATCH_INTERVAL_KEY, TimeUnit.MILLISECONDS);
+    sender.scheduleWithFixedDelay(
+        this::sendQueuedQuietly, batchIntervalMs, batchIntervalMs, TimeUnit.MILLISECONDS);
+    lifecycle.addStopHook(
+        () -> {
+          sender.shutdownNow();
+          try {
+            if (!sender.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+              LOG.warn("Timed out waiting for the alert notifications being sent");
+            }
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+          }
+          flush();
+          return CompletableFuture.completedFuture(null);
+        });
+  }
+
+  @VisibleForTesting
+  AlertManager(EmailHelper emailHelper, Config config) {
+    this.emailHelper = emailHelper;
+    this.queue = new LinkedBlockingQueue<>(config.getInt(MAX_QUEUED_KEY));
+    this.maxBatchSize = config.getInt(MAX_BATCH_SIZE_KEY);
+    this.maxAttempts = config.getInt(MAX_ATTEMPTS_KEY);
+    this.retryDelayMs = config.getDuration(RETRY_DELAY_KEY, TimeUnit.MILLISECONDS);
+    this.sender =
+        Executors.newSingleThreadScheduledExecutor(
+            new ThreadFactoryBuilder().setNameFormat("AlertNotifier").setDaemon(true).build());
+  }
+
+  /**
+   * Synchronously sends email notification with information about the alert. Doesn't send email
+   * if:<br>
    *
    * <ul>
    *   <li>The alert has no flag {@link Alert#sendEmail} set;
@@ -53,49 +164,197 @@ public class AlertManager {
     if (!alert.sendEmail) {
       return;
     }
+    Notification notification = new Notification(alert, state, null);
+    send(alert.customerUUID, Collections.singletonList(notification), true);
+  }
+
+  /**
+   * Queues the email notification about the alert, to be sent in the background along with the
+   * other notifications of the customer. The alert is moved to the new state once the notification
+   * is sent, or right away if it has no email to send. It keeps its state if too many
+   * notifications are queued, or if its previous notification is still pending, so that it is
+   * transitioned again by a following evaluation.
+   *
+   * @param alert The alert to be processed
+   * @param state The state of the alert in the notification
+   * @param toState The state to move the alert to
+   */
+  private void queueEmail(Alert alert, String state, State toState) {
+    if (!alert.sendEmail) {
+      alert.setState(toState);
+      alert.save();
+      return;
+    }
+    Notification notification = new Notification(alert, state, toState);
+    if (pending.putIfAbsent(alert.uuid, notification) != null) {
+      LOG.debug("The previous notification of alert {} is still pending", alert.uuid);
+      return;
+    }
+    if (!queue.offer(notification)) {
+      pending.remove(alert.uuid, notification);
+      LOG.warn(
+          "Delaying the email for alert {} in state '{}', too many queued notifications",
+          alert.uuid,
+          state);
+      NOTIFICATIONS.labels(RESULT_DROPPED).inc();
+    }
+    QUEUED_NOTIFICATIONS.set(queue.size());
+  }
 
-    Customer customer = Customer.get(alert.customerUUID);
+  /** Sends the queued notifications, in one email per customer and batch. */
+  @VisibleForTesting
+  void sendQueued() {
+    List<Notification> notifications = new ArrayList<>();
+    queue.drainTo(notifications);
+    QUEUED_NOTIFICATIONS.set(queue.size());
+    deliverAll(notifications, 1);
+  }
+
+  /**
+   * Makes a last attempt to send the queued notifications and the ones waiting for a retry, on
+   * shutdown. The alerts whose notification fails keep their state, so they are notified after
+   * the restart.
+   */
+  @VisibleForTesting
+  void flush() {
+    queue.clear();
+    QUEUED_NOTIFICATIONS.set(0);
+    deliverAll(new ArrayList<>(pending.values()), maxAttempts);
+  }
+
+  private void deliverAll(List<Notification> notifications, int attempt) {
+    Map<UUID, List<Notification>> byCustomer =
+        notifications
+            .stream()
+            .collect(
+                Collectors.groupingBy(
+                    n -> n.alert.customerUUID, LinkedHashMap::new, Collectors.toList()));
+    byCustomer.forEach(
+        (customerUUID, customerNotifications) -> {
+          for (List<Notification> batch : Lists.partition(customerNotifications, maxBatchSize)) {
+            deliver(customerUUID, batch, attempt);
+          }
+        });
+  }
+
+  private void sendQueuedQuietly() {
+    try {
+      sendQueued();
+    } catch (Exception e) {
+      LOG.error("Error sending alert notifications", e);
+    }
+  }
+
+  // Sends the batch, scheduling a new attempt with an exponential backoff if it failed. The
+  // alerts are moved to their new state once sent, and keep their state if the last attempt fails.
+  private void deliver(UUID customerUUID, List<Notification> batch, int attempt) {
+    List<Notification> current =
+        batch.stream().filter(this::isCurrent).collect(Collectors.toList());
+    if (current.isEmpty()) {
+      return;
+    }
+    boolean lastAttempt = attempt >= maxAttempts;
+    boolean sent;
+    try {
+      sent = send(customerUUID, current, lastAttempt);
+    } catch (Exception e) {
+      LOG.error("Error sending alert notifications to customer {}", customerUUID, e);
+      NOTIFICATIONS.labels(RESULT_FAILED).inc(current.size());
+      current.forEach(n -> complete(n, false));
+      return;
+    }
+    if (sent || lastAttempt) {
+      current.forEach(n -> complete(n, sent));
+      return;
+    }
+    long delayMs = retryDelayMs << Math.min(attempt - 1, 16);
+    LOG.info("Retrying the alert notifications to customer {} in {} ms", customerUUID, delayMs);
+    NOTIFICATIONS.labels(RESULT_RETRIED).inc(current.size());
+    sender.schedule(
+        () -> deliver(customerUUID, current, attempt + 1), delayMs, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Returns true if the notification is still to be sent. It is not if it was sent by the flush on
+   * shutdown, or if the alert changed state since it was queued, such as an alert resolved by
+   * {@link #resolveAlerts} before it was notified as firing.
+   */
+  private boolean isCurrent(Notification notification) {
+    UUID alertUUID = notification.alert.uuid;
+    if (pending.get(alertUUID) != notification) {
+      return false;
+    }
+    Alert alert = Alert.get(alertUUID);
+    if (alert == null || alert.state != notification.fromState) {
+      LOG.info("Not sending the stale email for alert {}", alertUUID);
+      pending.remove(alertUUID, notification);
+      return false;
+    }
+    return true;
+  }
+
+  // Done with the notification, moving the alert to its new state if it was sent.
+  private void complete(Notification notification, boolean sent) {
+    UUID alertUUID = notification.alert.uuid;
+    if (!pending.remove(alertUUID, notification) || !sent) {
+      return;
+    }
+    Alert alert = Alert.get(alertUUID);
+    if (alert != null && alert.state == notification.fromState) {
+      alert.setState(notification.toState);
+      alert.save();
+    }
+  }
+
+  /**
+   * Sends the notifications of the customer in one email. Returns false if the email could not be
+   * sent, in which case an alert about the failure is created if it was the last attempt.
+   */
+  private boolean send(UUID customerUUID, List<Notification> notifications, boolean lastAttempt) {
+    Customer customer = Customer.get(customerUUID);
+    // Skip sending email if the customer was deleted since the notification was queued.
+    if (customer == null) {
+      return true;
+    }
     List<String> destinations = emailHelper.getDestinations(customer.uuid);
     // Skip sending email if there aren't any destinations to send it to.
     if (destinations.isEmpty()) {
-      return;
+      return true;
     }
 
     CustomerRegisterFormData.SmtpData smtpData = emailHelper.getSmtpData(customer.uuid);
     // Skip if the SMTP configuration is not completely defined.
     if (smtpData == null) {
-      return;
+      return true;
     }
 
-    String subject = String.format("Yugabyte Platform Alert - <%s>", customer.getTag());
-    AlertDefinition definition =
-        alert.definitionUUID == null ? null : AlertDefinition.get(alert.definitionUUID);
-    String content;
-    if (definition != null) {
-      // The universe should exist (otherwise the definition should not exist as
-      // well).
-      // TODO notification templates should be reimplemented to base on alert message
-      // For now this code only supports definitions with Universe target type.
-      Universe universe = Universe.getOrBadRequest(definition.getUniverseUUID());
-      content =
-          String.format("%s for %s is %s.", definition.name /* alert_name */, universe.name, state);
-    } else {
-      Universe universe =
-          alert.targetType == Alert.TargetType.UniverseType
-              ? Universe.find.byId(alert.targetUUID)
-              : null;
-      if (universe != null) {
-        content =
-            String.format(
-                "Common failure for universe '%s', state: %s\nFailure details:\n\n%s",
-                universe.name, state, alert.message);
-      } else {
-        content =
-            String.format(
-                "Common failure for customer '%s', state: %s\nFailure details:\n\n%s",
-                customer.name, state, alert.message);
+    // The notifications whose content can't be built, such as for an alert of a universe deleted
+    // since it was queued, are skipped without failing the others.
+    List<Notification> toSend = new ArrayList<>();
+    List<String> contents = new ArrayList<>();
+    for (Notification notification : notifications) {
+      try {
+        contents.add(getContent(customer, notification.alert, notification.state));
+        toSend.add(notification);
+      } catch (Exception e) {
+        LOG.error("Error building the email for alert {}", notification.alert.uuid, e);
+        NOTIFICATIONS.labels(RESULT_FAILED).inc();
+        complete(notification, true);
       }
     }
+    if (toSend.isEmpty()) {
+      return true;
+    }
+
+    String subject;
+    if (toSend.size() == 1) {
+      subject = String.format("Yugabyte Platform Alert - <%s>", customer.getTag());
+    } else {
+      subject =
+          String.format(
+              "Yugabyte Platform Alerts - <%s>: %d alerts", customer.getTag(), toSend.size());
+    }
+    String content = String.join("\n\n", contents);
 
     try {
       emailHelper.sendEmail(
@@ -103,44 +362,82 @@ public class AlertManager {
           subject,
           String.join(",", destinations),
           smtpData,
-          Collections.singletonMap("text/plain; charset=\"us-ascii\"", content));
+          Collections.singletonMap(CONTENT_TYPE, content));
       resolveAlerts(customer.uuid, smtpData.configUUID, ALERT_MANAGER_ERROR_CODE);
+      NOTIFICATIONS.labels(RESULT_SENT).inc(toSend.size());
+      return true;
     } catch (MessagingException e) {
-      String error =
-          String.format(
-              "Error sending email for alert %s in state '%s': %s",
-              alert.uuid, state, e.getMessage());
+      String error;
+      if (toSend.size() == 1) {
+        Notification notification = toSend.get(0);
+        error =
+            String.format(
+                "Error sending email for alert %s in state '%s': %s",
+                notification.alert.uuid, notification.state, e.getMessage());
+      } else {
+        error =
+            String.format(
+                "Error sending email for %d alerts: %s", toSend.size(), e.getMessage());
+      }
       LOG.error(error);
-      createAlert(customer, smtpData.configUUID, error);
+      if (lastAttempt) {
+        createAlert(customer, smtpData.configUUID, error);
+        NOTIFICATIONS.labels(RESULT_FAILED).inc(toSend.size());
+      }
+      return false;
+    }
+  }
+
+  private static String getContent(Customer customer, Alert alert, String state) {
+    AlertDefinition definition =
+        alert.definitionUUID == null ? null : AlertDefinition.get(alert.definitionUUID);
+    if (definition != null) {
+      // The universe should exist (otherwise the definition should not exist as
+      // well).
+      // TODO notification templates should be reimplemented to base on alert message
+      // For now this code only supports definitions with Universe target type.
+      Universe universe = Universe.getOrBadRequest(definition.getUniverseUUID());
+      return String.format(
+          "%s for %s is %s.", definition.name /* alert_name */, universe.name, state);
+    }
+    Universe universe =
+        alert.targetType == Alert.TargetType.UniverseType
+            ? Universe.find.byId(alert.targetUUID)
+            : null;
+    if (universe != null) {
+      return String.format(
+          "Common failure for universe '%s', state: %s\nFailure details:\n\n%s",
+          universe.name, state, alert.message);
     }
+    return String.format(
+        "Common failure for customer '%s', state: %s\nFailure details:\n\n%s",
+        customer.name, state, alert.message);
   }
 
   /**
-   * A method to run a state transition for a given alert
+   * A method to run a state transition for a given alert. The alerts with an email move to the new
+   * state once the email is sent.
    *
    * @param alert the alert to transition states on
-   * @return the alert in a new state
+   * @return the alert, in its new state if it has no email
    */
   public Alert transitionAlert(Alert alert) {
     try {
       switch (alert.state) {
         case CREATED:
           LOG.info("Transitioning alert {} to active", alert.uuid);
-          sendEmail(alert, "FIRING");
-          alert.setState(Alert.State.ACTIVE);
+          queueEmail(alert, "FIRING", Alert.State.ACTIVE);
           break;
         case ACTIVE:
           LOG.info("Transitioning alert {} to resolved (with email)", alert.uuid);
-          sendEmail(alert, "RESOLVED");
-          alert.setState(Alert.State.RESOLVED);
+          queueEmail(alert, "RESOLVED", Alert.State.RESOLVED);
           break;
         case RESOLVED:
           LOG.info("Transitioning alert {} to resolved (no email)", alert.uuid);
           alert.setState(Alert.State.RESOLVED);
+          alert.save();
           break;
       }
-
-      alert.save();
     } catch (Exception e) {
       LOG.error("Error transitioning alert state for alert {}", alert.uuid, e);
     }
@@ -15,8 +15,10 @@ import play.libs.ws.WSRequest;
 import play.libs.ws.WSResponse;
 import play.mvc.Http;
 
+import java.io.InputStream;
 import java.net.HttpURLConnection;
 import java.net.URL;
+import java.time.Duration;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -104,6 +106,25 @@ public class ApiHelper {
     return handleJSONPromise(jsonPromise);
   }
 
+  /**
+   * Sends a GET request and returns the body of the response as a stream, so that large responses
+   * can be parsed without building their JSON tree.
+   *
+   * @param url : the url to get.
+   * @param timeout : how long to wait for the response.
+   * @return the body of the response.
+   */
+  public InputStream getRequestStream(String url, Duration timeout)
+      throws InterruptedException, ExecutionException {
+    WSResponse response =
+        wsClient.url(url).setRequestTimeout(timeout).get().toCompletableFuture().get();
+    if (response.getStatus() != Http.Status.OK) {
+      throw new RuntimeException(
+          "Request to " + url + " failed with status " + response.getStatus());
+    }
+    return response.getBodyAsStream();
+  }
+
   private JsonNode handleJSONPromise(CompletionStage<JsonNode> jsonPromise) {
     try {
       return jsonPromise.toCompletableFuture().get();
@@ -0,0 +1,154 @@
+// Copyright (c) YugaByte, Inc.
+
+package com.yugabyte.yw.common;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import com.typesafe.config.Config;
+import io.prometheus.client.Counter;
+import io.prometheus.client.Histogram;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import play.inject.ApplicationLifecycle;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * The thread pool shared by the requests querying many nodes or metrics at once, such as the
+ * metrics, live queries and slow queries requests. The pool and its queue are bounded, and each
+ * request waits for its tasks until a deadline, after which the tasks not done are cancelled, so a
+ * slow node or metric does not hold the request nor the threads.
+ */
+@Singleton
+public class FanOutExecutor {
+
+  public static final Logger LOG = LoggerFactory.getLogger(FanOutExecutor.class);
+
+  private static final String NUM_THREADS_KEY = "yb.fan_out.num_threads";
+  private static final String MAX_QUEUED_TASKS_KEY = "yb.fan_out.max_queued_tasks";
+  private static final String TIMEOUT_KEY = "yb.fan_out.timeout";
+
+  private static final Histogram QUEUE_TIME =
+      Histogram.build("yw_fan_out_queue_time_seconds", "Time spent by the fan-out tasks in queue")
+          .labelNames("fan_out")
+          .buckets(0.001, 0.01, 0.1, 0.5, 1, 5, 10)
+          .register();
+
+  private static final Counter REJECTED_TASKS =
+      Counter.build("yw_fan_out_rejected_tasks", "Number of fan-out tasks rejected, queue full")
+          .labelNames("fan_out")
+          .register();
+
+  private static final Counter TIMED_OUT_TASKS =
+      Counter.build("yw_fan_out_timed_out_tasks", "Number of fan-out tasks cancelled at deadline")
+          .labelNames("fan_out")
+          .register();
+
+  private final ThreadPoolExecutor executor;
+
+  private final long timeoutMs;
+
+  @Inject
+  public FanOutExecutor(Config config, ApplicationLifecycle lifecycle) {
+    this(
+        config.getInt(NUM_THREADS_KEY),
+        config.getInt(MAX_QUEUED_TASKS_KEY),
+        config.getDuration(TIMEOUT_KEY, TimeUnit.MILLISECONDS));
+    lifecycle.addStopHook(
+        () -> {
+          LOG.info("Shutting down the fan-out thread pool");
+          executor.shutdownNow();
+          return CompletableFuture.completedFuture(null);
+        });
+  }
+
+  @VisibleForTesting
+  public FanOutExecutor(int numThreads, int maxQueuedTasks, long timeoutMs) {
+    this.executor =
+        new ThreadPoolExecutor(
+            numThreads,
+            numThreads,
+            0L,
+            TimeUnit.MILLISECONDS,
+            new LinkedBlockingQueue<>(maxQueuedTasks),
+            new ThreadFactoryBuilder().setNameFormat("Fan-Out-Pool-%d").setDaemon(true).build());
+    this.timeoutMs = timeoutMs;
+  }
+
+  /** Runs the tasks and waits for them until the default deadline. */
+  public <T> List<Future<T>> invokeAll(String fanOutName, List<? extends Callable<T>> tasks) {
+    return invokeAll(fanOutName, tasks, timeoutMs);
+  }
+
+  /**
+   * Runs the tasks and waits for them until the deadline. The tasks not done by then are cancelled,
+   * as well as all the tasks if the calling thread is interrupted.
+   *
+   * @param fanOutName : the name of the request, for the metrics.
+   * @param tasks : the tasks to run.
+   * @param timeoutMs : how long to wait for the tasks.
+   * @return the futures of the tasks, in the order of the tasks, all done. The futures of the tasks
+   *     rejected as the queue is full fail with a RejectedExecutionException.
+   */
+  public <T> List<Future<T>> invokeAll(
+      String fanOutName, List<? extends Callable<T>> tasks, long timeoutMs) {
+    long deadlineNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+    List<Future<T>> futures = new ArrayList<>(tasks.size());
+    for (Callable<T> task : tasks) {
+      long queuedAtNanos = System.nanoTime();
+      try {
+        futures.add(
+            executor.submit(
+                () -> {
+                  QUEUE_TIME
+                      .labels(fanOutName)
+                      .observe((System.nanoTime() - queuedAtNanos) / 1_000_000_000.0);
+                  return task.call();
+                }));
+      } catch (RejectedExecutionException e) {
+        REJECTED_TASKS.labels(fanOutName).inc();
+        CompletableFuture<T> rejected = new CompletableFuture<>();
+        rejected.completeExceptionally(e);
+        futures.add(rejected);
+      }
+    }
+    try {
+      for (Future<T> future : futures) {
+        long remainingNanos = deadlineNanos - System.nanoTime();
+        if (remainingNanos <= 0) {
+          break;
+        }
+        try {
+          future.get(remainingNanos, TimeUnit.NANOSECONDS);
+        } catch (ExecutionException | CancellationException e) {
+          // The failure is reported by the future.
+        } catch (TimeoutException e) {
+          break;
+        }
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } finally {
+      for (Future<T> future : futures) {
+        if (!future.isDone()) {
+          TIMED_OUT_TASKS.labels(fanOutName).inc();
+          future.cancel(true);
+        }
+      }
+    }
+    return futures;
+  }
+}
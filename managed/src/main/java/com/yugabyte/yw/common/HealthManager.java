@@ -2,14 +2,19 @@
 
 package com.yugabyte.yw.common;
 
+import com.yugabyte.yw.common.health.HealthCheckEngine;
+import com.yugabyte.yw.common.health.HealthReport;
 import com.yugabyte.yw.models.Provider;
 
+import com.google.inject.Inject;
 import com.google.inject.Singleton;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.List;
+import java.util.concurrent.CompletionException;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -25,6 +30,13 @@ public class HealthManager extends DevopsBase {
   // TODO: we don't need this?
   private static final String YB_CLOUD_COMMAND_TYPE = "health_check";
 
+  // Whether the checks are run by the health check engine instead of the script.
+  private static final String USE_CHECK_ENGINE_KEY = "yb.health.use_check_engine";
+
+  @Inject play.Configuration appConfig;
+
+  @Inject HealthCheckEngine healthCheckEngine;
+
   public static class ClusterInfo {
     public String identityFile = null;
     public int sshPort;
@@ -46,6 +58,10 @@ public class HealthManager extends DevopsBase {
 
   public ShellResponse runCommand(
       Provider provider, List<ClusterInfo> clusters, Long potentialStartTimeMs) {
+    if (appConfig.getBoolean(USE_CHECK_ENGINE_KEY)) {
+      return runChecks(provider, clusters, potentialStartTimeMs);
+    }
+
     List<String> commandArgs = new ArrayList<>();
 
     commandArgs.add(PY_WRAPPER);
@@ -63,7 +79,7 @@ public class HealthManager extends DevopsBase {
       commandArgs.add(String.valueOf(potentialStartTimeMs));
     }
 
-    if (!provider.code.equals("onprem") && !provider.code.equals("kubernetes")) {
+    if (shouldCheckClock(provider)) {
       commandArgs.add("--check_clock");
     }
 
@@ -74,6 +90,32 @@ public class HealthManager extends DevopsBase {
     return shellProcessHandler.run(commandArgs, extraEnvVars, false /*logCmdOutput*/, description);
   }
 
+  // Runs the checks in the JVM, returning the report like the script does.
+  private ShellResponse runChecks(
+      Provider provider, List<ClusterInfo> clusters, Long potentialStartTimeMs) {
+    long startMs = System.currentTimeMillis();
+    ShellResponse response;
+    try {
+      HealthReport report =
+          healthCheckEngine.run(
+              provider,
+              clusters == null ? Collections.emptyList() : clusters,
+              potentialStartTimeMs,
+              shouldCheckClock(provider));
+      response = ShellResponse.create(0, Json.stringify(report.toJson()));
+    } catch (Exception e) {
+      Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+      LOG.error("Health checks failed", cause);
+      response = ShellResponse.create(-1, cause.getMessage());
+    }
+    response.durationMs = System.currentTimeMillis() - startMs;
+    return response;
+  }
+
+  private static boolean shouldCheckClock(Provider provider) {
+    return !provider.code.equals("onprem") && !provider.code.equals("kubernetes");
+  }
+
   @Override
   protected String getCommandType() {
     return YB_CLOUD_COMMAND_TYPE;
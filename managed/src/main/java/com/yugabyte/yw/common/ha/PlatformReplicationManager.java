@@ -22,6 +22,7 @@ import com.yugabyte.yw.common.ShellResponse;
 import com.yugabyte.yw.common.Util;
 import com.yugabyte.yw.models.HighAvailabilityConfig;
 import com.yugabyte.yw.models.PlatformInstance;
+import com.yugabyte.yw.models.Universe;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import play.libs.Json;
@@ -479,6 +480,8 @@ public class PlatformReplicationManager {
     if (response.code != 0) {
       LOG.error("Restore failed: " + response.message);
     }
+    // The universes of the backup replace the ones read so far.
+    Universe.invalidateDetailsCache();
 
     return response.code == 0;
   }
@@ -0,0 +1,84 @@
+// Copyright (c) YugaByte, Inc.
+
+package com.yugabyte.yw.common.health;
+
+import com.yugabyte.yw.common.HealthManager.ClusterInfo;
+
+/** A node checked by the health checks, with the shell running the commands of the checks. */
+public class CheckedNode {
+
+  /** Runs shell commands on a node. */
+  public interface Shell {
+    /**
+     * Runs the command on the node.
+     *
+     * @return the trimmed output of the command, or a message starting with "Error" if the command
+     *     could not be run or wrote to stderr.
+     */
+    String run(String command);
+  }
+
+  public final String ip;
+
+  public final String nodeName;
+
+  public final boolean isMaster;
+
+  public final boolean isTserver;
+
+  public final ClusterInfo cluster;
+
+  public final String ybHomeDir;
+
+  // The potential start time of the universe, to not report the restarts of the processes done by
+  // a recent operation. Zero if unknown.
+  public final long potentialStartTimeMs;
+
+  public final boolean checkClock;
+
+  private final Shell shell;
+
+  public CheckedNode(
+      String ip,
+      String nodeName,
+      ClusterInfo cluster,
+      String ybHomeDir,
+      long potentialStartTimeMs,
+      boolean checkClock,
+      Shell shell) {
+    this.ip = ip;
+    this.nodeName = nodeName;
+    this.isMaster = cluster.masterNodes.containsKey(ip);
+    this.isTserver = cluster.tserverNodes.containsKey(ip);
+    this.cluster = cluster;
+    this.ybHomeDir = ybHomeDir;
+    this.potentialStartTimeMs = potentialStartTimeMs;
+    this.checkClock = checkClock;
+    this.shell = shell;
+  }
+
+  public boolean isK8s() {
+    return isK8s(cluster);
+  }
+
+  /** Runs the command on the node, failing if any command of a pipe fails. */
+  public String runCommand(String command) {
+    return shell.run("set -o pipefail; " + command);
+  }
+
+  public HealthReport.Entry newEntry(String message) {
+    return newEntry(message, null);
+  }
+
+  public HealthReport.Entry newEntry(String message, String process) {
+    return new HealthReport.Entry(message, ip, nodeName, process);
+  }
+
+  public static boolean hasErrors(String output) {
+    return output.startsWith("Error");
+  }
+
+  static boolean isK8s(ClusterInfo cluster) {
+    return cluster.sshPort == 0 && (cluster.identityFile == null || cluster.identityFile.isEmpty());
+  }
+}
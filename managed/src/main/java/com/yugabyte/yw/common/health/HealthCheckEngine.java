@@ -0,0 +1,250 @@
+// Copyright (c) YugaByte, Inc.
+
+package com.yugabyte.yw.common.health;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import com.typesafe.config.Config;
+import com.yugabyte.yw.common.HealthManager.ClusterInfo;
+import com.yugabyte.yw.models.Provider;
+import com.yugabyte.yw.models.helpers.CommonUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import play.inject.ApplicationLifecycle;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Runs the health checks of the universes in the JVM, producing the same report as
+ * cluster_health.py. The nodes are checked in parallel on a bounded pool shared by all the
+ * universes, while the checks of a node run one after the other over a shared SSH connection. The
+ * failed checks of a node are retried once after the retry interval, without holding a thread.
+ *
+ * <p>The last entry of each check of each node is kept in memory, so that the expensive checks,
+ * such as the connectivity checks starting a client, only run once per expensive check interval
+ * while the cheap ones run on every health check.
+ */
+@Singleton
+public class HealthCheckEngine {
+
+  public static final Logger LOG = LoggerFactory.getLogger(HealthCheckEngine.class);
+
+  private static final String MAX_PARALLEL_NODE_CHECKS_KEY =
+      "yb.health.max_num_parallel_node_checks";
+  private static final String RETRY_INTERVAL_KEY = "yb.health.check_retry_interval";
+  private static final String COMMAND_TIMEOUT_KEY = "yb.health.check_command_timeout";
+  private static final String SSH_CONTROL_PERSIST_KEY = "yb.health.ssh_control_persist";
+  private static final String EXPENSIVE_CHECK_INTERVAL_KEY = "yb.health.expensive_check_interval";
+
+  // The max number of node checks whose last entry is kept.
+  private static final int MAX_NUM_LAST_ENTRIES = 100000;
+
+  private static final int MAX_TRIES = 2;
+
+  private final List<NodeCheck> checks;
+
+  private final long retryIntervalMs;
+
+  private final long commandTimeoutMs;
+
+  private final long sshControlPersistSecs;
+
+  private final long expensiveCheckIntervalMs;
+
+  // The last entry of the checks of the nodes, by node and check name.
+  private final Cache<String, HealthReport.Entry> lastEntries;
+
+  private final ExecutorService executor;
+
+  private final ScheduledExecutorService retryScheduler;
+
+  // The directory of the sockets of the SSH control masters, created on first use.
+  private Path sshControlDir;
+
+  @Inject
+  public HealthCheckEngine(Config config, ApplicationLifecycle lifecycle) {
+    this(config, NodeChecks.standardChecks());
+    lifecycle.addStopHook(
+        () -> {
+          shutdown();
+          return CompletableFuture.completedFuture(null);
+        });
+  }
+
+  HealthCheckEngine(Config config, List<NodeCheck> checks) {
+    this.checks = checks;
+    this.retryIntervalMs = config.getDuration(RETRY_INTERVAL_KEY, TimeUnit.MILLISECONDS);
+    this.commandTimeoutMs = config.getDuration(COMMAND_TIMEOUT_KEY, TimeUnit.MILLISECONDS);
+    this.sshControlPersistSecs = config.getDuration(SSH_CONTROL_PERSIST_KEY, TimeUnit.SECONDS);
+    this.expensiveCheckIntervalMs =
+        config.getDuration(EXPENSIVE_CHECK_INTERVAL_KEY, TimeUnit.MILLISECONDS);
+    // The entries of the removed nodes expire once they cannot be reused anymore.
+    this.lastEntries =
+        CacheBuilder.newBuilder()
+            .maximumSize(MAX_NUM_LAST_ENTRIES)
+            .expireAfterWrite(expensiveCheckIntervalMs, TimeUnit.MILLISECONDS)
+            .build();
+    this.executor =
+        Executors.newFixedThreadPool(
+            config.getInt(MAX_PARALLEL_NODE_CHECKS_KEY),
+            new ThreadFactoryBuilder().setNameFormat("Health-Check-Node-Pool-%d").build());
+    this.retryScheduler =
+        Executors.newSingleThreadScheduledExecutor(
+            new ThreadFactoryBuilder().setNameFormat("Health-Check-Retry-%d").build());
+  }
+
+  /**
+   * Runs the checks on the nodes of the clusters and waits for the report.
+   *
+   * @param provider : the provider of the primary cluster, whose config is passed to the commands.
+   * @param clusters : the nodes to check and how to reach them.
+   * @param potentialStartTimeMs : the start time of the last operation on the universe, or 0.
+   * @param checkClock : whether to check the clock synchronization of the nodes.
+   * @return the report, with the entries of the nodes in the order of the clusters.
+   */
+  public HealthReport run(
+      Provider provider,
+      List<ClusterInfo> clusters,
+      long potentialStartTimeMs,
+      boolean checkClock) {
+    // All the clusters run the same version.
+    HealthReport report =
+        new HealthReport(clusters.isEmpty() ? null : clusters.get(0).ybSoftwareVersion);
+    Map<String, String> envVars =
+        provider == null ? new HashMap<>() : new HashMap<>(provider.getConfig());
+    String ybHomeDir = provider == null ? CommonUtils.DEFAULT_YB_HOME_DIR : provider.getYbHome();
+
+    List<CompletableFuture<List<HealthReport.Entry>>> nodeFutures = new ArrayList<>();
+    for (ClusterInfo cluster : clusters) {
+      Map<String, String> nodes = new LinkedHashMap<>(cluster.masterNodes);
+      nodes.putAll(cluster.tserverNodes);
+      for (Map.Entry<String, String> ipAndName : nodes.entrySet()) {
+        CheckedNode node =
+            new CheckedNode(
+                ipAndName.getKey(),
+                ipAndName.getValue(),
+                cluster,
+                ybHomeDir,
+                potentialStartTimeMs,
+                checkClock,
+                createShell(ipAndName.getKey(), cluster, envVars));
+        nodeFutures.add(checkNode(node));
+      }
+    }
+    try {
+      nodeFutures.forEach(future -> report.addEntries(future.join()));
+    } catch (CompletionException e) {
+      nodeFutures.forEach(future -> future.cancel(true));
+      throw e;
+    }
+    return report;
+  }
+
+  private CheckedNode.Shell createShell(
+      String ip, ClusterInfo cluster, Map<String, String> envVars) {
+    if (CheckedNode.isK8s(cluster)) {
+      return RemoteShell.kubectl(ip, cluster, envVars, commandTimeoutMs);
+    }
+    return RemoteShell.ssh(
+        ip, cluster, getSshControlDir(), sshControlPersistSecs, envVars, commandTimeoutMs);
+  }
+
+  private synchronized Path getSshControlDir() {
+    if (sshControlDir == null) {
+      try {
+        sshControlDir = Files.createTempDirectory("yb-health-ssh");
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+      sshControlDir.toFile().deleteOnExit();
+    }
+    return sshControlDir;
+  }
+
+  private CompletableFuture<List<HealthReport.Entry>> checkNode(CheckedNode node) {
+    List<NodeCheck> nodeChecks =
+        checks.stream().filter(check -> check.appliesTo(node)).collect(Collectors.toList());
+    HealthReport.Entry[] entries = new HealthReport.Entry[nodeChecks.size()];
+    return runChecks(node, nodeChecks, entries, 1).thenApply(v -> Arrays.asList(entries));
+  }
+
+  // Runs the checks of the node which did not run yet or failed, then schedules a retry of the
+  // failed ones if any.
+  private CompletableFuture<Void> runChecks(
+      CheckedNode node, List<NodeCheck> nodeChecks, HealthReport.Entry[] entries, int tries) {
+    return CompletableFuture.runAsync(
+            () -> {
+              for (int i = 0; i < entries.length; i++) {
+                if (entries[i] == null || entries[i].hasError()) {
+                  entries[i] = runCheck(node, nodeChecks.get(i), tries > 1);
+                }
+              }
+            },
+            executor)
+        .thenCompose(
+            v -> {
+              if (tries >= MAX_TRIES
+                  || Arrays.stream(entries).noneMatch(HealthReport.Entry::hasError)) {
+                return CompletableFuture.completedFuture(null);
+              }
+              LOG.info("Retry # {} of the failed checks of node {}.", tries, node.ip);
+              CompletableFuture<Void> retry = new CompletableFuture<>();
+              retryScheduler.schedule(
+                  () ->
+                      runChecks(node, nodeChecks, entries, tries + 1)
+                          .whenComplete(
+                              (result, t) -> {
+                                if (t != null) {
+                                  retry.completeExceptionally(t);
+                                } else {
+                                  retry.complete(null);
+                                }
+                              }),
+                  retryIntervalMs,
+                  TimeUnit.MILLISECONDS);
+              return retry;
+            });
+  }
+
+  // Runs the check, unless it is an expensive check which recently succeeded on the node, in which
+  // case its last entry is reused.
+  private HealthReport.Entry runCheck(CheckedNode node, NodeCheck check, boolean isRetry) {
+    String key = node.nodeName + "/" + node.ip + "/" + check.getName();
+    if (check.isExpensive() && !isRetry) {
+      HealthReport.Entry lastEntry = lastEntries.getIfPresent(key);
+      if (lastEntry != null
+          && !lastEntry.hasError()
+          && System.currentTimeMillis() - lastEntry.getCheckTimeMs() < expensiveCheckIntervalMs) {
+        return lastEntry;
+      }
+    }
+    HealthReport.Entry entry = check.check(node);
+    lastEntries.put(key, entry);
+    return entry;
+  }
+
+  void shutdown() {
+    LOG.info("Shutting down the health check engine");
+    retryScheduler.shutdownNow();
+    executor.shutdownNow();
+  }
+}
@@ -0,0 +1,113 @@
+// Copyright (c) YugaByte, Inc.
+
+package com.yugabyte.yw.common.health;
+
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import play.libs.Json;
+
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/** The report of a health check run, in the format of the report written by cluster_health.py. */
+public class HealthReport {
+
+  private static final DateTimeFormatter TIMESTAMP_FORMAT =
+      DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss").withZone(ZoneOffset.UTC);
+
+  /** The result of a check on a node. */
+  public static class Entry {
+    private final String message;
+    private final String node;
+    private final String nodeName;
+    private final String process;
+    private final long checkTimeMs = System.currentTimeMillis();
+
+    private List<String> details = Collections.emptyList();
+    private boolean hasError = false;
+
+    public Entry(String message, String node, String nodeName, String process) {
+      this.message = message;
+      this.node = node;
+      this.nodeName = nodeName;
+      this.process = process;
+    }
+
+    public Entry fill(List<String> details, boolean hasError) {
+      this.details = details;
+      this.hasError = hasError;
+      return this;
+    }
+
+    public String getMessage() {
+      return message;
+    }
+
+    public String getProcess() {
+      return process;
+    }
+
+    public List<String> getDetails() {
+      return details;
+    }
+
+    public boolean hasError() {
+      return hasError;
+    }
+
+    public long getCheckTimeMs() {
+      return checkTimeMs;
+    }
+
+    public ObjectNode toJson() {
+      ObjectNode json = Json.newObject();
+      json.put("node", node);
+      json.put("node_name", nodeName == null ? "" : nodeName);
+      json.put("timestamp", TIMESTAMP_FORMAT.format(Instant.ofEpochMilli(checkTimeMs)));
+      json.put("message", message);
+      ArrayNode detailsJson = json.putArray("details");
+      details.forEach(detailsJson::add);
+      json.put("has_error", hasError);
+      if (process != null && !process.isEmpty()) {
+        json.put("process", process);
+      }
+      return json;
+    }
+  }
+
+  private final String timestamp = TIMESTAMP_FORMAT.format(Instant.now());
+
+  private final String ybVersion;
+
+  private final List<Entry> entries = new ArrayList<>();
+
+  public HealthReport(String ybVersion) {
+    this.ybVersion = ybVersion;
+  }
+
+  public void addEntries(List<Entry> nodeEntries) {
+    entries.addAll(nodeEntries);
+  }
+
+  public List<Entry> getEntries() {
+    return entries;
+  }
+
+  public boolean hasError() {
+    return entries.stream().anyMatch(Entry::hasError);
+  }
+
+  public ObjectNode toJson() {
+    ObjectNode json = Json.newObject();
+    json.put("timestamp", timestamp);
+    json.put("yb_version", ybVersion);
+    ArrayNode data = json.putArray("data");
+    entries.forEach(entry -> data.add(entry.toJson()));
+    json.put("has_error", hasError());
+    return json;
+  }
+}
@@ -0,0 +1,26 @@
+// Copyright (c) YugaByte, Inc.
+
+package com.yugabyte.yw.common.health;
+
+/** A check run on the nodes of a universe by the health check engine. */
+public interface NodeCheck {
+
+  /** The name of the check, unique among the checks of a node. */
+  default String getName() {
+    return getClass().getSimpleName();
+  }
+
+  /**
+   * Returns true if the check is expensive to run, such as the ones starting a client. The results
+   * of these checks are reused until the expensive check interval passes, unless they failed.
+   */
+  default boolean isExpensive() {
+    return false;
+  }
+
+  /** Returns true if the check has to be run on the node. */
+  boolean appliesTo(CheckedNode node);
+
+  /** Runs the check on the node and returns its entry of the report. */
+  HealthReport.Entry check(CheckedNode node);
+}
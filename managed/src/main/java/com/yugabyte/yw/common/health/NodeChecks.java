@@ -0,0 +1,452 @@
+// Copyright (c) YugaByte, Inc.
+
+package com.yugabyte.yw.common.health;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/** The standard checks of the health check engine, ported from cluster_health.py. */
+public final class NodeChecks {
+
+  public static final String MASTER_PROCESS = "yb-master";
+  public static final String TSERVER_PROCESS = "yb-tserver";
+
+  static final long RECENT_FAILURE_THRESHOLD_SEC = 8 * 60;
+  static final int FATAL_TIME_THRESHOLD_MINUTES = 12;
+  static final int DISK_UTILIZATION_THRESHOLD_PCT = 80;
+  static final int FD_THRESHOLD_PCT = 50;
+
+  private static final String K8S_CERT_FILE_PATH = "/opt/certs/yugabyte/ca.crt";
+  private static final String DEFAULT_SSL_VERSION = "TLSv1_2";
+  private static final Map<String, String> SSL_PROTOCOL_TO_SSL_VERSION =
+      ImmutableMap.of(
+          "ssl2", "SSLv23",
+          "ssl3", "SSLv23",
+          "tls10", "TLSv1",
+          "tls11", "TLSv1_1",
+          "tls12", "TLSv1_2");
+
+  private NodeChecks() {}
+
+  /** Returns the standard checks, in the order of their entries in the report. */
+  public static List<NodeCheck> standardChecks() {
+    return ImmutableList.of(
+        new UptimeCheck(MASTER_PROCESS),
+        new FatalLogsCheck(MASTER_PROCESS),
+        new UptimeCheck(TSERVER_PROCESS),
+        new FatalLogsCheck(TSERVER_PROCESS),
+        new CqlshCheck(),
+        new RedisCliCheck(),
+        new YsqlshCheck(),
+        new DiskUtilizationCheck(),
+        new CoreFilesCheck(),
+        new FileDescriptorsCheck(),
+        new ClockSkewCheck());
+  }
+
+  private static boolean runsProcess(CheckedNode node, String process) {
+    return MASTER_PROCESS.equals(process) ? node.isMaster : node.isTserver;
+  }
+
+  private static boolean isNumber(String value) {
+    return !value.isEmpty() && value.chars().allMatch(Character::isDigit);
+  }
+
+  private static List<String> errors(String output, boolean hasError) {
+    return hasError ? Collections.singletonList(output) : Collections.emptyList();
+  }
+
+  static String toHumanReadableTime(long seconds) {
+    long minutes = Math.floorDiv(seconds, 60);
+    long hours = Math.floorDiv(minutes, 60);
+    long days = Math.floorDiv(hours, 24);
+    return String.format(
+        "%d days %d:%02d:%02d",
+        days, Math.floorMod(hours, 24), Math.floorMod(minutes, 60), Math.floorMod(seconds, 60));
+  }
+
+  // Returns the rest of the line following the last occurrence of any of the prefixes in the
+  // output, or null if none of them is in the output.
+  static String lastValueOf(String output, String... prefixes) {
+    int start = -1;
+    for (String prefix : prefixes) {
+      int index = output.lastIndexOf(prefix);
+      if (index >= 0 && index + prefix.length() > start) {
+        start = index + prefix.length();
+      }
+    }
+    if (start < 0) {
+      return null;
+    }
+    int end = output.indexOf('\n', start);
+    return output.substring(start, end < 0 ? output.length() : end);
+  }
+
+  /** Checks that the process is running and was not restarted recently. */
+  public static class UptimeCheck implements NodeCheck {
+    private final String process;
+
+    public UptimeCheck(String process) {
+      this.process = process;
+    }
+
+    @Override
+    public String getName() {
+      return getClass().getSimpleName() + ":" + process;
+    }
+
+    @Override
+    public boolean appliesTo(CheckedNode node) {
+      return runsProcess(node, process);
+    }
+
+    @Override
+    public HealthReport.Entry check(CheckedNode node) {
+      HealthReport.Entry entry = node.newEntry("Uptime", process);
+      String uptime = node.runCommand("ps -C " + process + " -o etimes=");
+      if (CheckedNode.hasErrors(uptime)) {
+        return entry.fill(Collections.singletonList(uptime), true);
+      }
+      if (uptime.isEmpty()) {
+        return entry.fill(Collections.singletonList("Process is not running"), true);
+      }
+      if (!isNumber(uptime)) {
+        return entry.fill(Collections.singletonList("Invalid uptime " + uptime), true);
+      }
+      // To not report the restarts right after the creation or the restart of the universe, a
+      // short uptime is only an error if there was no operation in the same time frame.
+      boolean recentOperation =
+          node.potentialStartTimeMs > 0
+              && System.currentTimeMillis() / 1000 - node.potentialStartTimeMs / 1000
+                  <= RECENT_FAILURE_THRESHOLD_SEC;
+      boolean restarted =
+          uptime.length() < 10 && Long.parseLong(uptime) <= RECENT_FAILURE_THRESHOLD_SEC;
+      return entry.fill(
+          Collections.singletonList("Uptime: " + uptime + " seconds"),
+          restarted && !recentOperation);
+    }
+  }
+
+  /** Checks that the process did not write FATAL log files recently. */
+  public static class FatalLogsCheck implements NodeCheck {
+    private final String process;
+
+    public FatalLogsCheck(String process) {
+      this.process = process;
+    }
+
+    @Override
+    public String getName() {
+      return getClass().getSimpleName() + ":" + process;
+    }
+
+    @Override
+    public boolean appliesTo(CheckedNode node) {
+      return runsProcess(node, process);
+    }
+
+    @Override
+    public HealthReport.Entry check(CheckedNode node) {
+      HealthReport.Entry entry = node.newEntry("Fatal log files");
+      String searchDir = node.ybHomeDir + "/" + process.substring("yb-".length()) + "/logs/";
+      String output =
+          node.runCommand(
+              "find "
+                  + searchDir
+                  + " -mmin -"
+                  + FATAL_TIME_THRESHOLD_MINUTES
+                  + " -name \"*FATAL*\" -type f -printf \"%T@ %p\\n\" | sort -rn");
+      if (CheckedNode.hasErrors(output)) {
+        return entry.fill(Collections.singletonList(output), true);
+      }
+      long nowSecs = System.currentTimeMillis() / 1000;
+      List<String> logs = new ArrayList<>();
+      for (String line : output.split("\n")) {
+        // The output can contain other lines, such as the errors of find, so only the lines with
+        // an epoch and a file name are kept.
+        String[] splits = line.trim().split("\\s+");
+        if (splits.length != 2) {
+          continue;
+        }
+        String epoch = splits[0].split("\\.")[0];
+        if (!isNumber(epoch) || epoch.length() > 18) {
+          continue;
+        }
+        logs.add(
+            splits[1]
+                + " ("
+                + toHumanReadableTime(nowSecs - Long.parseLong(epoch))
+                + " old)");
+      }
+      return entry.fill(logs, !logs.isEmpty());
+    }
+  }
+
+  /** Checks that no core file was written recently. */
+  public static class CoreFilesCheck implements NodeCheck {
+    @Override
+    public boolean appliesTo(CheckedNode node) {
+      return true;
+    }
+
+    @Override
+    public HealthReport.Entry check(CheckedNode node) {
+      HealthReport.Entry entry = node.newEntry("Core files");
+      String coresDir = node.ybHomeDir + "/cores/";
+      String output =
+          node.runCommand(
+              "if [ -d "
+                  + coresDir
+                  + " ]; then find "
+                  + coresDir
+                  + " -mmin -"
+                  + FATAL_TIME_THRESHOLD_MINUTES
+                  + " -name \"core_*\"; fi");
+      if (CheckedNode.hasErrors(output)) {
+        return entry.fill(Collections.singletonList(output), true);
+      }
+      List<String> files =
+          output.isEmpty() ? Collections.emptyList() : Arrays.asList(output.split("\n"));
+      return entry.fill(files, !files.isEmpty());
+    }
+  }
+
+  /** Checks the utilization of the local disks. */
+  public static class DiskUtilizationCheck implements NodeCheck {
+    @Override
+    public boolean appliesTo(CheckedNode node) {
+      return true;
+    }
+
+    @Override
+    public HealthReport.Entry check(CheckedNode node) {
+      HealthReport.Entry entry = node.newEntry("Disk utilization");
+      String output = node.runCommand("df -hl 2>/dev/null");
+      if (CheckedNode.hasErrors(output)) {
+        return entry.fill(Collections.singletonList(output), true);
+      }
+      List<String> lines = Arrays.asList(output.split("\n"));
+      if (lines.size() < 2) {
+        return entry.fill(Collections.singletonList(output), true);
+      }
+      boolean foundError = false;
+      // The first line is the header.
+      for (String line : lines.subList(1, lines.size())) {
+        if (line.isEmpty()) {
+          continue;
+        }
+        String[] columns = line.trim().split("\\s+");
+        String percentage = columns.length < 5 ? "" : columns[4].replace("%", "");
+        if (!isNumber(percentage)
+            || percentage.length() > 3
+            || Integer.parseInt(percentage) > DISK_UTILIZATION_THRESHOLD_PCT) {
+          foundError = true;
+        }
+      }
+      return entry.fill(lines, foundError);
+    }
+  }
+
+  /** Checks the number of opened file descriptors against the limits. */
+  public static class FileDescriptorsCheck implements NodeCheck {
+    @Override
+    public boolean appliesTo(CheckedNode node) {
+      return true;
+    }
+
+    @Override
+    public HealthReport.Entry check(CheckedNode node) {
+      HealthReport.Entry entry = node.newEntry("Opened file descriptors");
+      String output =
+          node.runCommand(
+              "ulimit -n; cat /proc/sys/fs/file-max; cat /proc/sys/fs/file-nr | cut -f1");
+      if (CheckedNode.hasErrors(output)) {
+        return entry.fill(Collections.singletonList(output), true);
+      }
+      List<String> counts = Arrays.asList(output.split("\\s+"));
+      if (counts.size() != 3) {
+        return entry.fill(
+            Collections.singletonList("Error checking file descriptors: " + counts), true);
+      }
+      if (!counts.stream().allMatch(count -> isNumber(count) && count.length() < 19)) {
+        return entry.fill(Collections.singletonList("Received invalid counts: " + counts), true);
+      }
+      long maxFd = Math.min(Long.parseLong(counts.get(0)), Long.parseLong(counts.get(1)));
+      long openFd = Long.parseLong(counts.get(2));
+      if (openFd > maxFd * FD_THRESHOLD_PCT / 100.0) {
+        return entry.fill(
+            Collections.singletonList(
+                "Open file descriptors: " + openFd + ". Max file descriptors: " + maxFd),
+            true);
+      }
+      return entry.fill(Collections.emptyList(), false);
+    }
+  }
+
+  /** Checks that cqlsh connects to the tserver. */
+  public static class CqlshCheck implements NodeCheck {
+    @Override
+    public boolean isExpensive() {
+      return true;
+    }
+
+    @Override
+    public boolean appliesTo(CheckedNode node) {
+      return node.isTserver;
+    }
+
+    @Override
+    public HealthReport.Entry check(CheckedNode node) {
+      HealthReport.Entry entry = node.newEntry("Connectivity with cqlsh");
+      int port = node.cluster.ycqlPort;
+      String command =
+          node.ybHomeDir + "/tserver/bin/cqlsh " + node.ip + " " + port + " -e \"SHOW HOST\"";
+      if (node.cluster.enableTlsClient) {
+        String certFile =
+            node.isK8s() ? K8S_CERT_FILE_PATH : node.ybHomeDir + "/yugabyte-tls-config/ca.crt";
+        String sslVersion = DEFAULT_SSL_VERSION;
+        String sslProtocol = node.cluster.sslProtocol == null ? "" : node.cluster.sslProtocol;
+        for (String protocol : sslProtocol.split("\\W+")) {
+          if (SSL_PROTOCOL_TO_SSL_VERSION.containsKey(protocol)) {
+            sslVersion = SSL_PROTOCOL_TO_SSL_VERSION.get(protocol);
+            break;
+          }
+        }
+        command = "SSL_VERSION=" + sslVersion + " SSL_CERTFILE=" + certFile + " " + command;
+        command += " --ssl";
+      }
+      String output = node.runCommand(command);
+      boolean connected =
+          output.contains("Connected to local cluster at " + node.ip + ":" + port)
+              || output.contains("AuthenticationFailed('Remote end requires authentication.'");
+      return entry.fill(errors(output, !connected), !connected);
+    }
+  }
+
+  /** Checks that redis-cli connects to the tserver, if YEDIS is enabled. */
+  public static class RedisCliCheck implements NodeCheck {
+    @Override
+    public boolean isExpensive() {
+      return true;
+    }
+
+    @Override
+    public boolean appliesTo(CheckedNode node) {
+      return node.isTserver && node.cluster.enableYEDIS;
+    }
+
+    @Override
+    public HealthReport.Entry check(CheckedNode node) {
+      HealthReport.Entry entry = node.newEntry("Connectivity with redis-cli");
+      String output =
+          node.runCommand(
+              "echo \"ping\" | "
+                  + node.ybHomeDir
+                  + "/tserver/bin/redis-cli -h "
+                  + node.ip
+                  + " -p "
+                  + node.cluster.redisPort);
+      boolean connected =
+          output.equals("PONG") || output.equals("NOAUTH ping: Authentication required.");
+      return entry.fill(errors(output, !connected), !connected);
+    }
+  }
+
+  /** Checks that ysqlsh connects to the tserver, if YSQL is enabled. */
+  public static class YsqlshCheck implements NodeCheck {
+    @Override
+    public boolean isExpensive() {
+      return true;
+    }
+
+    @Override
+    public boolean appliesTo(CheckedNode node) {
+      return node.isTserver && node.cluster.enableYSQL;
+    }
+
+    @Override
+    public HealthReport.Entry check(CheckedNode node) {
+      HealthReport.Entry entry = node.newEntry("Connectivity with ysqlsh");
+      String host = node.ip;
+      String portArgs = "-p " + node.cluster.ysqlPort;
+      // With YSQL auth, the connection goes through the local socket, assuming the hba file
+      // trusts the local connections of the yugabyte user.
+      if (node.cluster.enableYSQLAuth) {
+        String socketFiles = node.runCommand("ls /tmp/.yb.*/.s.PGSQL.*");
+        if (socketFiles.contains("Error") || socketFiles.isEmpty()) {
+          return entry.fill(Collections.singletonList("Could not find local socket"), true);
+        }
+        String socketFile = socketFiles.split("\\s+")[0];
+        host = socketFile.substring(0, Math.max(socketFile.lastIndexOf('/'), 0));
+        portArgs = "";
+      }
+      String sslArgs = node.cluster.enableTlsClient ? " \"sslmode=require\"" : "";
+      String output =
+          node.runCommand(
+              node.ybHomeDir
+                  + "/tserver/bin/ysqlsh -h "
+                  + host
+                  + " "
+                  + portArgs
+                  + " -U yugabyte"
+                  + sslArgs
+                  + " -c \"\\conninfo\"");
+      boolean connected = output.startsWith("You are connected to database");
+      return entry.fill(errors(output, !connected), !connected);
+    }
+  }
+
+  /** Checks that NTP is enabled and the clock is synchronized, if asked for. */
+  public static class ClockSkewCheck implements NodeCheck {
+    @Override
+    public boolean appliesTo(CheckedNode node) {
+      return node.checkClock;
+    }
+
+    @Override
+    public HealthReport.Entry check(CheckedNode node) {
+      HealthReport.Entry entry = node.newEntry("Clock synchronization");
+      String output = node.runCommand("timedatectl status");
+      String ntpEnabled =
+          lastValueOf(
+              output,
+              "NTP enabled: ",
+              "NTP service: ",
+              "Network time on: ",
+              "systemd-timesyncd.service active: ");
+      if (ntpEnabled == null) {
+        return entry.fill(
+            Collections.singletonList("Error getting NTP state - incorrect answer format"), true);
+      }
+      if (!ntpEnabled.equals("yes") && !ntpEnabled.equals("active")) {
+        if (ntpEnabled.equals("no") || ntpEnabled.equals("inactive")) {
+          return entry.fill(Collections.singletonList("NTP disabled"), true);
+        }
+        return entry.fill(Collections.singletonList("Error getting NTP state " + ntpEnabled), true);
+      }
+      String ntpSynchronized =
+          lastValueOf(output, "NTP synchronized: ", "System clock synchronized: ");
+      if (ntpSynchronized == null) {
+        return entry.fill(
+            Collections.singletonList(
+                "Error getting NTP synchronization state - incorrect answer format"),
+            true);
+      }
+      if (ntpSynchronized.equals("yes")) {
+        return entry.fill(Collections.emptyList(), false);
+      }
+      return entry.fill(
+          Collections.singletonList(
+              ntpSynchronized.equals("no")
+                  ? "NTP desynchronized"
+                  : "Error getting NTP synchronization state " + ntpSynchronized),
+          true);
+    }
+  }
+}
@@ -0,0 +1,161 @@
+// Copyright (c) YugaByte, Inc.
+
+package com.yugabyte.yw.common.health;
+
+import com.yugabyte.yw.common.HealthManager.ClusterInfo;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs the commands of the health checks on a node, with ssh or with kubectl exec for the pods of
+ * Kubernetes universes. The ssh commands to a node share one connection through the OpenSSH control
+ * master, so the checks of a node only pay for the handshake once.
+ */
+class RemoteShell implements CheckedNode.Shell {
+
+  private static final int SSH_CONNECT_TIMEOUT_SECS = 10;
+
+  private final String node;
+
+  private final List<String> commandPrefix;
+
+  private final Map<String, String> envVars;
+
+  private final long timeoutMs;
+
+  private RemoteShell(
+      String node, List<String> commandPrefix, Map<String, String> envVars, long timeoutMs) {
+    this.node = node;
+    this.commandPrefix = commandPrefix;
+    this.envVars = envVars;
+    this.timeoutMs = timeoutMs;
+  }
+
+  static RemoteShell ssh(
+      String ip,
+      ClusterInfo cluster,
+      Path controlDir,
+      long controlPersistSecs,
+      Map<String, String> envVars,
+      long timeoutMs) {
+    if (cluster.identityFile == null || !new File(cluster.identityFile).isFile()) {
+      throw new IllegalStateException("Error: cannot find identity file " + cluster.identityFile);
+    }
+    List<String> prefix =
+        Arrays.asList(
+            "ssh",
+            "yugabyte@" + ip,
+            "-p",
+            String.valueOf(cluster.sshPort),
+            "-o",
+            "StrictHostKeyChecking no",
+            "-o",
+            "ConnectTimeout=" + SSH_CONNECT_TIMEOUT_SECS,
+            "-o",
+            "UserKnownHostsFile /dev/null",
+            "-o",
+            "LogLevel ERROR",
+            "-o",
+            "ControlMaster=auto",
+            "-o",
+            "ControlPath=" + controlDir.resolve("%C"),
+            "-o",
+            "ControlPersist=" + controlPersistSecs,
+            "-i",
+            cluster.identityFile);
+    return new RemoteShell(ip, prefix, envVars, timeoutMs);
+  }
+
+  static RemoteShell kubectl(
+      String nodeFqdn, ClusterInfo cluster, Map<String, String> envVars, long timeoutMs) {
+    String[] parts = nodeFqdn.split("\\.");
+    if (parts.length < 3) {
+      throw new IllegalStateException("Error: invalid pod address " + nodeFqdn);
+    }
+    String podName = parts[0];
+    String namespace = parts[2];
+    // The pods are named yb-master-n and yb-tserver-n, n being the number of the pod, and their
+    // containers yb-master and yb-tserver.
+    String container = podName.substring(0, Math.max(podName.lastIndexOf('-'), 0));
+    Map<String, String> podEnvVars = new HashMap<>(envVars);
+    String kubeConfig = cluster.namespaceToConfig.get(namespace);
+    if (kubeConfig != null) {
+      podEnvVars.put("KUBECONFIG", kubeConfig);
+    }
+    List<String> prefix =
+        Arrays.asList(
+            "kubectl",
+            "exec",
+            "-t",
+            "-n=" + namespace,
+            podName,
+            "-c",
+            container.isEmpty() ? podName : container,
+            "--",
+            "bash",
+            "-c");
+    return new RemoteShell(nodeFqdn, prefix, podEnvVars, timeoutMs);
+  }
+
+  @Override
+  public String run(String command) {
+    List<String> commandArgs = new ArrayList<>(commandPrefix);
+    commandArgs.add(command);
+    String output = execute(commandArgs).trim();
+    if (output.endsWith("No route to host")) {
+      return "Error: Node " + node + " is unreachable";
+    }
+    return output;
+  }
+
+  private String execute(List<String> commandArgs) {
+    File outputFile = null;
+    File errorFile = null;
+    try {
+      // The output goes to files rather than pipes: the ssh control master started by the first
+      // command keeps running in the background with the outputs of that command.
+      outputFile = File.createTempFile("health_check", ".out");
+      errorFile = File.createTempFile("health_check", ".err");
+      ProcessBuilder builder =
+          new ProcessBuilder(commandArgs).redirectOutput(outputFile).redirectError(errorFile);
+      builder.environment().putAll(envVars);
+      Process process = builder.start();
+      if (!process.waitFor(timeoutMs, TimeUnit.MILLISECONDS)) {
+        process.destroyForcibly().waitFor();
+        return "Error executing command " + commandArgs + ": timeout occurred";
+      }
+      String error = readAscii(errorFile);
+      if (!error.isEmpty()) {
+        return "Error executing command " + commandArgs + ": " + error;
+      }
+      return readAscii(outputFile);
+    } catch (IOException e) {
+      return "Error executing command " + commandArgs + ": " + e.getMessage();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return "Error executing command " + commandArgs + ": interrupted";
+    } finally {
+      if (outputFile != null) {
+        outputFile.delete();
+      }
+      if (errorFile != null) {
+        errorFile.delete();
+      }
+    }
+  }
+
+  private static String readAscii(File file) throws IOException {
+    String content = new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+    return content.replaceAll("[^\\x00-\\x7F]", "");
+  }
+}
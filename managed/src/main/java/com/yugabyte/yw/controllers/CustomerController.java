@@ -260,6 +260,7 @@ public class CustomerController extends AuthenticatedController {
       filterJson.put("table_name", params.remove("tableName"));
     }
     params.put("filters", Json.stringify(filterJson));
+    params.put(MetricQueryHelper.CUSTOMER_UUID_PARAM, customer.uuid.toString());
     JsonNode response =
         metricQueryHelper.query(formData.get().getMetrics(), params, filterOverrides);
     if (response.has("error")) {
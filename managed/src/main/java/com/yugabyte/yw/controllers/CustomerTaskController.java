@@ -115,12 +115,12 @@ public class CustomerTaskController extends AuthenticatedController {
 
     Map<UUID, List<CustomerTaskFormData>> taskListMap = new HashMap<>();
 
+    Map<UUID, ObjectNode> taskProgressMap = commissioner.getStatuses(customerTaskList);
     for (CustomerTask task : customerTaskList) {
-      Optional<ObjectNode> optTaskProgress = commissioner.mayGetStatus(task.getTaskUUID());
+      ObjectNode taskProgress = taskProgressMap.get(task.getTaskUUID());
       // If the task progress API returns error, we will log it and not add that task
       // to the task list for UI rendering.
-      if (optTaskProgress.isPresent()) {
-        ObjectNode taskProgress = optTaskProgress.get();
+      if (taskProgress != null) {
         if (taskProgress.has("error")) {
           LOG.error(
               "Error fetching Task Progress for "
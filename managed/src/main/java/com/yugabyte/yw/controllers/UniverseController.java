@@ -2,12 +2,15 @@
 
 package com.yugabyte.yw.controllers;
 
+import akka.stream.javadsl.Source;
+import akka.util.ByteString;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.ImmutableMap;
 import com.google.inject.Inject;
+import com.typesafe.config.Config;
 import com.yugabyte.yw.cloud.PublicCloudConstants;
 import com.yugabyte.yw.cloud.UniverseResourceDetails;
 import com.yugabyte.yw.commissioner.Commissioner;
@@ -40,6 +43,7 @@ import com.yugabyte.yw.forms.RunQueryFormData;
 import com.yugabyte.yw.forms.UniverseConfigureTaskParams;
 import com.yugabyte.yw.forms.UniverseDefinitionTaskParams;
 import com.yugabyte.yw.forms.UniverseResp;
+import com.yugabyte.yw.forms.UniverseSummaryResp;
 import com.yugabyte.yw.forms.ToggleTlsParams;
 import com.yugabyte.yw.forms.UpgradeParams;
 import com.yugabyte.yw.forms.YWError;
@@ -59,6 +63,7 @@ import com.yugabyte.yw.models.helpers.NodeDetails;
 import com.yugabyte.yw.models.helpers.PlacementInfo;
 import com.yugabyte.yw.models.helpers.TaskType;
 import com.yugabyte.yw.queries.QueryHelper;
+import com.yugabyte.yw.queries.SlowQueryStats;
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiImplicitParam;
 import io.swagger.annotations.ApiImplicitParams;
@@ -72,6 +77,7 @@ import play.Play;
 import play.data.Form;
 import play.libs.Json;
 import play.libs.concurrent.HttpExecutionContext;
+import play.mvc.Http;
 import play.mvc.Http.HeaderNames;
 import play.mvc.Result;
 import play.mvc.Results;
@@ -80,10 +86,13 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.InputStream;
+import java.lang.reflect.Field;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -107,6 +116,12 @@ import static com.yugabyte.yw.forms.YWResults.YWSuccess.withMessage;
 public class UniverseController extends AuthenticatedController {
   private static final Logger LOG = LoggerFactory.getLogger(UniverseController.class);
 
+  // The max number of universes in a page of the universe list.
+  private static final int MAX_LIST_PAGE_SIZE = 500;
+
+  // The header with the total number of universes of a page of the universe list.
+  static final String TOTAL_COUNT_HEADER = "X-Total-Count";
+
   @Inject ValidatingFormFactory formFactory;
 
   @Inject Commissioner commissioner;
@@ -977,14 +992,80 @@ public class UniverseController extends AuthenticatedController {
     // Verify the customer is present.
     Customer customer = Customer.getOrBadRequest(customerUUID);
     List<UniverseResp> universes = new ArrayList<>();
+    UniverseResourceDetails.Context context = new UniverseResourceDetails.Context();
     // TODO: Restrict the list api json payload, possibly to only include UUID, Name etc
     for (Universe universe : customer.getUniverses()) {
-      UniverseResp universePayload = createResp(universe, null);
+      UniverseResp universePayload = createResp(universe, null, context);
       universes.add(universePayload);
     }
     return ApiResponse.success(universes);
   }
 
+  /**
+   * List a page of the universe summaries of a customer, ordered by name. The summaries are
+   * streamed as a JSON array, and the total number of universes is returned in a header.
+   *
+   * @param offset the number of universes before the page.
+   * @param limit the max number of universes in the page.
+   * @param fields comma separated list of the summary fields to return, all if empty.
+   */
+  @ApiOperation(
+      value = "List Universe summaries",
+      response = UniverseSummaryResp.class,
+      responseContainer = "List")
+  public Result listSummaries(UUID customerUUID, Integer offset, Integer limit, String fields) {
+    Customer customer = Customer.getOrBadRequest(customerUUID);
+    if (offset < 0) {
+      throw new YWServiceException(BAD_REQUEST, "Invalid offset " + offset);
+    }
+    if (limit <= 0 || limit > MAX_LIST_PAGE_SIZE) {
+      throw new YWServiceException(
+          BAD_REQUEST, "Limit should be between 1 and " + MAX_LIST_PAGE_SIZE + ", got " + limit);
+    }
+    Set<String> projection = getSummaryFields(fields);
+
+    int totalCount = Universe.count(customer);
+    // The details of the universes are only read while the response is streamed, the universes
+    // deleted by then are skipped.
+    Source<ByteString, ?> summaries =
+        Source.from(Universe.getPage(customer, offset, limit))
+            .map(Universe::getSummary)
+            .filter(Optional::isPresent)
+            .map(
+                universeSummary -> {
+                  ObjectNode summary = (ObjectNode) Json.toJson(universeSummary.get());
+                  if (!projection.isEmpty()) {
+                    summary.retain(projection);
+                  }
+                  return ByteString.fromString(Json.stringify(summary));
+                })
+            .intersperse(
+                ByteString.fromString("["), ByteString.fromString(","), ByteString.fromString("]"));
+    return ok().chunked(summaries)
+        .as(Http.MimeTypes.JSON)
+        .withHeader(TOTAL_COUNT_HEADER, String.valueOf(totalCount));
+  }
+
+  // Parses the comma separated summary fields.
+  private static Set<String> getSummaryFields(String fields) {
+    Set<String> summaryFields =
+        Arrays.stream(UniverseSummaryResp.class.getFields())
+            .map(Field::getName)
+            .collect(Collectors.toSet());
+    Set<String> projection = new HashSet<>();
+    for (String field : StringUtils.split(StringUtils.defaultString(fields), ',')) {
+      String fieldName = field.trim();
+      if (fieldName.isEmpty()) {
+        continue;
+      }
+      if (!summaryFields.contains(fieldName)) {
+        throw new YWServiceException(BAD_REQUEST, "Unknown universe summary field " + fieldName);
+      }
+      projection.add(fieldName);
+    }
+    return projection;
+  }
+
   /**
    * Mark whether the universe needs to be backed up or not.
    *
@@ -1422,11 +1503,13 @@ public class UniverseController extends AuthenticatedController {
           BAD_REQUEST, "No universe found for customer with ID: " + customerUUID);
     }
     List<UniverseResourceDetails> response = new ArrayList<>(universeSet.size());
+    // The providers, prices and instance types are read once for all the universes.
+    UniverseResourceDetails.Context context = new UniverseResourceDetails.Context();
+    Config config = runtimeConfigFactory.globalRuntimeConf();
     for (Universe universe : universeSet) {
       try {
         response.add(
-            UniverseResourceDetails.create(
-                universe.getUniverseDetails(), runtimeConfigFactory.globalRuntimeConf()));
+            UniverseResourceDetails.create(universe.getUniverseDetails(), config, context));
       } catch (Exception e) {
         LOG.error("Could not add cost details for Universe with UUID: " + universe.universeUUID);
       }
@@ -1760,14 +1843,35 @@ public class UniverseController extends AuthenticatedController {
     }
   }
 
+  /**
+   * Returns a page of the slow queries of the universe, merged across its nodes and sorted by the
+   * given metric in descending order.
+   *
+   * @param sortBy the metric to sort the queries by, such as total_time or calls.
+   * @param offset the number of queries before the page.
+   * @param limit the max number of queries in the page, all the queries if 0.
+   */
   @ApiOperation(value = "getSlowQueries", response = Object.class)
-  public Result getSlowQueries(UUID customerUUID, UUID universeUUID) {
+  public Result getSlowQueries(
+      UUID customerUUID, UUID universeUUID, String sortBy, Integer offset, Integer limit) {
     LOG.info("Slow queries for customer {}, universe {}", customerUUID, universeUUID);
     Customer customer = Customer.getOrBadRequest(customerUUID);
     Universe universe = Universe.getValidUniverseOrBadRequest(universeUUID, customer);
+    if (!SlowQueryStats.SORT_METRICS.contains(sortBy)) {
+      throw new YWServiceException(
+          BAD_REQUEST,
+          "Invalid sortBy " + sortBy + ", should be one of " + SlowQueryStats.SORT_METRICS);
+    }
+    if (offset < 0) {
+      throw new YWServiceException(BAD_REQUEST, "Invalid offset " + offset);
+    }
+    if (limit < 0 || limit > MAX_LIST_PAGE_SIZE) {
+      throw new YWServiceException(
+          BAD_REQUEST, "Limit should be between 0 and " + MAX_LIST_PAGE_SIZE + ", got " + limit);
+    }
 
     try {
-      JsonNode resultNode = queryHelper.slowQueries(universe);
+      JsonNode resultNode = queryHelper.slowQueries(universe, sortBy, offset, limit);
       return Results.status(OK, resultNode);
     } catch (NullPointerException e) {
       LOG.error("Universe does not have a private IP or DNS", e);
@@ -1852,9 +1956,14 @@ public class UniverseController extends AuthenticatedController {
   }
 
   private UniverseResp createResp(Universe universe, UUID taskUUID) {
+    return createResp(universe, taskUUID, new UniverseResourceDetails.Context());
+  }
+
+  private UniverseResp createResp(
+      Universe universe, UUID taskUUID, UniverseResourceDetails.Context context) {
     UniverseResourceDetails resourceDetails =
         UniverseResourceDetails.create(
-            universe.getUniverseDetails(), runtimeConfigFactory.globalRuntimeConf());
+            universe.getUniverseDetails(), runtimeConfigFactory.globalRuntimeConf(), context);
     String sampleAppCommandTxt = getManifest(universe);
     return new UniverseResp(universe, taskUUID, resourceDetails, sampleAppCommandTxt);
   }
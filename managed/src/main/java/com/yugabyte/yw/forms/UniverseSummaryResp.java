@@ -0,0 +1,64 @@
+/*
+ * Copyright 2021 YugaByte, Inc. and Contributors
+ *
+ * Licensed under the Polyform Free Trial License 1.0.0 (the "License"); you
+ * may not use this file except in compliance with the License. You
+ * may obtain a copy of the License at
+ *
+ * http://github.com/YugaByte/yugabyte-db/blob/master/licenses/POLYFORM-FREE-TRIAL-LICENSE-1.0.0.txt
+ */
+
+package com.yugabyte.yw.forms;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.yugabyte.yw.forms.UniverseDefinitionTaskParams.ClusterType;
+import com.yugabyte.yw.models.Universe;
+
+/**
+ * The summary of a universe returned by the universe list, read from the JSON of the universe
+ * details without building the details.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class UniverseSummaryResp {
+
+  public final String universeUUID;
+  public final String name;
+  public final String creationDate;
+  public final int version;
+
+  public final boolean updateInProgress;
+  public final boolean updateSucceeded;
+  public final boolean universePaused;
+
+  public final int numNodes;
+  public final int numReadOnlyClusters;
+
+  public final String provider;
+  public final String ybSoftwareVersion;
+
+  public UniverseSummaryResp(Universe entity, JsonNode detailsJson) {
+    universeUUID = entity.universeUUID.toString();
+    name = entity.name;
+    creationDate = entity.creationDate.toString();
+    version = entity.version;
+    updateInProgress = detailsJson.path("updateInProgress").asBoolean(false);
+    updateSucceeded = detailsJson.path("updateSucceeded").asBoolean(true);
+    universePaused = detailsJson.path("universePaused").asBoolean(false);
+    numNodes = detailsJson.path("nodeDetailsSet").size();
+
+    // Old universes have the user intent of the primary cluster at the top of the details.
+    JsonNode primaryUserIntent = detailsJson.path("userIntent");
+    int readOnlyClusters = 0;
+    for (JsonNode cluster : detailsJson.path("clusters")) {
+      if (ClusterType.ASYNC.name().equals(cluster.path("clusterType").asText())) {
+        readOnlyClusters++;
+      } else {
+        primaryUserIntent = cluster.path("userIntent");
+      }
+    }
+    numReadOnlyClusters = readOnlyClusters;
+    provider = primaryUserIntent.path("provider").textValue();
+    ybSoftwareVersion = primaryUserIntent.path("ybSoftwareVersion").textValue();
+  }
+}
@@ -0,0 +1,208 @@
+// Copyright (c) YugaByte, Inc.
+
+package com.yugabyte.yw.metrics;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import com.typesafe.config.Config;
+import io.prometheus.client.Counter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import play.libs.Json;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+
+/**
+ * Cache of the Prometheus range query results, shared by all the metrics requests. The results are
+ * cached by query and step, and the requested ranges are aligned on the step so that the points of
+ * overlapping ranges are evaluated at the same timestamps. A request for a range already covered
+ * is served from memory, and a request extending the cached range, such as a dashboard refresh,
+ * only fetches the new tail. The points more recent than the recent window are not considered
+ * covered, as Prometheus may not have scraped all their samples yet.
+ */
+@Singleton
+public class MetricQueryCache {
+
+  public static final Logger LOG = LoggerFactory.getLogger(MetricQueryCache.class);
+
+  private static final String ENABLED_KEY = "yb.metrics.cache.enabled";
+  private static final String MAX_ENTRIES_KEY = "yb.metrics.cache.max_entries";
+  private static final String EXPIRE_AFTER_ACCESS_KEY = "yb.metrics.cache.expire_after_access";
+  private static final String RECENT_WINDOW_KEY = "yb.metrics.cache.recent_window";
+
+  private static final Counter REQUESTS =
+      Counter.build("yw_metrics_cache_requests", "Number of range queries by cache result")
+          .labelNames("result")
+          .register();
+
+  private static final String HIT = "hit";
+  private static final String PARTIAL_HIT = "partial_hit";
+  private static final String MISS = "miss";
+
+  /** The points of a query, by series, and the range they cover. */
+  private static class Entry {
+    // The series labels and points, by the labels JSON.
+    private final Map<String, JsonNode> labels = new LinkedHashMap<>();
+    private final Map<String, NavigableMap<Long, JsonNode>> points = new LinkedHashMap<>();
+    private long coveredStart = -1;
+    private long coveredEnd = -1;
+
+    private boolean covers(long start) {
+      return coveredStart >= 0 && coveredStart <= start;
+    }
+
+    private void clear() {
+      labels.clear();
+      points.clear();
+      coveredStart = -1;
+      coveredEnd = -1;
+    }
+
+    private void merge(JsonNode result) {
+      for (JsonNode series : result) {
+        JsonNode metric = series.path("metric");
+        String key = metric.toString();
+        labels.putIfAbsent(key, metric);
+        NavigableMap<Long, JsonNode> seriesPoints =
+            points.computeIfAbsent(key, k -> new TreeMap<>());
+        for (JsonNode point : series.path("values")) {
+          seriesPoints.put(Math.round(point.get(0).asDouble()), point);
+        }
+      }
+    }
+
+    private void trimBefore(long start) {
+      points.values().forEach(seriesPoints -> seriesPoints.headMap(start, false).clear());
+      points.values().removeIf(Map::isEmpty);
+      labels.keySet().retainAll(points.keySet());
+      coveredStart = start;
+    }
+
+    private void trimAfter(long end) {
+      points.values().forEach(seriesPoints -> seriesPoints.tailMap(end, false).clear());
+    }
+
+    private JsonNode toResponse(long start, long end) {
+      ObjectNode response = Json.newObject();
+      response.put("status", "success");
+      ObjectNode data = response.putObject("data");
+      data.put("resultType", "matrix");
+      ArrayNode result = data.putArray("result");
+      for (Map.Entry<String, NavigableMap<Long, JsonNode>> series : points.entrySet()) {
+        NavigableMap<Long, JsonNode> inRange = series.getValue().subMap(start, true, end, true);
+        if (inRange.isEmpty()) {
+          continue;
+        }
+        ObjectNode seriesJson = result.addObject();
+        seriesJson.set("metric", labels.get(series.getKey()));
+        ArrayNode values = seriesJson.putArray("values");
+        inRange.values().forEach(values::add);
+      }
+      return response;
+    }
+  }
+
+  private final boolean enabled;
+
+  private final long recentWindowSecs;
+
+  private final Cache<String, Entry> entries;
+
+  @Inject
+  public MetricQueryCache(Config config) {
+    this(
+        config.getBoolean(ENABLED_KEY),
+        config.getInt(MAX_ENTRIES_KEY),
+        config.getDuration(EXPIRE_AFTER_ACCESS_KEY, TimeUnit.SECONDS),
+        config.getDuration(RECENT_WINDOW_KEY, TimeUnit.SECONDS));
+  }
+
+  @VisibleForTesting
+  MetricQueryCache(
+      boolean enabled, int maxEntries, long expireAfterAccessSecs, long recentWindowSecs) {
+    this.enabled = enabled;
+    this.recentWindowSecs = recentWindowSecs;
+    this.entries =
+        CacheBuilder.newBuilder()
+            .maximumSize(maxEntries)
+            .expireAfterAccess(expireAfterAccessSecs, TimeUnit.SECONDS)
+            .build();
+  }
+
+  /**
+   * Runs a range query, serving the points already fetched from the cache.
+   *
+   * @param query : the expanded PromQL query.
+   * @param start : the start of the range, in seconds.
+   * @param end : the end of the range, in seconds.
+   * @param step : the step of the range, in seconds.
+   * @param fetcher : runs the query on Prometheus over the given start and end.
+   * @return the query response, in the format of the Prometheus range query response.
+   */
+  public JsonNode queryRange(
+      String query, long start, long end, long step, BiFunction<Long, Long, JsonNode> fetcher) {
+    if (!enabled || step <= 0 || start > end) {
+      return fetcher.apply(start, end);
+    }
+    long alignedStart = start - Math.floorMod(start, step);
+    long alignedEnd = end - Math.floorMod(end, step);
+    Entry entry;
+    try {
+      entry = entries.get(query + "@" + step, Entry::new);
+    } catch (ExecutionException e) {
+      return fetcher.apply(start, end);
+    }
+
+    long nowSecs = System.currentTimeMillis() / 1000;
+    synchronized (entry) {
+      long fetchStart = alignedStart;
+      if (entry.covers(alignedStart) && entry.coveredEnd >= alignedEnd) {
+        REQUESTS.labels(HIT).inc();
+        return entry.toResponse(alignedStart, alignedEnd);
+      } else if (entry.covers(alignedStart) && entry.coveredEnd + step >= alignedStart) {
+        REQUESTS.labels(PARTIAL_HIT).inc();
+        // The points after the covered range were not final, and are fetched again.
+        entry.trimAfter(entry.coveredEnd);
+        fetchStart = entry.coveredEnd + step;
+      } else {
+        REQUESTS.labels(MISS).inc();
+        entry.clear();
+      }
+
+      JsonNode response = fetcher.apply(fetchStart, alignedEnd);
+      if (response == null
+          || !"success".equals(response.path("status").asText())
+          || !"matrix".equals(response.path("data").path("resultType").asText())) {
+        // Errors are not cached, and are returned as is.
+        return response;
+      }
+      entry.merge(response.path("data").path("result"));
+      if (entry.coveredStart < 0) {
+        entry.coveredStart = alignedStart;
+      }
+      entry.trimBefore(Math.max(entry.coveredStart, alignedStart));
+      // Only the points old enough to have all their samples scraped are final.
+      long finalEnd = nowSecs - recentWindowSecs;
+      entry.coveredEnd = Math.min(alignedEnd, finalEnd - Math.floorMod(finalEnd, step));
+      if (entry.coveredEnd < entry.coveredStart) {
+        // Nothing is final yet, so the whole range is fetched again next time.
+        JsonNode result = entry.toResponse(alignedStart, alignedEnd);
+        entry.clear();
+        return result;
+      }
+      return entry.toResponse(alignedStart, alignedEnd);
+    }
+  }
+}
@@ -14,6 +14,7 @@ import java.util.HashMap;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.UUID;
 import java.util.concurrent.Callable;
 
 public class MetricQueryExecutor implements Callable<JsonNode> {
@@ -22,10 +23,14 @@ public class MetricQueryExecutor implements Callable<JsonNode> {
   private ApiHelper apiHelper;
   private play.Configuration appConfig;
   private YBMetricQueryComponent ybMetricQueryComponent;
+  private MetricQueryCache metricQueryCache;
+  private TimeSeriesStore timeSeriesStore;
 
   private Map<String, String> queryParam = new HashMap<>();
   private Map<String, String> additionalFilters = new HashMap<>();
   private String queryUrl;
+  // The customer the platform metrics are queried for, none are returned without one.
+  private UUID customerUUID;
   private int queryRangeSecs = 0;
 
   public MetricQueryExecutor(
@@ -34,11 +39,45 @@ public class MetricQueryExecutor implements Callable<JsonNode> {
       Map<String, String> queryParam,
       Map<String, String> additionalFilters,
       YBMetricQueryComponent ybMetricQueryComponent) {
+    this(appConfig, apiHelper, queryParam, additionalFilters, ybMetricQueryComponent, null);
+  }
+
+  public MetricQueryExecutor(
+      play.Configuration appConfig,
+      ApiHelper apiHelper,
+      Map<String, String> queryParam,
+      Map<String, String> additionalFilters,
+      YBMetricQueryComponent ybMetricQueryComponent,
+      MetricQueryCache metricQueryCache) {
+    this(
+        appConfig,
+        apiHelper,
+        queryParam,
+        additionalFilters,
+        ybMetricQueryComponent,
+        metricQueryCache,
+        null);
+  }
+
+  public MetricQueryExecutor(
+      play.Configuration appConfig,
+      ApiHelper apiHelper,
+      Map<String, String> queryParam,
+      Map<String, String> additionalFilters,
+      YBMetricQueryComponent ybMetricQueryComponent,
+      MetricQueryCache metricQueryCache,
+      TimeSeriesStore timeSeriesStore) {
     this.apiHelper = apiHelper;
     this.appConfig = appConfig;
     this.queryParam.putAll(queryParam);
+    String customerUUIDParam = this.queryParam.remove(MetricQueryHelper.CUSTOMER_UUID_PARAM);
+    if (customerUUIDParam != null) {
+      this.customerUUID = UUID.fromString(customerUUIDParam);
+    }
     this.additionalFilters.putAll(additionalFilters);
     this.ybMetricQueryComponent = ybMetricQueryComponent;
+    this.metricQueryCache = metricQueryCache;
+    this.timeSeriesStore = timeSeriesStore;
     int scrapeIntervalSecs = appConfig.getInt("yb.metrics.scrape_interval_secs", 10);
     if (queryParam.containsKey("step")) {
       // Rate queries like rate(rpc_latency_count[rate_interval]) are performed over multiple
@@ -83,6 +122,9 @@ public class MetricQueryExecutor implements Callable<JsonNode> {
     } else {
       if (queryParam.containsKey("end")) {
         this.queryUrl = this.getMetricsUrl() + "/query_range";
+        if (metricQueryCache != null) {
+          return getCachedRangeMetrics();
+        }
       } else {
         this.queryUrl = this.getMetricsUrl() + "/query";
       }
@@ -92,6 +134,58 @@ public class MetricQueryExecutor implements Callable<JsonNode> {
     }
   }
 
+  private JsonNode getCachedRangeMetrics() {
+    long start, end, step;
+    try {
+      start = Long.parseLong(queryParam.get("start"));
+      end = Long.parseLong(queryParam.get("end"));
+      step = Long.parseLong(queryParam.get("step"));
+    } catch (NumberFormatException e) {
+      LOG.trace("Executing metric query {}: {}", queryUrl, queryParam);
+      return apiHelper.getRequest(queryUrl, new HashMap<>(), queryParam);
+    }
+    return metricQueryCache.queryRange(
+        queryParam.get("query"),
+        start,
+        end,
+        step,
+        (fetchStart, fetchEnd) -> {
+          Map<String, String> rangeParam = new HashMap<>(queryParam);
+          rangeParam.put("start", Long.toString(fetchStart));
+          rangeParam.put("end", Long.toString(fetchEnd));
+          LOG.trace("Executing metric query {}: {}", queryUrl, rangeParam);
+          return apiHelper.getRequest(queryUrl, new HashMap<>(), rangeParam);
+        });
+  }
+
+  // Queries the points of a platform metric from the TimeSeriesStore rather than Prometheus.
+  private JsonNode getStoredMetrics(MetricConfig config) {
+    long end =
+        queryParam.containsKey("end")
+            ? Long.parseLong(queryParam.get("end"))
+            : System.currentTimeMillis() / 1000;
+    long start = Long.parseLong(queryParam.getOrDefault("start", queryParam.get("time")));
+    long step = Long.parseLong(queryParam.getOrDefault("step", "60"));
+    if (customerUUID == null) {
+      ObjectNode responseJson = Json.newObject();
+      responseJson.put("status", "success");
+      ObjectNode data = responseJson.putObject("data");
+      data.put("resultType", "matrix");
+      data.putArray("result");
+      return responseJson;
+    }
+    Map<String, String> filters = new HashMap<>(config.getFilters());
+    filters.putAll(additionalFilters);
+    return timeSeriesStore.queryRange(
+        customerUUID,
+        config.getConfig().metric,
+        filters,
+        config.getConfig().group_by,
+        start,
+        end,
+        step);
+  }
+
   @Override
   public JsonNode call() {
     MetricConfig config = MetricConfig.get(queryParam.get("queryKey"));
@@ -100,6 +194,13 @@ public class MetricQueryExecutor implements Callable<JsonNode> {
 
     if (config == null) {
       responseJson.put("error", "Invalid Query Key");
+    } else if (timeSeriesStore != null && timeSeriesStore.hasMetric(config.getConfig().metric)) {
+      String metric = config.getConfig().metric;
+      responseJson.set("layout", Json.toJson(config.getLayout()));
+      MetricQueryResponse queryResponse =
+          Json.fromJson(getStoredMetrics(config), MetricQueryResponse.class);
+      responseJson.set(
+          "data", Json.toJson(queryResponse.getGraphData(metric, config.getLayout())));
     } else {
       Map<String, String> queries = config.getQueries(additionalFilters, this.queryRangeSecs);
       responseJson.set("layout", Json.toJson(config.getLayout()));
@@ -7,7 +7,9 @@ import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
 import com.yugabyte.yw.common.ApiHelper;
+import com.yugabyte.yw.common.FanOutExecutor;
 import com.yugabyte.yw.common.YWServiceException;
+import com.yugabyte.yw.models.MetricConfig;
 import org.joda.time.DateTime;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -16,6 +18,7 @@ import play.libs.Json;
 import java.io.IOException;
 import java.util.*;
 import java.util.concurrent.*;
+import java.util.stream.Collectors;
 
 import static play.mvc.Http.Status.BAD_REQUEST;
 
@@ -24,13 +27,22 @@ public class MetricQueryHelper {
 
   public static final Logger LOG = LoggerFactory.getLogger(MetricQueryHelper.class);
   public static final Integer STEP_SIZE = 100;
-  public static final Integer QUERY_EXECUTOR_THREAD_POOL = 5;
+
+  // The query param of the customer the platform metrics are queried for. It is not passed on to
+  // Prometheus.
+  public static final String CUSTOMER_UUID_PARAM = "customerUUID";
   @Inject play.Configuration appConfig;
 
+  @Inject FanOutExecutor fanOutExecutor;
+
   @Inject ApiHelper apiHelper;
 
   @Inject YBMetricQueryComponent ybMetricQueryComponent;
 
+  @Inject MetricQueryCache metricQueryCache;
+
+  @Inject TimeSeriesStore timeSeriesStore;
+
   /**
    * Query prometheus for a given metricType and query params
    *
@@ -87,12 +99,16 @@ public class MetricQueryHelper {
     String metricsUrl = appConfig.getString("yb.metrics.url");
     boolean useNativeMetrics = appConfig.getBoolean("yb.metrics.useNative", false);
     if ((null == metricsUrl || metricsUrl.isEmpty()) && !useNativeMetrics) {
-      LOG.error("Error fetching metrics data: no prometheus metrics URL configured");
-      return Json.newObject();
+      // The platform metrics are still served by the TimeSeriesStore.
+      metricKeys =
+          metricKeys.stream().filter(this::isStoredMetricKey).collect(Collectors.toList());
+      if (metricKeys.isEmpty()) {
+        LOG.error("Error fetching metrics data: no prometheus metrics URL configured");
+        return Json.newObject();
+      }
     }
 
-    ExecutorService threadPool = Executors.newFixedThreadPool(QUERY_EXECUTOR_THREAD_POOL);
-    Set<Future<JsonNode>> futures = new HashSet<Future<JsonNode>>();
+    List<MetricQueryExecutor> tasks = new ArrayList<>();
     for (String metricKey : metricKeys) {
       Map<String, String> queryParams = params;
       queryParams.put("queryKey", metricKey);
@@ -102,28 +118,37 @@ public class MetricQueryHelper {
         additionalFilters.putAll(specificFilters);
       }
 
-      Callable<JsonNode> callable =
+      tasks.add(
           new MetricQueryExecutor(
-              appConfig, apiHelper, queryParams, additionalFilters, ybMetricQueryComponent);
-      Future<JsonNode> future = threadPool.submit(callable);
-      futures.add(future);
+              appConfig,
+              apiHelper,
+              queryParams,
+              additionalFilters,
+              ybMetricQueryComponent,
+              metricQueryCache,
+              timeSeriesStore));
     }
 
     ObjectNode responseJson = Json.newObject();
-    for (Future<JsonNode> future : futures) {
-      JsonNode response = Json.newObject();
+    List<Future<JsonNode>> futures = fanOutExecutor.invokeAll("metrics", tasks);
+    for (int i = 0; i < futures.size(); i++) {
       try {
-        response = future.get();
-      } catch (InterruptedException | ExecutionException e) {
-        LOG.error("Error fetching metrics data", e);
+        JsonNode response = futures.get(i).get();
+        responseJson.set(response.get("queryKey").asText(), response);
+      } catch (InterruptedException | ExecutionException | CancellationException e) {
+        LOG.error("Error fetching metrics data for {}", metricKeys.get(i), e);
       }
-
-      responseJson.set(response.get("queryKey").asText(), response);
     }
-    threadPool.shutdown();
     return responseJson;
   }
 
+  private boolean isStoredMetricKey(String metricKey) {
+    MetricConfig config = MetricConfig.get(metricKey);
+    return config != null
+        && timeSeriesStore != null
+        && timeSeriesStore.hasMetric(config.getConfig().metric);
+  }
+
   /**
    * Query Prometheus via HTTP for metric values
    *
@@ -0,0 +1,70 @@
+// Copyright (c) YugaByte, Inc.
+
+package com.yugabyte.yw.metrics;
+
+import java.util.Arrays;
+
+/**
+ * A time series of metric values sorted by timestamp, kept in primitive arrays rather than in a
+ * map of boxed values.
+ */
+class MetricSeries {
+
+  private long[] timestamps;
+  private double[] values;
+  private int size = 0;
+
+  MetricSeries() {
+    this(16);
+  }
+
+  MetricSeries(int capacity) {
+    timestamps = new long[Math.max(capacity, 1)];
+    values = new double[Math.max(capacity, 1)];
+  }
+
+  int size() {
+    return size;
+  }
+
+  boolean isEmpty() {
+    return size == 0;
+  }
+
+  long timestampAt(int index) {
+    return timestamps[index];
+  }
+
+  double valueAt(int index) {
+    return values[index];
+  }
+
+  void setValueAt(int index, double value) {
+    values[index] = value;
+  }
+
+  /** Returns the index of the greatest timestamp lower than or equal to the given one, or -1. */
+  int floorIndex(long timestamp) {
+    int index = Arrays.binarySearch(timestamps, 0, size, timestamp);
+    return index >= 0 ? index : -index - 2;
+  }
+
+  /** Sets the value at the timestamp, adding the timestamp if missing. */
+  void put(long timestamp, double value) {
+    int index = Arrays.binarySearch(timestamps, 0, size, timestamp);
+    if (index >= 0) {
+      values[index] = value;
+      return;
+    }
+    index = -index - 1;
+    if (size == timestamps.length) {
+      timestamps = Arrays.copyOf(timestamps, size * 2);
+      values = Arrays.copyOf(values, size * 2);
+    }
+    System.arraycopy(timestamps, index, timestamps, index + 1, size - index);
+    System.arraycopy(values, index, values, index + 1, size - index);
+    timestamps[index] = timestamp;
+    values[index] = value;
+    size++;
+  }
+}
@@ -0,0 +1,190 @@
+// Copyright (c) YugaByte, Inc.
+
+package com.yugabyte.yw.metrics;
+
+import java.util.Arrays;
+
+/**
+ * Compact encoding of a block of metric points, as described in the Gorilla paper. The timestamps
+ * are stored as delta of deltas, so the points of a regular series take a single bit each, and
+ * the values as the XOR with the previous value, storing only its meaningful bits.
+ */
+class TimeSeriesBlock {
+
+  private TimeSeriesBlock() {}
+
+  /** Appends the points to a growing bit stream. */
+  static class Encoder {
+    private byte[] buffer = new byte[32];
+    private int bitCount = 0;
+    private int size = 0;
+
+    private long lastTimestamp;
+    private long lastDelta;
+    private long lastValueBits;
+    // The leading and trailing zeros of the last XOR written with its own window.
+    private int lastLeadingZeros = Integer.MAX_VALUE;
+    private int lastTrailingZeros = 0;
+
+    int size() {
+      return size;
+    }
+
+    /** Appends a point, the timestamp in seconds. */
+    void append(long timestamp, double value) {
+      long valueBits = Double.doubleToRawLongBits(value);
+      if (size == 0) {
+        writeBits(timestamp, 64);
+        writeBits(valueBits, 64);
+      } else {
+        long delta = timestamp - lastTimestamp;
+        writeDeltaOfDelta(delta - lastDelta);
+        lastDelta = delta;
+        writeValue(valueBits ^ lastValueBits);
+      }
+      lastTimestamp = timestamp;
+      lastValueBits = valueBits;
+      size++;
+    }
+
+    byte[] toBytes() {
+      return Arrays.copyOf(buffer, (bitCount + 7) / 8);
+    }
+
+    private void writeDeltaOfDelta(long deltaOfDelta) {
+      if (deltaOfDelta == 0) {
+        writeBits(0b0, 1);
+      } else if (fits(deltaOfDelta, 7)) {
+        writeBits(0b10, 2);
+        writeBits(deltaOfDelta, 7);
+      } else if (fits(deltaOfDelta, 9)) {
+        writeBits(0b110, 3);
+        writeBits(deltaOfDelta, 9);
+      } else if (fits(deltaOfDelta, 12)) {
+        writeBits(0b1110, 4);
+        writeBits(deltaOfDelta, 12);
+      } else {
+        writeBits(0b1111, 4);
+        writeBits(deltaOfDelta, 64);
+      }
+    }
+
+    private void writeValue(long xor) {
+      if (xor == 0) {
+        writeBits(0b0, 1);
+        return;
+      }
+      // The leading zeros are written on 5 bits.
+      int leadingZeros = Math.min(Long.numberOfLeadingZeros(xor), 31);
+      int trailingZeros = Long.numberOfTrailingZeros(xor);
+      if (leadingZeros >= lastLeadingZeros && trailingZeros >= lastTrailingZeros) {
+        // The meaningful bits fit in the window of the previous value.
+        writeBits(0b10, 2);
+        writeBits(xor >>> lastTrailingZeros, 64 - lastLeadingZeros - lastTrailingZeros);
+      } else {
+        int meaningfulBits = 64 - leadingZeros - trailingZeros;
+        writeBits(0b11, 2);
+        writeBits(leadingZeros, 5);
+        // Between 1 and 64, written minus one on 6 bits.
+        writeBits(meaningfulBits - 1, 6);
+        writeBits(xor >>> trailingZeros, meaningfulBits);
+        lastLeadingZeros = leadingZeros;
+        lastTrailingZeros = trailingZeros;
+      }
+    }
+
+    // Writes the lowest bits of the value, the most significant first.
+    private void writeBits(long value, int numBits) {
+      for (int i = numBits - 1; i >= 0; i--) {
+        int byteIndex = bitCount >>> 3;
+        if (byteIndex == buffer.length) {
+          buffer = Arrays.copyOf(buffer, buffer.length * 2);
+        }
+        if (((value >>> i) & 1) != 0) {
+          buffer[byteIndex] |= (byte) (0x80 >>> (bitCount & 7));
+        }
+        bitCount++;
+      }
+    }
+  }
+
+  // Whether the value fits in a two's complement number of the given bits.
+  private static boolean fits(long value, int numBits) {
+    long bound = 1L << (numBits - 1);
+    return value >= -bound && value < bound;
+  }
+
+  /** Creates an encoder holding the points of the series, to append more points to them. */
+  static Encoder encoderOf(MetricSeries series) {
+    Encoder encoder = new Encoder();
+    for (int i = 0; i < series.size(); i++) {
+      encoder.append(series.timestampAt(i), series.valueAt(i));
+    }
+    return encoder;
+  }
+
+  /** Decodes the given number of points of an encoded block. */
+  static MetricSeries decode(byte[] data, int numPoints) {
+    MetricSeries series = new MetricSeries(numPoints);
+    if (numPoints == 0) {
+      return series;
+    }
+    Decoder decoder = new Decoder(data);
+    long timestamp = decoder.readBits(64);
+    long valueBits = decoder.readBits(64);
+    series.put(timestamp, Double.longBitsToDouble(valueBits));
+    long delta = 0;
+    int leadingZeros = 0;
+    int trailingZeros = 0;
+    for (int i = 1; i < numPoints; i++) {
+      delta += decoder.readDeltaOfDelta();
+      timestamp += delta;
+      if (decoder.readBits(1) == 1) {
+        if (decoder.readBits(1) == 1) {
+          leadingZeros = (int) decoder.readBits(5);
+          trailingZeros = 64 - leadingZeros - ((int) decoder.readBits(6) + 1);
+        }
+        valueBits ^= decoder.readBits(64 - leadingZeros - trailingZeros) << trailingZeros;
+      }
+      series.put(timestamp, Double.longBitsToDouble(valueBits));
+    }
+    return series;
+  }
+
+  private static class Decoder {
+    private final byte[] data;
+    private int bitIndex = 0;
+
+    private Decoder(byte[] data) {
+      this.data = data;
+    }
+
+    private long readBits(int numBits) {
+      long value = 0;
+      for (int i = 0; i < numBits; i++) {
+        int bit = (data[bitIndex >>> 3] >>> (7 - (bitIndex & 7))) & 1;
+        value = (value << 1) | bit;
+        bitIndex++;
+      }
+      return value;
+    }
+
+    private long readSigned(int numBits) {
+      long value = readBits(numBits);
+      return numBits == 64 ? value : (value << (64 - numBits)) >> (64 - numBits);
+    }
+
+    private long readDeltaOfDelta() {
+      if (readBits(1) == 0) {
+        return 0;
+      } else if (readBits(1) == 0) {
+        return readSigned(7);
+      } else if (readBits(1) == 0) {
+        return readSigned(9);
+      } else if (readBits(1) == 0) {
+        return readSigned(12);
+      }
+      return readSigned(64);
+    }
+  }
+}
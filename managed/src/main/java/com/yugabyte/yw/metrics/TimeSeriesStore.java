@@ -0,0 +1,570 @@
+// Copyright (c) YugaByte, Inc.
+
+package com.yugabyte.yw.metrics;
+
+import akka.actor.ActorSystem;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import com.typesafe.config.Config;
+import com.yugabyte.yw.models.MetricBlock;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import play.inject.ApplicationLifecycle;
+import play.libs.Json;
+import scala.concurrent.ExecutionContext;
+import scala.concurrent.duration.Duration;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Store of the metrics produced by the platform itself, such as the health check results and the
+ * task durations, so that their trends are kept without an external Prometheus.
+ *
+ * <p>The points of each series are appended to an in-memory block per resolution, encoded with
+ * TimeSeriesBlock, and the blocks are written to the metric_block table when their range ends and
+ * on every flush. Besides the points as recorded, the series are downsampled to the mean of every
+ * 5 minutes and every hour, which are kept longer. The blocks older than the retention of their
+ * resolution are deleted.
+ */
+@Singleton
+public class TimeSeriesStore {
+
+  public static final Logger LOG = LoggerFactory.getLogger(TimeSeriesStore.class);
+
+  // The number of failed health checks of a node.
+  public static final String HEALTH_NODE_ERRORS = "yw_health_node_errors";
+  // The duration of the health checks of a universe.
+  public static final String HEALTH_CHECK_DURATION = "yw_health_check_duration_seconds";
+  // The duration of the tasks, by task type.
+  public static final String TASK_DURATION = "yw_task_duration_seconds";
+
+  // The label of the customer every series belongs to, which the queries are always filtered on.
+  public static final String CUSTOMER_LABEL = "customer_uuid";
+
+  private static final Set<String> METRICS =
+      ImmutableSet.of(HEALTH_NODE_ERRORS, HEALTH_CHECK_DURATION, TASK_DURATION);
+
+  private static final String ENABLED_KEY = "yb.metrics.store.enabled";
+  private static final String BLOCK_DURATION_KEY = "yb.metrics.store.block_duration";
+  private static final String FLUSH_INTERVAL_KEY = "yb.metrics.store.flush_interval";
+  private static final String RAW_RETENTION_KEY = "yb.metrics.store.retention.raw";
+  private static final String FIVE_MINUTES_RETENTION_KEY =
+      "yb.metrics.store.retention.five_minutes";
+  private static final String ONE_HOUR_RETENTION_KEY = "yb.metrics.store.retention.one_hour";
+
+  // Same as the filters of MetricConfig, the values with these characters are regular expressions.
+  private static final Pattern SPECIAL_FILTER_PATTERN = Pattern.compile("[*|+$]");
+
+  /** A resolution of the stored points, with the range of its blocks and how long they are kept. */
+  private static class Resolution {
+    // The interval of the points in seconds, 0 for the points as recorded.
+    private final int seconds;
+    private final long blockSeconds;
+    private final long retentionSeconds;
+
+    private Resolution(int seconds, long blockSeconds, long retentionSeconds) {
+      this.seconds = seconds;
+      this.blockSeconds = blockSeconds;
+      this.retentionSeconds = retentionSeconds;
+    }
+  }
+
+  /** The block of a series which points are appended to. */
+  private static class Head {
+    private final long blockStart;
+    private final TimeSeriesBlock.Encoder encoder;
+    // Whether the block has points not written to the DB yet.
+    private boolean dirty = false;
+
+    private Head(long blockStart, TimeSeriesBlock.Encoder encoder) {
+      this.blockStart = blockStart;
+      this.encoder = encoder;
+    }
+  }
+
+  /** The state of a series, guarded by its lock. */
+  private static class Series {
+    private final UUID customerUUID;
+    private final String metricName;
+    private final Map<String, String> labels;
+    private final String labelsJson;
+    // The head blocks by resolution index.
+    private final Head[] heads;
+    // The window of the points being downsampled by resolution index, the raw one unused.
+    private final long[] bucketStarts;
+    private final double[] bucketSums;
+    private final int[] bucketCounts;
+    // Set once the series is dropped from the store, to be created again by the next point.
+    private boolean removed = false;
+
+    private Series(
+        UUID customerUUID,
+        String metricName,
+        Map<String, String> labels,
+        String labelsJson,
+        int numResolutions) {
+      this.customerUUID = customerUUID;
+      this.metricName = metricName;
+      this.labels = labels;
+      this.labelsJson = labelsJson;
+      this.heads = new Head[numResolutions];
+      this.bucketStarts = new long[numResolutions];
+      this.bucketSums = new double[numResolutions];
+      this.bucketCounts = new int[numResolutions];
+    }
+  }
+
+  private final boolean enabled;
+
+  // The resolutions from the finest to the coarsest.
+  private final List<Resolution> resolutions;
+
+  private final Map<String, Series> seriesMap = new ConcurrentHashMap<>();
+
+  @Inject
+  public TimeSeriesStore(
+      Config config,
+      ActorSystem actorSystem,
+      ExecutionContext executionContext,
+      ApplicationLifecycle lifecycle) {
+    this(config);
+    if (!enabled) {
+      LOG.info("Platform metrics store disabled");
+      return;
+    }
+    long flushIntervalMs = config.getDuration(FLUSH_INTERVAL_KEY, TimeUnit.MILLISECONDS);
+    actorSystem
+        .scheduler()
+        .schedule(
+            Duration.create(flushIntervalMs, TimeUnit.MILLISECONDS), // initialDelay
+            Duration.create(flushIntervalMs, TimeUnit.MILLISECONDS), // interval
+            this::scheduleRunner,
+            executionContext);
+    lifecycle.addStopHook(
+        () -> {
+          scheduleRunner();
+          return CompletableFuture.completedFuture(null);
+        });
+  }
+
+  @VisibleForTesting
+  TimeSeriesStore(Config config) {
+    this.enabled = config.getBoolean(ENABLED_KEY);
+    this.resolutions =
+        ImmutableList.of(
+            new Resolution(
+                0,
+                config.getDuration(BLOCK_DURATION_KEY, TimeUnit.SECONDS),
+                config.getDuration(RAW_RETENTION_KEY, TimeUnit.SECONDS)),
+            new Resolution(
+                300,
+                TimeUnit.DAYS.toSeconds(1),
+                config.getDuration(FIVE_MINUTES_RETENTION_KEY, TimeUnit.SECONDS)),
+            new Resolution(
+                3600,
+                TimeUnit.DAYS.toSeconds(7),
+                config.getDuration(ONE_HOUR_RETENTION_KEY, TimeUnit.SECONDS)));
+  }
+
+  /** Whether the metric is one of the platform metrics served by the store. */
+  public boolean hasMetric(String metricName) {
+    return enabled && METRICS.contains(metricName);
+  }
+
+  /** Records a point of the series of the metric of the customer, at the current time. */
+  public void record(
+      UUID customerUUID, String metricName, Map<String, String> labels, double value) {
+    record(customerUUID, metricName, labels, System.currentTimeMillis() / 1000, value);
+  }
+
+  /**
+   * Records a point of the series of the metric of the customer, with the labels.
+   *
+   * @param timestamp : the time of the point, in seconds since the epoch.
+   */
+  public void record(
+      UUID customerUUID,
+      String metricName,
+      Map<String, String> labels,
+      long timestamp,
+      double value) {
+    if (!enabled) {
+      return;
+    }
+    Map<String, String> sortedLabels = new TreeMap<>(labels);
+    sortedLabels.put(CUSTOMER_LABEL, customerUUID.toString());
+    String labelsJson = Json.stringify(Json.toJson(sortedLabels));
+    String key = metricName + labelsJson;
+    while (true) {
+      Series series =
+          seriesMap.computeIfAbsent(
+              key,
+              k ->
+                  new Series(
+                      customerUUID, metricName, sortedLabels, labelsJson, resolutions.size()));
+      Map<String, MetricBlock> storedBlocks;
+      try {
+        storedBlocks = loadStoredBlocks(series, timestamp);
+      } catch (Exception e) {
+        LOG.error("Error reading the points of {} {}", metricName, labelsJson, e);
+        return;
+      }
+      synchronized (series) {
+        if (series.removed) {
+          continue;
+        }
+        try {
+          append(series, 0, timestamp, value, storedBlocks);
+          for (int i = 1; i < resolutions.size(); i++) {
+            long bucketStart = timestamp - Math.floorMod(timestamp, resolutions.get(i).seconds);
+            if (series.bucketCounts[i] > 0) {
+              if (bucketStart < series.bucketStarts[i]) {
+                // Too late for the downsampled points.
+                continue;
+              } else if (bucketStart > series.bucketStarts[i]) {
+                closeBucket(series, i, storedBlocks);
+              }
+            }
+            series.bucketStarts[i] = bucketStart;
+            series.bucketSums[i] += value;
+            series.bucketCounts[i]++;
+          }
+        } catch (Exception e) {
+          // The metrics are not worth failing the caller for.
+          LOG.error("Error recording a point of {} {}", metricName, labelsJson, e);
+        }
+        return;
+      }
+    }
+  }
+
+  /**
+   * Reads the blocks written before that the point may be appended to, for the resolutions whose
+   * head block would change. They are read without holding the lock of the series, so that the
+   * threads recording points do not wait for the DB while holding it.
+   */
+  private Map<String, MetricBlock> loadStoredBlocks(Series series, long timestamp) {
+    Map<Integer, Long> toLoad = new HashMap<>();
+    synchronized (series) {
+      for (int i = 0; i < resolutions.size(); i++) {
+        // The raw resolution gets the point, the others the mean of the window it may close.
+        if (i > 0 && series.bucketCounts[i] == 0) {
+          continue;
+        }
+        long pointTimestamp = i == 0 ? timestamp : series.bucketStarts[i];
+        long blockSeconds = resolutions.get(i).blockSeconds;
+        long blockStart = pointTimestamp - Math.floorMod(pointTimestamp, blockSeconds);
+        Head head = series.heads[i];
+        if (head == null || blockStart > head.blockStart) {
+          toLoad.put(i, blockStart);
+        }
+      }
+    }
+    Map<String, MetricBlock> storedBlocks = new HashMap<>();
+    for (Map.Entry<Integer, Long> entry : toLoad.entrySet()) {
+      storedBlocks.put(
+          getBlockKey(entry.getKey(), entry.getValue()),
+          MetricBlock.get(
+              series.customerUUID,
+              series.metricName,
+              series.labelsJson,
+              resolutions.get(entry.getKey()).seconds,
+              entry.getValue()));
+    }
+    return storedBlocks;
+  }
+
+  private static String getBlockKey(int index, long blockStart) {
+    return index + "/" + blockStart;
+  }
+
+  // Appends the mean of the points of the downsampling window to the resolution.
+  private void closeBucket(Series series, int index, Map<String, MetricBlock> storedBlocks) {
+    append(
+        series,
+        index,
+        series.bucketStarts[index],
+        series.bucketSums[index] / series.bucketCounts[index],
+        storedBlocks);
+    series.bucketSums[index] = 0;
+    series.bucketCounts[index] = 0;
+  }
+
+  // Appends the point to the head block of the resolution. The stored blocks are the ones loaded
+  // beforehand, the block is read if not among them.
+  private void append(
+      Series series,
+      int index,
+      long timestamp,
+      double value,
+      Map<String, MetricBlock> storedBlocks) {
+    Resolution resolution = resolutions.get(index);
+    long blockStart = timestamp - Math.floorMod(timestamp, resolution.blockSeconds);
+    Head head = series.heads[index];
+    if (head != null && blockStart < head.blockStart) {
+      LOG.debug("Dropping point {} of {} older than its block", timestamp, series.metricName);
+      return;
+    }
+    if (head == null || blockStart > head.blockStart) {
+      if (head != null && head.dirty) {
+        persist(series, index, head);
+      }
+      // The block may have been written before a restart.
+      String blockKey = getBlockKey(index, blockStart);
+      MetricBlock stored =
+          storedBlocks.containsKey(blockKey)
+              ? storedBlocks.get(blockKey)
+              : MetricBlock.get(
+                  series.customerUUID,
+                  series.metricName,
+                  series.labelsJson,
+                  resolution.seconds,
+                  blockStart);
+      head =
+          new Head(
+              blockStart,
+              stored == null
+                  ? new TimeSeriesBlock.Encoder()
+                  : TimeSeriesBlock.encoderOf(
+                      TimeSeriesBlock.decode(stored.data, stored.numPoints)));
+      series.heads[index] = head;
+    }
+    head.encoder.append(timestamp, value);
+    head.dirty = true;
+  }
+
+  private void persist(Series series, int index, Head head) {
+    Resolution resolution = resolutions.get(index);
+    try {
+      MetricBlock.upsert(
+          series.customerUUID,
+          series.metricName,
+          series.labelsJson,
+          resolution.seconds,
+          head.blockStart,
+          head.blockStart + resolution.blockSeconds,
+          head.encoder.size(),
+          head.encoder.toBytes());
+      head.dirty = false;
+    } catch (Exception e) {
+      LOG.error("Error writing the points of {} {}", series.metricName, series.labelsJson, e);
+    }
+  }
+
+  private void scheduleRunner() {
+    try {
+      long now = System.currentTimeMillis() / 1000;
+      flush(now);
+      deleteExpired(now);
+    } catch (Exception e) {
+      LOG.error("Error flushing the platform metrics", e);
+    }
+  }
+
+  /**
+   * Writes the points recorded since the last flush, including the downsampled points of the
+   * windows ended by now, and drops the series with no points left to write.
+   */
+  @VisibleForTesting
+  void flush(long now) {
+    for (Map.Entry<String, Series> entry : seriesMap.entrySet()) {
+      Series series = entry.getValue();
+      synchronized (series) {
+        boolean empty = true;
+        for (int i = 0; i < resolutions.size(); i++) {
+          Resolution resolution = resolutions.get(i);
+          if (i > 0 && series.bucketCounts[i] > 0) {
+            if (series.bucketStarts[i] + resolution.seconds <= now) {
+              closeBucket(series, i, Collections.emptyMap());
+            } else {
+              empty = false;
+            }
+          }
+          Head head = series.heads[i];
+          if (head == null) {
+            continue;
+          }
+          if (head.dirty) {
+            persist(series, i, head);
+          }
+          if (head.dirty || head.blockStart + resolution.blockSeconds > now) {
+            empty = false;
+          } else {
+            series.heads[i] = null;
+          }
+        }
+        if (empty) {
+          series.removed = true;
+          seriesMap.remove(entry.getKey(), series);
+        }
+      }
+    }
+  }
+
+  @VisibleForTesting
+  void deleteExpired(long now) {
+    for (Resolution resolution : resolutions) {
+      int deleted =
+          MetricBlock.deleteEndedBefore(resolution.seconds, now - resolution.retentionSeconds);
+      if (deleted > 0) {
+        LOG.info("Deleted {} expired metric blocks of resolution {}s", deleted, resolution.seconds);
+      }
+    }
+  }
+
+  /**
+   * Returns the points of the series of the metric of the customer matching the filters, in the
+   * format of the Prometheus range query results. The value at each step is the mean of the points
+   * from the step to the next one, read from the coarsest resolution finer than the step which
+   * still covers the start of the range.
+   *
+   * @param customerUUID : the customer whose series are returned.
+   * @param queryFilters : the values of the labels, regular expressions if they have special
+   *     characters.
+   * @param groupBy : the label to average the series by, if not empty.
+   * @param start : the start of the range, in seconds since the epoch.
+   * @param end : the end of the range, in seconds since the epoch.
+   * @param step : the interval of the returned points, in seconds.
+   */
+  public JsonNode queryRange(
+      UUID customerUUID,
+      String metricName,
+      Map<String, String> queryFilters,
+      String groupBy,
+      long start,
+      long end,
+      long step) {
+    step = Math.max(step, 1);
+    Map<String, String> filters = new HashMap<>(queryFilters);
+    filters.put(CUSTOMER_LABEL, customerUUID.toString());
+    int index = getResolutionIndex(start, step, System.currentTimeMillis() / 1000);
+    Resolution resolution = resolutions.get(index);
+
+    // The points of the matching series by labels JSON, the blocks in memory taking precedence
+    // over the ones written before.
+    Map<String, Map<String, String>> seriesLabels = new HashMap<>();
+    Map<String, List<MetricSeries>> seriesPoints = new HashMap<>();
+    Set<String> headBlocks = new HashSet<>();
+    for (Series series : seriesMap.values()) {
+      if (!series.customerUUID.equals(customerUUID)
+          || !series.metricName.equals(metricName)
+          || !matches(series.labels, filters)) {
+        continue;
+      }
+      synchronized (series) {
+        Head head = series.heads[index];
+        if (head == null || head.encoder.size() == 0) {
+          continue;
+        }
+        headBlocks.add(series.labelsJson + "/" + head.blockStart);
+        seriesLabels.put(series.labelsJson, series.labels);
+        seriesPoints
+            .computeIfAbsent(series.labelsJson, k -> new ArrayList<>())
+            .add(TimeSeriesBlock.decode(head.encoder.toBytes(), head.encoder.size()));
+      }
+    }
+    List<MetricBlock> storedBlocks =
+        MetricBlock.getBlocks(customerUUID, metricName, resolution.seconds, start, end);
+    for (MetricBlock block : storedBlocks) {
+      if (headBlocks.contains(block.labelsJson + "/" + block.blockStart)) {
+        continue;
+      }
+      Map<String, String> labels = seriesLabels.get(block.labelsJson);
+      if (labels == null) {
+        labels = Json.fromJson(Json.parse(block.labelsJson), TreeMap.class);
+        if (!matches(labels, filters)) {
+          continue;
+        }
+        seriesLabels.put(block.labelsJson, labels);
+      }
+      seriesPoints
+          .computeIfAbsent(block.labelsJson, k -> new ArrayList<>())
+          .add(TimeSeriesBlock.decode(block.data, block.numPoints));
+    }
+
+    // The sum and count of the points of each step, by result labels.
+    Map<Map<String, String>, TreeMap<Long, double[]>> results = new HashMap<>();
+    for (Map.Entry<String, List<MetricSeries>> entry : seriesPoints.entrySet()) {
+      Map<String, String> labels = seriesLabels.get(entry.getKey());
+      Map<String, String> resultLabels =
+          groupBy == null || groupBy.isEmpty()
+              ? labels
+              : ImmutableMap.of(groupBy, labels.getOrDefault(groupBy, ""));
+      TreeMap<Long, double[]> steps = results.computeIfAbsent(resultLabels, k -> new TreeMap<>());
+      for (MetricSeries points : entry.getValue()) {
+        for (int i = 0; i < points.size(); i++) {
+          long timestamp = points.timestampAt(i);
+          if (timestamp < start || timestamp > end) {
+            continue;
+          }
+          double[] sumAndCount =
+              steps.computeIfAbsent(timestamp - Math.floorMod(timestamp, step), k -> new double[2]);
+          sumAndCount[0] += points.valueAt(i);
+          sumAndCount[1]++;
+        }
+      }
+    }
+
+    ObjectNode responseJson = Json.newObject();
+    responseJson.put("status", "success");
+    ObjectNode data = responseJson.putObject("data");
+    data.put("resultType", "matrix");
+    ArrayNode result = data.putArray("result");
+    for (Map.Entry<Map<String, String>, TreeMap<Long, double[]>> entry : results.entrySet()) {
+      ObjectNode series = result.addObject();
+      series.set("metric", Json.toJson(entry.getKey()));
+      ArrayNode values = series.putArray("values");
+      for (Map.Entry<Long, double[]> point : entry.getValue().entrySet()) {
+        values
+            .addArray()
+            .add(point.getKey())
+            .add(String.valueOf(point.getValue()[0] / point.getValue()[1]));
+      }
+    }
+    return responseJson;
+  }
+
+  private int getResolutionIndex(long start, long step, long now) {
+    int index = 0;
+    while (index + 1 < resolutions.size() && resolutions.get(index + 1).seconds <= step) {
+      index++;
+    }
+    // The coarser resolutions are kept longer.
+    while (index + 1 < resolutions.size()
+        && start < now - resolutions.get(index).retentionSeconds) {
+      index++;
+    }
+    return index;
+  }
+
+  private static boolean matches(Map<String, String> labels, Map<String, String> filters) {
+    for (Map.Entry<String, String> filter : filters.entrySet()) {
+      String value = labels.getOrDefault(filter.getKey(), "");
+      if (SPECIAL_FILTER_PATTERN.matcher(filter.getValue()).find()
+          ? !value.matches(filter.getValue())
+          : !value.equals(filter.getValue())) {
+        return false;
+      }
+    }
+    return true;
+  }
+}
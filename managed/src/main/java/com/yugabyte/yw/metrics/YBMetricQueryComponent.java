@@ -1,11 +1,19 @@
 // Copyright (c) YugaByte, Inc.
 package com.yugabyte.yw.metrics;
 
+import akka.actor.ActorSystem;
+import akka.actor.Cancellable;
 import com.datastax.driver.core.Cluster;
+import com.datastax.driver.core.PreparedStatement;
 import com.datastax.driver.core.ResultSet;
+import com.datastax.driver.core.ResultSetFuture;
 import com.datastax.driver.core.Row;
 import com.datastax.driver.core.Session;
 import com.fasterxml.jackson.databind.JsonNode;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalListener;
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
 import com.yugabyte.yw.common.SslHelper;
@@ -18,10 +26,15 @@ import org.slf4j.LoggerFactory;
 import org.yb.client.ListTabletServersResponse;
 import org.yb.client.YBClient;
 import org.yb.util.ServerInfo;
+import play.inject.ApplicationLifecycle;
+import scala.concurrent.ExecutionContext;
+import scala.concurrent.duration.Duration;
 
 import java.net.InetSocketAddress;
 import java.util.*;
 import java.util.Map.Entry;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
 @Singleton
 public class YBMetricQueryComponent {
@@ -65,7 +78,10 @@ public class YBMetricQueryComponent {
 
   private static final String METRICS_TABLE = "system.metrics";
   private static final String QUERY_FORMAT =
-      "select * from %s where metric = '%s' " + "and node = '%s' and ts >= %d and ts < %d";
+      "select * from %s where metric = ? and node = ? and ts >= ? and ts < ?";
+
+  // How long the connection to a universe is kept open after its last query.
+  private static final long CONNECTION_IDLE_MINUTES = 10;
 
   // Array of metrics whose values should be retrieved from details column instead of value column.
   private static final List<String> METRICS_WITH_DETAILS_VALUE =
@@ -91,28 +107,118 @@ public class YBMetricQueryComponent {
     Average
   }
 
+  // A connection to a universe. It is reference counted, as it can be replaced or expire while
+  // queries still use it: the cache holds a reference, and so does each query using it. The last
+  // one to release it closes it.
   private static class CassandraConnection {
+    List<InetSocketAddress> addresses;
     Cluster cluster = null;
     Session session = null;
+    PreparedStatement selectMetric = null;
+    // Guarded by this.
+    private int refCount = 1;
+
+    // Takes a reference to the connection, returns false if it is already closed.
+    synchronized boolean acquire() {
+      if (refCount == 0) {
+        return false;
+      }
+      refCount++;
+      return true;
+    }
+
+    synchronized void release() {
+      if (--refCount == 0) {
+        close();
+      }
+    }
+
+    void close() {
+      if (session != null) session.close();
+      if (cluster != null) cluster.close();
+    }
   }
 
-  private CassandraConnection createCassandraConnection(UUID universeUUID) {
+  // The connections to the universes, shared by the queries, by universe UUID.
+  private final Cache<UUID, CassandraConnection> connections =
+      CacheBuilder.newBuilder()
+          .expireAfterAccess(CONNECTION_IDLE_MINUTES, TimeUnit.MINUTES)
+          .removalListener(
+              (RemovalListener<UUID, CassandraConnection>) n -> n.getValue().release())
+          .build();
+
+  @Inject
+  public YBMetricQueryComponent(
+      ActorSystem actorSystem, ExecutionContext executionContext, ApplicationLifecycle lifecycle) {
+    // The cache only expires the connections when it is accessed, so the idle connections are
+    // also expired in the background.
+    Cancellable cleaner =
+        actorSystem
+            .scheduler()
+            .schedule(
+                Duration.create(CONNECTION_IDLE_MINUTES, TimeUnit.MINUTES), // initialDelay
+                Duration.create(CONNECTION_IDLE_MINUTES, TimeUnit.MINUTES), // interval
+                connections::cleanUp,
+                executionContext);
+    lifecycle.addStopHook(
+        () -> {
+          cleaner.cancel();
+          connections.invalidateAll();
+          return CompletableFuture.completedFuture(null);
+        });
+  }
+
+  @VisibleForTesting
+  YBMetricQueryComponent() {
+    // No background expiry of the connections.
+  }
+
+  private CassandraConnection createCassandraConnection(
+      UUID universeUUID, List<InetSocketAddress> addresses) {
     CassandraConnection cc = new CassandraConnection();
-    List<InetSocketAddress> addresses = Util.getNodesAsInet(universeUUID);
-    if (addresses.isEmpty()) {
-      return cc;
-    }
+    cc.addresses = addresses;
     Cluster.Builder builder = Cluster.builder().addContactPointsWithPorts(addresses);
     String certificate = Universe.getOrBadRequest(universeUUID).getCertificateClientToNode();
     if (certificate != null) {
       builder.withSSL(SslHelper.getSSLOptions(certificate));
     }
     cc.cluster = builder.build();
-
-    cc.session = cc.cluster.connect();
+    try {
+      cc.session = cc.cluster.connect();
+      cc.selectMetric = cc.session.prepare(String.format(QUERY_FORMAT, METRICS_TABLE));
+    } catch (RuntimeException e) {
+      cc.close();
+      throw e;
+    }
     return cc;
   }
 
+  /**
+   * Returns the connection to the universe, opening it if there is none yet or if the nodes of the
+   * universe changed since it was opened. Returns null if the universe has no nodes. The returned
+   * connection has to be released once done with it.
+   */
+  private CassandraConnection getCassandraConnection(UUID universeUUID) {
+    List<InetSocketAddress> addresses = Util.getNodesAsInet(universeUUID);
+    if (addresses.isEmpty()) {
+      return null;
+    }
+    CassandraConnection cc = connections.getIfPresent(universeUUID);
+    if (cc != null && cc.addresses.equals(addresses) && cc.acquire()) {
+      return cc;
+    }
+    synchronized (connections) {
+      cc = connections.getIfPresent(universeUUID);
+      if (cc == null || !cc.addresses.equals(addresses) || !cc.acquire()) {
+        cc = createCassandraConnection(universeUUID, addresses);
+        cc.acquire();
+        // The replaced connection is released by the removal listener.
+        connections.put(universeUUID, cc);
+      }
+      return cc;
+    }
+  }
+
   private Double getValue(Row r) {
     if (METRICS_WITH_DETAILS_VALUE.contains(r.getString("metric"))) {
       return Util.convertStringToJson(r.getString("details")).get("value").asDouble();
@@ -162,19 +268,18 @@ public class YBMetricQueryComponent {
     return new TServerMappings(nameToUUID, uuidToIP);
   }
 
-  private ResultSet cassandraTserverSelectQuery(
-      String metric, String tserverUUID, Session session, long startMs, long endMs) {
-    String queryString =
-        String.format(
-            QUERY_FORMAT, METRICS_TABLE, metric, tserverUUID, (startMs * 1000), (endMs * 1000));
-    return session.execute(queryString);
+  private ResultSetFuture cassandraTserverSelectQuery(
+      String metric, String tserverUUID, CassandraConnection cc, long startSecs, long endSecs) {
+    return cc.session.executeAsync(
+        cc.selectMetric.bind(
+            metric, tserverUUID, new Date(startSecs * 1000), new Date(endSecs * 1000)));
   }
 
-  // Convert the map to the required output format.
-  private List<String> mapToStringList(Map<Long, Double> metrics) {
-    List<String> vals = new ArrayList<>();
-    for (Entry<Long, Double> entry : metrics.entrySet()) {
-      vals.add(String.format(DATA_ENTRY_FORMAT, entry.getKey(), entry.getValue()));
+  // Convert the series to the required output format.
+  private List<String> seriesToStringList(MetricSeries metrics) {
+    List<String> vals = new ArrayList<>(metrics.size());
+    for (int i = 0; i < metrics.size(); i++) {
+      vals.add(String.format(DATA_ENTRY_FORMAT, metrics.timestampAt(i), metrics.valueAt(i)));
     }
     return vals;
   }
@@ -190,9 +295,8 @@ public class YBMetricQueryComponent {
     }
   }
 
-  public NavigableMap<Long, Double> calculateRate(
-      List<ResultSet> results, Function function, int numTservers) {
-    NavigableMap<Long, Double> timeRangeMap = new TreeMap<>();
+  MetricSeries calculateRate(List<ResultSet> results, Function function, int numTservers) {
+    MetricSeries timeRangeSeries = new MetricSeries();
     for (ResultSet rs : results) {
       long currTimestampSec;
       long prevTimestampSec = 0;
@@ -207,7 +311,7 @@ public class YBMetricQueryComponent {
         currVal = getValue(row);
         if (start) {
           if (!rowIter.hasNext()) {
-            return timeRangeMap;
+            return timeRangeSeries;
           }
           row = rowIter.next();
           prevVal = currVal;
@@ -221,30 +325,33 @@ public class YBMetricQueryComponent {
         } else {
           currRate = (prevVal - currVal) / (prevTimestampSec - currTimestampSec);
         }
-        Entry<Long, Double> entry = timeRangeMap.floorEntry(currTimestampSec);
+        int floor = timeRangeSeries.floorIndex(currTimestampSec);
         // In case there is no entry lower than that, or the entry lower than the key
         // is older than the range for the same timestamped metric.
-        if (entry == null || currTimestampSec - entry.getKey() > TIMESTAMP_RANGE_SECS) {
+        if (floor < 0
+            || currTimestampSec - timeRangeSeries.timestampAt(floor) > TIMESTAMP_RANGE_SECS) {
           double calcVal = compute(function, 0.0, currRate, numTservers);
-          timeRangeMap.put(currTimestampSec, calcVal);
+          timeRangeSeries.put(currTimestampSec, calcVal);
         } else {
-          double calcVal = compute(function, entry.getValue(), currRate, numTservers);
-          timeRangeMap.put(entry.getKey(), calcVal);
+          double calcVal =
+              compute(function, timeRangeSeries.valueAt(floor), currRate, numTservers);
+          timeRangeSeries.setValueAt(floor, calcVal);
         }
         prevVal = currVal;
         prevTimestampSec = currTimestampSec;
       }
     }
-    return timeRangeMap;
+    return timeRangeSeries;
   }
 
-  private TreeMap<Long, Double> metricDivide(
-      NavigableMap<Long, Double> metricsNum, NavigableMap<Long, Double> metricsDenom) {
-    TreeMap<Long, Double> timeToVal = new TreeMap<>();
-    for (Entry<Long, Double> entry : metricsNum.entrySet()) {
-      Entry<Long, Double> entry2 = metricsDenom.floorEntry(entry.getKey());
-      if (entry2 != null && Math.abs(entry.getKey() - entry2.getKey()) < TIMESTAMP_RANGE_SECS) {
-        Double val = entry.getValue() / entry2.getValue();
+  private MetricSeries metricDivide(MetricSeries metricsNum, MetricSeries metricsDenom) {
+    MetricSeries timeToVal = new MetricSeries(metricsNum.size());
+    for (int i = 0; i < metricsNum.size(); i++) {
+      long timestamp = metricsNum.timestampAt(i);
+      int floor = metricsDenom.floorIndex(timestamp);
+      if (floor >= 0
+          && Math.abs(timestamp - metricsDenom.timestampAt(floor)) < TIMESTAMP_RANGE_SECS) {
+        double val = metricsNum.valueAt(i) / metricsDenom.valueAt(floor);
         // Due to the metrics being written and read into/from a user table, we get
         // some rpcs when no workload is running. This causes the latency
         // graph to be jittery. The following code can be uncommented if we want
@@ -256,62 +363,61 @@ public class YBMetricQueryComponent {
           val = entry.getValue() / entry2.getValue();
         }
         */
-        timeToVal.put(entry2.getKey(), val);
+        timeToVal.put(metricsDenom.timestampAt(floor), val);
       }
     }
     return timeToVal;
   }
 
-  private NavigableMap<Long, Double> convertToGb(List<ResultSet> results) {
+  private MetricSeries convertToGb(List<ResultSet> results) {
     return divideByConstant(results, BYTES_IN_GB);
   }
 
-  private NavigableMap<Long, Double> divideByConstant(List<ResultSet> results, double denom) {
-    NavigableMap<Long, Double> timeRangeMap = new TreeMap<>();
+  private MetricSeries divideByConstant(List<ResultSet> results, double denom) {
+    MetricSeries timeRangeSeries = new MetricSeries();
     for (ResultSet rs : results) {
       for (Row row : rs) {
         long timestampSec = row.getTimestamp("ts").getTime() / 1000;
         double val = getValue(row) / denom;
-        timeRangeMap.put(timestampSec, val);
+        timeRangeSeries.put(timestampSec, val);
       }
     }
-    return timeRangeMap;
+    return timeRangeSeries;
   }
 
   private List<ResultSet> queryRunner(
       String metricName,
-      Session session,
+      CassandraConnection cc,
       Map<String, String> tserverMap,
       JsonNode params,
       long start,
       long end) {
-    List<ResultSet> results = new ArrayList<>();
+    List<ResultSetFuture> futures = new ArrayList<>();
     // Check if metric needs to be reported for only a single tserver.
     if (params.has("exported_instance")) {
       String tserverName = params.path("exported_instance").asText();
-      ResultSet rs =
-          cassandraTserverSelectQuery(metricName, tserverMap.get(tserverName), session, start, end);
-      if (rs != null && rs.iterator().hasNext()) {
-        results.add(rs);
-      }
+      futures.add(
+          cassandraTserverSelectQuery(metricName, tserverMap.get(tserverName), cc, start, end));
     } else {
-      // TODO: Maybe query for all tservers and split here rather than make more
-      // database calls.
+      // The tservers are queried concurrently, as YCQL can't group their rows by time.
       for (Entry<String, String> entry : tserverMap.entrySet()) {
-        ResultSet rs =
-            cassandraTserverSelectQuery(metricName, entry.getValue(), session, start, end);
-        if (rs != null && rs.iterator().hasNext()) {
-          results.add(rs);
-        }
+        futures.add(cassandraTserverSelectQuery(metricName, entry.getValue(), cc, start, end));
+      }
+    }
+    List<ResultSet> results = new ArrayList<>(futures.size());
+    for (ResultSetFuture future : futures) {
+      ResultSet rs = future.getUninterruptibly();
+      if (rs != null && rs.iterator().hasNext()) {
+        results.add(rs);
       }
     }
     return results;
   }
 
   /** Utility function for inserting calculated metrics with the proper formatting. */
-  private void insertMetrics(List<String> totalMetrics, Map<Long, Double> newVals, String method) {
+  private void insertMetrics(List<String> totalMetrics, MetricSeries newVals, String method) {
     if (!newVals.isEmpty()) {
-      totalMetrics.add(String.format(SERVICE_METRIC_FORMAT, method, mapToStringList(newVals)));
+      totalMetrics.add(String.format(SERVICE_METRIC_FORMAT, method, seriesToStringList(newVals)));
       // Note that we are passing a List<String> to the %s parameter and expecting
       // it to be serialized as [ s1, s2 ], which also matches the json array format
     }
@@ -352,138 +458,139 @@ public class YBMetricQueryComponent {
       TServerMappings tserverMaps = getTservers(universe);
       CassandraConnection cc = null;
 
-      switch (queryKey) {
-        case "total_rpcs_per_sec":
-          cc = createCassandraConnection(universe.universeUUID);
-          if (cc.session == null) {
-            return null;
-          }
-          for (String method : serviceMethods) {
-            String metricName = String.format(COUNT_METRIC_STRING, method);
-            List<ResultSet> results =
+      try {
+        switch (queryKey) {
+          case "total_rpcs_per_sec":
+            cc = getCassandraConnection(universe.universeUUID);
+            if (cc == null) {
+              return null;
+            }
+            for (String method : serviceMethods) {
+              String metricName = String.format(COUNT_METRIC_STRING, method);
+              List<ResultSet> results =
+                  queryRunner(
+                      metricName, cc, tserverMaps.nameToUUID, params, startTime, endTime);
+              MetricSeries metricsVals = calculateRate(results, Function.Sum, results.size());
+              insertMetrics(metricResults, metricsVals, method);
+            }
+            break;
+          case "tserver_ops_latency":
+            cc = getCassandraConnection(universe.universeUUID);
+            if (cc == null) {
+              return null;
+            }
+            for (String method : serviceMethods) {
+              String metricCount = String.format(COUNT_METRIC_STRING, method);
+              String metricSum = String.format(SUM_METRIC_STRING, method);
+              List<ResultSet> resultCount =
+                  queryRunner(
+                      metricCount, cc, tserverMaps.nameToUUID, params, startTime, endTime);
+              List<ResultSet> resultSum =
+                  queryRunner(
+                      metricSum, cc, tserverMaps.nameToUUID, params, startTime, endTime);
+              MetricSeries metricsCount =
+                  calculateRate(resultCount, Function.Average, resultCount.size());
+              MetricSeries metricsSum =
+                  calculateRate(resultSum, Function.Average, resultSum.size());
+              MetricSeries metricsVals = metricDivide(metricsSum, metricsCount);
+              insertMetrics(metricResults, metricsVals, method);
+            }
+            break;
+          case "disk_usage":
+            cc = getCassandraConnection(universe.universeUUID);
+            if (cc == null) {
+              return null;
+            }
+            List<ResultSet> totalDiskRaw =
                 queryRunner(
-                    metricName, cc.session, tserverMaps.nameToUUID, params, startTime, endTime);
-            NavigableMap<Long, Double> metricsVals =
-                calculateRate(results, Function.Sum, results.size());
-            insertMetrics(metricResults, metricsVals, method);
-          }
-          break;
-        case "tserver_ops_latency":
-          cc = createCassandraConnection(universe.universeUUID);
-          if (cc.session == null) {
-            return null;
-          }
-          for (String method : serviceMethods) {
-            String metricCount = String.format(COUNT_METRIC_STRING, method);
-            String metricSum = String.format(SUM_METRIC_STRING, method);
-            List<ResultSet> resultCount =
+                    TOTAL_DISK_STRING,
+                    cc,
+                    tserverMaps.nameToUUID,
+                    params,
+                    startTime,
+                    endTime);
+            List<ResultSet> freeDiskRaw =
                 queryRunner(
-                    metricCount, cc.session, tserverMaps.nameToUUID, params, startTime, endTime);
-            List<ResultSet> resultSum =
+                    FREE_DISK_STRING, cc, tserverMaps.nameToUUID, params, startTime, endTime);
+            MetricSeries totalDiskMetrics = convertToGb(totalDiskRaw);
+            MetricSeries freeDiskMetrics = convertToGb(freeDiskRaw);
+            insertMetrics(metricResults, totalDiskMetrics, "size");
+            insertMetrics(metricResults, freeDiskMetrics, "free");
+            break;
+          case "cpu_usage":
+            cc = getCassandraConnection(universe.universeUUID);
+            if (cc == null) {
+              return null;
+            }
+            List<ResultSet> userCpuRaw =
                 queryRunner(
-                    metricSum, cc.session, tserverMaps.nameToUUID, params, startTime, endTime);
-            NavigableMap<Long, Double> metricsCount =
-                calculateRate(resultCount, Function.Average, resultCount.size());
-            NavigableMap<Long, Double> metricsSum =
-                calculateRate(resultSum, Function.Average, resultSum.size());
-            TreeMap<Long, Double> metricsVals = metricDivide(metricsSum, metricsCount);
-            insertMetrics(metricResults, metricsVals, method);
-          }
-          break;
-        case "disk_usage":
-          cc = createCassandraConnection(universe.universeUUID);
-          if (cc.session == null) {
-            return null;
-          }
-          List<ResultSet> totalDiskRaw =
-              queryRunner(
-                  TOTAL_DISK_STRING,
-                  cc.session,
-                  tserverMaps.nameToUUID,
-                  params,
-                  startTime,
-                  endTime);
-          List<ResultSet> freeDiskRaw =
-              queryRunner(
-                  FREE_DISK_STRING, cc.session, tserverMaps.nameToUUID, params, startTime, endTime);
-          NavigableMap<Long, Double> totalDiskMetrics = convertToGb(totalDiskRaw);
-          NavigableMap<Long, Double> freeDiskMetrics = convertToGb(freeDiskRaw);
-          insertMetrics(metricResults, totalDiskMetrics, "size");
-          insertMetrics(metricResults, freeDiskMetrics, "free");
-          break;
-        case "cpu_usage":
-          cc = createCassandraConnection(universe.universeUUID);
-          if (cc.session == null) {
-            return null;
-          }
-          List<ResultSet> userCpuRaw =
-              queryRunner(
-                  CPU_USAGE_USER_STRING,
-                  cc.session,
-                  tserverMaps.nameToUUID,
-                  params,
-                  startTime,
-                  endTime);
-          List<ResultSet> systemCpuRaw =
-              queryRunner(
-                  CPU_USAGE_SYSTEM_STRING,
-                  cc.session,
-                  tserverMaps.nameToUUID,
-                  params,
-                  startTime,
-                  endTime);
-          NavigableMap<Long, Double> userCpuMetrics = divideByConstant(userCpuRaw, 0.01);
-          NavigableMap<Long, Double> systemCpuMetrics = divideByConstant(systemCpuRaw, 0.01);
-          insertMetrics(metricResults, userCpuMetrics, "user");
-          insertMetrics(metricResults, systemCpuMetrics, "system");
-          break;
-        case "node_up":
-          cc = createCassandraConnection(universe.universeUUID);
-          if (cc.session == null) {
-            return null;
-          }
-          List<ResultSet> results =
-              queryRunner(
-                  "node_up", cc.session, tserverMaps.nameToUUID, params, startTime, endTime);
-          Map<String, List<String>> nodeUpMetrics = new HashMap<>();
-          for (ResultSet rs : results) {
-            for (Row row : rs) {
-              String nodeIP = tserverMaps.uuidToIP.get(row.getString("node"));
-
-              if (null != nodeIP) {
-                long timestampSec = row.getTimestamp("ts").getTime() / 1000;
-                double val = getValue(row);
-                String valStr = String.format(DATA_ENTRY_FORMAT, timestampSec, val);
-
-                nodeUpMetrics.putIfAbsent(nodeIP, new ArrayList<>());
-                nodeUpMetrics.get(nodeIP).add(valStr);
+                    CPU_USAGE_USER_STRING,
+                    cc,
+                    tserverMaps.nameToUUID,
+                    params,
+                    startTime,
+                    endTime);
+            List<ResultSet> systemCpuRaw =
+                queryRunner(
+                    CPU_USAGE_SYSTEM_STRING,
+                    cc,
+                    tserverMaps.nameToUUID,
+                    params,
+                    startTime,
+                    endTime);
+            MetricSeries userCpuMetrics = divideByConstant(userCpuRaw, 0.01);
+            MetricSeries systemCpuMetrics = divideByConstant(systemCpuRaw, 0.01);
+            insertMetrics(metricResults, userCpuMetrics, "user");
+            insertMetrics(metricResults, systemCpuMetrics, "system");
+            break;
+          case "node_up":
+            cc = getCassandraConnection(universe.universeUUID);
+            if (cc == null) {
+              return null;
+            }
+            List<ResultSet> results =
+                queryRunner(
+                    "node_up", cc, tserverMaps.nameToUUID, params, startTime, endTime);
+            Map<String, List<String>> nodeUpMetrics = new HashMap<>();
+            for (ResultSet rs : results) {
+              for (Row row : rs) {
+                String nodeIP = tserverMaps.uuidToIP.get(row.getString("node"));
+
+                if (null != nodeIP) {
+                  long timestampSec = row.getTimestamp("ts").getTime() / 1000;
+                  double val = getValue(row);
+                  String valStr = String.format(DATA_ENTRY_FORMAT, timestampSec, val);
+
+                  nodeUpMetrics.putIfAbsent(nodeIP, new ArrayList<>());
+                  nodeUpMetrics.get(nodeIP).add(valStr);
+                }
               }
             }
-          }
 
-          for (Entry<String, List<String>> nodeUpMetric : nodeUpMetrics.entrySet()) {
-            metricResults.add(
-                String.format(
-                    NODE_METRIC_FORMAT,
-                    nodeUpMetric.getKey(),
-                    universe.getUniverseDetails().communicationPorts.masterHttpPort,
-                    nodeUpMetric.getValue()));
-            metricResults.add(
-                String.format(
-                    NODE_METRIC_FORMAT,
-                    nodeUpMetric.getKey(),
-                    universe.getUniverseDetails().communicationPorts.tserverHttpPort,
-                    nodeUpMetric.getValue()));
-            // Note that we are passing a List<String> to the %s parameter and expecting
-            // it to be serialized as [ s1, s2 ], which also matches the json array format
-          }
-          break;
-        default:
-          LOG.warn("Query: " + queryKey + " not supported.");
-      }
-      if (cc != null) {
-        if (cc.session != null) cc.session.close();
-        if (cc.cluster != null) cc.cluster.close();
+            for (Entry<String, List<String>> nodeUpMetric : nodeUpMetrics.entrySet()) {
+              metricResults.add(
+                  String.format(
+                      NODE_METRIC_FORMAT,
+                      nodeUpMetric.getKey(),
+                      universe.getUniverseDetails().communicationPorts.masterHttpPort,
+                      nodeUpMetric.getValue()));
+              metricResults.add(
+                  String.format(
+                      NODE_METRIC_FORMAT,
+                      nodeUpMetric.getKey(),
+                      universe.getUniverseDetails().communicationPorts.tserverHttpPort,
+                      nodeUpMetric.getValue()));
+              // Note that we are passing a List<String> to the %s parameter and expecting
+              // it to be serialized as [ s1, s2 ], which also matches the json array format
+            }
+            break;
+          default:
+            LOG.warn("Query: " + queryKey + " not supported.");
+        }
+      } finally {
+        if (cc != null) {
+          cc.release();
+        }
       }
       if (!metricResults.isEmpty()) {
         String returnJson = String.format(RESPONSE_FORMAT, metricResults);
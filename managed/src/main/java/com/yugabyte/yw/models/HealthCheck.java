@@ -2,7 +2,10 @@
 
 package com.yugabyte.yw.models;
 
+import java.util.Date;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 
 import javax.persistence.Column;
@@ -71,11 +74,69 @@ public class HealthCheck extends Model {
     return check;
   }
 
+  /** Replaces the details of this check with a more recent report, checked now. */
+  public void refresh(String details) {
+    Date checkTime = new Date();
+    // Validate it is correct JSON.
+    String newDetailsJson = Json.stringify(Json.parse(details));
+    // The check time is part of the key, so the bean cannot be updated.
+    Ebean.createSqlUpdate(
+            "UPDATE health_check SET check_time = :newCheckTime, details_json = :details "
+                + "WHERE universe_uuid = :universeUUID AND check_time = :checkTime")
+        .setParameter("newCheckTime", checkTime)
+        .setParameter("details", newDetailsJson)
+        .setParameter("universeUUID", idKey.universeUUID)
+        .setParameter("checkTime", idKey.checkTime)
+        .execute();
+    idKey.checkTime = checkTime;
+    detailsJson = newDetailsJson;
+  }
+
+  /** Deletes the checks of the universe but the last ones, with a single statement. */
   public static void keepOnlyLast(UUID universeUUID, int numChecks) {
-    List<HealthCheck> checks = getAll(universeUUID);
-    for (int i = 0; i < checks.size() - numChecks; ++i) {
-      checks.get(i).delete();
+    if (numChecks <= 0) {
+      find.query().where().eq("universe_uuid", universeUUID).delete();
+      return;
     }
+    List<HealthCheck> oldestKept =
+        find.query()
+            .where()
+            .eq("universe_uuid", universeUUID)
+            .orderBy("check_time desc")
+            .setFirstRow(numChecks - 1)
+            .setMaxRows(1)
+            .findList();
+    if (oldestKept.isEmpty()) {
+      return;
+    }
+    find.query()
+        .where()
+        .eq("universe_uuid", universeUUID)
+        .lt("check_time", oldestKept.get(0).idKey.checkTime)
+        .delete();
+  }
+
+  /**
+   * Returns the state of the checks in the details: the nodes and checks with their error status,
+   * without the details of the checks which change on every run, such as the uptimes.
+   */
+  public Set<String> getCheckStates() {
+    return getCheckStates(Json.parse(detailsJson));
+  }
+
+  public static Set<String> getCheckStates(JsonNode details) {
+    Set<String> states = new HashSet<>();
+    for (JsonNode entry : details.path("data")) {
+      states.add(
+          String.join(
+              "/",
+              entry.path("node").asText(),
+              entry.path("message").asText(),
+              entry.path("process").asText(),
+              String.valueOf(entry.path(FIELD_HAS_ERROR).asBoolean())));
+    }
+    states.add(FIELD_HAS_ERROR + "/" + details.path(FIELD_HAS_ERROR).asBoolean());
+    return states;
   }
 
   /**
@@ -89,17 +150,21 @@ public class HealthCheck extends Model {
   }
 
   public static HealthCheck getLatest(UUID universeUUID) {
-    List<HealthCheck> checks =
-        find.query()
-            .where()
-            .eq("universe_uuid", universeUUID)
-            .orderBy("check_time desc")
-            .setMaxRows(1)
-            .findList();
+    List<HealthCheck> checks = getLatest(universeUUID, 1);
     if (checks != null && checks.size() > 0) {
       return checks.get(0);
     } else {
       return null;
     }
   }
+
+  /** Returns the last checks of the universe, the most recent first. */
+  public static List<HealthCheck> getLatest(UUID universeUUID, int numChecks) {
+    return find.query()
+        .where()
+        .eq("universe_uuid", universeUUID)
+        .orderBy("check_time desc")
+        .setMaxRows(numChecks)
+        .findList();
+  }
 }
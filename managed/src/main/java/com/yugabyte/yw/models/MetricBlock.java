@@ -0,0 +1,114 @@
+// Copyright (c) YugaByte, Inc.
+
+package com.yugabyte.yw.models;
+
+import io.ebean.Finder;
+import io.ebean.Model;
+import play.data.validation.Constraints;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * A block of encoded points of a platform metric series, stored by the TimeSeriesStore. The
+ * series is identified by the metric name and its labels, and each block holds its points over a
+ * fixed range of time, at the resolution of the block.
+ */
+@Entity
+public class MetricBlock extends Model {
+
+  @Id public UUID uuid;
+
+  // The customer of the series, also among its labels, so that the blocks are read by customer.
+  @Constraints.Required
+  @Column(nullable = false)
+  public UUID customerUUID;
+
+  @Constraints.Required
+  @Column(nullable = false)
+  public String metricName;
+
+  // The labels of the series as a JSON object with sorted keys.
+  @Constraints.Required
+  @Column(columnDefinition = "TEXT", nullable = false)
+  public String labelsJson;
+
+  // The interval of the points in seconds, 0 for the points as recorded.
+  @Column(nullable = false)
+  public int resolution;
+
+  // The range of the block, in seconds since the epoch, the end excluded.
+  @Column(nullable = false)
+  public long blockStart;
+
+  @Column(nullable = false)
+  public long blockEnd;
+
+  @Column(nullable = false)
+  public int numPoints;
+
+  @Column(nullable = false)
+  public byte[] data;
+
+  public static final Finder<UUID, MetricBlock> find =
+      new Finder<UUID, MetricBlock>(MetricBlock.class) {};
+
+  public static MetricBlock get(
+      UUID customerUUID, String metricName, String labelsJson, int resolution, long blockStart) {
+    return find.query()
+        .where()
+        .eq("customer_uuid", customerUUID)
+        .eq("metric_name", metricName)
+        .eq("labels_json", labelsJson)
+        .eq("resolution", resolution)
+        .eq("block_start", blockStart)
+        .findOne();
+  }
+
+  /** Writes the points of the block, replacing the ones written before. */
+  public static void upsert(
+      UUID customerUUID,
+      String metricName,
+      String labelsJson,
+      int resolution,
+      long blockStart,
+      long blockEnd,
+      int numPoints,
+      byte[] data) {
+    MetricBlock block = get(customerUUID, metricName, labelsJson, resolution, blockStart);
+    if (block == null) {
+      block = new MetricBlock();
+      block.uuid = UUID.randomUUID();
+      block.customerUUID = customerUUID;
+      block.metricName = metricName;
+      block.labelsJson = labelsJson;
+      block.resolution = resolution;
+      block.blockStart = blockStart;
+    }
+    block.blockEnd = blockEnd;
+    block.numPoints = numPoints;
+    block.data = data;
+    block.save();
+  }
+
+  /** Returns the blocks of the metric of the customer at the resolution which overlap the range. */
+  public static List<MetricBlock> getBlocks(
+      UUID customerUUID, String metricName, int resolution, long start, long end) {
+    return find.query()
+        .where()
+        .eq("customer_uuid", customerUUID)
+        .eq("metric_name", metricName)
+        .eq("resolution", resolution)
+        .le("block_start", end)
+        .gt("block_end", start)
+        .findList();
+  }
+
+  /** Deletes the blocks of the resolution which ended before the given time. */
+  public static int deleteEndedBefore(int resolution, long time) {
+    return find.query().where().eq("resolution", resolution).le("block_end", time).delete();
+  }
+}
@@ -89,14 +89,18 @@ public class PriceComponent extends Model {
     PriceComponentKey pcKey = PriceComponentKey.create(providerUuid, regionCode, componentCode);
     PriceComponent pc = PriceComponent.find.byId(pcKey);
     if (pc != null) {
-      pc.priceDetails = new PriceDetails();
-      if (pc.priceDetailsJson != null && !pc.priceDetailsJson.isEmpty()) {
-        pc.priceDetails = Json.fromJson(Json.parse(pc.priceDetailsJson), PriceDetails.class);
-      }
+      pc.readPriceDetails();
     }
     return pc;
   }
 
+  private void readPriceDetails() {
+    priceDetails = new PriceDetails();
+    if (priceDetailsJson != null && !priceDetailsJson.isEmpty()) {
+      priceDetails = Json.fromJson(Json.parse(priceDetailsJson), PriceDetails.class);
+    }
+  }
+
   /**
    * Query helper to find pricing components for a given cloud provider.
    *
@@ -104,7 +108,10 @@ public class PriceComponent extends Model {
    * @return A list of pricing components in the cloud provider.
    */
   public static List<PriceComponent> findByProvider(Provider provider) {
-    return PriceComponent.find.query().where().eq("provider_uuid", provider.uuid).findList();
+    List<PriceComponent> components =
+        PriceComponent.find.query().where().eq("provider_uuid", provider.uuid).findList();
+    components.forEach(PriceComponent::readPriceDetails);
+    return components;
   }
 
   /**
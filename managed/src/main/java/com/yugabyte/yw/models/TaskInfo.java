@@ -4,15 +4,19 @@ package com.yugabyte.yw.models;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.databind.JsonNode;
+import com.google.common.collect.Lists;
 import com.yugabyte.yw.commissioner.UserTaskDetails;
 import com.yugabyte.yw.commissioner.UserTaskDetails.SubTaskDetails;
 import com.yugabyte.yw.commissioner.UserTaskDetails.SubTaskGroupType;
 import com.yugabyte.yw.common.YWServiceException;
 import com.yugabyte.yw.models.helpers.TaskType;
+import io.ebean.Ebean;
 import io.ebean.FetchGroup;
 import io.ebean.Finder;
 import io.ebean.Model;
 import io.ebean.Query;
+import io.ebean.SqlQuery;
+import io.ebean.SqlRow;
 import io.ebean.annotation.CreatedTimestamp;
 import io.ebean.annotation.DbJson;
 import io.ebean.annotation.EnumValue;
@@ -31,6 +35,9 @@ public class TaskInfo extends Model {
   private static final FetchGroup<TaskInfo> GET_SUBTASKS_FG =
       FetchGroup.of(TaskInfo.class, "uuid, subTaskGroupType, taskState");
 
+  // Max number of task UUIDs bound in the IN clause of a single bulk query.
+  private static final int BULK_QUERY_BATCH_SIZE = 500;
+
   /** These are the various states of the task and taskgroup. */
   public enum State {
     @EnumValue("Created")
@@ -151,6 +158,11 @@ public class TaskInfo extends Model {
     uuid = taskUUID;
   }
 
+  @JsonIgnore
+  public String getOwner() {
+    return owner;
+  }
+
   public void setOwner(String owner) {
     this.owner = owner;
   }
@@ -236,58 +248,161 @@ public class TaskInfo extends Model {
    *     subTaskGroups.
    */
   public UserTaskDetails getUserTaskDetails() {
-    UserTaskDetails taskDetails = new UserTaskDetails();
-    List<TaskInfo> result = getSubTasks();
-    Map<SubTaskGroupType, SubTaskDetails> userTasksMap = new HashMap<>();
-    boolean customerTaskFailure = taskState.equals(State.Failure);
-    for (TaskInfo taskInfo : result) {
-      SubTaskGroupType subTaskGroupType = taskInfo.getSubTaskGroupType();
-      if (subTaskGroupType == SubTaskGroupType.Invalid) {
-        continue;
+    return getSubTasksSummary().getUserTaskDetails();
+  }
+
+  /**
+   * Returns the aggregate percentage completion across all the subtasks.
+   *
+   * @return a number between 0.0 and 100.0.
+   */
+  public double getPercentCompleted() {
+    return getSubTasksSummary().getPercentCompleted();
+  }
+
+  private SubTasksSummary getSubTasksSummary() {
+    return getSubTasksSummaries(Collections.singletonList(this)).get(getTaskUUID());
+  }
+
+  /**
+   * Returns the TaskInfos of the given tasks, looked up in batches instead of one query per task.
+   *
+   * @return the found TaskInfos by task UUID.
+   */
+  public static Map<UUID, TaskInfo> getAll(Collection<UUID> taskUUIDs) {
+    Map<UUID, TaskInfo> taskInfos = new HashMap<>();
+    for (List<UUID> batch : Lists.partition(new ArrayList<>(taskUUIDs), BULK_QUERY_BATCH_SIZE)) {
+      for (TaskInfo taskInfo : find.query().where().idIn(batch).findList()) {
+        taskInfos.put(taskInfo.getTaskUUID(), taskInfo);
       }
-      SubTaskDetails subTask = userTasksMap.get(subTaskGroupType);
-      if (subTask == null) {
-        subTask = createSubTask(subTaskGroupType);
-        taskDetails.add(subTask);
-      } else if (subTask.getState().equals(State.Failure.name())
-          || subTask.getState().equals(State.Running.name())) {
-        continue;
+    }
+    return taskInfos;
+  }
+
+  /**
+   * Computes the subtask summaries of the given user-level tasks. The subtasks are aggregated by
+   * the database with one grouped query per batch of tasks, rather than being loaded per task.
+   *
+   * @return the summary of every given task by task UUID.
+   */
+  public static Map<UUID, SubTasksSummary> getSubTasksSummaries(Collection<TaskInfo> tasks) {
+    Map<UUID, SubTasksSummary> summaries = new HashMap<>();
+    for (TaskInfo task : tasks) {
+      summaries.put(task.getTaskUUID(), new SubTasksSummary(task.getTaskState()));
+    }
+    for (List<UUID> batch :
+        Lists.partition(new ArrayList<>(summaries.keySet()), BULK_QUERY_BATCH_SIZE)) {
+      String query =
+          "SELECT parent_uuid, sub_task_group_type, task_state, "
+              + "count(*) AS num_tasks, min(position) AS first_position "
+              + "FROM task_info WHERE parent_uuid IN ("
+              + String.join(", ", Collections.nCopies(batch.size(), "?"))
+              + ") GROUP BY parent_uuid, sub_task_group_type, task_state";
+      SqlQuery sqlQuery = Ebean.createSqlQuery(query);
+      for (int i = 0; i < batch.size(); i++) {
+        sqlQuery.setParameter(i + 1, batch.get(i));
+      }
+      for (SqlRow row : sqlQuery.findList()) {
+        String groupType = row.getString("sub_task_group_type");
+        Integer position = row.getInteger("first_position");
+        summaries
+            .get(row.getUUID("parent_uuid"))
+            .add(
+                groupType == null ? null : SubTaskGroupType.valueOf(groupType),
+                State.valueOf(row.getString("task_state")),
+                row.getLong("num_tasks").intValue(),
+                position == null ? -1 : position);
       }
-      switch (taskInfo.getTaskState()) {
+    }
+    return summaries;
+  }
+
+  /**
+   * The subtasks of a user-level task aggregated by subtask group type and state. This is all that
+   * is needed to compute the UserTaskDetails and the percentage completion of the task.
+   */
+  public static class SubTasksSummary {
+    private final boolean customerTaskFailure;
+    private final Map<SubTaskGroupType, GroupSummary> groups = new HashMap<>();
+    private int numSubTasks = 0;
+    private int numSubTasksCompleted = 0;
+
+    // Positions of the first subtask of a group overall, and in the states that decide the state
+    // of the group.
+    private static class GroupSummary {
+      int firstPosition = Integer.MAX_VALUE;
+      int firstFailurePosition = Integer.MAX_VALUE;
+      int firstRunningPosition = Integer.MAX_VALUE;
+      boolean hasCreated = false;
+    }
+
+    SubTasksSummary(State taskState) {
+      this.customerTaskFailure = taskState == State.Failure;
+    }
+
+    void add(SubTaskGroupType groupType, State state, int numTasks, int firstPosition) {
+      numSubTasks += numTasks;
+      if (state == State.Success) {
+        numSubTasksCompleted += numTasks;
+      }
+      if (groupType == null || groupType == SubTaskGroupType.Invalid) {
+        return;
+      }
+      GroupSummary group = groups.computeIfAbsent(groupType, k -> new GroupSummary());
+      group.firstPosition = Math.min(group.firstPosition, firstPosition);
+      switch (state) {
         case Failure:
-          subTask.setState(State.Failure);
+          group.firstFailurePosition = Math.min(group.firstFailurePosition, firstPosition);
           break;
         case Running:
-          subTask.setState(State.Running);
+          group.firstRunningPosition = Math.min(group.firstRunningPosition, firstPosition);
           break;
         case Created:
-          subTask.setState(customerTaskFailure ? State.Unknown : State.Created);
+          group.hasCreated = true;
           break;
         default:
           break;
       }
-      userTasksMap.put(subTaskGroupType, subTask);
     }
-    return taskDetails;
-  }
 
-  /**
-   * Returns the aggregate percentage completion across all the subtasks.
-   *
-   * @return a number between 0.0 and 100.0.
-   */
-  public double getPercentCompleted() {
-    int numSubtasks = TaskInfo.find.query().where().eq("parent_uuid", getTaskUUID()).findCount();
-    if (numSubtasks == 0) {
-      return 100.0;
+    /**
+     * Returns the subtask groups in the order of their first subtask. A group is in the state of
+     * its first failed or running subtask, otherwise it is Created if some of its subtasks have not
+     * started yet (Unknown if the user task has failed).
+     */
+    public UserTaskDetails getUserTaskDetails() {
+      List<Map.Entry<SubTaskGroupType, GroupSummary>> entries = new ArrayList<>(groups.entrySet());
+      entries.sort(
+          Comparator.comparingInt(
+                  (Map.Entry<SubTaskGroupType, GroupSummary> e) -> e.getValue().firstPosition)
+              .thenComparing(Map.Entry::getKey));
+      UserTaskDetails taskDetails = new UserTaskDetails();
+      for (Map.Entry<SubTaskGroupType, GroupSummary> entry : entries) {
+        GroupSummary group = entry.getValue();
+        SubTaskDetails subTask = createSubTask(entry.getKey());
+        if (group.firstFailurePosition != Integer.MAX_VALUE
+            && group.firstFailurePosition <= group.firstRunningPosition) {
+          subTask.setState(State.Failure);
+        } else if (group.firstRunningPosition != Integer.MAX_VALUE) {
+          subTask.setState(State.Running);
+        } else if (group.hasCreated) {
+          subTask.setState(customerTaskFailure ? State.Unknown : State.Created);
+        }
+        taskDetails.add(subTask);
+      }
+      return taskDetails;
+    }
+
+    /**
+     * Returns the aggregate percentage completion across all the subtasks.
+     *
+     * @return a number between 0.0 and 100.0.
+     */
+    public double getPercentCompleted() {
+      if (numSubTasks == 0) {
+        return 100.0;
+      }
+      return numSubTasksCompleted * 100.0 / numSubTasks;
     }
-    int numSubtasksCompleted =
-        TaskInfo.find
-            .query()
-            .where()
-            .eq("parent_uuid", getTaskUUID())
-            .eq("task_state", TaskInfo.State.Success)
-            .findCount();
-    return numSubtasksCompleted * 100.0 / numSubtasks;
   }
 }
@@ -5,21 +5,32 @@ package com.yugabyte.yw.models;
 import com.fasterxml.jackson.annotation.JsonFormat;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.net.HostAndPort;
+import com.google.common.util.concurrent.Striped;
 import com.yugabyte.yw.commissioner.tasks.UniverseDefinitionTaskBase.ServerType;
 import com.yugabyte.yw.common.YWServiceException;
 import com.yugabyte.yw.common.services.YBClientService;
 import com.yugabyte.yw.forms.UniverseDefinitionTaskParams;
 import com.yugabyte.yw.forms.UniverseDefinitionTaskParams.Cluster;
 import com.yugabyte.yw.forms.UniverseDefinitionTaskParams.UserIntent;
+import com.yugabyte.yw.forms.UniverseSummaryResp;
 import com.yugabyte.yw.models.helpers.NodeDetails;
 import com.yugabyte.yw.models.helpers.PlacementInfo;
 import io.ebean.Ebean;
 import io.ebean.Finder;
 import io.ebean.Model;
+import io.ebean.SqlRow;
 import io.ebean.SqlUpdate;
+import io.ebean.Transaction;
 import io.ebean.annotation.DbJson;
+import io.prometheus.client.Counter;
+import io.prometheus.client.Histogram;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.yb.client.YBClient;
@@ -28,7 +39,10 @@ import play.data.validation.Constraints;
 import play.libs.Json;
 
 import javax.persistence.*;
+import java.sql.SQLException;
 import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.Lock;
 import java.util.stream.Collectors;
 
 import static play.mvc.Http.Status.BAD_REQUEST;
@@ -112,6 +126,9 @@ public class Universe extends Model {
 
   private UniverseDefinitionTaskParams universeDetails;
 
+  // The JSON of the universe details as read from the DB, to find the changes to write.
+  @Transient private JsonNode universeDetailsJsonAtRead;
+
   public void setUniverseDetails(UniverseDefinitionTaskParams details) {
     universeDetails = details;
   }
@@ -120,6 +137,20 @@ public class Universe extends Model {
     return universeDetails;
   }
 
+  /**
+   * Returns the summary of the universe, read from the details JSON without building the details.
+   * Empty if the universe was deleted since it was read.
+   */
+  @JsonIgnore
+  public Optional<UniverseSummaryResp> getSummary() {
+    JsonNode detailsJson = getDetailsJson(this);
+    if (detailsJson == null) {
+      LOG.info("Universe {} was deleted while being read", universeUUID);
+      return Optional.empty();
+    }
+    return Optional.of(new UniverseSummaryResp(this, detailsJson));
+  }
+
   public String getDnsName() {
     Provider p =
         Provider.get(UUID.fromString(universeDetails.getPrimaryCluster().userIntent.provider));
@@ -140,6 +171,10 @@ public class Universe extends Model {
 
   public static final Finder<UUID, Universe> find = new Finder<UUID, Universe>(Universe.class) {};
 
+  // The properties of the universe read up front, the details are only read when needed.
+  private static final String PROPERTIES_WITHOUT_DETAILS =
+      "universeUUID, version, creationDate, name, customerId, config";
+
   // Prefix added to read only node.
   public static final String READONLY = "-readonly";
 
@@ -177,6 +212,7 @@ public class Universe extends Model {
         universe.universeDetailsJson);
     // Save the object.
     universe.save();
+    DETAILS_CACHE.invalidate(universe.universeUUID);
     return universe;
   }
 
@@ -202,6 +238,30 @@ public class Universe extends Model {
         find.query().where().eq("customer_id", customer.getCustomerId()).findIds());
   }
 
+  /**
+   * Returns a page of the universes of the customer, ordered by name. The details of the universes
+   * are not read, see {@link #getSummary()}.
+   *
+   * @param customer the customer of the universes.
+   * @param offset the number of universes before the page.
+   * @param limit the max number of universes in the page.
+   * @return the universes of the page.
+   */
+  public static List<Universe> getPage(Customer customer, int offset, int limit) {
+    return find.query()
+        .select(PROPERTIES_WITHOUT_DETAILS)
+        .where()
+        .eq("customer_id", customer.getCustomerId())
+        .orderBy("name asc, universeUUID asc")
+        .setFirstRow(offset)
+        .setMaxRows(limit)
+        .findList();
+  }
+
+  public static int count(Customer customer) {
+    return find.query().where().eq("customer_id", customer.getCustomerId()).findCount();
+  }
+
   /**
    * Returns the Universe object given its uuid.
    *
@@ -214,15 +274,26 @@ public class Universe extends Model {
   }
 
   public static Optional<Universe> maybeGet(UUID universeUUID) {
-    // Find the universe.
-    Universe universe = find.byId(universeUUID);
+    // Find the universe. The details are only fetched if they are not cached for this version.
+    Universe universe =
+        find.query()
+            .select(PROPERTIES_WITHOUT_DETAILS)
+            .where()
+            .idEq(universeUUID)
+            .findOne();
     if (universe == null) {
       LOG.info("Cannot find universe {}", universeUUID);
       return Optional.empty();
     }
 
-    JsonNode detailsJson = Json.parse(universe.universeDetailsJson);
+    JsonNode detailsJson = getDetailsJson(universe);
+    if (detailsJson == null) {
+      LOG.info("Universe {} was deleted while being read", universeUUID);
+      return Optional.empty();
+    }
+    // Each universe object gets its own details, which the caller is free to modify.
     universe.universeDetails = Json.fromJson(detailsJson, UniverseDefinitionTaskParams.class);
+    universe.universeDetailsJsonAtRead = detailsJson;
 
     // For backwards compatibility from {universeDetails: {"userIntent": <foo>, "placementInfo":
     // <bar>}}
@@ -240,6 +311,91 @@ public class Universe extends Model {
     return Optional.of(universe);
   }
 
+  // Returns the details JSON of the universe, from the cache if it has the version of the universe,
+  // or null if the universe was deleted. The returned JSON is shared and must not be modified.
+  private static JsonNode getDetailsJson(Universe universe) {
+    CachedDetails cached = DETAILS_CACHE.getIfPresent(universe.universeUUID);
+    if (cached != null && cached.version == universe.version) {
+      DETAILS_CACHE_HITS.inc();
+      return cached.detailsJson;
+    }
+    DETAILS_CACHE_MISSES.inc();
+    CachedDetails read = readDetails(universe.universeUUID);
+    if (read == null) {
+      return null;
+    }
+    // The universe may have been updated since its other properties were read, the version goes
+    // with the details.
+    universe.version = read.version;
+    // An update may have cached more recent details since the universe was read, these are kept.
+    DETAILS_CACHE
+        .asMap()
+        .merge(
+            universe.universeUUID,
+            read,
+            (current, newer) -> current.version >= newer.version ? current : newer);
+    return read.detailsJson;
+  }
+
+  /**
+   * Drops the cached details of all the universes, for when the universes are changed outside of
+   * this process, like by the restore of a platform backup.
+   */
+  public static void invalidateDetailsCache() {
+    DETAILS_CACHE.invalidateAll();
+  }
+
+  // Reads the details of the universe, with the nodes updated since the last full write of the
+  // details, or returns null if the universe does not exist. The details, the node updates and the
+  // version are read by a single statement, so they all come from the same update.
+  private static CachedDetails readDetails(UUID universeUUID) {
+    List<SqlRow> rows =
+        Ebean.createSqlQuery(READ_DETAILS_QUERY)
+            .setParameter("universeUUID", universeUUID)
+            .findList();
+    JsonNode detailsJson = null;
+    Integer version = null;
+    Map<String, String> nodeUpdates = new HashMap<>();
+    for (SqlRow row : rows) {
+      String nodeName = row.getString("node_name");
+      if (nodeName == null) {
+        detailsJson = Json.parse(row.getString("details_json"));
+        version = row.getInteger("version");
+      } else {
+        nodeUpdates.put(nodeName, row.getString("details_json"));
+      }
+    }
+    if (version == null) {
+      return null;
+    }
+    applyNodeUpdates(universeUUID, detailsJson, nodeUpdates);
+    return new CachedDetails(version, detailsJson);
+  }
+
+  // Replaces the nodes of the universe details JSON with the nodes updated since the last full
+  // write of the details.
+  private static void applyNodeUpdates(
+      UUID universeUUID, JsonNode detailsJson, Map<String, String> nodeUpdates) {
+    if (nodeUpdates.isEmpty()) {
+      return;
+    }
+    JsonNode nodes = detailsJson == null ? null : detailsJson.get(NODE_DETAILS_FIELD);
+    if (nodes == null || !nodes.isArray()) {
+      LOG.warn(
+          "Ignoring {} node updates of universe {} without nodes.",
+          nodeUpdates.size(),
+          universeUUID);
+      return;
+    }
+    ArrayNode nodesArray = (ArrayNode) nodes;
+    for (int i = 0; i < nodesArray.size(); i++) {
+      String nodeUpdate = nodeUpdates.get(getNodeName(nodesArray.get(i)));
+      if (nodeUpdate != null) {
+        nodesArray.set(i, Json.parse(nodeUpdate));
+      }
+    }
+  }
+
   public static Set<Universe> getAllPresent(Set<UUID> universeUUIDs) {
     return universeUUIDs
         .stream()
@@ -265,27 +421,159 @@ public class Universe extends Model {
     void run(Universe universe);
   }
 
+  // The number of locks serializing the updates of the universes. The updates of two universes only
+  // wait for each other if the universes map to the same lock.
+  private static final int NUM_UPDATE_LOCKS = 1024;
+
+  // The field of the nodes in the universe details JSON.
+  private static final String NODE_DETAILS_FIELD = "nodeDetailsSet";
+
+  // Reads the details and the version of the universe, in the row without node name, along with
+  // its node updates.
+  private static final String READ_DETAILS_QUERY =
+      "SELECT CAST(NULL AS VARCHAR(255)) AS node_name, universe_details_json AS details_json, "
+          + "version FROM universe WHERE universe_uuid = :universeUUID "
+          + "UNION ALL "
+          + "SELECT node_name, node_details_json, CAST(NULL AS INTEGER) FROM universe_node "
+          + "WHERE universe_uuid = :universeUUID";
+
+  // Writes the update of a node, replacing its previous one. H2, used by the tests, does not
+  // support ON CONFLICT, but has MERGE with the same effect.
+  private static final String UPSERT_NODE_QUERY =
+      "INSERT INTO universe_node (universe_uuid, node_name, node_details_json) "
+          + "VALUES (:universeUUID, :nodeName, :nodeDetails) "
+          + "ON CONFLICT (universe_uuid, node_name) "
+          + "DO UPDATE SET node_details_json = EXCLUDED.node_details_json";
+
+  private static final String H2_UPSERT_NODE_QUERY =
+      "MERGE INTO universe_node (universe_uuid, node_name, node_details_json) "
+          + "KEY (universe_uuid, node_name) VALUES (:universeUUID, :nodeName, :nodeDetails)";
+
+  // Compares the JSON numbers by value, as a number read from the DB can have a different type
+  // than the one it was serialized from.
+  private static final Comparator<JsonNode> JSON_VALUE_COMPARATOR =
+      (json1, json2) -> {
+        if (json1.equals(json2)) {
+          return 0;
+        }
+        if (json1.isNumber() && json2.isNumber()) {
+          return json1.decimalValue().compareTo(json2.decimalValue());
+        }
+        return 1;
+      };
+
+  // The max number of universes with cached details.
+  private static final int DETAILS_CACHE_SIZE = 1000;
+
+  // The parsed details of a version of a universe.
+  private static class CachedDetails {
+    final int version;
+
+    final JsonNode detailsJson;
+
+    CachedDetails(int version, JsonNode detailsJson) {
+      this.version = version;
+      this.detailsJson = detailsJson;
+    }
+  }
+
+  // The details of the universes as last read or written by this process. The universes are only
+  // updated by this process, but some updates keep the version, so the updates always replace the
+  // cached details.
+  private static final Cache<UUID, CachedDetails> DETAILS_CACHE =
+      CacheBuilder.newBuilder().maximumSize(DETAILS_CACHE_SIZE).build();
+
+  private static final Counter DETAILS_CACHE_HITS =
+      Counter.build(
+              "yw_universe_details_cache_hits", "Number of universe reads with cached details")
+          .register();
+
+  private static final Counter DETAILS_CACHE_MISSES =
+      Counter.build(
+              "yw_universe_details_cache_misses", "Number of universe reads parsing the details")
+          .register();
+
+  // Serializes the updates of the same universe within this process.
+  @VisibleForTesting
+  static final Striped<Lock> UPDATE_LOCKS = Striped.lazyWeakLock(NUM_UPDATE_LOCKS);
+
+  // The number of attempts of an update failing on a concurrent modification.
+  private static final int MAX_UPDATE_ATTEMPTS = 10;
+
+  // The bounds of the backoff between the attempts of an update.
+  private static final long MIN_UPDATE_RETRY_SLEEP_MS = 50;
+  private static final long MAX_UPDATE_RETRY_SLEEP_MS = 1000;
+
+  private static final Histogram UPDATE_LOCK_WAIT_TIME =
+      Histogram.build(
+              "yw_universe_update_lock_wait_seconds",
+              "Time spent by the universe updates waiting for the update lock")
+          .buckets(0.001, 0.01, 0.1, 1, 10)
+          .register();
+
+  private static final Counter UPDATE_CONFLICTS =
+      Counter.build(
+              "yw_universe_update_conflicts",
+              "Number of universe updates retried after a concurrent modification")
+          .register();
+
+  /**
+   * @return the lock serializing the updates of the universe within this process. The lock is
+   *     reentrant, so the updates of the universe can be run while holding it.
+   */
+  public static Lock getUpdateLock(UUID universeUUID) {
+    return UPDATE_LOCKS.get(universeUUID);
+  }
+
+  /**
+   * Sets the version of a universe whose version was reset, to the given cluster config version.
+   * Does nothing if the universe was updated in the meantime.
+   */
+  public static void setResetVersion(UUID universeUUID, int version) {
+    Lock lock = getUpdateLock(universeUUID);
+    lock.lock();
+    try {
+      SqlUpdate update =
+          Ebean.createSqlUpdate(
+              "UPDATE universe SET version = :version "
+                  + "WHERE universe_uuid = :universeUUID AND version = -1");
+      update.setParameter("version", version);
+      update.setParameter("universeUUID", universeUUID);
+      Ebean.execute(update);
+    } finally {
+      lock.unlock();
+    }
+  }
+
   // TODO: Investigate why not use transactions for this
-  // TODO: synchronized in static scope - investigate what state it is protecting
   // Helper api to make an atomic read of universe version, and compare and swap the
-  // updated version to disk.
-  private static synchronized Universe readModifyWrite(
+  // updated version to disk. The updates of the same universe are serialized by its lock, the
+  // compare and swap detects the updates done by other processes.
+  private static Universe readModifyWrite(
       UUID universeUUID, UniverseUpdater updater, boolean incrementVersion) {
-    Universe universe = Universe.getOrBadRequest(universeUUID);
-    // Update the universe object which is supplied as a lambda function.
-    boolean updateSucceeded = false;
+    Lock lock = getUpdateLock(universeUUID);
+    long waitStartNanos = System.nanoTime();
+    lock.lock();
     try {
-      updater.run(universe);
-      updateSucceeded = true;
-    } catch (Exception e) {
-      LOG.debug("Error running universe updater", e);
-      throw e;
+      UPDATE_LOCK_WAIT_TIME.observe((System.nanoTime() - waitStartNanos) / 1e9);
+      Universe universe = Universe.getOrBadRequest(universeUUID);
+      // Update the universe object which is supplied as a lambda function.
+      boolean updateSucceeded = false;
+      try {
+        updater.run(universe);
+        updateSucceeded = true;
+      } catch (Exception e) {
+        LOG.debug("Error running universe updater", e);
+        throw e;
+      } finally {
+        // Save the universe object by doing a compare and swap.
+        universe.compareAndSwap(updateSucceeded /* updateDetails */, incrementVersion);
+      }
+
+      return universe;
     } finally {
-      // Save the universe object by doing a compare and swap.
-      universe.compareAndSwap(updateSucceeded /* updateDetails */, incrementVersion);
+      lock.unlock();
     }
-
-    return universe;
   }
 
   /**
@@ -301,8 +589,8 @@ public class Universe extends Model {
 
   public static Universe saveDetails(
       UUID universeUUID, UniverseUpdater updater, boolean incrementVersion) {
-    int numRetriesLeft = 10;
-    long sleepTimeMillis = 100;
+    int numRetriesLeft = MAX_UPDATE_ATTEMPTS;
+    long sleepTimeMillis = MIN_UPDATE_RETRY_SLEEP_MS;
     // Try the read and update for a few times till it succeeds.
     Universe universe = null;
     while (numRetriesLeft > 0) {
@@ -310,18 +598,21 @@ public class Universe extends Model {
         universe = readModifyWrite(universeUUID, updater, incrementVersion);
         break;
       } catch (ConcurrentModificationException e) {
+        UPDATE_CONFLICTS.inc();
         // Decrement retries.
         numRetriesLeft--;
         // If we are out of retries, fail the task.
         if (numRetriesLeft == 0) {
           throw e;
         }
-        // If we have more retries left, wait and retry.
+        // If we have more retries left, wait and retry. The wait is randomized so that the
+        // conflicting writers do not retry at the same time again.
         try {
-          Thread.sleep(sleepTimeMillis);
+          Thread.sleep(ThreadLocalRandom.current().nextLong(sleepTimeMillis / 2, sleepTimeMillis));
         } catch (InterruptedException e1) {
           LOG.error("Error while sleeping", e1);
         }
+        sleepTimeMillis = Math.min(sleepTimeMillis * 2, MAX_UPDATE_RETRY_SLEEP_MS);
       }
     }
 
@@ -342,6 +633,7 @@ public class Universe extends Model {
     // Delete the universe.
     LOG.info("Deleting universe " + universe.name + ":" + universeUUID);
     universe.delete();
+    DETAILS_CACHE.invalidate(universeUUID);
   }
 
   /**
@@ -628,22 +920,30 @@ public class Universe extends Model {
 
   /**
    * Compares the version of this object with the one in the DB, and updates it if the versions
-   * match.
+   * match. If only some nodes changed since the details were read, only these nodes are written,
+   * to the universe_node table. Otherwise all the details are written, including the nodes. The
+   * universe_node rows are folded back into the details before the DB migrations run, see
+   * postgres/beforeMigrate.sql, so the migrations can keep using universe_details_json alone.
    *
    * @param updateDetails whether to update universe details or not
    * @param incrementVersion whether to increment the version or not
    * @return the current version of the universe metadata
    */
   private int compareAndSwap(boolean updateDetails, boolean incrementVersion) {
-    // Update the universe details json.
-    universeDetailsJson = Json.stringify(Json.toJson(universeDetails));
+    JsonNode detailsJson = updateDetails ? Json.toJson(universeDetails) : null;
+    Map<String, JsonNode> changedNodes = updateDetails ? getChangedNodes(detailsJson) : null;
+    boolean writeAllDetails = updateDetails && changedNodes == null;
+    if (writeAllDetails) {
+      // Update the universe details json.
+      universeDetailsJson = Json.stringify(detailsJson);
+    }
 
     // Create the new version number.
     int newVersion = incrementVersion ? this.version + 1 : this.version;
 
     // Save the object if the version is the same.
     String updateQuery =
-        updateDetails
+        writeAllDetails
             ? "UPDATE universe "
                 + "SET universe_details_json = :universeDetails, version = :newVersion "
                 + "WHERE universe_uuid = :universeUUID AND version = :curVersion"
@@ -652,7 +952,7 @@ public class Universe extends Model {
                 + "WHERE universe_uuid = :universeUUID AND version = :curVersion";
 
     SqlUpdate update = Ebean.createSqlUpdate(updateQuery);
-    if (updateDetails) {
+    if (writeAllDetails) {
       update.setParameter("universeDetails", universeDetailsJson);
     }
 
@@ -663,25 +963,140 @@ public class Universe extends Model {
         "Swapped universe {}:{} details to [{}] with new version = {}.",
         universeUUID,
         this.name,
-        universeDetailsJson,
+        writeAllDetails ? universeDetailsJson : changedNodes,
         newVersion);
-    int modifiedCount = Ebean.execute(update);
+    // The version and the nodes are written in the same transaction.
+    Ebean.execute(
+        () -> {
+          int modifiedCount = Ebean.execute(update);
+
+          // Check if the save was not successful.
+          if (modifiedCount == 0) {
+            // Throw an exception as the save was not successful.
+            throw new ConcurrentModificationException("Stale version " + this.version);
+          } else if (modifiedCount > 1) {
+            // Exactly one row should have been modified. Otherwise fatal.
+            LOG.error("Running query [" + updateQuery + "] updated " + modifiedCount + " rows");
+            System.exit(1);
+          }
+
+          if (writeAllDetails) {
+            // All the nodes are in the details now.
+            SqlUpdate deleteNodes =
+                Ebean.createSqlUpdate(
+                    "DELETE FROM universe_node WHERE universe_uuid = :universeUUID");
+            deleteNodes.setParameter("universeUUID", universeUUID);
+            Ebean.execute(deleteNodes);
+          } else if (changedNodes != null) {
+            writeNodes(changedNodes);
+          }
+        });
 
-    // Check if the save was not successful.
-    if (modifiedCount == 0) {
-      // Throw an exception as the save was not successful.
-      throw new ConcurrentModificationException("Stale version " + this.version);
-    } else if (modifiedCount > 1) {
-      // Exactly one row should have been modified. Otherwise fatal.
-      LOG.error("Running query [" + updateQuery + "] updated " + modifiedCount + " rows");
-      System.exit(1);
+    if (updateDetails) {
+      universeDetailsJsonAtRead = detailsJson;
+    }
+    // The details written replace the cached ones, even if the version did not change.
+    if (universeDetailsJsonAtRead != null) {
+      DETAILS_CACHE.put(universeUUID, new CachedDetails(newVersion, universeDetailsJsonAtRead));
+    } else {
+      DETAILS_CACHE.invalidate(universeUUID);
     }
-
     // Update and return the current version number.
     this.version = newVersion;
     return this.version;
   }
 
+  // Returns the nodes which changed since the details were read, by node name, or null if other
+  // details changed and all the details have to be written.
+  private Map<String, JsonNode> getChangedNodes(JsonNode detailsJson) {
+    if (universeDetailsJsonAtRead == null
+        || !universeDetailsJsonAtRead.isObject()
+        || !detailsJson.isObject()) {
+      return null;
+    }
+    Map<String, JsonNode> nodes = getNodesByName(detailsJson);
+    Map<String, JsonNode> nodesAtRead = getNodesByName(universeDetailsJsonAtRead);
+    if (nodes == null || nodesAtRead == null || !nodes.keySet().equals(nodesAtRead.keySet())) {
+      return null;
+    }
+    if (!withoutNodes(detailsJson)
+        .equals(JSON_VALUE_COMPARATOR, withoutNodes(universeDetailsJsonAtRead))) {
+      return null;
+    }
+    Map<String, JsonNode> changedNodes = new HashMap<>();
+    for (Map.Entry<String, JsonNode> entry : nodes.entrySet()) {
+      if (!entry.getValue().equals(JSON_VALUE_COMPARATOR, nodesAtRead.get(entry.getKey()))) {
+        changedNodes.put(entry.getKey(), entry.getValue());
+      }
+    }
+    return changedNodes;
+  }
+
+  // Writes the nodes to the universe_node table, replacing their previous updates. Runs in the
+  // transaction updating the version.
+  private void writeNodes(Map<String, JsonNode> nodes) {
+    String upsertQuery =
+        isH2(Ebean.currentTransaction()) ? H2_UPSERT_NODE_QUERY : UPSERT_NODE_QUERY;
+    for (Map.Entry<String, JsonNode> entry : nodes.entrySet()) {
+      SqlUpdate upsert = Ebean.createSqlUpdate(upsertQuery);
+      upsert.setParameter("universeUUID", universeUUID);
+      upsert.setParameter("nodeName", entry.getKey());
+      upsert.setParameter("nodeDetails", Json.stringify(entry.getValue()));
+      Ebean.execute(upsert);
+    }
+  }
+
+  // Whether the DB is H2, as checked once on the connection of the transaction.
+  private static volatile Boolean isH2;
+
+  private static boolean isH2(Transaction txn) {
+    if (isH2 == null) {
+      try {
+        isH2 = "H2".equals(txn.getConnection().getMetaData().getDatabaseProductName());
+      } catch (SQLException e) {
+        throw new PersistenceException("Cannot get the database product name", e);
+      }
+    }
+    return isH2;
+  }
+
+  // Returns the nodes of the details JSON by node name, or null if some nodes do not have a unique
+  // name.
+  private static Map<String, JsonNode> getNodesByName(JsonNode detailsJson) {
+    Map<String, JsonNode> nodesByName = new HashMap<>();
+    JsonNode nodes = detailsJson.get(NODE_DETAILS_FIELD);
+    if (nodes == null || nodes.isNull()) {
+      return nodesByName;
+    }
+    if (!nodes.isArray()) {
+      return null;
+    }
+    for (JsonNode node : nodes) {
+      String nodeName = getNodeName(node);
+      if (nodeName == null || nodesByName.put(nodeName, node) != null) {
+        return null;
+      }
+    }
+    return nodesByName;
+  }
+
+  private static String getNodeName(JsonNode node) {
+    return node.hasNonNull("nodeName") ? node.get("nodeName").asText() : null;
+  }
+
+  private static ObjectNode withoutNodes(JsonNode detailsJson) {
+    ObjectNode result = Json.newObject();
+    detailsJson
+        .fields()
+        .forEachRemaining(
+            field -> {
+              if (!field.getKey().equals(NODE_DETAILS_FIELD)) {
+                result.set(field.getKey(), field.getValue());
+              }
+            });
+    return result;
+  }
+
   /**
    * Returns the list of nodes in a given cluster in the universe.
    *
@@ -2,23 +2,28 @@
 
 package com.yugabyte.yw.queries;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.yugabyte.yw.common.ApiHelper;
-import com.yugabyte.yw.forms.LiveQueriesParams;
-import com.yugabyte.yw.models.MetricConfig;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import play.Configuration;
 import play.api.Play;
 import play.libs.Json;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
 import java.util.*;
 import java.util.concurrent.Callable;
 
+/**
+ * Fetches the queries running on a tserver from its /rpcz endpoint. The response is read with a
+ * streaming parser, keeping only the fields of the connections running queries, so the idle
+ * connections of a busy node are skipped without being built into JSON trees.
+ */
 public class LiveQueryExecutor implements Callable<JsonNode> {
   public static final Logger LOG = LoggerFactory.getLogger(LiveQueryExecutor.class);
 
@@ -28,27 +33,30 @@ public class LiveQueryExecutor implements Callable<JsonNode> {
   private String nodeName;
   private int port;
   private QueryHelper.QueryApi apiType;
+  private Duration timeout;
 
-  public LiveQueryExecutor(String nodeName, String hostName, int port, QueryHelper.QueryApi api) {
+  public LiveQueryExecutor(
+      String nodeName, String hostName, int port, QueryHelper.QueryApi api, Duration timeout) {
     this.nodeName = nodeName;
     this.hostName = hostName;
     this.port = port;
     this.apiType = api;
+    this.timeout = timeout;
     this.apiHelper = Play.current().injector().instanceOf(ApiHelper.class);
   }
 
   @Override
   public JsonNode call() throws Exception {
     String url = String.format("http://%s:%d/rpcz", hostName, port);
-    try {
-      JsonNode response = apiHelper.getRequest(url);
+    try (InputStream body = apiHelper.getRequestStream(url, timeout);
+        JsonParser parser = Json.mapper().getFactory().createParser(body)) {
       if (apiType == QueryHelper.QueryApi.YSQL) {
-        return processYSQLRowData(response);
+        return processYSQLRowData(parser);
       } else {
-        return processYCQLRowData(response);
+        return processYCQLRowData(parser);
       }
     } catch (Exception e) {
-      LOG.error("Exception while fetching url: {}; message: {}", url, e.getStackTrace());
+      LOG.error("Exception while fetching url: {}; message: {}", url, e.getMessage());
       ObjectNode errorJson = Json.newObject();
       errorJson.put("error", e.getMessage());
       errorJson.put("type", apiType == QueryHelper.QueryApi.YSQL ? "ysql" : "ycql");
@@ -56,98 +64,135 @@ public class LiveQueryExecutor implements Callable<JsonNode> {
     }
   }
 
+  // Moves the parser to the start of the array of the given top level field, skipping the other
+  // fields. Returns false if there is no such array.
+  private static boolean moveToArray(JsonParser parser, String fieldName) throws IOException {
+    if (parser.nextToken() != JsonToken.START_OBJECT) {
+      return false;
+    }
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      String name = parser.getCurrentName();
+      JsonToken value = parser.nextToken();
+      if (name.equals(fieldName) && value == JsonToken.START_ARRAY) {
+        return true;
+      }
+      parser.skipChildren();
+    }
+    return false;
+  }
+
+  // Reads the scalar fields of the current object, skipping the nested ones.
+  private static Map<String, String> readScalarFields(JsonParser parser) throws IOException {
+    Map<String, String> fields = new HashMap<>();
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      String name = parser.getCurrentName();
+      if (parser.nextToken().isScalarValue()) {
+        fields.put(name, parser.getValueAsString());
+      } else {
+        parser.skipChildren();
+      }
+    }
+    return fields;
+  }
+
+  private static int parseInt(String value) {
+    try {
+      return value == null ? 0 : Integer.parseInt(value);
+    } catch (NumberFormatException e) {
+      return 0;
+    }
+  }
+
+  private ObjectNode newRow(ArrayNode rows, String api) {
+    ObjectNode rowData = rows.addObject();
+    // Intended for table row key, unique as the node names are unique.
+    rowData.put("id", nodeName + "-" + api + "-" + rows.size());
+    rowData.put("nodeName", nodeName);
+    rowData.put("privateIp", hostName);
+    return rowData;
+  }
+
   // Processes YSQL connection data from /rpcz endpoint and transforms to row data
-  private JsonNode processYSQLRowData(JsonNode response) {
+  private JsonNode processYSQLRowData(JsonParser parser) throws IOException {
     ObjectNode responseJson = Json.newObject();
-    ObjectMapper mapper = new ObjectMapper();
-    if (response.has("connections")) {
-      for (JsonNode objNode : response.get("connections")) {
-        if (objNode.has("backend_type")
-            && objNode.get("backend_type").asText().equalsIgnoreCase("client backend")
-            && objNode.has("backend_status")
-            && !objNode.get("backend_status").asText().equalsIgnoreCase("idle")) {
-          try {
-            // Rather than access the JSON through .get()'s we convert to POJO
-            LiveQueriesParams.YSQLQueryParams params =
-                mapper.treeToValue(objNode, LiveQueriesParams.YSQLQueryParams.class);
-            ObjectNode rowData = Json.newObject();
-            // Random UUID intended for table row key
-            rowData.put("id", UUID.randomUUID().toString());
-            rowData.put("nodeName", nodeName);
-            rowData.put("privateIp", hostName);
-            rowData.put("dbName", params.db_name);
-            rowData.put("sessionStatus", params.backend_status);
-            rowData.put("query", params.query);
-            rowData.put("elapsedMillis", params.query_running_for_ms);
-            rowData.put("queryStartTime", params.query_start_time);
-            rowData.put("appName", params.application_name);
-            rowData.put("clientHost", params.host);
-            rowData.put("clientPort", params.port);
-            if (!responseJson.has("ysql")) {
-              ArrayNode ysqlArray = responseJson.putArray("ysql");
-              ysqlArray.add(rowData);
-            } else {
-              ArrayNode ysqlArray = (ArrayNode) responseJson.get("ysql");
-              ysqlArray.add(rowData);
-            }
-          } catch (JsonProcessingException exception) {
-            // Try to process all connections even if there is an exception
-            LOG.error("Unable to process JSON from YSQL query. {}", objNode.asText());
-          }
-        }
+    if (!moveToArray(parser, "connections")) {
+      return responseJson;
+    }
+    ArrayNode rows = Json.newArray();
+    while (parser.nextToken() == JsonToken.START_OBJECT) {
+      Map<String, String> connection = readScalarFields(parser);
+      String backendStatus = connection.get("backend_status");
+      if ("client backend".equalsIgnoreCase(connection.get("backend_type"))
+          && backendStatus != null
+          && !backendStatus.equalsIgnoreCase("idle")) {
+        ObjectNode rowData = newRow(rows, "ysql");
+        rowData.put("dbName", connection.get("db_name"));
+        rowData.put("sessionStatus", backendStatus);
+        rowData.put("query", connection.get("query"));
+        rowData.put("elapsedMillis", parseInt(connection.get("query_running_for_ms")));
+        rowData.put("queryStartTime", connection.get("query_start_time"));
+        rowData.put("appName", connection.get("application_name"));
+        rowData.put("clientHost", connection.get("host"));
+        rowData.put("clientPort", connection.get("port"));
       }
     }
+    if (rows.size() > 0) {
+      responseJson.set("ysql", rows);
+    }
     return responseJson;
   }
 
   // Similar to above helper function except for YCQL connection info
-  private JsonNode processYCQLRowData(JsonNode response) {
+  private JsonNode processYCQLRowData(JsonParser parser) throws IOException {
     ObjectNode responseJson = Json.newObject();
-    ObjectMapper mapper = new ObjectMapper();
-    if (response.has("inbound_connections")) {
-      for (JsonNode objNode : response.get("inbound_connections")) {
-        try {
-          LiveQueriesParams.YCQLQueryParams params =
-              mapper.treeToValue(objNode, LiveQueriesParams.YCQLQueryParams.class);
-          if (params.calls_in_flight != null) {
-            for (LiveQueriesParams.QueryCallsInFlight query : params.calls_in_flight) {
-              // Get SQL query string, joining multiple entries if necessary
-              StringBuilder queryStringBuilder = new StringBuilder();
-              ObjectNode rowData = Json.newObject();
-              for (JsonNode callDetail : query.cql_details.call_details) {
-                if (queryStringBuilder.length() > 0) {
-                  queryStringBuilder.append(" ");
-                }
-                queryStringBuilder.append(callDetail.get("sql_string").asText());
-              }
-              String keyspace =
-                  params.connection_details.cql_connection_details.get("keyspace").asText();
-              String[] splitIp = params.remote_ip.split(":");
-              // Random UUID intended for table row key
-              rowData.put("id", UUID.randomUUID().toString());
-              rowData.put("nodeName", nodeName);
-              rowData.put("privateIp", hostName);
-              rowData.put("keyspace", keyspace);
-              rowData.put("query", queryStringBuilder.toString());
-              rowData.put("type", query.cql_details.type);
-              rowData.put("elapsedMillis", query.elapsed_millis);
-              rowData.put("clientHost", splitIp[0]);
-              rowData.put("clientPort", splitIp[1]);
+    if (!moveToArray(parser, "inbound_connections")) {
+      return responseJson;
+    }
+    ArrayNode rows = Json.newArray();
+    while (parser.nextToken() == JsonToken.START_OBJECT) {
+      String remoteIp = "";
+      String keyspace = "";
+      List<JsonNode> callsInFlight = Collections.emptyList();
+      while (parser.nextToken() == JsonToken.FIELD_NAME) {
+        String name = parser.getCurrentName();
+        JsonToken value = parser.nextToken();
+        if (name.equals("remote_ip") && value.isScalarValue()) {
+          remoteIp = parser.getValueAsString();
+        } else if (name.equals("connection_details") && value == JsonToken.START_OBJECT) {
+          JsonNode details = parser.readValueAsTree();
+          keyspace = details.path("cql_connection_details").path("keyspace").asText();
+        } else if (name.equals("calls_in_flight") && value == JsonToken.START_ARRAY) {
+          callsInFlight = new ArrayList<>();
+          while (parser.nextToken() == JsonToken.START_OBJECT) {
+            callsInFlight.add(parser.readValueAsTree());
+          }
+        } else {
+          parser.skipChildren();
+        }
+      }
 
-              if (!responseJson.has("ycql")) {
-                ArrayNode ycqlArray = responseJson.putArray("ycql");
-                ycqlArray.add(rowData);
-              } else {
-                ArrayNode ycqlArray = (ArrayNode) responseJson.get("ycql");
-                ycqlArray.add(rowData);
-              }
-            }
+      String[] splitIp = remoteIp.split(":");
+      for (JsonNode call : callsInFlight) {
+        // Get SQL query string, joining multiple entries if necessary
+        StringBuilder queryStringBuilder = new StringBuilder();
+        for (JsonNode callDetail : call.path("cql_details").path("call_details")) {
+          if (queryStringBuilder.length() > 0) {
+            queryStringBuilder.append(" ");
           }
-        } catch (JsonProcessingException exception) {
-          LOG.error("Unable to process JSON from YCQL query connection", objNode.asText());
+          queryStringBuilder.append(callDetail.path("sql_string").asText());
         }
+        ObjectNode rowData = newRow(rows, "ycql");
+        rowData.put("keyspace", keyspace);
+        rowData.put("query", queryStringBuilder.toString());
+        rowData.put("type", call.path("cql_details").path("type").asText());
+        rowData.put("elapsedMillis", call.path("elapsed_millis").asInt());
+        rowData.put("clientHost", splitIp[0]);
+        rowData.put("clientPort", splitIp.length > 1 ? splitIp[1] : "");
       }
     }
+    if (rows.size() > 0) {
+      responseJson.set("ycql", rows);
+    }
     return responseJson;
   }
 }
@@ -5,8 +5,13 @@ import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 
+import com.google.common.base.Throwables;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
+import com.yugabyte.yw.common.FanOutExecutor;
 import com.yugabyte.yw.common.YsqlQueryExecutor;
 import com.yugabyte.yw.forms.RunQueryFormData;
 import com.yugabyte.yw.models.Universe;
@@ -17,23 +22,25 @@ import org.slf4j.LoggerFactory;
 import play.Configuration;
 import play.libs.Json;
 
-import java.io.IOException;
+import java.time.Duration;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Arrays;
 import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.UUID;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.ExecutionException;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 @Singleton
 public class QueryHelper {
   public static final Logger LOG = LoggerFactory.getLogger(QueryHelper.class);
-  public static final Integer QUERY_EXECUTOR_THREAD_POOL = 5;
 
   private static final String SLOW_QUERY_STATS_SQL =
       "SELECT a.rolname, t.datname, t.queryid, "
@@ -43,6 +50,12 @@ public class QueryHelper {
   private static final Set<String> EXCLUDED_QUERY_STATEMENTS =
       new HashSet<>(Arrays.asList("SET extra_float_digits = 3", SLOW_QUERY_STATS_SQL));
 
+  private static final long SLOW_QUERIES_SNAPSHOT_TTL_SECONDS = 30;
+  private static final int SLOW_QUERIES_SNAPSHOT_MAX_UNIVERSES = 1000;
+
+  private static final String LIVE_QUERIES_NODE_TIMEOUT_KEY = "yb.live_queries.node_timeout";
+  private static final String LIVE_QUERIES_TIMEOUT_KEY = "yb.live_queries.timeout";
+
   public enum QueryApi {
     YSQL,
     YCQL
@@ -50,24 +63,134 @@ public class QueryHelper {
 
   @Inject YsqlQueryExecutor ysqlQueryExecutor;
 
+  @Inject FanOutExecutor fanOutExecutor;
+
+  @Inject Configuration appConfig;
+
+  // The slow queries of a universe are merged once and shared by the pages read shortly after.
+  private final Cache<UUID, SlowQueriesSnapshot> slowQueriesCache =
+      CacheBuilder.newBuilder()
+          .expireAfterWrite(SLOW_QUERIES_SNAPSHOT_TTL_SECONDS, TimeUnit.SECONDS)
+          .maximumSize(SLOW_QUERIES_SNAPSHOT_MAX_UNIVERSES)
+          .build();
+
+  // The slow queries of all the nodes of a universe, merged by query.
+  private static class SlowQueriesSnapshot {
+    final int errorCount;
+    final Collection<SlowQueryStats> queries;
+
+    SlowQueriesSnapshot(int errorCount, Collection<SlowQueryStats> queries) {
+      this.errorCount = errorCount;
+      this.queries = queries;
+    }
+  }
+
   public JsonNode liveQueries(Universe universe) {
     return query(universe, false);
   }
 
   public JsonNode slowQueries(Universe universe) {
-    return query(universe, true);
+    return slowQueries(universe, "total_time", 0, 0);
+  }
+
+  /**
+   * Returns a page of the slow queries of the universe, merged across its nodes and sorted by the
+   * given metric in descending order.
+   *
+   * @param sortBy : the metric to sort the queries by, one of SlowQueryStats.SORT_METRICS.
+   * @param offset : the number of queries before the page.
+   * @param limit : the max number of queries in the page, all the queries if 0.
+   */
+  public JsonNode slowQueries(Universe universe, String sortBy, int offset, int limit) {
+    SlowQueriesSnapshot snapshot;
+    try {
+      snapshot = slowQueriesCache.get(universe.universeUUID, () -> fetchSlowQueries(universe));
+    } catch (ExecutionException | UncheckedExecutionException e) {
+      Throwables.throwIfUnchecked(e.getCause());
+      throw new RuntimeException(e.getCause());
+    }
+    ObjectNode responseJson = Json.newObject();
+    ObjectNode ysqlJson = responseJson.putObject("ysql");
+    ysqlJson.put("errorCount", snapshot.errorCount);
+    ysqlJson.put("totalCount", snapshot.queries.size());
+    ArrayNode queries = ysqlJson.putArray("queries");
+    for (SlowQueryStats query : SlowQueryStats.top(snapshot.queries, sortBy, offset, limit)) {
+      queries.add(query.toJson());
+    }
+    ObjectNode ycqlJson = responseJson.putObject("ycql");
+    ycqlJson.put("errorCount", 0);
+    ycqlJson.putArray("queries");
+    return responseJson;
   }
 
   public JsonNode resetQueries(Universe universe) {
+    slowQueriesCache.invalidate(universe.universeUUID);
     RunQueryFormData ysqlQuery = new RunQueryFormData();
     ysqlQuery.query = "SELECT pg_stat_statements_reset()";
     ysqlQuery.db_name = "postgres";
     return ysqlQueryExecutor.executeQuery(universe, ysqlQuery);
   }
 
+  private SlowQueriesSnapshot fetchSlowQueries(Universe universe) {
+    List<Callable<JsonNode>> tasks = new ArrayList<>();
+    for (NodeDetails node : universe.getNodes()) {
+      if (node.isActive() && node.isTserver) {
+        tasks.add(new SlowQueryExecutor(getIp(node), node.ysqlServerRpcPort, SLOW_QUERY_STATS_SQL));
+      }
+    }
+
+    int errorCount = 0;
+    Map<List<String>, SlowQueryStats> queryMap = new HashMap<>();
+    for (Future<JsonNode> future : fanOutExecutor.invokeAll("slow_queries", tasks)) {
+      JsonNode response;
+      try {
+        response = future.get();
+      } catch (InterruptedException e) {
+        // The tasks are done once invokeAll returns, so this is not expected.
+        Thread.currentThread().interrupt();
+        LOG.error("Interrupted while fetching slow query data", e);
+        errorCount++;
+        continue;
+      } catch (ExecutionException | CancellationException e) {
+        LOG.error("Error fetching slow query data", e);
+        errorCount++;
+        continue;
+      }
+      if (response.has("error")) {
+        errorCount++;
+        continue;
+      }
+      for (JsonNode queryObject : response.path("result")) {
+        if (EXCLUDED_QUERY_STATEMENTS.contains(queryObject.path("query").asText())) {
+          continue;
+        }
+        List<String> key = SlowQueryStats.getKey(queryObject);
+        SlowQueryStats stats = queryMap.get(key);
+        if (stats == null) {
+          queryMap.put(key, new SlowQueryStats(queryObject));
+        } else {
+          stats.merge(queryObject);
+        }
+      }
+    }
+    return new SlowQueriesSnapshot(errorCount, queryMap.values());
+  }
+
+  private static String getIp(NodeDetails node) {
+    return node.cloudInfo.private_ip == null
+        ? node.cloudInfo.private_dns
+        : node.cloudInfo.private_ip;
+  }
+
   public JsonNode query(Universe universe, boolean fetchSlowQueries) {
-    ExecutorService threadPool = Executors.newFixedThreadPool(QUERY_EXECUTOR_THREAD_POOL);
-    Set<Future<JsonNode>> futures = new HashSet<Future<JsonNode>>();
+    if (fetchSlowQueries) {
+      return slowQueries(universe);
+    }
+    List<Callable<JsonNode>> tasks = new ArrayList<>();
+    // The API queried by each task, to count the tasks which failed or timed out.
+    List<QueryApi> taskApis = new ArrayList<>();
+    Duration nodeTimeout =
+        Duration.ofMillis(appConfig.getMilliseconds(LIVE_QUERIES_NODE_TIMEOUT_KEY));
     ObjectNode responseJson = Json.newObject();
     ObjectNode ysqlJson = Json.newObject();
     ysqlJson.put("errorCount", 0);
@@ -77,129 +200,54 @@ public class QueryHelper {
     ycqlJson.putArray("queries");
     for (NodeDetails node : universe.getNodes()) {
       if (node.isActive() && node.isTserver) {
-        String ip =
-            node.cloudInfo.private_ip == null
-                ? node.cloudInfo.private_dns
-                : node.cloudInfo.private_ip;
-        Callable<JsonNode> callable;
-
-        if (fetchSlowQueries) {
-          callable = new SlowQueryExecutor(ip, node.ysqlServerRpcPort, SLOW_QUERY_STATS_SQL);
-          Future<JsonNode> future = threadPool.submit(callable);
-          futures.add(future);
-        } else {
-          callable =
-              new LiveQueryExecutor(node.nodeName, ip, node.ysqlServerHttpPort, QueryApi.YSQL);
-
-          Future<JsonNode> future = threadPool.submit(callable);
-          futures.add(future);
-
-          callable =
-              new LiveQueryExecutor(node.nodeName, ip, node.yqlServerHttpPort, QueryApi.YCQL);
-          future = threadPool.submit(callable);
-          futures.add(future);
-        }
+        String ip = getIp(node);
+        tasks.add(
+            new LiveQueryExecutor(
+                node.nodeName, ip, node.ysqlServerHttpPort, QueryApi.YSQL, nodeTimeout));
+        taskApis.add(QueryApi.YSQL);
+        tasks.add(
+            new LiveQueryExecutor(
+                node.nodeName, ip, node.yqlServerHttpPort, QueryApi.YCQL, nodeTimeout));
+        taskApis.add(QueryApi.YCQL);
       }
     }
 
+    // The nodes which did not respond in time are counted as errors, and the queries of the
+    // others are returned.
     try {
-      Map<String, JsonNode> queryMap = new HashMap<>();
-      for (Future<JsonNode> future : futures) {
-        JsonNode response = future.get();
+      List<Future<JsonNode>> futures =
+          fanOutExecutor.invokeAll(
+              "live_queries", tasks, appConfig.getMilliseconds(LIVE_QUERIES_TIMEOUT_KEY));
+      for (int i = 0; i < futures.size(); i++) {
+        JsonNode response;
+        try {
+          response = futures.get(i).get();
+        } catch (ExecutionException | CancellationException e) {
+          LOG.error("Error fetching query data", e);
+          ObjectNode errorJson = taskApis.get(i) == QueryApi.YSQL ? ysqlJson : ycqlJson;
+          errorJson.put("errorCount", errorJson.get("errorCount").asInt() + 1);
+          continue;
+        }
         if (response.has("error")) {
-          String type = response.get("type").asText();
-          if (type == "ysql") {
+          String type = response.path("type").asText();
+          if (type.equals("ysql")) {
             ysqlJson.put("errorCount", ysqlJson.get("errorCount").asInt() + 1);
-          } else if (type == "ycql") {
+          } else if (type.equals("ycql")) {
             ycqlJson.put("errorCount", ycqlJson.get("errorCount").asInt() + 1);
           }
-        } else {
-          if (fetchSlowQueries) {
-            JsonNode ysqlResponse = response.get("result");
-            for (JsonNode queryObject : ysqlResponse) {
-              String queryStatement = queryObject.get("query").asText();
-              if (!EXCLUDED_QUERY_STATEMENTS.contains(queryStatement)) {
-                if (queryMap.containsKey(queryStatement)) {
-                  // Calculate new query stats
-                  ObjectNode previousQueryObj = (ObjectNode) queryMap.get(queryStatement);
-                  // Defining values to reuse
-                  double X_a = previousQueryObj.get("mean_time").asDouble();
-                  double X_b = queryObject.get("mean_time").asDouble();
-                  int n_a = previousQueryObj.get("calls").asInt();
-                  int n_b = queryObject.get("calls").asInt();
-                  double S_a = previousQueryObj.get("stddev_time").asDouble();
-                  double S_b = queryObject.get("stddev_time").asDouble();
-
-                  double totalTime =
-                      previousQueryObj.get("total_time").asDouble()
-                          + queryObject.get("total_time").asDouble();
-                  int totalCalls = n_a + n_b;
-                  int rows = previousQueryObj.get("rows").asInt() + queryObject.get("rows").asInt();
-                  double minTime =
-                      Math.min(
-                          previousQueryObj.get("min_time").asDouble(),
-                          queryObject.get("min_time").asDouble());
-                  double maxTime =
-                      Math.max(
-                          previousQueryObj.get("max_time").asDouble(),
-                          queryObject.get("max_time").asDouble());
-                  int tmpTables =
-                      previousQueryObj.get("local_blks_written").asInt()
-                          + queryObject.get("local_blks_written").asInt();
-                  /**
-                   * Formula to calculate std dev of two samples: Let mean, std dev, and size of
-                   * sample A be X_a, S_a, n_a respectively; and mean, std dev, and size of sample B
-                   * be X_b, S_b, n_b respectively. Then mean of combined sample X is given by n_a
-                   * X_a + n_b X_b X = ----------------- n_a + n_b
-                   *
-                   * <p>The std dev of combined sample S is n_a ( S_a^2 + (X_a - X)^2) + n_b(S_b^2 +
-                   * (X_b - X)^2) S = ----------------------------------------------------- n_a +
-                   * n_b
-                   */
-                  double averageTime = (n_a * X_a + n_b * X_b) / totalCalls;
-                  double stdDevTime =
-                      (n_a * (Math.pow(S_a, 2) + Math.pow(X_a - averageTime, 2))
-                              + n_b * (Math.pow(S_b, 2) + Math.pow(X_b - averageTime, 2)))
-                          / totalCalls;
-                  previousQueryObj.put("total_time", totalTime);
-                  previousQueryObj.put("calls", totalCalls);
-                  previousQueryObj.put("rows", rows);
-                  previousQueryObj.put("min_time", minTime);
-                  previousQueryObj.put("max_time", maxTime);
-                  previousQueryObj.put("mean_time", averageTime);
-                  previousQueryObj.put("local_blks_written", tmpTables);
-                  previousQueryObj.put("stddev_time", stdDevTime);
-                } else {
-                  queryMap.put(queryStatement, queryObject);
-                }
-              }
-            }
-            ArrayNode queryArr = Json.newArray();
-            ysqlJson.set("queries", queryArr.addAll(queryMap.values()));
-          } else {
-            if (response.has("ysql")) {
-              ArrayNode arr = (ArrayNode) ysqlJson.get("queries");
-              concatArrayNodes(arr, response.get("ysql"));
-            } else if (response.has("ycql")) {
-              ArrayNode arr = (ArrayNode) ycqlJson.get("queries");
-              concatArrayNodes(arr, response.get("ycql"));
-            }
-          }
+        } else if (response.has("ysql")) {
+          concatArrayNodes((ArrayNode) ysqlJson.get("queries"), response.get("ysql"));
+        } else if (response.has("ycql")) {
+          concatArrayNodes((ArrayNode) ycqlJson.get("queries"), response.get("ycql"));
         }
       }
     } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
       LOG.error("Error fetching live query data", e);
-    } catch (ExecutionException e) {
-      LOG.error("Error fetching live query data", e);
-      e.printStackTrace();
-    } finally {
-      threadPool.shutdown();
     }
 
     responseJson.set("ysql", ysqlJson);
     responseJson.set("ycql", ycqlJson);
-
-    threadPool.shutdown();
     return responseJson;
   }
 
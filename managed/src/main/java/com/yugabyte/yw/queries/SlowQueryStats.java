@@ -0,0 +1,181 @@
+// Copyright (c) YugaByte, Inc.
+
+package com.yugabyte.yw.queries;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.common.collect.ImmutableSet;
+import play.libs.Json;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * The pg_stat_statements statistics of a query, merged across the nodes of a universe. The mean
+ * and standard deviation of the nodes are merged with the parallel variance formulas, through the
+ * sum of the squared differences to the mean.
+ */
+public class SlowQueryStats {
+
+  // The metrics the queries can be sorted by.
+  public static final Set<String> SORT_METRICS =
+      ImmutableSet.of(
+          "total_time",
+          "calls",
+          "rows",
+          "mean_time",
+          "min_time",
+          "max_time",
+          "stddev_time",
+          "local_blks_hit",
+          "local_blks_written");
+
+  private final String rolname;
+  private final String datname;
+  private final JsonNode queryid;
+  private final String query;
+
+  private long calls = 0;
+  private double totalTime = 0;
+  private long rows = 0;
+  private double minTime = Double.MAX_VALUE;
+  private double maxTime = 0;
+  private double meanTime = 0;
+  // The sum of the squared differences to the mean time.
+  private double sumSquares = 0;
+  private long localBlksHit = 0;
+  private long localBlksWritten = 0;
+
+  public SlowQueryStats(JsonNode row) {
+    rolname = row.path("rolname").asText();
+    datname = row.path("datname").asText();
+    queryid = row.path("queryid");
+    query = row.path("query").asText();
+    merge(row);
+  }
+
+  /**
+   * Returns the key the rows of a query are merged by: its role, its database and its query id if
+   * any, as the same statement run by different roles or in different databases has its own
+   * statistics.
+   */
+  public static List<String> getKey(JsonNode row) {
+    JsonNode queryid = row.path("queryid");
+    return Arrays.asList(
+        row.path("rolname").asText(),
+        row.path("datname").asText(),
+        queryid.isNull() || queryid.isMissingNode()
+            ? "query:" + row.path("query").asText()
+            : queryid.asText());
+  }
+
+  /** Merges the statistics of the query on another node. */
+  public void merge(JsonNode row) {
+    long nodeCalls = row.path("calls").asLong();
+    if (nodeCalls <= 0) {
+      return;
+    }
+    double nodeMean = row.path("mean_time").asDouble();
+    double nodeStddev = row.path("stddev_time").asDouble();
+    long mergedCalls = calls + nodeCalls;
+    double delta = nodeMean - meanTime;
+    sumSquares +=
+        nodeStddev * nodeStddev * nodeCalls
+            + delta * delta * ((double) calls * nodeCalls / mergedCalls);
+    meanTime += delta * nodeCalls / mergedCalls;
+    calls = mergedCalls;
+    totalTime += row.path("total_time").asDouble();
+    rows += row.path("rows").asLong();
+    minTime = Math.min(minTime, row.path("min_time").asDouble());
+    maxTime = Math.max(maxTime, row.path("max_time").asDouble());
+    localBlksHit += row.path("local_blks_hit").asLong();
+    localBlksWritten += row.path("local_blks_written").asLong();
+  }
+
+  public double getStddevTime() {
+    return calls == 0 ? 0 : Math.sqrt(sumSquares / calls);
+  }
+
+  public double getMetric(String metric) {
+    switch (metric) {
+      case "total_time":
+        return totalTime;
+      case "calls":
+        return calls;
+      case "rows":
+        return rows;
+      case "mean_time":
+        return meanTime;
+      case "min_time":
+        return calls == 0 ? 0 : minTime;
+      case "max_time":
+        return maxTime;
+      case "stddev_time":
+        return getStddevTime();
+      case "local_blks_hit":
+        return localBlksHit;
+      case "local_blks_written":
+        return localBlksWritten;
+      default:
+        throw new IllegalArgumentException("Unknown slow query metric " + metric);
+    }
+  }
+
+  public ObjectNode toJson() {
+    ObjectNode json = Json.newObject();
+    json.put("rolname", rolname);
+    json.put("datname", datname);
+    json.set("queryid", queryid.isMissingNode() ? Json.mapper().nullNode() : queryid);
+    json.put("query", query);
+    json.put("calls", calls);
+    json.put("total_time", totalTime);
+    json.put("rows", rows);
+    json.put("min_time", getMetric("min_time"));
+    json.put("max_time", maxTime);
+    json.put("mean_time", meanTime);
+    json.put("stddev_time", getStddevTime());
+    json.put("local_blks_hit", localBlksHit);
+    json.put("local_blks_written", localBlksWritten);
+    return json;
+  }
+
+  /**
+   * Returns a page of the queries sorted by the metric in descending order. Only the queries up to
+   * the end of the page are kept while selecting them.
+   *
+   * @param queries : the queries to select from.
+   * @param metric : the metric to sort by, one of SORT_METRICS.
+   * @param offset : the number of queries before the page.
+   * @param limit : the max number of queries in the page, all the queries after the offset if 0.
+   */
+  public static List<SlowQueryStats> top(
+      Collection<SlowQueryStats> queries, String metric, int offset, int limit) {
+    Comparator<SlowQueryStats> ascending = Comparator.comparingDouble(q -> q.getMetric(metric));
+    List<SlowQueryStats> sorted;
+    if (limit <= 0) {
+      sorted = new ArrayList<>(queries);
+    } else {
+      // Keeps the greatest queries, dropping the smallest one when there are too many.
+      int size = offset + limit;
+      PriorityQueue<SlowQueryStats> greatest = new PriorityQueue<>(size, ascending);
+      for (SlowQueryStats query : queries) {
+        greatest.add(query);
+        if (greatest.size() > size) {
+          greatest.poll();
+        }
+      }
+      sorted = new ArrayList<>(greatest);
+    }
+    sorted.sort(ascending.reversed());
+    if (offset >= sorted.size()) {
+      return new ArrayList<>();
+    }
+    int end = limit <= 0 ? sorted.size() : Math.min(sorted.size(), offset + limit);
+    return sorted.subList(offset, end);
+  }
+}
@@ -22,6 +22,7 @@ import com.fasterxml.jackson.databind.JsonNode;
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
 import com.yugabyte.yw.commissioner.Commissioner;
+import com.yugabyte.yw.commissioner.TaskScheduler;
 import com.yugabyte.yw.commissioner.tasks.subtasks.DeleteBackup;
 import com.yugabyte.yw.commissioner.tasks.MultiTableBackup;
 import com.yugabyte.yw.forms.BackupTableParams;
@@ -201,7 +202,17 @@ public class Scheduler {
       return;
     }
     Backup backup = Backup.create(customerUUID, taskParams);
-    UUID taskUUID = commissioner.submit(TaskType.BackupUniverse, taskParams);
+    UUID taskUUID;
+    try {
+      taskUUID =
+          commissioner.submit(
+              TaskType.BackupUniverse, taskParams, TaskScheduler.Priority.Scheduled);
+    } catch (RuntimeException e) {
+      // The task was rejected, so the backup is never going to be taken.
+      LOG.warn("Could not submit the scheduled backup of universe {}", taskParams.universeUUID, e);
+      backup.transitionState(Backup.BackupState.Failed);
+      return;
+    }
     ScheduleTask.create(taskUUID, schedule.getScheduleUUID());
     LOG.info(
         "Submitted task to backup table {}:{}, task uuid = {}.",
@@ -249,7 +260,16 @@ public class Scheduler {
           "in a locked/paused state");
       return;
     }
-    UUID taskUUID = commissioner.submit(TaskType.MultiTableBackup, taskParams);
+    UUID taskUUID;
+    try {
+      taskUUID =
+          commissioner.submit(
+              TaskType.MultiTableBackup, taskParams, TaskScheduler.Priority.Scheduled);
+    } catch (RuntimeException e) {
+      // The task was rejected, the backup is taken by the next run of the schedule.
+      LOG.warn("Could not submit the scheduled backup of universe {}", taskParams.universeUUID, e);
+      return;
+    }
     ScheduleTask.create(taskUUID, schedule.getScheduleUUID());
     LOG.info(
         "Submitted backup for universe: {}, task uuid = {}.", taskParams.universeUUID, taskUUID);
@@ -275,7 +295,16 @@ public class Scheduler {
     DeleteBackup.Params taskParams = new DeleteBackup.Params();
     taskParams.customerUUID = customer.getUuid();
     taskParams.backupUUID = backup.backupUUID;
-    UUID taskUUID = commissioner.submit(TaskType.DeleteBackup, taskParams);
+    UUID taskUUID;
+    try {
+      taskUUID =
+          commissioner.submit(
+              TaskType.DeleteBackup, taskParams, TaskScheduler.Priority.Maintenance);
+    } catch (RuntimeException e) {
+      // The task was rejected, the backup is still expired on the next scheduler run.
+      LOG.warn("Could not submit the deletion of expired backup {}", backup.backupUUID, e);
+      return;
+    }
     LOG.info("Submitted task to delete backup {}, task uuid = {}.", backup.backupUUID, taskUUID);
     CustomerTask.create(
         customer,
@@ -0,0 +1,12 @@
+-- Copyright (c) YugaByte, Inc.
+
+-- Details of the universe nodes updated since the last full write of the universe details. They
+-- override the nodes of universe.universe_details_json.
+create table if not exists universe_node (
+  universe_uuid                 uuid not null,
+  node_name                     varchar(255) not null,
+  node_details_json             TEXT not null,
+  constraint pk_universe_node primary key (universe_uuid, node_name),
+  constraint fk_universe_node_universe_uuid foreign key (universe_uuid)
+    references universe (universe_uuid) on delete cascade on update cascade
+);
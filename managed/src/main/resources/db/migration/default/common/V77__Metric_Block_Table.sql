@@ -0,0 +1,21 @@
+-- Copyright (c) YugaByte, Inc.
+
+-- Encoded blocks of the platform metric series, such as the health check results and the task
+-- durations, kept by the platform rather than by Prometheus.
+create table if not exists metric_block (
+  uuid                          uuid not null,
+  customer_uuid                 uuid not null,
+  metric_name                   varchar(255) not null,
+  labels_json                   TEXT not null,
+  resolution                    integer not null,
+  block_start                   bigint not null,
+  block_end                     bigint not null,
+  num_points                    integer not null,
+  data                          bytea not null,
+  constraint pk_metric_block primary key (uuid)
+);
+
+create index if not exists ix_metric_block_metric_name
+  on metric_block (customer_uuid, metric_name, resolution, block_start);
+create index if not exists ix_metric_block_resolution_block_end
+  on metric_block (resolution, block_end);
@@ -0,0 +1,25 @@
+-- Copyright (c) YugaByte, Inc.
+
+-- Run by Flyway before the migrations. Folds the node updates of universe_node back into
+-- universe.universe_details_json, so that the migrations reading or rewriting the universe details
+-- see the current nodes. The universes then read the same details, without node updates.
+DO $$
+BEGIN
+  IF to_regclass('universe_node') IS NOT NULL THEN
+    UPDATE universe u
+    SET universe_details_json = jsonb_set(
+      u.universe_details_json::jsonb,
+      '{nodeDetailsSet}',
+      COALESCE(
+        (SELECT jsonb_agg(COALESCE(n.node_details_json::jsonb, e.node) ORDER BY e.idx)
+         FROM jsonb_array_elements(u.universe_details_json::jsonb -> 'nodeDetailsSet')
+           WITH ORDINALITY AS e(node, idx)
+         LEFT JOIN universe_node n
+           ON n.universe_uuid = u.universe_uuid AND n.node_name = e.node ->> 'nodeName'),
+        '[]'::jsonb))::text
+    WHERE jsonb_typeof(u.universe_details_json::jsonb -> 'nodeDetailsSet') = 'array'
+      AND EXISTS (SELECT 1 FROM universe_node n WHERE n.universe_uuid = u.universe_uuid);
+    DELETE FROM universe_node;
+  END IF;
+END
+$$;
@@ -2,6 +2,7 @@
 
 package com.yugabyte.yw.cloud;
 
+import com.google.common.collect.ImmutableSet;
 import com.yugabyte.yw.common.FakeDBApplication;
 import com.yugabyte.yw.common.ModelFactory;
 import com.yugabyte.yw.forms.UniverseDefinitionTaskParams;
@@ -378,4 +379,27 @@ public class UniverseResourceDetailsTest extends FakeDBApplication {
     assertThat(details.ebsPricePerHour, equalTo(0.0));
     assertThat(details.pricePerHour, equalTo(0.0));
   }
+
+  @Test
+  public void testCreateWithSharedContext() {
+    Iterator<NodeDetails> mockIterator = mock(Iterator.class);
+    UniverseDefinitionTaskParams params = setUpValidSSD(mockIterator, 6);
+    params.nodeDetailsSet = ImmutableSet.of(sampleNodeDetails);
+    UniverseResourceDetails.Context context = new UniverseResourceDetails.Context();
+    UniverseResourceDetails details =
+        UniverseResourceDetails.create(params, getApp().config(), context);
+    assertThat(details.pricePerHour, equalTo(instancePrice));
+    assertThat(details.numCores, equalTo(10.0));
+
+    // The prices are read once by the context.
+    PriceComponent.PriceDetails newDetails = new PriceComponent.PriceDetails();
+    newDetails.pricePerHour = 2 * instancePrice;
+    PriceComponent.upsert(provider.uuid, region.code, testInstanceType, newDetails);
+    details = UniverseResourceDetails.create(params, getApp().config(), context);
+    assertThat(details.pricePerHour, equalTo(instancePrice));
+    details =
+        UniverseResourceDetails.create(
+            params, getApp().config(), new UniverseResourceDetails.Context());
+    assertThat(details.pricePerHour, equalTo(2 * instancePrice));
+  }
 }
@@ -11,6 +11,7 @@ import com.yugabyte.yw.common.config.impl.RuntimeConfig;
 import com.yugabyte.yw.forms.CustomerRegisterFormData.AlertingData;
 import com.yugabyte.yw.forms.UniverseDefinitionTaskParams;
 import com.yugabyte.yw.forms.UniverseDefinitionTaskParams.Cluster;
+import com.yugabyte.yw.metrics.TimeSeriesStore;
 import com.yugabyte.yw.models.*;
 import com.yugabyte.yw.models.Alert.State;
 import com.yugabyte.yw.models.Alert.TargetType;
@@ -31,10 +32,13 @@ import play.libs.Json;
 import scala.concurrent.ExecutionContext;
 
 import javax.mail.MessagingException;
+import java.util.ArrayList;
+import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.Assert.*;
 import static org.mockito.Mockito.*;
@@ -70,6 +74,8 @@ public class HealthCheckerTest extends FakeDBApplication {
 
   @Mock private AlertManager mockAlertManager;
 
+  @Mock private TimeSeriesStore mockTimeSeriesStore;
+
   @Mock Config mockRuntimeConfig;
 
   @Before
@@ -109,7 +115,8 @@ public class HealthCheckerTest extends FakeDBApplication {
             mockEmailHelper,
             mockAlertManager,
             null,
-            null) {
+            null,
+            mockTimeSeriesStore) {
           @Override
           RuntimeConfig<Model> getRuntimeConfig() {
             return new RuntimeConfig<>(mockRuntimeConfig);
@@ -274,6 +281,88 @@ public class HealthCheckerTest extends FakeDBApplication {
     verify(mockHealthManager, times(2)).runCommand(eq(defaultProvider), any(), eq(0L));
   }
 
+  @Test
+  public void testUnchangedCheckRefreshesTheLatest() throws InterruptedException {
+    Universe u = setupUniverse("univ1");
+    setupAlertingData(null, false, false);
+    when(mockRuntimeConfig.getDuration(
+            "yb.health.max_unchanged_check_age", TimeUnit.MILLISECONDS))
+        .thenReturn(TimeUnit.HOURS.toMillis(1));
+    List<Date> checkTimes = new ArrayList<>();
+    for (int i = 0; i < 3; i++) {
+      // The check times are in milliseconds.
+      Thread.sleep(2);
+      healthChecker.checkSingleUniverse(
+          new HealthChecker.CheckSingleUniverseParams(u, defaultCustomer, false, false, null));
+      checkTimes.add(HealthCheck.getLatest(u.universeUUID).idKey.checkTime);
+    }
+    verify(mockHealthManager, times(3)).runCommand(eq(defaultProvider), any(), eq(0L));
+    // The checks have the same state: the first one starts the history, the following ones
+    // refresh the latest.
+    List<HealthCheck> checks = HealthCheck.getAll(u.universeUUID);
+    assertEquals(2, checks.size());
+    assertEquals(checkTimes.get(0), checks.get(0).idKey.checkTime);
+    assertEquals(checkTimes.get(2), checks.get(1).idKey.checkTime);
+    assertTrue(checkTimes.get(2).after(checkTimes.get(1)));
+  }
+
+  @Test
+  public void testUnchangedChecksOlderThanMaxAgeAreKept() throws InterruptedException {
+    Universe u = setupUniverse("univ1");
+    setupAlertingData(null, false, false);
+    when(mockRuntimeConfig.getDuration(
+            "yb.health.max_unchanged_check_age", TimeUnit.MILLISECONDS))
+        .thenReturn(0L);
+    for (int i = 0; i < 3; i++) {
+      storeNextCheck(u);
+    }
+    assertEquals(3, HealthCheck.getAll(u.universeUUID).size());
+  }
+
+  @Test
+  public void testUnchangedChecksAfterStateChange() throws InterruptedException {
+    Universe u = setupUniverse("univ1");
+    setupAlertingData(null, false, false);
+    when(mockRuntimeConfig.getDuration(
+            "yb.health.max_unchanged_check_age", TimeUnit.MILLISECONDS))
+        .thenReturn(TimeUnit.HOURS.toMillis(1));
+    Date errorCheckTime = storeNextCheck(u);
+    mockGoodHealthResponse();
+    List<Date> checkTimes = new ArrayList<>();
+    for (int i = 0; i < 3; i++) {
+      checkTimes.add(storeNextCheck(u));
+    }
+    // The first check with the new state is kept as the time of the change, the following
+    // unchanged checks refresh the latest.
+    List<HealthCheck> checks = HealthCheck.getAll(u.universeUUID);
+    assertEquals(3, checks.size());
+    assertEquals(errorCheckTime, checks.get(0).idKey.checkTime);
+    assertEquals(checkTimes.get(0), checks.get(1).idKey.checkTime);
+    assertEquals(checkTimes.get(2), checks.get(2).idKey.checkTime);
+  }
+
+  // Runs a check of the universe and returns the time of the latest stored check.
+  private Date storeNextCheck(Universe u) throws InterruptedException {
+    // The check times are in milliseconds.
+    Thread.sleep(2);
+    healthChecker.checkSingleUniverse(
+        new HealthChecker.CheckSingleUniverseParams(u, defaultCustomer, false, false, null));
+    return HealthCheck.getLatest(u.universeUUID).idKey.checkTime;
+  }
+
+  @Test
+  public void testNodeErrorsRecorded() {
+    Universe u = setupUniverse("univ1");
+    setupAlertingData(null, false, false);
+    healthChecker.checkSingleUniverse(
+        new HealthChecker.CheckSingleUniverseParams(u, defaultCustomer, false, false, null));
+    Map<String, String> labels = new HashMap<>();
+    labels.put("node_prefix", u.getUniverseDetails().nodePrefix);
+    labels.put("exported_instance", dummyNode);
+    verify(mockTimeSeriesStore, times(1))
+        .record(defaultCustomer.uuid, TimeSeriesStore.HEALTH_NODE_ERRORS, labels, 1.0);
+  }
+
   @Test
   public void testSingleUniverseCustomEmail() {
     Universe u = setupUniverse("univ1");
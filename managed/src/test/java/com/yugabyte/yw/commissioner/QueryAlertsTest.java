@@ -5,8 +5,10 @@ package com.yugabyte.yw.commissioner;
 import akka.actor.ActorSystem;
 import akka.actor.Scheduler;
 import com.typesafe.config.Config;
+import com.yugabyte.yw.common.AlertDefinitionTemplate;
 import com.yugabyte.yw.common.AlertManager;
 import com.yugabyte.yw.common.FakeDBApplication;
+import com.yugabyte.yw.common.FanOutExecutor;
 import com.yugabyte.yw.common.ModelFactory;
 import com.yugabyte.yw.common.alerts.AlertDefinitionLabelsBuilder;
 import com.yugabyte.yw.common.config.RuntimeConfigFactory;
@@ -31,13 +33,19 @@ import org.mockito.junit.MockitoRule;
 import scala.concurrent.ExecutionContext;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Set;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.contains;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @RunWith(JUnitParamsRunner.class)
@@ -69,7 +77,13 @@ public class QueryAlertsTest extends FakeDBApplication {
   public void setUp() {
     when(actorSystem.scheduler()).thenReturn(mock(Scheduler.class));
     queryAlerts =
-        new QueryAlerts(executionContext, actorSystem, alertManager, queryHelper, configFactory);
+        new QueryAlerts(
+            executionContext,
+            actorSystem,
+            alertManager,
+            queryHelper,
+            configFactory,
+            new FanOutExecutor(2, 100, 10000));
 
     customer = ModelFactory.testCustomer();
     universe = ModelFactory.createUniverse(customer.getCustomerId());
@@ -151,4 +165,74 @@ public class QueryAlertsTest extends FakeDBApplication {
 
     assertEquals(1 /* initial */ + (alertReused ? 0 : 1), Alert.list(customer.uuid).size());
   }
+
+  @Test
+  public void testProcessAlertDefinitions_BatchesUniverseQueries() {
+    Universe universe1 = ModelFactory.createUniverse("universe-1", customer.getCustomerId());
+    Universe universe2 = ModelFactory.createUniverse("universe-2", customer.getCustomerId());
+    when(configFactory.forUniverse(any(Universe.class))).thenReturn(universeConfig);
+    when(universeConfig.getString("yb.alert.max_clock_skew_ms")).thenReturn("500");
+    AlertDefinition definition1 = createClockSkewDefinition(universe1);
+    AlertDefinition definition2 = createClockSkewDefinition(universe2);
+
+    Entry entry = new Entry();
+    entry.labels = new HashMap<>();
+    entry.labels.put("node_prefix", "universe-1");
+    ArrayList<Entry> queryHelperResult = new ArrayList<>();
+    queryHelperResult.add(entry);
+    when(queryHelper.queryDirect(contains("node_prefix=~\"universe-1|universe-2\"")))
+        .thenReturn(queryHelperResult);
+
+    queryAlerts.processAlertDefinitions(customer.uuid);
+    verify(queryHelper, times(1)).queryDirect(contains("hybrid_clock_skew"));
+    assertEquals(1, Alert.getActiveCustomerAlerts(customer.uuid, definition1.uuid).size());
+    assertEquals(0, Alert.getActiveCustomerAlerts(customer.uuid, definition2.uuid).size());
+  }
+
+  @Test
+  public void testProcessAlertDefinitions_EscapesBatchedNodePrefixes() {
+    Universe universe1 = ModelFactory.createUniverse("universe.1", customer.getCustomerId());
+    Universe universe2 = ModelFactory.createUniverse("universe-2", customer.getCustomerId());
+    when(configFactory.forUniverse(any(Universe.class))).thenReturn(universeConfig);
+    when(universeConfig.getString("yb.alert.max_clock_skew_ms")).thenReturn("500");
+    createClockSkewDefinition(universe1);
+    createClockSkewDefinition(universe2);
+
+    queryAlerts.processAlertDefinitions(customer.uuid);
+    verify(queryHelper, times(1))
+        .queryDirect(contains("node_prefix=~\"universe\\\\.1|universe-2\""));
+  }
+
+  @Test
+  public void testProcessAlertDefinitions_DoesNotBatchCustomQueries() {
+    Universe universe1 = ModelFactory.createUniverse("universe-1", customer.getCustomerId());
+    Universe universe2 = ModelFactory.createUniverse("universe-2", customer.getCustomerId());
+    when(configFactory.forUniverse(any(Universe.class))).thenReturn(universeConfig);
+    for (Universe universe : Arrays.asList(universe1, universe2)) {
+      AlertDefinition.create(
+          customer.uuid,
+          AlertDefinition.TargetType.Universe,
+          "Custom alert",
+          "max by (node_prefix) (up{node_prefix=\"" + universe.name + "\"}) or vector(1)",
+          true,
+          AlertDefinitionLabelsBuilder.create().appendUniverse(universe).get());
+    }
+
+    queryAlerts.processAlertDefinitions(customer.uuid);
+    // The queries are run as they are, once per universe.
+    verify(queryHelper, times(1))
+        .queryDirect("max by (node_prefix) (up{node_prefix=\"universe-1\"}) or vector(1)");
+    verify(queryHelper, times(1))
+        .queryDirect("max by (node_prefix) (up{node_prefix=\"universe-2\"}) or vector(1)");
+  }
+
+  private AlertDefinition createClockSkewDefinition(Universe universe) {
+    return AlertDefinition.create(
+        customer.uuid,
+        AlertDefinition.TargetType.Universe,
+        AlertDefinitionTemplate.CLOCK_SKEW.getName(),
+        AlertDefinitionTemplate.CLOCK_SKEW.buildTemplate(universe.getUniverseDetails().nodePrefix),
+        true,
+        AlertDefinitionLabelsBuilder.create().appendUniverse(universe).get());
+  }
 }
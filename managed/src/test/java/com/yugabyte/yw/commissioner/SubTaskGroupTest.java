@@ -0,0 +1,187 @@
+// Copyright (c) YugaByte, Inc.
+
+package com.yugabyte.yw.commissioner;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.yugabyte.yw.common.FakeDBApplication;
+import com.yugabyte.yw.models.TaskInfo;
+import org.junit.After;
+import org.junit.Test;
+import play.libs.Json;
+
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class SubTaskGroupTest extends FakeDBApplication {
+
+  private final ExecutorService executor = Executors.newCachedThreadPool();
+
+  private final AtomicInteger numRunning = new AtomicInteger();
+
+  private final AtomicInteger maxRunning = new AtomicInteger();
+
+  private final AtomicInteger numRun = new AtomicInteger();
+
+  @After
+  public void tearDown() {
+    executor.shutdownNow();
+  }
+
+  // The name of the class has to be a task type for the task to be added to a group.
+  private class AnsibleSetupServer extends AbstractTaskBase {
+    private final boolean fail;
+
+    private final CountDownLatch latch;
+
+    AnsibleSetupServer(boolean fail, CountDownLatch latch) {
+      this.fail = fail;
+      this.latch = latch;
+    }
+
+    @Override
+    public JsonNode getTaskDetails() {
+      return Json.newObject();
+    }
+
+    @Override
+    public void run() {
+      numRun.incrementAndGet();
+      maxRunning.accumulateAndGet(numRunning.incrementAndGet(), Math::max);
+      try {
+        latch.await(10, TimeUnit.SECONDS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      } finally {
+        numRunning.decrementAndGet();
+      }
+      if (fail) {
+        throw new RuntimeException("Task failed");
+      }
+    }
+  }
+
+  private SubTaskGroup createGroup(
+      String name, int numTasks, int failedTask, boolean ignoreErrors) {
+    CountDownLatch done = new CountDownLatch(0);
+    SubTaskGroup subTaskGroup = new SubTaskGroup(name, executor, ignoreErrors);
+    for (int i = 0; i < numTasks; i++) {
+      subTaskGroup.addTask(new AnsibleSetupServer(i == failedTask, done));
+    }
+    return subTaskGroup;
+  }
+
+  @Test
+  public void testRunIsNotBlocking() {
+    CountDownLatch latch = new CountDownLatch(1);
+    SubTaskGroup subTaskGroup = new SubTaskGroup("test", executor);
+    subTaskGroup.addTask(new AnsibleSetupServer(false, latch));
+    subTaskGroup.addTask(new AnsibleSetupServer(false, latch));
+    subTaskGroup.run();
+    CompletableFuture<Boolean> future = subTaskGroup.getCompletionFuture();
+    assertFalse(future.isDone());
+
+    latch.countDown();
+    assertTrue(subTaskGroup.waitFor());
+    assertTrue(future.isDone());
+    assertEquals(2, subTaskGroup.getNumTasksDone());
+  }
+
+  @Test
+  public void testRunsAllTasks() {
+    SubTaskGroup subTaskGroup = createGroup("test", 10, -1, false);
+    subTaskGroup.run();
+    assertTrue(subTaskGroup.waitFor());
+    assertEquals(10, numRun.get());
+    assertEquals(10, subTaskGroup.getNumTasksDone());
+  }
+
+  @Test
+  public void testMaxParallelTasks() {
+    SubTaskGroup subTaskGroup = createGroup("test", 10, -1, false);
+    subTaskGroup.setMaxParallelTasks(2);
+    subTaskGroup.run();
+    assertTrue(subTaskGroup.waitFor());
+    assertEquals(10, numRun.get());
+    assertTrue(maxRunning.get() <= 2);
+    assertEquals(10, subTaskGroup.getNumTasksDone());
+  }
+
+  @Test
+  public void testFailureSkipsPendingTasks() {
+    SubTaskGroup subTaskGroup = createGroup("test", 5, 0, false);
+    subTaskGroup.setMaxParallelTasks(1);
+    subTaskGroup.run();
+    assertFalse(subTaskGroup.waitFor());
+    assertEquals(1, numRun.get());
+    assertEquals(0, subTaskGroup.getNumTasksDone());
+  }
+
+  @Test
+  public void testFailureCancelsRunningTasks() {
+    SubTaskGroup subTaskGroup = new SubTaskGroup("test", executor);
+    subTaskGroup.addTask(new AnsibleSetupServer(false, new CountDownLatch(1)));
+    subTaskGroup.addTask(new AnsibleSetupServer(true, new CountDownLatch(0)));
+    long startMs = System.currentTimeMillis();
+    subTaskGroup.run();
+    assertFalse(subTaskGroup.waitFor());
+    // The blocked task is cancelled rather than waited for.
+    assertTrue(System.currentTimeMillis() - startMs < TimeUnit.SECONDS.toMillis(5));
+    assertEquals(0, subTaskGroup.getNumTasksDone());
+  }
+
+  @Test
+  public void testFailureWithIgnoreErrors() {
+    SubTaskGroup subTaskGroup = createGroup("test", 5, 0, true);
+    subTaskGroup.setMaxParallelTasks(1);
+    subTaskGroup.run();
+    assertFalse(subTaskGroup.waitFor());
+    assertEquals(5, numRun.get());
+    assertEquals(4, subTaskGroup.getNumTasksDone());
+  }
+
+  @Test
+  public void testEmptyGroup() {
+    SubTaskGroup subTaskGroup = new SubTaskGroup("test", executor);
+    assertTrue(subTaskGroup.waitFor());
+    subTaskGroup.run();
+    assertTrue(subTaskGroup.getCompletionFuture().isDone());
+    assertTrue(subTaskGroup.waitFor());
+  }
+
+  @Test
+  public void testQueueRunsGroupsInOrder() {
+    SubTaskGroupQueue queue = new SubTaskGroupQueue(UUID.randomUUID());
+    SubTaskGroup group1 = createGroup("group1", 3, -1, false);
+    SubTaskGroup group2 = createGroup("group2", 3, -1, false);
+    queue.add(group1);
+    queue.add(group2);
+    queue.runAsync().join();
+    assertEquals(TaskInfo.State.Success, group1.getUserSubTaskState());
+    assertEquals(TaskInfo.State.Success, group2.getUserSubTaskState());
+    assertEquals(6, numRun.get());
+  }
+
+  @Test
+  public void testQueueStopsOnFailure() {
+    SubTaskGroupQueue queue = new SubTaskGroupQueue(UUID.randomUUID());
+    SubTaskGroup group1 = createGroup("group1", 3, 1, false);
+    SubTaskGroup group2 = createGroup("group2", 3, -1, false);
+    queue.add(group1);
+    queue.add(group2);
+    try {
+      queue.run();
+      fail("Expected the queue to fail");
+    } catch (RuntimeException e) {
+      assertTrue(e.getMessage().contains("group1"));
+    }
+    assertEquals(TaskInfo.State.Failure, group1.getUserSubTaskState());
+    assertEquals(TaskInfo.State.Initializing, group2.getUserSubTaskState());
+  }
+}
@@ -0,0 +1,167 @@
+// Copyright (c) YugaByte, Inc.
+
+package com.yugabyte.yw.commissioner;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.google.common.collect.ImmutableList;
+import com.yugabyte.yw.common.FakeDBApplication;
+import com.yugabyte.yw.models.TaskInfo;
+import com.yugabyte.yw.models.helpers.TaskType;
+import org.junit.After;
+import org.junit.Test;
+import play.libs.Json;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.Assert.*;
+
+public class TaskGraphTest extends FakeDBApplication {
+
+  private final ExecutorService executor = Executors.newCachedThreadPool();
+
+  private final UUID userTaskUUID = UUID.randomUUID();
+
+  // The start and end events of the tasks, in order.
+  private final List<String> events = Collections.synchronizedList(new ArrayList<>());
+
+  @After
+  public void tearDown() {
+    executor.shutdownNow();
+  }
+
+  // The name of the class has to be a task type for the task to be added to a group.
+  private class AnsibleSetupServer extends AbstractTaskBase {
+    private final String name;
+
+    private final boolean fail;
+
+    AnsibleSetupServer(String name, boolean fail) {
+      this.name = name;
+      this.fail = fail;
+    }
+
+    @Override
+    public JsonNode getTaskDetails() {
+      return Json.newObject();
+    }
+
+    @Override
+    public void run() {
+      events.add("start " + name);
+      try {
+        Thread.sleep(50);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      events.add("end " + name);
+      if (fail) {
+        throw new RuntimeException("Task " + name + " failed");
+      }
+    }
+  }
+
+  private SubTaskGroupQueue createQueue(String name, boolean fail) {
+    SubTaskGroupQueue queue = new SubTaskGroupQueue(userTaskUUID);
+    SubTaskGroup subTaskGroup = new SubTaskGroup(name, executor);
+    subTaskGroup.addTask(new AnsibleSetupServer(name, fail));
+    queue.add(subTaskGroup);
+    return queue;
+  }
+
+  private TaskGraph.Step addStep(TaskGraph graph, String name, TaskGraph.Step... dependencies) {
+    return graph.addStep(name, createQueue(name, false), ImmutableList.copyOf(dependencies));
+  }
+
+  // Returns true if the two tasks ran at the same time.
+  private boolean overlap(String name1, String name2) {
+    return events.indexOf("start " + name1) < events.indexOf("end " + name2)
+        && events.indexOf("start " + name2) < events.indexOf("end " + name1);
+  }
+
+  @Test
+  public void testDependencies() {
+    TaskGraph graph = new TaskGraph(userTaskUUID);
+    TaskGraph.Step a = addStep(graph, "a");
+    TaskGraph.Step b = addStep(graph, "b", a);
+    TaskGraph.Step c = addStep(graph, "c", a);
+    addStep(graph, "d", b, c);
+    graph.run();
+
+    assertEquals(8, events.size());
+    assertTrue(events.indexOf("end a") < events.indexOf("start b"));
+    assertTrue(events.indexOf("end a") < events.indexOf("start c"));
+    assertTrue(overlap("b", "c"));
+    assertTrue(events.indexOf("end b") < events.indexOf("start d"));
+    assertTrue(events.indexOf("end c") < events.indexOf("start d"));
+  }
+
+  @Test
+  public void testResources() {
+    TaskGraph graph = new TaskGraph(userTaskUUID);
+    addStep(graph, "az1-node1").holding("TSERVER", "az1");
+    addStep(graph, "az2-node1").holding("TSERVER", "az2");
+    addStep(graph, "az1-node2").holding("TSERVER", "az1");
+    addStep(graph, "master").holding("MASTER", "node1");
+    graph.run();
+
+    assertEquals(8, events.size());
+    // The nodes of the same zone run together, after them the nodes of the other zone.
+    assertTrue(overlap("az1-node1", "az1-node2"));
+    assertFalse(overlap("az1-node1", "az2-node1"));
+    assertFalse(overlap("az1-node2", "az2-node1"));
+    // Other resources are not constrained.
+    assertTrue(overlap("az1-node1", "master"));
+  }
+
+  @Test
+  public void testFailureStopsPendingSteps() {
+    TaskGraph graph = new TaskGraph(userTaskUUID);
+    TaskGraph.Step a = graph.addStep("a", createQueue("a", true), Collections.emptyList());
+    addStep(graph, "b", a);
+    addStep(graph, "c");
+    try {
+      graph.run();
+      fail("Expected the graph to fail");
+    } catch (RuntimeException e) {
+      assertTrue(e.getMessage().contains("a"));
+    }
+    assertFalse(events.contains("start b"));
+    // The independent step ran concurrently.
+    assertTrue(events.contains("end c"));
+  }
+
+  @Test
+  public void testPositions() {
+    TaskGraph graph = new TaskGraph(userTaskUUID);
+    // Both task lists are the first one of their queue.
+    graph.addStep("a", createQueue("a", false), Collections.emptyList());
+    graph.addStep("b", createQueue("b", false), Collections.emptyList());
+    graph.run();
+
+    TaskInfo userTaskInfo = new TaskInfo(TaskType.UpgradeUniverse);
+    userTaskInfo.setTaskUUID(userTaskUUID);
+    List<TaskInfo> subTasks = userTaskInfo.getSubTasks();
+    assertEquals(2, subTasks.size());
+    assertEquals(0, subTasks.get(0).getPosition());
+    assertEquals(1, subTasks.get(1).getPosition());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testUnknownDependency() {
+    TaskGraph other = new TaskGraph(userTaskUUID);
+    TaskGraph.Step a = addStep(other, "a");
+    TaskGraph graph = new TaskGraph(userTaskUUID);
+    addStep(graph, "b", a);
+  }
+
+  @Test
+  public void testEmptyGraph() {
+    new TaskGraph(userTaskUUID).run();
+    assertTrue(events.isEmpty());
+  }
+}
@@ -0,0 +1,127 @@
+// Copyright (c) YugaByte, Inc.
+
+package com.yugabyte.yw.commissioner;
+
+import com.yugabyte.yw.common.FakeDBApplication;
+import com.yugabyte.yw.models.TaskInfo;
+import com.yugabyte.yw.models.helpers.TaskType;
+import org.junit.Before;
+import org.junit.Test;
+import play.libs.Json;
+
+import java.util.Date;
+import java.util.UUID;
+
+import static org.junit.Assert.*;
+
+public class TaskInfoWriteBufferTest extends FakeDBApplication {
+
+  private TaskInfoWriteBuffer writeBuffer;
+
+  @Before
+  public void setUp() {
+    // No background flushes, the test flushes explicitly.
+    writeBuffer = new TaskInfoWriteBuffer();
+  }
+
+  private TaskInfo newTaskInfo() {
+    TaskInfo taskInfo = new TaskInfo(TaskType.AnsibleSetupServer);
+    taskInfo.setTaskUUID(UUID.randomUUID());
+    taskInfo.setTaskDetails(Json.newObject());
+    taskInfo.setOwner("test");
+    return taskInfo;
+  }
+
+  @Test
+  public void testSaveIsWrittenOnFlush() {
+    TaskInfo taskInfo = newTaskInfo();
+    writeBuffer.insert(taskInfo);
+    assertNull(TaskInfo.get(taskInfo.getTaskUUID()));
+
+    writeBuffer.flush();
+    TaskInfo saved = TaskInfo.get(taskInfo.getTaskUUID());
+    assertNotNull(saved);
+    assertEquals(TaskInfo.State.Created, saved.getTaskState());
+  }
+
+  @Test
+  public void testUpdatesAreCoalesced() {
+    UUID parentUUID = UUID.randomUUID();
+    TaskInfo taskInfo = newTaskInfo();
+    writeBuffer.insert(taskInfo);
+    taskInfo.setSubTaskGroupType(UserTaskDetails.SubTaskGroupType.Provisioning);
+    writeBuffer.save(taskInfo);
+    taskInfo.setPosition(3);
+    taskInfo.setParentUuid(parentUUID);
+    writeBuffer.save(taskInfo);
+    taskInfo.setTaskState(TaskInfo.State.Running);
+    writeBuffer.saveAndFlush(taskInfo);
+
+    TaskInfo saved = TaskInfo.get(taskInfo.getTaskUUID());
+    assertEquals(UserTaskDetails.SubTaskGroupType.Provisioning, saved.getSubTaskGroupType());
+    assertEquals(3, saved.getPosition());
+    assertEquals(parentUUID, saved.getParentUUID());
+    assertEquals(TaskInfo.State.Running, saved.getTaskState());
+
+    taskInfo.setTaskState(TaskInfo.State.Success);
+    writeBuffer.save(taskInfo);
+    writeBuffer.flush();
+    assertEquals(TaskInfo.State.Success, TaskInfo.get(taskInfo.getTaskUUID()).getTaskState());
+  }
+
+  @Test
+  public void testTouchUpdatesTimestamp() throws InterruptedException {
+    TaskInfo taskInfo = newTaskInfo();
+    writeBuffer.insert(taskInfo);
+    writeBuffer.flush();
+    Date updateTime = TaskInfo.get(taskInfo.getTaskUUID()).getLastUpdateTime();
+
+    Thread.sleep(10);
+    writeBuffer.touch(taskInfo.getTaskUUID());
+    writeBuffer.flush();
+    assertTrue(TaskInfo.get(taskInfo.getTaskUUID()).getLastUpdateTime().after(updateTime));
+  }
+
+  @Test
+  public void testFlushWithoutChanges() {
+    writeBuffer.flush();
+    TaskInfo taskInfo = newTaskInfo();
+    writeBuffer.insert(taskInfo);
+    writeBuffer.flush();
+    // Nothing is pending anymore.
+    writeBuffer.flush();
+    assertNotNull(TaskInfo.get(taskInfo.getTaskUUID()));
+  }
+
+  @Test
+  public void testSnapshotIsWritten() {
+    TaskInfo taskInfo = newTaskInfo();
+    writeBuffer.insert(taskInfo);
+    // The changes made after the TaskInfo was buffered are not written.
+    taskInfo.setTaskState(TaskInfo.State.Running);
+    writeBuffer.flush();
+    assertEquals(TaskInfo.State.Created, TaskInfo.get(taskInfo.getTaskUUID()).getTaskState());
+  }
+
+  @Test
+  public void testFailedWriteIsRetried() {
+    TaskInfo taskInfo = newTaskInfo();
+    // The owner is required.
+    taskInfo.setOwner(null);
+    writeBuffer.insert(taskInfo);
+    try {
+      writeBuffer.flush();
+      fail("Expected the write to fail");
+    } catch (RuntimeException e) {
+      // Expected.
+    }
+    assertNull(TaskInfo.get(taskInfo.getTaskUUID()));
+
+    // The failed insert is combined with the following changes.
+    taskInfo.setOwner("test");
+    taskInfo.setTaskState(TaskInfo.State.Running);
+    writeBuffer.save(taskInfo);
+    writeBuffer.flush();
+    assertEquals(TaskInfo.State.Running, TaskInfo.get(taskInfo.getTaskUUID()).getTaskState());
+  }
+}
@@ -0,0 +1,163 @@
+// Copyright (c) YugaByte, Inc.
+
+package com.yugabyte.yw.commissioner;
+
+import com.yugabyte.yw.commissioner.TaskScheduler.Priority;
+import com.yugabyte.yw.common.YWServiceException;
+import com.yugabyte.yw.models.helpers.TaskType;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class TaskSchedulerTest {
+
+  private final ExecutorService executor = Executors.newCachedThreadPool();
+
+  // The names of the tasks in the order they started.
+  private final List<String> started = Collections.synchronizedList(new ArrayList<>());
+
+  @After
+  public void tearDown() {
+    executor.shutdownNow();
+  }
+
+  private static TaskScheduler.Limits limits(int maxRunning, int perCustomer, int perType) {
+    TaskScheduler.Limits limits = new TaskScheduler.Limits();
+    limits.maxRunningTasks = maxRunning;
+    limits.maxRunningTasksPerCustomer = perCustomer;
+    limits.maxRunningTasksPerType = perType;
+    return limits;
+  }
+
+  // Returns a task which records its start and then waits for the latch.
+  private Runnable blockingTask(String name, CountDownLatch latch) {
+    return () -> {
+      started.add(name);
+      try {
+        latch.await();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    };
+  }
+
+  private void waitForStarted(int numStarted) throws InterruptedException {
+    long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(10);
+    while (started.size() < numStarted && System.currentTimeMillis() < deadline) {
+      Thread.sleep(10);
+    }
+    assertEquals(numStarted, started.size());
+  }
+
+  private void waitForRunning(TaskScheduler scheduler, int numRunning)
+      throws InterruptedException {
+    long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(10);
+    while (scheduler.getNumRunning() != numRunning && System.currentTimeMillis() < deadline) {
+      Thread.sleep(10);
+    }
+    assertEquals(numRunning, scheduler.getNumRunning());
+  }
+
+  @Test
+  public void testPerCustomerLimit() throws InterruptedException {
+    TaskScheduler scheduler = new TaskScheduler(executor, limits(10, 1, 10));
+    UUID customer1 = UUID.randomUUID();
+    UUID customer2 = UUID.randomUUID();
+    CountDownLatch latch1 = new CountDownLatch(1);
+    CountDownLatch latch2 = new CountDownLatch(1);
+    scheduler.submit(
+        blockingTask("a", latch1), TaskType.CreateUniverse, customer1, Priority.Interactive);
+    scheduler.submit(
+        blockingTask("b", latch2), TaskType.CreateUniverse, customer1, Priority.Interactive);
+    // The task of the other customer is not blocked by the queued task of the first customer.
+    scheduler.submit(
+        blockingTask("c", latch2), TaskType.CreateUniverse, customer2, Priority.Interactive);
+    waitForStarted(2);
+    assertEquals(1, scheduler.getNumQueued(Priority.Interactive));
+    assertTrue(started.contains("a"));
+    assertTrue(started.contains("c"));
+
+    latch1.countDown();
+    waitForStarted(3);
+    assertEquals("b", started.get(2));
+    assertEquals(0, scheduler.getNumQueued(Priority.Interactive));
+    latch2.countDown();
+    waitForRunning(scheduler, 0);
+  }
+
+  @Test
+  public void testPerTaskTypeLimit() throws InterruptedException {
+    TaskScheduler scheduler = new TaskScheduler(executor, limits(10, 10, 1));
+    CountDownLatch latch = new CountDownLatch(1);
+    scheduler.submit(blockingTask("a", latch), TaskType.BackupUniverse, null, Priority.Scheduled);
+    scheduler.submit(blockingTask("b", latch), TaskType.BackupUniverse, null, Priority.Scheduled);
+    scheduler.submit(blockingTask("c", latch), TaskType.DeleteBackup, null, Priority.Scheduled);
+    waitForStarted(2);
+    assertEquals(1, scheduler.getNumQueued(Priority.Scheduled));
+    assertFalse(started.contains("b"));
+
+    latch.countDown();
+    waitForStarted(3);
+    waitForRunning(scheduler, 0);
+  }
+
+  @Test
+  public void testPriorities() throws InterruptedException {
+    TaskScheduler scheduler = new TaskScheduler(executor, limits(1, 10, 10));
+    CountDownLatch latch = new CountDownLatch(1);
+    CountDownLatch done = new CountDownLatch(0);
+    scheduler.submit(
+        blockingTask("first", latch), TaskType.CreateUniverse, null, Priority.Interactive);
+    waitForStarted(1);
+    scheduler.submit(
+        blockingTask("maintenance", done), TaskType.DeleteBackup, null, Priority.Maintenance);
+    scheduler.submit(
+        blockingTask("scheduled", done), TaskType.BackupUniverse, null, Priority.Scheduled);
+    scheduler.submit(
+        blockingTask("interactive", done), TaskType.EditUniverse, null, Priority.Interactive);
+    assertEquals(1, scheduler.getNumRunning());
+
+    latch.countDown();
+    waitForStarted(4);
+    assertEquals("interactive", started.get(1));
+    assertEquals("scheduled", started.get(2));
+    assertEquals("maintenance", started.get(3));
+    waitForRunning(scheduler, 0);
+  }
+
+  @Test
+  public void testAdmissionControl() throws InterruptedException {
+    TaskScheduler.Limits limits = limits(1, 10, 10);
+    limits.maxQueuedTasks.put(Priority.Scheduled, 1);
+    TaskScheduler scheduler = new TaskScheduler(executor, limits);
+    CountDownLatch latch = new CountDownLatch(1);
+    scheduler.submit(blockingTask("a", latch), TaskType.BackupUniverse, null, Priority.Scheduled);
+    waitForStarted(1);
+    scheduler.checkAdmission(TaskType.BackupUniverse, Priority.Scheduled);
+    scheduler.submit(blockingTask("b", latch), TaskType.BackupUniverse, null, Priority.Scheduled);
+
+    try {
+      scheduler.checkAdmission(TaskType.BackupUniverse, Priority.Scheduled);
+      fail("Expected the task to be rejected");
+    } catch (YWServiceException e) {
+      assertTrue(e.getMessage().contains("Too many Scheduled tasks"));
+    }
+    // Other priorities are not limited.
+    scheduler.checkAdmission(TaskType.CreateUniverse, Priority.Interactive);
+
+    latch.countDown();
+    waitForStarted(2);
+    waitForRunning(scheduler, 0);
+    scheduler.checkAdmission(TaskType.BackupUniverse, Priority.Scheduled);
+  }
+}
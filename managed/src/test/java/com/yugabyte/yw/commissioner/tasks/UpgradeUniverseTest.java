@@ -10,7 +10,9 @@ import com.yugabyte.yw.commissioner.Commissioner;
 import com.yugabyte.yw.commissioner.UserTaskDetails;
 import com.yugabyte.yw.commissioner.tasks.UniverseDefinitionTaskBase.ServerType;
 import com.yugabyte.yw.commissioner.tasks.params.NodeTaskParams;
+import com.yugabyte.yw.commissioner.tasks.subtasks.AnsibleClusterServerCtl;
 import com.yugabyte.yw.common.ApiUtils;
+import com.yugabyte.yw.common.NodeManager;
 import com.yugabyte.yw.common.PlacementInfoUtil;
 import com.yugabyte.yw.common.ShellResponse;
 import com.yugabyte.yw.common.TestHelper;
@@ -41,6 +43,8 @@ import java.io.File;
 import java.io.IOException;
 import java.security.NoSuchAlgorithmException;
 import java.util.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 import static com.yugabyte.yw.commissioner.UserTaskDetails.SubTaskGroupType.DownloadingSoftware;
@@ -1341,6 +1345,129 @@ public class UpgradeUniverseTest extends CommissionerBaseTest {
     assertEquals(TaskInfo.State.Success, taskInfo.getTaskState());
   }
 
+  // Sets up a universe with RF 3 where each of the zones holds the given number of replicas, and
+  // two nodes per replica.
+  private void setUpUniverseForParallelUpgrade(int... zoneReplicas) {
+    UserIntent userIntent = new UserIntent();
+    userIntent.replicationFactor = 3;
+    userIntent.ybSoftwareVersion = "old-version";
+    userIntent.accessKeyCode = "demo-access";
+    userIntent.regionList = ImmutableList.of(region.uuid);
+    PlacementInfo pi = new PlacementInfo();
+    AvailabilityZone[] zones = {az1, az2, az3};
+    for (int i = 0; i < zoneReplicas.length; i++) {
+      PlacementInfoUtil.addPlacementZone(zones[i].uuid, pi, zoneReplicas[i], 2, i == 0);
+      userIntent.numNodes += 2;
+    }
+    defaultUniverse =
+        Universe.saveDetails(
+            defaultUniverse.universeUUID, ApiUtils.mockUniverseUpdater(userIntent, pi, true));
+    RuntimeConfigEntry.upsert(
+        defaultUniverse, UpgradeUniverse.PARALLEL_ROLLING_UPGRADE_KEY, "true");
+  }
+
+  // Records, every time a server of the process type is stopped, the nodes of the servers of the
+  // process type which are down at that time. The first stop waits for a second one for a while,
+  // so that the servers which are allowed to be down at the same time are.
+  private List<Set<String>> recordDownNodes(ServerType processType) {
+    Set<String> downNodes = new HashSet<>();
+    List<Set<String>> downNodesAtStop = Collections.synchronizedList(new ArrayList<>());
+    CountDownLatch firstStops = new CountDownLatch(2);
+    when(mockNodeManager.nodeCommand(eq(NodeManager.NodeCommandType.Control), any()))
+        .thenAnswer(
+            invocation -> {
+              AnsibleClusterServerCtl.Params params =
+                  (AnsibleClusterServerCtl.Params) invocation.getArguments()[1];
+              if (!params.process.equals(processType.toString().toLowerCase())) {
+                return dummyShellResponse;
+              }
+              if (params.command.equals("stop")) {
+                synchronized (downNodes) {
+                  downNodes.add(params.nodeName);
+                  downNodesAtStop.add(new HashSet<>(downNodes));
+                }
+                firstStops.countDown();
+                firstStops.await(2, TimeUnit.SECONDS);
+              } else if (params.command.equals("start")) {
+                synchronized (downNodes) {
+                  downNodes.remove(params.nodeName);
+                }
+              }
+              return dummyShellResponse;
+            });
+    return downNodesAtStop;
+  }
+
+  private Set<UUID> getZones(Set<String> nodeNames) {
+    return nodeNames
+        .stream()
+        .map(nodeName -> defaultUniverse.getNode(nodeName).azUuid)
+        .collect(Collectors.toSet());
+  }
+
+  @Test
+  public void testParallelRollingRestartMasters() {
+    setUpUniverseForParallelUpgrade(1, 1, 1);
+    List<Set<String>> downNodesAtStop = recordDownNodes(MASTER);
+
+    UpgradeUniverse.Params taskParams = new UpgradeUniverse.Params();
+    TaskInfo taskInfo =
+        submitTask(taskParams, UpgradeUniverse.UpgradeTaskType.Restart, defaultUniverse.version);
+    assertEquals(TaskInfo.State.Success, taskInfo.getTaskState());
+
+    // The masters are restarted one at a time.
+    assertEquals(3, downNodesAtStop.size());
+    for (Set<String> downNodes : downNodesAtStop) {
+      assertEquals(1, downNodes.size());
+    }
+  }
+
+  @Test
+  public void testParallelRollingRestartTServersByZone() {
+    setUpUniverseForParallelUpgrade(1, 1, 1);
+    List<Set<String>> downNodesAtStop = recordDownNodes(TSERVER);
+
+    UpgradeUniverse.Params taskParams = new UpgradeUniverse.Params();
+    TaskInfo taskInfo =
+        submitTask(taskParams, UpgradeUniverse.UpgradeTaskType.Restart, defaultUniverse.version);
+    assertEquals(TaskInfo.State.Success, taskInfo.getTaskState());
+
+    // The tservers of a zone are restarted together, one zone at a time.
+    assertEquals(6, downNodesAtStop.size());
+    for (Set<String> downNodes : downNodesAtStop) {
+      assertEquals(1, getZones(downNodes).size());
+    }
+    assertTrue(downNodesAtStop.stream().anyMatch(downNodes -> downNodes.size() == 2));
+    // The load balancer is disabled during the tserver restarts, and enabled again after them.
+    Map<Integer, List<TaskInfo>> subTasksByPosition =
+        taskInfo.getSubTasks().stream().collect(Collectors.groupingBy(w -> w.getPosition()));
+    assertEquals(
+        2,
+        subTasksByPosition
+            .values()
+            .stream()
+            .filter(tasks -> tasks.get(0).getTaskType() == TaskType.LoadBalancerStateChange)
+            .count());
+  }
+
+  @Test
+  public void testParallelRollingRestartTServersWithMajorityZone() {
+    // The first zone holds a majority of the replicas, so its tservers can't be down together.
+    setUpUniverseForParallelUpgrade(2, 1);
+    List<Set<String>> downNodesAtStop = recordDownNodes(TSERVER);
+
+    UpgradeUniverse.Params taskParams = new UpgradeUniverse.Params();
+    TaskInfo taskInfo =
+        submitTask(taskParams, UpgradeUniverse.UpgradeTaskType.Restart, defaultUniverse.version);
+    assertEquals(TaskInfo.State.Success, taskInfo.getTaskState());
+
+    // The tservers are restarted one at a time.
+    assertEquals(4, downNodesAtStop.size());
+    for (Set<String> downNodes : downNodesAtStop) {
+      assertEquals(1, downNodes.size());
+    }
+  }
+
   @Test
   public void testCertUpdateRolling() {
     defaultUniverse.save();
@@ -6,10 +6,13 @@ import static org.junit.Assert.assertEquals;
 import static org.mockito.Mockito.any;
 import static org.mockito.Mockito.anyString;
 import static org.mockito.Mockito.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.startsWith;
 
 import java.util.Collections;
 import java.util.List;
@@ -20,12 +23,14 @@ import javax.mail.MessagingException;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
 
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigFactory;
 import com.yugabyte.yw.forms.CustomerRegisterFormData.SmtpData;
 import com.yugabyte.yw.models.Alert;
+import com.yugabyte.yw.models.AlertDefinition;
 import com.yugabyte.yw.models.Customer;
 import com.yugabyte.yw.models.Universe;
 
@@ -36,15 +41,22 @@ public class AlertManagerTest extends FakeDBApplication {
 
   private static final String ALERT_TEST_MESSAGE = "Test message";
 
+  private static final Config CONFIG =
+      ConfigFactory.parseString(
+          "yb.alert.notifications {"
+              + " max_queued = 3, max_batch_size = 2, batch_interval = 1 hour,"
+              + " max_attempts = 2, retry_delay = 10 ms }");
+
   private Customer defaultCustomer;
 
   @Mock private EmailHelper emailHelper;
 
-  @InjectMocks private AlertManager am;
+  private AlertManager am;
 
   @Before
   public void setUp() {
     defaultCustomer = ModelFactory.testCustomer();
+    am = new AlertManager(emailHelper, CONFIG);
   }
 
   @Test
@@ -207,6 +219,175 @@ public class AlertManagerTest extends FakeDBApplication {
     assertEquals(Alert.State.CREATED, alerts.get(0).state);
   }
 
+  private Alert createAlert(String errorCode) {
+    Alert alert =
+        Alert.create(
+            defaultCustomer.uuid,
+            UUID.randomUUID(),
+            Alert.TargetType.UniverseType,
+            errorCode,
+            "Warning",
+            ALERT_TEST_MESSAGE);
+    alert.sendEmail = true;
+    return alert;
+  }
+
+  @Test
+  public void testTransitionAlert_EmailQueued() throws MessagingException {
+    SmtpData smtpData = configureSmtp();
+    Alert alert = createAlert("errorCode");
+
+    am.transitionAlert(alert);
+    // The alert moves to the new state once notified.
+    assertEquals(Alert.State.CREATED, Alert.get(alert.uuid).state);
+    verify(emailHelper, never()).sendEmail(any(), anyString(), anyString(), any(), any());
+
+    am.sendQueued();
+    verify(emailHelper, times(1))
+        .sendEmail(
+            eq(defaultCustomer),
+            startsWith("Yugabyte Platform Alert - "),
+            eq("to@to.com"),
+            eq(smtpData),
+            any());
+    assertEquals(Alert.State.ACTIVE, Alert.get(alert.uuid).state);
+  }
+
+  @Test
+  public void testTransitionAlert_NotQueuedTwice() throws MessagingException {
+    configureSmtp();
+    Alert alert = createAlert("errorCode");
+
+    am.transitionAlert(alert);
+    am.transitionAlert(alert);
+    am.sendQueued();
+    verify(emailHelper, times(1)).sendEmail(any(), anyString(), anyString(), any(), any());
+  }
+
+  @Test
+  public void testTransitionAlert_StaleEmailNotSent() throws MessagingException {
+    Alert alert = createAlert("errorCode");
+
+    am.transitionAlert(alert);
+    // Resolved before it was notified as firing.
+    am.resolveAlerts(defaultCustomer.uuid, alert.targetUUID, "errorCode");
+    am.sendQueued();
+    verify(emailHelper, never()).sendEmail(any(), anyString(), anyString(), any(), any());
+    assertEquals(Alert.State.RESOLVED, Alert.get(alert.uuid).state);
+  }
+
+  @Test
+  public void testQueuedEmails_BatchedPerCustomer() throws MessagingException {
+    SmtpData smtpData = configureSmtp();
+    for (int i = 0; i < 3; i++) {
+      am.transitionAlert(createAlert("errorCode" + i));
+    }
+    // A fourth notification doesn't fit in the queue.
+    Alert notQueued = createAlert("errorCode3");
+    am.transitionAlert(notQueued);
+
+    am.sendQueued();
+    // Three alerts, in batches of at most two alerts.
+    verify(emailHelper, times(1))
+        .sendEmail(
+            eq(defaultCustomer),
+            startsWith("Yugabyte Platform Alerts - "),
+            anyString(),
+            eq(smtpData),
+            any());
+    verify(emailHelper, times(1))
+        .sendEmail(
+            eq(defaultCustomer),
+            startsWith("Yugabyte Platform Alert - "),
+            anyString(),
+            eq(smtpData),
+            any());
+
+    am.sendQueued();
+    verify(emailHelper, times(2)).sendEmail(any(), anyString(), anyString(), any(), any());
+
+    // The alert which didn't fit kept its state, and is queued by the next transition.
+    assertEquals(Alert.State.CREATED, Alert.get(notQueued.uuid).state);
+    am.transitionAlert(notQueued);
+    am.sendQueued();
+    verify(emailHelper, times(3)).sendEmail(any(), anyString(), anyString(), any(), any());
+    assertEquals(Alert.State.ACTIVE, Alert.get(notQueued.uuid).state);
+  }
+
+  @Test
+  public void testQueuedEmails_SkipsOnlyFailingAlert() throws MessagingException {
+    SmtpData smtpData = configureSmtp();
+    // The universe of the definition can't be found.
+    AlertDefinition definition =
+        AlertDefinition.create(
+            defaultCustomer.uuid,
+            AlertDefinition.TargetType.Universe,
+            "alertDefinition",
+            "query",
+            true,
+            Collections.emptyList());
+    Alert failing =
+        Alert.create(
+            defaultCustomer.uuid,
+            UUID.randomUUID(),
+            Alert.TargetType.UniverseType,
+            "errorCode",
+            "Warning",
+            ALERT_TEST_MESSAGE,
+            true,
+            definition.uuid,
+            Collections.emptyList());
+    Alert alert = createAlert("errorCode2");
+
+    am.transitionAlert(failing);
+    am.transitionAlert(alert);
+    am.sendQueued();
+    verify(emailHelper, times(1))
+        .sendEmail(
+            eq(defaultCustomer),
+            startsWith("Yugabyte Platform Alert - "),
+            anyString(),
+            eq(smtpData),
+            any());
+    assertEquals(Alert.State.ACTIVE, Alert.get(alert.uuid).state);
+  }
+
+  @Test
+  public void testFlush_SendsPendingEmails() throws MessagingException {
+    configureSmtp();
+    Alert alert = createAlert("errorCode");
+
+    am.transitionAlert(alert);
+    am.flush();
+    verify(emailHelper, times(1)).sendEmail(any(), anyString(), anyString(), any(), any());
+    assertEquals(Alert.State.ACTIVE, Alert.get(alert.uuid).state);
+  }
+
+  @Test
+  public void testQueuedEmail_RetriedOnFailure() throws Exception {
+    SmtpData smtpData = configureSmtp();
+    doThrow(new MessagingException("test"))
+        .when(emailHelper)
+        .sendEmail(eq(defaultCustomer), anyString(), anyString(), eq(smtpData), any());
+
+    Alert alert = createAlert("errorCode");
+    am.transitionAlert(alert);
+    am.sendQueued();
+
+    // The retry runs in the background, and the failure is reported once it's the last attempt.
+    verify(emailHelper, timeout(5000).times(2))
+        .sendEmail(eq(defaultCustomer), anyString(), anyString(), eq(smtpData), any());
+    long deadline = System.currentTimeMillis() + 5000;
+    while (Alert.list(defaultCustomer.uuid, AlertManager.ALERT_MANAGER_ERROR_CODE).isEmpty()
+        && System.currentTimeMillis() < deadline) {
+      Thread.sleep(50);
+    }
+    assertEquals(
+        1, Alert.list(defaultCustomer.uuid, AlertManager.ALERT_MANAGER_ERROR_CODE).size());
+    // The alert keeps its state, to be notified again.
+    assertEquals(Alert.State.CREATED, Alert.get(alert.uuid).state);
+  }
+
   private SmtpData configureSmtp() {
     SmtpData smtpData = new SmtpData();
     smtpData.configUUID = UUID.randomUUID();
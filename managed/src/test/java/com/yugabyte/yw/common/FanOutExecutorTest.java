@@ -0,0 +1,74 @@
+// Copyright (c) YugaByte, Inc.
+
+package com.yugabyte.yw.common;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.Assert.*;
+
+public class FanOutExecutorTest {
+
+  @Test
+  public void testResultsInTaskOrder() throws Exception {
+    FanOutExecutor executor = new FanOutExecutor(2, 10, 10000);
+    List<Callable<Integer>> tasks =
+        Arrays.asList(
+            () -> {
+              Thread.sleep(100);
+              return 1;
+            },
+            () -> 2,
+            () -> 3);
+    List<Future<Integer>> futures = executor.invokeAll("test", tasks);
+    assertEquals(3, futures.size());
+    for (int i = 0; i < futures.size(); i++) {
+      assertTrue(futures.get(i).isDone());
+      assertEquals(i + 1, (int) futures.get(i).get());
+    }
+  }
+
+  @Test
+  public void testTasksCancelledAtDeadline() throws Exception {
+    FanOutExecutor executor = new FanOutExecutor(2, 10, 10000);
+    CountDownLatch never = new CountDownLatch(1);
+    List<Callable<Integer>> tasks =
+        Arrays.asList(
+            () -> 1,
+            () -> {
+              never.await();
+              return 2;
+            });
+    long startMs = System.currentTimeMillis();
+    List<Future<Integer>> futures = executor.invokeAll("test", tasks, 200);
+    assertTrue(System.currentTimeMillis() - startMs < 5000);
+    assertEquals(1, (int) futures.get(0).get());
+    assertTrue(futures.get(1).isCancelled());
+  }
+
+  @Test
+  public void testTasksRejectedWhenQueueFull() throws Exception {
+    FanOutExecutor executor = new FanOutExecutor(1, 1, 200);
+    CountDownLatch never = new CountDownLatch(1);
+    Callable<Integer> blocked =
+        () -> {
+          never.await();
+          return 0;
+        };
+    List<Future<Integer>> futures =
+        executor.invokeAll("test", Arrays.asList(blocked, blocked, blocked));
+    try {
+      futures.get(2).get();
+      fail();
+    } catch (ExecutionException e) {
+      assertTrue(e.getCause() instanceof RejectedExecutionException);
+    }
+  }
+}
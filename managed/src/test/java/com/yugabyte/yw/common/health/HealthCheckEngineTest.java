@@ -0,0 +1,132 @@
+// Copyright (c) YugaByte, Inc.
+
+package com.yugabyte.yw.common.health;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigFactory;
+import com.yugabyte.yw.common.HealthManager.ClusterInfo;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+
+public class HealthCheckEngineTest {
+
+  private static final Config CONFIG =
+      ConfigFactory.parseMap(
+          ImmutableMap.of(
+              "yb.health.max_num_parallel_node_checks", 2,
+              "yb.health.check_retry_interval", "10 ms",
+              "yb.health.check_command_timeout", "1 second",
+              "yb.health.ssh_control_persist", "1 second",
+              "yb.health.expensive_check_interval", "1 hour"));
+
+  // The number of times the check ran on each node.
+  private final Map<String, AtomicInteger> numRuns = new ConcurrentHashMap<>();
+
+  private HealthCheckEngine engine;
+
+  @After
+  public void tearDown() {
+    engine.shutdown();
+  }
+
+  // A check failing on the nodes for the given number of runs.
+  private NodeCheck createCheck(String message, int numFailures) {
+    return createCheck(message, numFailures, false);
+  }
+
+  private NodeCheck createCheck(String message, int numFailures, boolean isExpensive) {
+    return new NodeCheck() {
+      @Override
+      public String getName() {
+        return message;
+      }
+
+      @Override
+      public boolean isExpensive() {
+        return isExpensive;
+      }
+
+      @Override
+      public boolean appliesTo(CheckedNode node) {
+        return !message.equals("Master check") || node.isMaster;
+      }
+
+      @Override
+      public HealthReport.Entry check(CheckedNode node) {
+        int run =
+            numRuns.computeIfAbsent(message + node.ip, k -> new AtomicInteger()).incrementAndGet();
+        return node.newEntry(message).fill(Collections.emptyList(), run <= numFailures);
+      }
+    };
+  }
+
+  // A Kubernetes cluster, so that no identity file is needed.
+  private ClusterInfo createCluster() {
+    ClusterInfo cluster = new ClusterInfo();
+    cluster.ybSoftwareVersion = "2.5.0.0";
+    cluster.masterNodes.put("yb-master-0.yb-masters.ns.svc.cluster.local", "node-0");
+    for (int i = 0; i < 3; i++) {
+      cluster.tserverNodes.put(
+          "yb-tserver-" + i + ".yb-tservers.ns.svc.cluster.local", "node-" + (i + 1));
+    }
+    return cluster;
+  }
+
+  @Test
+  public void testReport() {
+    engine =
+        new HealthCheckEngine(
+            CONFIG, ImmutableList.of(createCheck("Master check", 0), createCheck("Check", 0)));
+    HealthReport report = engine.run(null, ImmutableList.of(createCluster()), 0, false);
+    assertFalse(report.hasError());
+    List<String> messages =
+        report
+            .getEntries()
+            .stream()
+            .map(HealthReport.Entry::getMessage)
+            .collect(Collectors.toList());
+    // The entries of a node are together, in the order of the checks.
+    assertEquals(ImmutableList.of("Master check", "Check", "Check", "Check", "Check"), messages);
+    assertEquals("2.5.0.0", report.toJson().get("yb_version").asText());
+  }
+
+  @Test
+  public void testFailedChecksAreRetriedOnce() {
+    engine =
+        new HealthCheckEngine(
+            CONFIG, ImmutableList.of(createCheck("Master check", 1), createCheck("Check", 2)));
+    HealthReport report = engine.run(null, ImmutableList.of(createCluster()), 0, false);
+    // The transient failure is fixed by the retry, the other one is reported.
+    for (HealthReport.Entry entry : report.getEntries()) {
+      assertEquals(entry.getMessage().equals("Check"), entry.hasError());
+    }
+    assertTrue(numRuns.values().stream().allMatch(runs -> runs.get() == 2));
+  }
+
+  @Test
+  public void testExpensiveChecksAreReused() {
+    engine =
+        new HealthCheckEngine(
+            CONFIG,
+            ImmutableList.of(createCheck("Expensive check", 1, true), createCheck("Check", 0)));
+    ClusterInfo cluster = createCluster();
+    for (int i = 0; i < 3; i++) {
+      engine.run(null, ImmutableList.of(cluster), 0, false);
+    }
+    String node = "yb-tserver-0.yb-tservers.ns.svc.cluster.local";
+    assertEquals(3, numRuns.get("Check" + node).get());
+    // The first run failed and was retried, the successful result is reused afterwards.
+    assertEquals(2, numRuns.get("Expensive check" + node).get());
+  }
+}
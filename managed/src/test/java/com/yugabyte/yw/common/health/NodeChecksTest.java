@@ -0,0 +1,192 @@
+// Copyright (c) YugaByte, Inc.
+
+package com.yugabyte.yw.common.health;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.yugabyte.yw.common.HealthManager.ClusterInfo;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class NodeChecksTest {
+
+  private static final String IP = "10.0.0.1";
+
+  private ClusterInfo cluster;
+
+  // The outputs of the commands run on the node, by a part of the command.
+  private final Map<String, String> outputs = new HashMap<>();
+
+  private final List<String> commands = new ArrayList<>();
+
+  @Before
+  public void setUp() {
+    cluster = new ClusterInfo();
+    cluster.sshPort = 22;
+    cluster.identityFile = "key.pem";
+    cluster.tserverNodes.put(IP, "node-1");
+  }
+
+  private CheckedNode createNode(long potentialStartTimeMs) {
+    return new CheckedNode(
+        IP,
+        "node-1",
+        cluster,
+        "/home/yugabyte",
+        potentialStartTimeMs,
+        true,
+        command -> {
+          commands.add(command);
+          for (Map.Entry<String, String> output : outputs.entrySet()) {
+            if (command.contains(output.getKey())) {
+              return output.getValue();
+            }
+          }
+          return "";
+        });
+  }
+
+  @Test
+  public void testUptime() {
+    NodeCheck check = new NodeChecks.UptimeCheck(NodeChecks.TSERVER_PROCESS);
+    outputs.put("ps -C yb-tserver", "1000");
+    HealthReport.Entry entry = check.check(createNode(0));
+    assertFalse(entry.hasError());
+    assertEquals(Collections.singletonList("Uptime: 1000 seconds"), entry.getDetails());
+    assertEquals("set -o pipefail; ps -C yb-tserver -o etimes=", commands.get(0));
+
+    outputs.put("ps -C yb-tserver", "100");
+    assertTrue(check.check(createNode(0)).hasError());
+    // Not an error right after an operation on the universe.
+    assertFalse(check.check(createNode(System.currentTimeMillis())).hasError());
+
+    outputs.put("ps -C yb-tserver", "");
+    entry = check.check(createNode(0));
+    assertTrue(entry.hasError());
+    assertEquals(Collections.singletonList("Process is not running"), entry.getDetails());
+  }
+
+  @Test
+  public void testAppliesTo() {
+    CheckedNode node = createNode(0);
+    assertTrue(new NodeChecks.UptimeCheck(NodeChecks.TSERVER_PROCESS).appliesTo(node));
+    assertFalse(new NodeChecks.UptimeCheck(NodeChecks.MASTER_PROCESS).appliesTo(node));
+    assertFalse(new NodeChecks.RedisCliCheck().appliesTo(node));
+    cluster.enableYEDIS = true;
+    assertTrue(new NodeChecks.RedisCliCheck().appliesTo(node));
+  }
+
+  @Test
+  public void testFatalLogs() {
+    long epoch = System.currentTimeMillis() / 1000 - 3661;
+    outputs.put("FATAL", epoch + ".5 /home/yugabyte/tserver/logs/yb-tserver.FATAL\nfind: error");
+    HealthReport.Entry entry =
+        new NodeChecks.FatalLogsCheck(NodeChecks.TSERVER_PROCESS).check(createNode(0));
+    assertTrue(entry.hasError());
+    assertEquals(1, entry.getDetails().size());
+    assertTrue(entry.getDetails().get(0).startsWith("/home/yugabyte/tserver/logs/yb-tserver"));
+    assertTrue(commands.get(0).contains("find /home/yugabyte/tserver/logs/ -mmin -12"));
+    assertEquals("0 days 1:01:01", NodeChecks.toHumanReadableTime(3661));
+  }
+
+  @Test
+  public void testDiskUtilization() {
+    NodeCheck check = new NodeChecks.DiskUtilizationCheck();
+    String header = "Filesystem Size Used Avail Use% Mounted on";
+    outputs.put("df", header + "\n/dev/sda1 100G 50G 50G 50% /");
+    HealthReport.Entry entry = check.check(createNode(0));
+    assertFalse(entry.hasError());
+    assertEquals(2, entry.getDetails().size());
+
+    outputs.put("df", header + "\n/dev/sda1 100G 90G 10G 90% /");
+    assertTrue(check.check(createNode(0)).hasError());
+
+    outputs.put("df", "Error executing command [ssh]: Connection refused");
+    assertTrue(check.check(createNode(0)).hasError());
+  }
+
+  @Test
+  public void testFileDescriptors() {
+    NodeCheck check = new NodeChecks.FileDescriptorsCheck();
+    outputs.put("ulimit", "1000\n2000\n100");
+    assertFalse(check.check(createNode(0)).hasError());
+    outputs.put("ulimit", "1000\n2000\n600");
+    HealthReport.Entry entry = check.check(createNode(0));
+    assertTrue(entry.hasError());
+    assertEquals(
+        Collections.singletonList("Open file descriptors: 600. Max file descriptors: 1000"),
+        entry.getDetails());
+  }
+
+  @Test
+  public void testCqlsh() {
+    cluster.enableTlsClient = true;
+    cluster.sslProtocol = "tls11,tls12";
+    outputs.put("cqlsh", "Connected to local cluster at " + IP + ":9042.");
+    assertFalse(new NodeChecks.CqlshCheck().check(createNode(0)).hasError());
+    assertTrue(
+        commands
+            .get(0)
+            .startsWith(
+                "set -o pipefail; SSL_VERSION=TLSv1_1"
+                    + " SSL_CERTFILE=/home/yugabyte/yugabyte-tls-config/ca.crt"));
+    assertTrue(commands.get(0).endsWith("--ssl"));
+  }
+
+  @Test
+  public void testYsqlshWithAuth() {
+    cluster.enableYSQL = true;
+    cluster.enableYSQLAuth = true;
+    outputs.put("ls /tmp", "/tmp/.yb.1234/.s.PGSQL.5433");
+    outputs.put("ysqlsh", "You are connected to database \"yugabyte\"");
+    assertFalse(new NodeChecks.YsqlshCheck().check(createNode(0)).hasError());
+    String ysqlshCommand = commands.get(1);
+    assertTrue(ysqlshCommand.contains("ysqlsh -h /tmp/.yb.1234  -U yugabyte -c \"\\conninfo\""));
+  }
+
+  @Test
+  public void testClockSkew() {
+    NodeCheck check = new NodeChecks.ClockSkewCheck();
+    outputs.put("timedatectl", "  NTP enabled: yes\n NTP synchronized: yes\n RTC in local TZ: no");
+    assertFalse(check.check(createNode(0)).hasError());
+
+    outputs.put("timedatectl", "NTP service: inactive\nSystem clock synchronized: no");
+    HealthReport.Entry entry = check.check(createNode(0));
+    assertEquals(Collections.singletonList("NTP disabled"), entry.getDetails());
+
+    outputs.put("timedatectl", "NTP service: active\nSystem clock synchronized: no");
+    entry = check.check(createNode(0));
+    assertEquals(Collections.singletonList("NTP desynchronized"), entry.getDetails());
+
+    outputs.put("timedatectl", "Local time: now");
+    assertTrue(check.check(createNode(0)).hasError());
+  }
+
+  @Test
+  public void testReportJson() {
+    HealthReport report = new HealthReport("2.5.0.0");
+    HealthReport.Entry entry =
+        createNode(0)
+            .newEntry("Uptime", NodeChecks.TSERVER_PROCESS)
+            .fill(Collections.singletonList("Uptime: 10 seconds"), true);
+    report.addEntries(Collections.singletonList(entry));
+    JsonNode json = report.toJson();
+    assertEquals("2.5.0.0", json.get("yb_version").asText());
+    assertTrue(json.get("has_error").asBoolean());
+    JsonNode data = json.get("data").get(0);
+    assertEquals(IP, data.get("node").asText());
+    assertEquals("node-1", data.get("node_name").asText());
+    assertEquals("Uptime", data.get("message").asText());
+    assertEquals("yb-tserver", data.get("process").asText());
+    assertEquals("Uptime: 10 seconds", data.get("details").get(0).asText());
+    String timestamp = data.get("timestamp").asText();
+    assertTrue(timestamp.matches("\\d{4}-\\d{2}-\\d{2} \\d{2}:\\d{2}:\\d{2}"));
+  }
+}
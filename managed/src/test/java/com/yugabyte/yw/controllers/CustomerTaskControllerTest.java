@@ -33,9 +33,10 @@ import play.test.WithApplication;
 import play.test.Helpers;
 
 import java.util.Calendar;
+import java.util.HashMap;
+import java.util.List;
 import java.util.stream.IntStream;
 import java.util.Map;
-import java.util.Optional;
 import java.util.UUID;
 import java.util.concurrent.TimeUnit;
 
@@ -49,6 +50,7 @@ import static org.hamcrest.CoreMatchers.*;
 import static org.hamcrest.CoreMatchers.equalTo;
 import static org.junit.Assert.*;
 import static org.junit.Assert.assertEquals;
+import static org.mockito.Matchers.anyList;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 import static play.inject.Bindings.bind;
@@ -74,6 +76,9 @@ public class CustomerTaskControllerTest extends FakeDBApplication {
 
   @InjectMocks private CustomerTaskController controller;
 
+  // The task statuses returned by the mock commissioner.
+  private final Map<UUID, ObjectNode> taskStatuses = new HashMap<>();
+
   @Before
   public void setUp() {
     customer = ModelFactory.testCustomer();
@@ -109,7 +114,19 @@ public class CustomerTaskControllerTest extends FakeDBApplication {
     UUID taskUUID =
         createTaskWithStatusAndResponse(
             targetUUID, targetType, taskType, targetName, status, percentComplete, responseJson);
-    when(mockCommissioner.mayGetStatus(taskUUID)).thenReturn(Optional.of(responseJson));
+    taskStatuses.put(taskUUID, responseJson);
+    when(mockCommissioner.getStatuses(anyList()))
+        .thenAnswer(
+            invocation -> {
+              List<CustomerTask> tasks = invocation.getArgument(0);
+              Map<UUID, ObjectNode> statuses = new HashMap<>();
+              for (CustomerTask task : tasks) {
+                if (taskStatuses.containsKey(task.getTaskUUID())) {
+                  statuses.put(task.getTaskUUID(), taskStatuses.get(task.getTaskUUID()));
+                }
+              }
+              return statuses;
+            });
     return taskUUID;
   }
 
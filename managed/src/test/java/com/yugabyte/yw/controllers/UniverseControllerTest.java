@@ -7,6 +7,7 @@ import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.net.HostAndPort;
 import com.yugabyte.yw.cloud.PublicCloudConstants;
 import com.yugabyte.yw.cloud.PublicCloudConstants.StorageType;
@@ -47,6 +48,7 @@ import com.yugabyte.yw.models.NodeInstance;
 import com.yugabyte.yw.models.Provider;
 import com.yugabyte.yw.models.Region;
 import com.yugabyte.yw.models.Universe;
+import com.yugabyte.yw.queries.SlowQueryStats;
 import com.yugabyte.yw.models.Users;
 import com.yugabyte.yw.models.helpers.CloudSpecificInfo;
 import com.yugabyte.yw.models.helpers.DeviceInfo;
@@ -84,6 +86,7 @@ import play.test.WithApplication;
 import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -290,6 +293,86 @@ public class UniverseControllerTest extends WithApplication {
     assertAuditEntry(0, customer.uuid);
   }
 
+  @Test
+  public void testUniverseSummariesPage() {
+    for (String name : Arrays.asList("c", "a", "b")) {
+      Universe u = createUniverse(name, customer.getCustomerId());
+      customer.addUniverseUUID(u.universeUUID);
+    }
+    customer.save();
+
+    String url = "/api/customers/" + customer.uuid + "/universes/summaries?offset=1&limit=1";
+    Result result = doRequestWithAuthToken("GET", url, authToken);
+    assertOk(result);
+    assertEquals("3", result.header(UniverseController.TOTAL_COUNT_HEADER).get());
+    JsonNode json = Json.parse(contentAsString(result, mat));
+    assertTrue(json.isArray());
+    assertEquals(1, json.size());
+    assertValue(json.get(0), "name", "b");
+    assertFalse(json.get(0).get("updateInProgress").asBoolean());
+  }
+
+  @Test
+  public void testUniverseSummariesFields() {
+    Universe u = createUniverse(customer.getCustomerId());
+    customer.addUniverseUUID(u.universeUUID);
+    customer.save();
+
+    String url = "/api/customers/" + customer.uuid + "/universes/summaries?fields=name,version";
+    Result result = doRequestWithAuthToken("GET", url, authToken);
+    assertOk(result);
+    JsonNode json = Json.parse(contentAsString(result, mat));
+    assertEquals(1, json.size());
+    assertEquals(ImmutableSet.of("name", "version"), ImmutableSet.copyOf(json.get(0).fieldNames()));
+    assertValue(json.get(0), "name", u.name);
+  }
+
+  @Test
+  public void testUniverseSummariesInvalidParams() {
+    String url = "/api/customers/" + customer.uuid + "/universes/summaries";
+    Result result =
+        assertThrows(
+                YWServiceException.class,
+                () -> doRequestWithAuthToken("GET", url + "?fields=name,unknown", authToken))
+            .getResult();
+    assertBadRequest(result, "Unknown universe summary field unknown");
+    result =
+        assertThrows(
+                YWServiceException.class,
+                () -> doRequestWithAuthToken("GET", url + "?limit=0", authToken))
+            .getResult();
+    assertBadRequest(result, "Limit should be between 1 and 500, got 0");
+  }
+
+  @Test
+  public void testSlowQueriesInvalidParams() {
+    Universe u = createUniverse(customer.getCustomerId());
+    customer.addUniverseUUID(u.universeUUID);
+    customer.save();
+
+    String url =
+        "/api/customers/" + customer.uuid + "/universes/" + u.universeUUID + "/slow_queries";
+    Result result =
+        assertThrows(
+                YWServiceException.class,
+                () -> doRequestWithAuthToken("GET", url + "?sortBy=query", authToken))
+            .getResult();
+    assertBadRequest(
+        result, "Invalid sortBy query, should be one of " + SlowQueryStats.SORT_METRICS);
+    result =
+        assertThrows(
+                YWServiceException.class,
+                () -> doRequestWithAuthToken("GET", url + "?offset=-1", authToken))
+            .getResult();
+    assertBadRequest(result, "Invalid offset -1");
+    result =
+        assertThrows(
+                YWServiceException.class,
+                () -> doRequestWithAuthToken("GET", url + "?limit=501", authToken))
+            .getResult();
+    assertBadRequest(result, "Limit should be between 0 and 500, got 501");
+  }
+
   @Test
   public void testUniverseBackupFlagSuccess() {
     Universe u = createUniverse(customer.getCustomerId());
@@ -0,0 +1,94 @@
+// Copyright (c) YugaByte, Inc.
+
+package com.yugabyte.yw.metrics;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.junit.Test;
+import play.libs.Json;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiFunction;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class MetricQueryCacheTest {
+
+  private static final long STEP = 60;
+
+  // The ranges fetched from Prometheus.
+  private final List<long[]> fetches = new ArrayList<>();
+
+  private final BiFunction<Long, Long, JsonNode> fetcher =
+      (start, end) -> {
+        fetches.add(new long[] {start, end});
+        ObjectNode response = Json.newObject();
+        response.put("status", "success");
+        ObjectNode data = response.putObject("data");
+        data.put("resultType", "matrix");
+        ObjectNode series = data.putArray("result").addObject();
+        series.putObject("metric").put("node_prefix", "yb-test");
+        ArrayNode values = series.putArray("values");
+        for (long ts = start; ts <= end; ts += STEP) {
+          values.addArray().add(ts).add(Long.toString(ts));
+        }
+        return response;
+      };
+
+  private static JsonNode values(JsonNode response) {
+    return response.get("data").get("result").get(0).get("values");
+  }
+
+  @Test
+  public void testRepeatedRangeServedFromCache() {
+    MetricQueryCache cache = new MetricQueryCache(true, 10, 600, 0);
+    long end = 100 * STEP + 10;
+    JsonNode first = cache.queryRange("up", 10, end, STEP, fetcher);
+    JsonNode second = cache.queryRange("up", 10, end, STEP, fetcher);
+    assertEquals(1, fetches.size());
+    assertEquals(0, fetches.get(0)[0]);
+    assertEquals(100 * STEP, fetches.get(0)[1]);
+    assertEquals(101, values(first).size());
+    assertEquals(values(first), values(second));
+  }
+
+  @Test
+  public void testOnlyTailFetchedOnRefresh() {
+    MetricQueryCache cache = new MetricQueryCache(true, 10, 600, 0);
+    cache.queryRange("up", 0, 100 * STEP, STEP, fetcher);
+    JsonNode refreshed = cache.queryRange("up", 10 * STEP, 110 * STEP, STEP, fetcher);
+    assertEquals(2, fetches.size());
+    assertEquals(101 * STEP, fetches.get(1)[0]);
+    assertEquals(110 * STEP, fetches.get(1)[1]);
+    assertEquals(101, values(refreshed).size());
+    assertEquals(10 * STEP, values(refreshed).get(0).get(0).asLong());
+  }
+
+  @Test
+  public void testRecentPointsFetchedAgain() {
+    MetricQueryCache cache = new MetricQueryCache(true, 10, 600, 600);
+    long now = System.currentTimeMillis() / 1000;
+    cache.queryRange("up", now - 3600, now, STEP, fetcher);
+    cache.queryRange("up", now - 3600, now, STEP, fetcher);
+    assertEquals(2, fetches.size());
+    // Only the points of the recent window are fetched again.
+    assertTrue(fetches.get(1)[0] >= now - 600 - STEP);
+  }
+
+  @Test
+  public void testErrorsNotCached() {
+    MetricQueryCache cache = new MetricQueryCache(true, 10, 600, 0);
+    BiFunction<Long, Long, JsonNode> failing =
+        (start, end) -> {
+          fetches.add(new long[] {start, end});
+          return Json.parse("{\"status\":\"error\",\"error\":\"bad query\"}");
+        };
+    JsonNode response = cache.queryRange("up", 0, 100 * STEP, STEP, failing);
+    assertEquals("bad query", response.get("error").asText());
+    cache.queryRange("up", 0, 100 * STEP, STEP, fetcher);
+    assertEquals(2, fetches.size());
+  }
+}
@@ -4,6 +4,7 @@ package com.yugabyte.yw.metrics;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.google.common.collect.ImmutableList;
 import com.yugabyte.yw.common.FakeDBApplication;
+import com.yugabyte.yw.common.FanOutExecutor;
 import com.yugabyte.yw.common.YWServiceException;
 import com.yugabyte.yw.models.MetricConfig;
 import org.hamcrest.core.IsInstanceOf;
@@ -47,6 +48,7 @@ public class MetricQueryHelperTest extends FakeDBApplication {
     validMetric = MetricConfig.create("valid_metric", configJson);
     validMetric.save();
     when(mockAppConfig.getString("yb.metrics.url")).thenReturn("foo://bar");
+    metricQueryHelper.fanOutExecutor = new FanOutExecutor(2, 100, 10000);
   }
 
   @Test
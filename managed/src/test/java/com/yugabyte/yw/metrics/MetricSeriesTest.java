@@ -0,0 +1,35 @@
+// Copyright (c) YugaByte, Inc.
+
+package com.yugabyte.yw.metrics;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class MetricSeriesTest {
+
+  @Test
+  public void testPutKeepsTimestampsSorted() {
+    MetricSeries series = new MetricSeries(1);
+    for (long ts = 100; ts > 0; ts -= 10) {
+      series.put(ts, ts / 10.0);
+    }
+    series.put(50, 42.0);
+    assertEquals(10, series.size());
+    for (int i = 0; i < series.size(); i++) {
+      assertEquals((i + 1) * 10, series.timestampAt(i));
+    }
+    assertEquals(42.0, series.valueAt(4), 0.0);
+  }
+
+  @Test
+  public void testFloorIndex() {
+    MetricSeries series = new MetricSeries();
+    series.put(10, 1.0);
+    series.put(20, 2.0);
+    assertEquals(-1, series.floorIndex(5));
+    assertEquals(0, series.floorIndex(10));
+    assertEquals(0, series.floorIndex(15));
+    assertEquals(1, series.floorIndex(25));
+  }
+}
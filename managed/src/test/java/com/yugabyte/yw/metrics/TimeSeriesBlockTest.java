@@ -0,0 +1,71 @@
+// Copyright (c) YugaByte, Inc.
+
+package com.yugabyte.yw.metrics;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TimeSeriesBlockTest {
+
+  private static MetricSeries roundTrip(long[] timestamps, double[] values) {
+    TimeSeriesBlock.Encoder encoder = new TimeSeriesBlock.Encoder();
+    for (int i = 0; i < timestamps.length; i++) {
+      encoder.append(timestamps[i], values[i]);
+    }
+    return TimeSeriesBlock.decode(encoder.toBytes(), encoder.size());
+  }
+
+  @Test
+  public void testRegularSeriesIsCompact() {
+    TimeSeriesBlock.Encoder encoder = new TimeSeriesBlock.Encoder();
+    for (int i = 0; i < 1000; i++) {
+      encoder.append(1600000000L + i * 60, 0.0);
+    }
+    // 16 bytes for the first point, then two bits per point once the delta is known.
+    assertTrue(encoder.toBytes().length <= 16 + 2 + 250);
+    MetricSeries series = TimeSeriesBlock.decode(encoder.toBytes(), encoder.size());
+    assertEquals(1000, series.size());
+    assertEquals(1600000000L + 999 * 60, series.timestampAt(999));
+  }
+
+  @Test
+  public void testIrregularSeriesRoundTrip() {
+    Random random = new Random(42);
+    int size = 500;
+    long[] timestamps = new long[size];
+    double[] values = new double[size];
+    long timestamp = 1600000000L;
+    for (int i = 0; i < size; i++) {
+      // Deltas of all the encoded sizes, from a few seconds to days.
+      timestamp += 1 + random.nextInt(1 << (1 + random.nextInt(20)));
+      timestamps[i] = timestamp;
+      values[i] = i % 7 == 0 ? values[Math.max(i - 1, 0)] : random.nextGaussian() * 1e6;
+    }
+    values[10] = Double.NaN;
+    values[11] = -0.0;
+    values[12] = Double.MAX_VALUE;
+
+    MetricSeries series = roundTrip(timestamps, values);
+    assertEquals(size, series.size());
+    for (int i = 0; i < size; i++) {
+      assertEquals(timestamps[i], series.timestampAt(i));
+      assertEquals(
+          Double.doubleToRawLongBits(values[i]), Double.doubleToRawLongBits(series.valueAt(i)));
+    }
+  }
+
+  @Test
+  public void testEncoderOfAppendsToDecodedPoints() {
+    MetricSeries series = roundTrip(new long[] {100, 110, 120}, new double[] {1.0, 2.0, 3.0});
+    TimeSeriesBlock.Encoder encoder = TimeSeriesBlock.encoderOf(series);
+    encoder.append(130, 4.0);
+    MetricSeries appended = TimeSeriesBlock.decode(encoder.toBytes(), encoder.size());
+    assertEquals(4, appended.size());
+    assertEquals(130, appended.timestampAt(3));
+    assertEquals(4.0, appended.valueAt(3), 0.0);
+  }
+}
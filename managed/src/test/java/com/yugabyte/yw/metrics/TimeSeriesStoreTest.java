@@ -0,0 +1,188 @@
+// Copyright (c) YugaByte, Inc.
+
+package com.yugabyte.yw.metrics;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.google.common.collect.ImmutableMap;
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigFactory;
+import com.yugabyte.yw.common.FakeDBApplication;
+import com.yugabyte.yw.models.MetricBlock;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+
+public class TimeSeriesStoreTest extends FakeDBApplication {
+
+  private static final Config CONFIG =
+      ConfigFactory.parseString(
+          "yb.metrics.store {"
+              + " enabled = true, block_duration = 2 hours, flush_interval = 1 minute,"
+              + " retention { raw = 7 days, five_minutes = 90 days, one_hour = 730 days } }");
+
+  private static final String METRIC = TimeSeriesStore.TASK_DURATION;
+
+  private static final UUID CUSTOMER_UUID = UUID.randomUUID();
+
+  private static final Map<String, String> NO_FILTERS = Collections.emptyMap();
+
+  private long base;
+
+  @Before
+  public void setUp() {
+    // The start of yesterday, so the points are in the retention of all the resolutions.
+    long day = TimeUnit.DAYS.toSeconds(1);
+    long now = System.currentTimeMillis() / 1000;
+    base = now - now % day - day;
+  }
+
+  private static JsonNode result(JsonNode response) {
+    return response.get("data").get("result");
+  }
+
+  private static Map<String, String> labels(String taskType, String nodePrefix) {
+    return ImmutableMap.of("task_type", taskType, "node_prefix", nodePrefix);
+  }
+
+  // Queries the series of the customer, from the base time.
+  private JsonNode query(
+      TimeSeriesStore store, Map<String, String> filters, String groupBy, long end, long step) {
+    return result(store.queryRange(CUSTOMER_UUID, METRIC, filters, groupBy, base, end, step));
+  }
+
+  @Test
+  public void testQueryRecordedPoints() {
+    TimeSeriesStore store = new TimeSeriesStore(CONFIG);
+    for (int i = 0; i < 10; i++) {
+      store.record(CUSTOMER_UUID, METRIC, labels("CreateUniverse", "yb-1"), base + i * 60, i);
+    }
+    JsonNode result = query(store, NO_FILTERS, "", base + 3600, 60);
+    assertEquals(1, result.size());
+    assertEquals("CreateUniverse", result.get(0).get("metric").get("task_type").asText());
+    JsonNode values = result.get(0).get("values");
+    assertEquals(10, values.size());
+    assertEquals(base + 540, values.get(9).get(0).asLong());
+    assertEquals(9.0, values.get(9).get(1).asDouble(), 0.0);
+  }
+
+  @Test
+  public void testFlushAndDownsample() {
+    TimeSeriesStore store = new TimeSeriesStore(CONFIG);
+    for (int i = 0; i < 10; i++) {
+      store.record(CUSTOMER_UUID, METRIC, labels("CreateUniverse", "yb-1"), base + i * 60, i);
+    }
+    // All the blocks ended, so they are written and the series dropped from memory.
+    store.flush(base + TimeUnit.DAYS.toSeconds(2));
+    assertEquals(3, MetricBlock.find.query().findCount());
+
+    // A new store reads the written blocks.
+    store = new TimeSeriesStore(CONFIG);
+    JsonNode raw = query(store, NO_FILTERS, "", base + 3600, 60);
+    assertEquals(10, raw.get(0).get("values").size());
+
+    // The 5 minutes means, for a step of 5 minutes.
+    JsonNode fiveMinutes = query(store, NO_FILTERS, "", base + 3600, 300).get(0).get("values");
+    assertEquals(2, fiveMinutes.size());
+    assertEquals(2.0, fiveMinutes.get(0).get(1).asDouble(), 0.0);
+    assertEquals(7.0, fiveMinutes.get(1).get(1).asDouble(), 0.0);
+
+    JsonNode oneHour = query(store, NO_FILTERS, "", base + 3600, 3600).get(0).get("values");
+    assertEquals(1, oneHour.size());
+    assertEquals(4.5, oneHour.get(0).get(1).asDouble(), 0.0);
+  }
+
+  @Test
+  public void testPointsAppendedToWrittenBlock() {
+    TimeSeriesStore store = new TimeSeriesStore(CONFIG);
+    store.record(CUSTOMER_UUID, METRIC, labels("CreateUniverse", "yb-1"), base, 1);
+    store.flush(base + 60);
+
+    // Continues the block written by the previous store, as after a restart.
+    store = new TimeSeriesStore(CONFIG);
+    store.record(CUSTOMER_UUID, METRIC, labels("CreateUniverse", "yb-1"), base + 60, 2);
+    store.flush(base + 120);
+    JsonNode values = query(store, NO_FILTERS, "", base + 3600, 60).get(0).get("values");
+    assertEquals(2, values.size());
+  }
+
+  @Test
+  public void testFiltersAndGroupBy() {
+    TimeSeriesStore store = new TimeSeriesStore(CONFIG);
+    store.record(CUSTOMER_UUID, METRIC, labels("CreateUniverse", "yb-1"), base, 10);
+    store.record(CUSTOMER_UUID, METRIC, labels("CreateUniverse", "yb-2"), base, 20);
+    store.record(CUSTOMER_UUID, METRIC, labels("DestroyUniverse", "yb-1"), base, 5);
+
+    JsonNode grouped = query(store, NO_FILTERS, "task_type", base + 60, 60);
+    assertEquals(2, grouped.size());
+    Map<String, Double> means = new HashMap<>();
+    for (JsonNode series : grouped) {
+      assertEquals(1, series.get("metric").size());
+      means.put(
+          series.get("metric").get("task_type").asText(),
+          series.get("values").get(0).get(1).asDouble());
+    }
+    assertEquals(15.0, means.get("CreateUniverse"), 0.0);
+    assertEquals(5.0, means.get("DestroyUniverse"), 0.0);
+
+    Map<String, String> filters = ImmutableMap.of("node_prefix", "yb-2|yb-3");
+    JsonNode filtered = query(store, filters, "", base + 60, 60);
+    assertEquals(1, filtered.size());
+    assertEquals("yb-2", filtered.get(0).get("metric").get("node_prefix").asText());
+  }
+
+  @Test
+  public void testSeriesOfOtherCustomersNotReturned() {
+    TimeSeriesStore store = new TimeSeriesStore(CONFIG);
+    UUID otherCustomerUUID = UUID.randomUUID();
+    store.record(CUSTOMER_UUID, METRIC, ImmutableMap.of("task_type", "CloudBootstrap"), base, 1);
+    store.record(
+        otherCustomerUUID, METRIC, ImmutableMap.of("task_type", "CloudBootstrap"), base, 2);
+
+    // A customer without universes has an empty node prefix filter, matching the series without
+    // node prefix of the customer only.
+    Map<String, String> filters = ImmutableMap.of("node_prefix", "");
+    JsonNode result = query(store, filters, "", base + 60, 60);
+    assertEquals(1, result.size());
+    assertEquals(
+        CUSTOMER_UUID.toString(),
+        result.get(0).get("metric").get(TimeSeriesStore.CUSTOMER_LABEL).asText());
+    assertEquals(1.0, result.get(0).get("values").get(0).get(1).asDouble(), 0.0);
+  }
+
+  @Test
+  public void testWrittenBlocksOfOtherCustomersNotRead() {
+    TimeSeriesStore store = new TimeSeriesStore(CONFIG);
+    UUID otherCustomerUUID = UUID.randomUUID();
+    store.record(CUSTOMER_UUID, METRIC, labels("CreateUniverse", "yb-1"), base, 1);
+    store.record(otherCustomerUUID, METRIC, labels("CreateUniverse", "yb-1"), base, 2);
+    store.flush(base + 60);
+    assertEquals(
+        1,
+        MetricBlock.getBlocks(otherCustomerUUID, METRIC, 0 /* resolution */, base, base + 60)
+            .size());
+
+    // The points are only read from the written blocks.
+    store = new TimeSeriesStore(CONFIG);
+    JsonNode result = query(store, NO_FILTERS, "", base + 60, 60);
+    assertEquals(1, result.size());
+    assertEquals(1.0, result.get(0).get("values").get(0).get(1).asDouble(), 0.0);
+  }
+
+  @Test
+  public void testDeleteExpired() {
+    TimeSeriesStore store = new TimeSeriesStore(CONFIG);
+    store.record(CUSTOMER_UUID, METRIC, labels("CreateUniverse", "yb-1"), base, 1);
+    store.flush(base + TimeUnit.DAYS.toSeconds(2));
+    store.deleteExpired(base + TimeUnit.DAYS.toSeconds(8));
+    // Only the points as recorded are expired.
+    assertEquals(0, MetricBlock.find.query().where().eq("resolution", 0).findCount());
+    assertEquals(2, MetricBlock.find.query().findCount());
+  }
+}
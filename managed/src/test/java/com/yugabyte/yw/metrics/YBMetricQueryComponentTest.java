@@ -49,7 +49,15 @@ import static com.yugabyte.yw.metrics.YBMetricQueryComponent.Function.Average;
 @RunWith(MockitoJUnitRunner.class)
 public class YBMetricQueryComponentTest extends FakeDBApplication {
 
-  @InjectMocks YBMetricQueryComponent ybMetricQueryComponent;
+  @InjectMocks YBMetricQueryComponent ybMetricQueryComponent = new YBMetricQueryComponent();
+
+  private static Map<Long, Double> toMap(MetricSeries series) {
+    Map<Long, Double> map = new HashMap<>();
+    for (int i = 0; i < series.size(); i++) {
+      map.put(series.timestampAt(i), series.valueAt(i));
+    }
+    return map;
+  }
 
   private class MockResultSet {
     List<Date> times;
@@ -152,7 +160,7 @@ public class YBMetricQueryComponentTest extends FakeDBApplication {
             2323193L, (300.0 / 3) * 3,
             2323223L, (200.0 / 3) * 3,
             2323253L, (400.0 / 3) * 3);
-    assertEquals(expectedValues, ybMetricQueryComponent.calculateRate(allRS, Sum, 3));
+    assertEquals(expectedValues, toMap(ybMetricQueryComponent.calculateRate(allRS, Sum, 3)));
   }
 
   @Test
@@ -180,7 +188,7 @@ public class YBMetricQueryComponentTest extends FakeDBApplication {
             2323193L, 300.0 / 3,
             2323223L, 200.0 / 3,
             2323253L, 400.0 / 3);
-    assertEquals(expectedValues, ybMetricQueryComponent.calculateRate(allRS, Average, 3));
+    assertEquals(expectedValues, toMap(ybMetricQueryComponent.calculateRate(allRS, Average, 3)));
   }
 
   @Test
@@ -219,6 +227,6 @@ public class YBMetricQueryComponentTest extends FakeDBApplication {
             2323193L, (300.0 / 3) * 2 + (500.0 / 6),
             2323223L, (200.0 / 3) * 2,
             2323253L, (400.0 / 3) * 3);
-    assertEquals(expectedValues, ybMetricQueryComponent.calculateRate(allRS, Sum, 3));
+    assertEquals(expectedValues, toMap(ybMetricQueryComponent.calculateRate(allRS, Sum, 3)));
   }
 }
@@ -15,6 +15,7 @@ import org.junit.Before;
 import org.junit.Test;
 
 import com.yugabyte.yw.common.FakeDBApplication;
+import play.libs.Json;
 
 public class HealthCheckTest extends FakeDBApplication {
   private Customer defaultCustomer;
@@ -75,6 +76,32 @@ public class HealthCheckTest extends FakeDBApplication {
     }
   }
 
+  @Test
+  public void testKeepOnlyLast() {
+    UUID universeUUID = UUID.randomUUID();
+    addChecks(universeUUID, 5);
+    HealthCheck.keepOnlyLast(universeUUID, 2);
+    assertEquals(2, HealthCheck.getAll(universeUUID).size());
+    HealthCheck.keepOnlyLast(universeUUID, 0);
+    assertTrue(HealthCheck.getAll(universeUUID).isEmpty());
+  }
+
+  @Test
+  public void testCheckStates() {
+    UUID universeUUID = UUID.randomUUID();
+    String details =
+        "{\"has_error\": false, \"data\": [{\"node\": \"10.0.0.1\", \"message\": \"Uptime\","
+            + " \"process\": \"yb-master\", \"details\": [\"%s\"], \"has_error\": %s}]}";
+    HealthCheck check = addCheck(universeUUID, String.format(details, "Uptime: 1000", false));
+    // The details of the checks are not part of the state.
+    assertEquals(
+        check.getCheckStates(),
+        HealthCheck.getCheckStates(Json.parse(String.format(details, "Uptime: 1300", false))));
+    assertNotEquals(
+        check.getCheckStates(),
+        HealthCheck.getCheckStates(Json.parse(String.format(details, "Uptime: 10", true))));
+  }
+
   @Test
   public void testGetLatest() {
     UUID universeUUID = UUID.randomUUID();
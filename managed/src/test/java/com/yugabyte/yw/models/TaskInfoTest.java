@@ -0,0 +1,123 @@
+// Copyright (c) YugaByte, Inc.
+
+package com.yugabyte.yw.models;
+
+import com.google.common.collect.ImmutableList;
+import com.yugabyte.yw.commissioner.UserTaskDetails;
+import com.yugabyte.yw.commissioner.UserTaskDetails.SubTaskDetails;
+import com.yugabyte.yw.commissioner.UserTaskDetails.SubTaskGroupType;
+import com.yugabyte.yw.common.FakeDBApplication;
+import com.yugabyte.yw.models.helpers.TaskType;
+import org.junit.Test;
+import play.libs.Json;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.Assert.*;
+
+public class TaskInfoTest extends FakeDBApplication {
+
+  private TaskInfo createTask(UUID parentUUID, int position, TaskInfo.State state) {
+    return createTask(parentUUID, position, state, null);
+  }
+
+  private TaskInfo createTask(
+      UUID parentUUID, int position, TaskInfo.State state, SubTaskGroupType groupType) {
+    TaskInfo taskInfo = new TaskInfo(TaskType.CreateUniverse);
+    taskInfo.setTaskUUID(UUID.randomUUID());
+    taskInfo.setParentUuid(parentUUID);
+    taskInfo.setPosition(position);
+    taskInfo.setTaskState(state);
+    taskInfo.setSubTaskGroupType(groupType);
+    taskInfo.setTaskDetails(Json.newObject());
+    taskInfo.setOwner("test");
+    taskInfo.save();
+    return taskInfo;
+  }
+
+  private TaskInfo createTaskWithSubTasks(TaskInfo.State state) {
+    TaskInfo task = createTask(null, -1, state);
+    UUID taskUUID = task.getTaskUUID();
+    createTask(taskUUID, 0, TaskInfo.State.Success, SubTaskGroupType.Provisioning);
+    createTask(taskUUID, 0, TaskInfo.State.Success, SubTaskGroupType.Provisioning);
+    createTask(taskUUID, 1, TaskInfo.State.Created, SubTaskGroupType.ConfigureUniverse);
+    createTask(taskUUID, 1, TaskInfo.State.Running, SubTaskGroupType.ConfigureUniverse);
+    createTask(taskUUID, 2, TaskInfo.State.Failure, SubTaskGroupType.InstallingSoftware);
+    createTask(taskUUID, 3, TaskInfo.State.Success, SubTaskGroupType.Invalid);
+    createTask(taskUUID, 4, TaskInfo.State.Created, SubTaskGroupType.StartingNode);
+    return task;
+  }
+
+  private static void assertSubTaskStates(UserTaskDetails details, String... states) {
+    List<SubTaskDetails> subTasks = details.taskDetails;
+    assertEquals(states.length, subTasks.size());
+    for (int i = 0; i < states.length; i++) {
+      assertEquals(states[i], subTasks.get(i).getState());
+    }
+  }
+
+  @Test
+  public void testUserTaskDetails() {
+    TaskInfo task = createTaskWithSubTasks(TaskInfo.State.Running);
+    UserTaskDetails details = task.getUserTaskDetails();
+    assertSubTaskStates(details, "Unknown", "Running", "Failure", "Created");
+    assertEquals(
+        UserTaskDetails.createSubTask(SubTaskGroupType.Provisioning).getTitle(),
+        details.taskDetails.get(0).getTitle());
+    assertEquals(
+        UserTaskDetails.createSubTask(SubTaskGroupType.StartingNode).getTitle(),
+        details.taskDetails.get(3).getTitle());
+    assertEquals(300.0 / 7, task.getPercentCompleted(), 0.0001);
+  }
+
+  @Test
+  public void testUserTaskDetailsOfFailedTask() {
+    TaskInfo task = createTaskWithSubTasks(TaskInfo.State.Failure);
+    assertSubTaskStates(task.getUserTaskDetails(), "Unknown", "Running", "Failure", "Unknown");
+  }
+
+  @Test
+  public void testPercentCompletedWithoutSubTasks() {
+    TaskInfo task = createTask(null, -1, TaskInfo.State.Success);
+    assertEquals(100.0, task.getPercentCompleted(), 0);
+    assertTrue(task.getUserTaskDetails().taskDetails.isEmpty());
+  }
+
+  @Test
+  public void testGetSubTasksSummaries() {
+    TaskInfo task1 = createTaskWithSubTasks(TaskInfo.State.Running);
+    TaskInfo task2 = createTask(null, -1, TaskInfo.State.Running);
+    createTask(task2.getTaskUUID(), 0, TaskInfo.State.Success, SubTaskGroupType.Provisioning);
+    createTask(task2.getTaskUUID(), 1, TaskInfo.State.Running, SubTaskGroupType.StartingNode);
+    TaskInfo task3 = createTask(null, -1, TaskInfo.State.Created);
+
+    Map<UUID, TaskInfo.SubTasksSummary> summaries =
+        TaskInfo.getSubTasksSummaries(ImmutableList.of(task1, task2, task3));
+    assertEquals(3, summaries.size());
+    TaskInfo.SubTasksSummary summary1 = summaries.get(task1.getTaskUUID());
+    assertEquals(task1.getPercentCompleted(), summary1.getPercentCompleted(), 0);
+    assertEquals(
+        Json.toJson(task1.getUserTaskDetails()), Json.toJson(summary1.getUserTaskDetails()));
+    TaskInfo.SubTasksSummary summary2 = summaries.get(task2.getTaskUUID());
+    assertEquals(50.0, summary2.getPercentCompleted(), 0);
+    assertSubTaskStates(summary2.getUserTaskDetails(), "Unknown", "Running");
+    TaskInfo.SubTasksSummary summary3 = summaries.get(task3.getTaskUUID());
+    assertEquals(100.0, summary3.getPercentCompleted(), 0);
+  }
+
+  @Test
+  public void testGetAll() {
+    TaskInfo task1 = createTask(null, -1, TaskInfo.State.Running);
+    TaskInfo task2 = createTask(null, -1, TaskInfo.State.Success);
+    UUID missingUUID = UUID.randomUUID();
+
+    Map<UUID, TaskInfo> taskInfos =
+        TaskInfo.getAll(ImmutableList.of(task1.getTaskUUID(), task2.getTaskUUID(), missingUUID));
+    assertEquals(2, taskInfos.size());
+    assertEquals(TaskInfo.State.Running, taskInfos.get(task1.getTaskUUID()).getTaskState());
+    assertEquals(TaskInfo.State.Success, taskInfos.get(task2.getTaskUUID()).getTaskState());
+    assertNull(taskInfos.get(missingUUID));
+  }
+}
@@ -21,6 +21,8 @@ import com.yugabyte.yw.models.helpers.CloudSpecificInfo;
 import com.yugabyte.yw.models.helpers.DeviceInfo;
 import com.yugabyte.yw.models.helpers.NodeDetails;
 import com.yugabyte.yw.models.helpers.NodeDetails.NodeState;
+import io.ebean.Ebean;
+import io.ebean.SqlRow;
 import junitparams.JUnitParamsRunner;
 import junitparams.Parameters;
 import org.apache.commons.lang3.StringUtils;
@@ -30,6 +32,8 @@ import org.junit.runner.RunWith;
 import play.libs.Json;
 
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.ThreadPoolExecutor;
@@ -739,4 +743,210 @@ public class UniverseTest extends FakeDBApplication {
     assertFalse(actions.contains(NodeActionType.REMOVE));
     assertFalse(actions.contains(NodeActionType.STOP));
   }
+
+  @Test
+  public void testUpdatesOfDifferentUniversesDoNotWait() throws Exception {
+    Universe u1 = createUniverse("Test Universe 1", defaultCustomer.getCustomerId());
+    Universe u2 = createUniverse("Test Universe 2", defaultCustomer.getCustomerId());
+    // Make sure the two universes do not share a lock.
+    while (Universe.UPDATE_LOCKS.get(u1.universeUUID)
+        == Universe.UPDATE_LOCKS.get(u2.universeUUID)) {
+      u2 = createUniverse("Test Universe " + UUID.randomUUID(), defaultCustomer.getCustomerId());
+    }
+    UUID u2UUID = u2.universeUUID;
+
+    CountDownLatch updateStarted = new CountDownLatch(1);
+    CountDownLatch finishUpdate = new CountDownLatch(1);
+    CompletableFuture<Universe> blockedUpdate =
+        CompletableFuture.supplyAsync(
+            () ->
+                Universe.saveDetails(
+                    u1.universeUUID,
+                    universe -> {
+                      updateStarted.countDown();
+                      try {
+                        finishUpdate.await();
+                      } catch (InterruptedException e) {
+                        throw new RuntimeException(e);
+                      }
+                    }));
+    assertTrue(updateStarted.await(10, TimeUnit.SECONDS));
+
+    // The update of the other universe is not blocked by the update in progress.
+    Universe updated = Universe.saveDetails(u2UUID, ApiUtils.mockUniverseUpdater());
+    assertEquals(2, updated.version);
+    assertFalse(blockedUpdate.isDone());
+
+    finishUpdate.countDown();
+    assertEquals(2, blockedUpdate.get(10, TimeUnit.SECONDS).version);
+  }
+
+  private static List<SqlRow> getNodeRows(UUID universeUUID) {
+    return Ebean.createSqlQuery("SELECT * FROM universe_node WHERE universe_uuid = :universeUUID")
+        .setParameter("universeUUID", universeUUID)
+        .findList();
+  }
+
+  private static String getDetailsJson(UUID universeUUID) {
+    return Ebean.createSqlQuery(
+            "SELECT universe_details_json FROM universe WHERE universe_uuid = :universeUUID")
+        .setParameter("universeUUID", universeUUID)
+        .findOne()
+        .getString("universe_details_json");
+  }
+
+  @Test
+  public void testNodeUpdateWritesOnlyTheNode() {
+    Universe u = createUniverseWithNodes(3 /* rf */, 3 /* numNodes */, true /* setMasters */);
+    String nodeName = u.getNodes().iterator().next().nodeName;
+    String detailsJson = getDetailsJson(u.universeUUID);
+
+    u =
+        Universe.saveDetails(
+            u.universeUUID, universe -> universe.getNode(nodeName).state = NodeState.Stopped);
+    assertEquals(NodeState.Stopped, u.getNode(nodeName).state);
+    // Only the node got written.
+    assertEquals(detailsJson, getDetailsJson(u.universeUUID));
+    List<SqlRow> nodeRows = getNodeRows(u.universeUUID);
+    assertEquals(1, nodeRows.size());
+    assertEquals(nodeName, nodeRows.get(0).getString("node_name"));
+
+    Universe readUniverse = Universe.getOrBadRequest(u.universeUUID);
+    assertEquals(u.version, readUniverse.version);
+    assertEquals(NodeState.Stopped, readUniverse.getNode(nodeName).state);
+    assertEquals(3, readUniverse.getNodes().size());
+    for (NodeDetails node : readUniverse.getNodes()) {
+      if (!node.nodeName.equals(nodeName)) {
+        assertEquals(NodeState.Live, node.state);
+      }
+    }
+
+    // Updating the same node again replaces its row.
+    Universe.saveDetails(
+        u.universeUUID, universe -> universe.getNode(nodeName).state = NodeState.Live);
+    assertEquals(1, getNodeRows(u.universeUUID).size());
+    assertEquals(NodeState.Live, Universe.getOrBadRequest(u.universeUUID).getNode(nodeName).state);
+  }
+
+  @Test
+  public void testDetailsUpdateWritesAllDetails() {
+    Universe u = createUniverseWithNodes(3 /* rf */, 3 /* numNodes */, true /* setMasters */);
+    String nodeName = u.getNodes().iterator().next().nodeName;
+    Universe.saveDetails(
+        u.universeUUID, universe -> universe.getNode(nodeName).state = NodeState.Stopped);
+    assertEquals(1, getNodeRows(u.universeUUID).size());
+
+    u =
+        Universe.saveDetails(
+            u.universeUUID, universe -> universe.getUniverseDetails().updateInProgress = true);
+    // The node updates are merged in the details.
+    assertTrue(getNodeRows(u.universeUUID).isEmpty());
+    assertTrue(getDetailsJson(u.universeUUID).contains("\"Stopped\""));
+    Universe readUniverse = Universe.getOrBadRequest(u.universeUUID);
+    assertTrue(readUniverse.getUniverseDetails().updateInProgress);
+    assertEquals(NodeState.Stopped, readUniverse.getNode(nodeName).state);
+  }
+
+  @Test
+  public void testRemoveNodeWritesAllDetails() {
+    Universe u = createUniverseWithNodes(3 /* rf */, 3 /* numNodes */, true /* setMasters */);
+    String nodeName = u.getNodes().iterator().next().nodeName;
+    Universe.saveDetails(
+        u.universeUUID, universe -> universe.getNode(nodeName).state = NodeState.Removed);
+
+    u =
+        Universe.saveDetails(
+            u.universeUUID, universe -> universe.getUniverseDetails().removeNode(nodeName));
+    assertTrue(getNodeRows(u.universeUUID).isEmpty());
+    Universe readUniverse = Universe.getOrBadRequest(u.universeUUID);
+    assertEquals(2, readUniverse.getNodes().size());
+    assertNull(readUniverse.getNode(nodeName));
+  }
+
+  @Test
+  public void testReadsGetIndependentDetails() {
+    Universe u = createUniverseWithNodes(3 /* rf */, 3 /* numNodes */, true /* setMasters */);
+    String nodeName = u.getNodes().iterator().next().nodeName;
+    Universe u1 = Universe.getOrBadRequest(u.universeUUID);
+    Universe u2 = Universe.getOrBadRequest(u.universeUUID);
+    assertNotSame(u1.getUniverseDetails(), u2.getUniverseDetails());
+
+    u1.getNode(nodeName).state = NodeState.Stopped;
+    assertEquals(NodeState.Live, u2.getNode(nodeName).state);
+    assertEquals(
+        NodeState.Live, Universe.getOrBadRequest(u.universeUUID).getNode(nodeName).state);
+  }
+
+  @Test
+  public void testUpdateKeepingTheVersionIsRead() {
+    Universe u = createUniverseWithNodes(3 /* rf */, 3 /* numNodes */, true /* setMasters */);
+    String nodeName = u.getNodes().iterator().next().nodeName;
+    int version = Universe.getOrBadRequest(u.universeUUID).version;
+    Universe.saveDetails(
+        u.universeUUID,
+        universe -> universe.getNode(nodeName).state = NodeState.Stopped,
+        false /* incrementVersion */);
+
+    Universe readUniverse = Universe.getOrBadRequest(u.universeUUID);
+    assertEquals(version, readUniverse.version);
+    assertEquals(NodeState.Stopped, readUniverse.getNode(nodeName).state);
+  }
+
+  @Test
+  public void testDetailsChangedInDbAreRead() {
+    Universe u = createUniverseWithNodes(3 /* rf */, 3 /* numNodes */, true /* setMasters */);
+    // Caches the details.
+    Universe.getOrBadRequest(u.universeUUID);
+    UniverseDefinitionTaskParams details = u.getUniverseDetails();
+    details.nodePrefix = "changed";
+    Ebean.createSqlUpdate(
+            "UPDATE universe SET universe_details_json = :details, version = version + 1 "
+                + "WHERE universe_uuid = :universeUUID")
+        .setParameter("details", Json.stringify(Json.toJson(details)))
+        .setParameter("universeUUID", u.universeUUID)
+        .execute();
+
+    Universe readUniverse = Universe.getOrBadRequest(u.universeUUID);
+    assertEquals("changed", readUniverse.getUniverseDetails().nodePrefix);
+  }
+
+  @Test
+  public void testNodeUpdateChangedInDbIsRead() {
+    Universe u = createUniverseWithNodes(3 /* rf */, 3 /* numNodes */, true /* setMasters */);
+    NodeDetails node = u.getNodes().iterator().next();
+    // Caches the details.
+    Universe.getOrBadRequest(u.universeUUID);
+    node.state = NodeState.Stopped;
+    Ebean.execute(
+        () -> {
+          Ebean.createSqlUpdate(
+                  "INSERT INTO universe_node (universe_uuid, node_name, node_details_json) "
+                      + "VALUES (:universeUUID, :nodeName, :nodeDetails)")
+              .setParameter("universeUUID", u.universeUUID)
+              .setParameter("nodeName", node.nodeName)
+              .setParameter("nodeDetails", Json.stringify(Json.toJson(node)))
+              .execute();
+          Ebean.createSqlUpdate(
+                  "UPDATE universe SET version = version + 1 WHERE universe_uuid = :universeUUID")
+              .setParameter("universeUUID", u.universeUUID)
+              .execute();
+        });
+
+    // The node update is read along with the version it was written with.
+    Universe readUniverse = Universe.getOrBadRequest(u.universeUUID);
+    assertEquals(u.version + 1, readUniverse.version);
+    assertEquals(NodeState.Stopped, readUniverse.getNode(node.nodeName).state);
+  }
+
+  @Test
+  public void testSummaryOfUniverseDeletedAfterGetPage() {
+    Universe u1 = createUniverse("u1", defaultCustomer.getCustomerId());
+    Universe u2 = createUniverse("u2", defaultCustomer.getCustomerId());
+    List<Universe> page = Universe.getPage(defaultCustomer, 0 /* offset */, 10 /* limit */);
+    assertEquals(2, page.size());
+
+    Universe.delete(u1.universeUUID);
+    assertFalse(page.get(0).getSummary().isPresent());
+    assertEquals(u2.universeUUID.toString(), page.get(1).getSummary().get().universeUUID);
+  }
 }
@@ -0,0 +1,84 @@
+// Copyright (c) YugaByte, Inc.
+
+package com.yugabyte.yw.queries;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.yugabyte.yw.common.FakeDBApplication;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.when;
+
+public class LiveQueryExecutorTest extends FakeDBApplication {
+
+  private JsonNode call(String rpcz, QueryHelper.QueryApi api) throws Exception {
+    when(mockApiHelper.getRequestStream(anyString(), any(Duration.class)))
+        .thenReturn(new ByteArrayInputStream(rpcz.getBytes(StandardCharsets.UTF_8)));
+    return new LiveQueryExecutor("node-1", "10.0.0.1", 13000, api, Duration.ofSeconds(1)).call();
+  }
+
+  @Test
+  public void testYSQLIdleConnectionsSkipped() throws Exception {
+    String rpcz =
+        "{\"connections\": ["
+            + "{\"backend_type\": \"client backend\", \"backend_status\": \"idle\","
+            + " \"query\": \"SELECT 1\"},"
+            + "{\"backend_type\": \"checkpointer\", \"backend_status\": \"active\"},"
+            + "{\"backend_type\": \"client backend\", \"backend_status\": \"active\","
+            + " \"db_name\": \"yugabyte\", \"query\": \"SELECT 2\", \"query_running_for_ms\": 15,"
+            + " \"host\": \"10.0.0.2\", \"port\": \"5433\", \"extra\": {\"nested\": [1, 2]}}]}";
+    JsonNode result = call(rpcz, QueryHelper.QueryApi.YSQL);
+    assertEquals(1, result.get("ysql").size());
+    JsonNode row = result.get("ysql").get(0);
+    assertEquals("SELECT 2", row.get("query").asText());
+    assertEquals("yugabyte", row.get("dbName").asText());
+    assertEquals(15, row.get("elapsedMillis").asInt());
+    assertEquals("node-1", row.get("nodeName").asText());
+    assertEquals("5433", row.get("clientPort").asText());
+  }
+
+  @Test
+  public void testYCQLCallsInFlight() throws Exception {
+    String rpcz =
+        "{\"inbound_connections\": ["
+            + "{\"remote_ip\": \"10.0.0.2:4000\", \"processed_call_count\": 10},"
+            + "{\"calls_in_flight\": [{\"elapsed_millis\": 5,"
+            + " \"cql_details\": {\"type\": \"QUERY\", \"call_details\":"
+            + " [{\"sql_string\": \"SELECT\"}, {\"sql_string\": \"* FROM t\"}]}}],"
+            + " \"remote_ip\": \"10.0.0.3:4001\","
+            + " \"connection_details\": {\"cql_connection_details\": {\"keyspace\": \"ks\"}}}]}";
+    JsonNode result = call(rpcz, QueryHelper.QueryApi.YCQL);
+    assertEquals(1, result.get("ycql").size());
+    JsonNode row = result.get("ycql").get(0);
+    assertEquals("SELECT * FROM t", row.get("query").asText());
+    assertEquals("ks", row.get("keyspace").asText());
+    assertEquals("10.0.0.3", row.get("clientHost").asText());
+    assertEquals("4001", row.get("clientPort").asText());
+    assertEquals(5, row.get("elapsedMillis").asInt());
+  }
+
+  @Test
+  public void testNoRunningQueries() throws Exception {
+    JsonNode result = call("{\"connections\": []}", QueryHelper.QueryApi.YSQL);
+    assertFalse(result.has("ysql"));
+    assertFalse(result.has("error"));
+  }
+
+  @Test
+  public void testRequestFailure() throws Exception {
+    when(mockApiHelper.getRequestStream(anyString(), any(Duration.class)))
+        .thenThrow(new RuntimeException("Request failed with status 500"));
+    JsonNode result =
+        new LiveQueryExecutor("node-1", "10.0.0.1", 12000, QueryHelper.QueryApi.YCQL, null).call();
+    assertTrue(result.has("error"));
+    assertEquals("ycql", result.get("type").asText());
+  }
+}
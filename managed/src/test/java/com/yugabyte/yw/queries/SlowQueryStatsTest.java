@@ -0,0 +1,91 @@
+// Copyright (c) YugaByte, Inc.
+
+package com.yugabyte.yw.queries;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.junit.Test;
+import play.libs.Json;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+public class SlowQueryStatsTest {
+
+  private static ObjectNode row(long queryid, long calls, double mean, double stddev) {
+    ObjectNode row = Json.newObject();
+    row.put("rolname", "yugabyte");
+    row.put("datname", "yugabyte");
+    row.put("queryid", queryid);
+    row.put("query", "SELECT " + queryid);
+    row.put("calls", calls);
+    row.put("total_time", calls * mean);
+    row.put("rows", calls);
+    row.put("min_time", mean - stddev);
+    row.put("max_time", mean + stddev);
+    row.put("mean_time", mean);
+    row.put("stddev_time", stddev);
+    return row;
+  }
+
+  @Test
+  public void testMergeMeanAndStddev() {
+    // Node A ran the query at 1 and 3 ms, node B at 5, 7 and 9 ms.
+    SlowQueryStats stats = new SlowQueryStats(row(1, 2, 2.0, 1.0));
+    stats.merge(row(1, 3, 7.0, Math.sqrt(8.0 / 3)));
+    assertEquals(5, (long) stats.getMetric("calls"));
+    assertEquals(25.0, stats.getMetric("total_time"), 1e-9);
+    assertEquals(5.0, stats.getMetric("mean_time"), 1e-9);
+    // The population standard deviation of 1, 3, 5, 7 and 9.
+    assertEquals(Math.sqrt(8.0), stats.getStddevTime(), 1e-9);
+    assertEquals(1.0, stats.getMetric("min_time"), 1e-9);
+    assertEquals(7.0 + Math.sqrt(8.0 / 3), stats.getMetric("max_time"), 1e-9);
+  }
+
+  @Test
+  public void testGetKey() {
+    assertEquals(
+        Arrays.asList("yugabyte", "yugabyte", "42"), SlowQueryStats.getKey(row(42, 1, 1.0, 0.0)));
+    ObjectNode withoutId = row(42, 1, 1.0, 0.0);
+    withoutId.remove("queryid");
+    assertEquals(
+        Arrays.asList("yugabyte", "yugabyte", "query:SELECT 42"),
+        SlowQueryStats.getKey(withoutId));
+    // The same query in another database is merged separately.
+    ObjectNode otherDatabase = row(42, 1, 1.0, 0.0);
+    otherDatabase.put("datname", "postgres");
+    assertNotEquals(
+        SlowQueryStats.getKey(row(42, 1, 1.0, 0.0)), SlowQueryStats.getKey(otherDatabase));
+  }
+
+  @Test
+  public void testTopPages() {
+    List<SlowQueryStats> queries = new ArrayList<>();
+    for (int i = 1; i <= 10; i++) {
+      queries.add(new SlowQueryStats(row(i, i, 1.0, 0.0)));
+    }
+    List<SlowQueryStats> page = SlowQueryStats.top(queries, "calls", 2, 3);
+    assertEquals(3, page.size());
+    assertEquals(8, (long) page.get(0).getMetric("calls"));
+    assertEquals(6, (long) page.get(2).getMetric("calls"));
+
+    List<SlowQueryStats> all = SlowQueryStats.top(queries, "calls", 0, 0);
+    assertEquals(10, all.size());
+    assertEquals(10, (long) all.get(0).getMetric("calls"));
+    assertTrue(SlowQueryStats.top(queries, "calls", 10, 5).isEmpty());
+  }
+
+  @Test
+  public void testToJson() {
+    JsonNode json = new SlowQueryStats(row(7, 4, 2.5, 0.5)).toJson();
+    assertEquals(7, json.get("queryid").asLong());
+    assertEquals(4, json.get("calls").asLong());
+    assertEquals(10.0, json.get("total_time").asDouble(), 1e-9);
+    assertEquals(0.5, json.get("stddev_time").asDouble(), 1e-9);
+  }
+}
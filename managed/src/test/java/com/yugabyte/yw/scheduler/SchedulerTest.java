@@ -8,6 +8,7 @@ import com.yugabyte.yw.commissioner.Commissioner;
 import com.yugabyte.yw.common.FakeDBApplication;
 import com.yugabyte.yw.models.CustomerConfig;
 import com.yugabyte.yw.common.ModelFactory;
+import com.yugabyte.yw.common.YWServiceException;
 import com.yugabyte.yw.forms.UniverseDefinitionTaskParams;
 import com.yugabyte.yw.models.Customer;
 import com.yugabyte.yw.models.CustomerTask;
@@ -35,6 +36,7 @@ import scala.concurrent.duration.FiniteDuration;
 import static org.junit.Assert.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
+import static play.mvc.Http.Status.SERVICE_UNAVAILABLE;
 
 @RunWith(MockitoJUnitRunner.class)
 public class SchedulerTest extends FakeDBApplication {
@@ -65,7 +67,8 @@ public class SchedulerTest extends FakeDBApplication {
   @Test
   public void schedulerDeletesExpiredBackups() {
     UUID fakeTaskUUID = UUID.randomUUID();
-    when(mockCommissioner.submit(Matchers.any(), Matchers.any())).thenReturn(fakeTaskUUID);
+    when(mockCommissioner.submit(Matchers.any(), Matchers.any(), Matchers.any()))
+        .thenReturn(fakeTaskUUID);
 
     Universe universe = ModelFactory.createUniverse(defaultCustomer.getCustomerId());
     Backup backup =
@@ -78,7 +81,7 @@ public class SchedulerTest extends FakeDBApplication {
     scheduler.scheduleRunner();
     assertEquals(0, Backup.getExpiredBackups().get(defaultCustomer).size());
     assertEquals(null, CustomerTask.get(defaultCustomer.uuid, fakeTaskUUID));
-    verify(mockCommissioner, times(0)).submit(any(), any());
+    verify(mockCommissioner, times(0)).submit(any(), any(), any());
 
     // Unpause the universe and make sure that we will delete the backup.
     setUniversePaused(false, universe);
@@ -86,13 +89,14 @@ public class SchedulerTest extends FakeDBApplication {
     CustomerTask task = CustomerTask.get(defaultCustomer.uuid, fakeTaskUUID);
     assertEquals(1, Backup.getExpiredBackups().get(defaultCustomer).size());
     assertEquals(CustomerTask.TaskType.Delete, task.getType());
-    verify(mockCommissioner, times(1)).submit(any(), any());
+    verify(mockCommissioner, times(1)).submit(any(), any(), any());
   }
 
   @Test
   public void schedulerDeletesExpiredBackups_universeDeleted() {
     UUID fakeTaskUUID = UUID.randomUUID();
-    when(mockCommissioner.submit(Matchers.any(), Matchers.any())).thenReturn(fakeTaskUUID);
+    when(mockCommissioner.submit(Matchers.any(), Matchers.any(), Matchers.any()))
+        .thenReturn(fakeTaskUUID);
 
     Universe universe = ModelFactory.createUniverse(defaultCustomer.getCustomerId());
     Backup backup =
@@ -105,10 +109,44 @@ public class SchedulerTest extends FakeDBApplication {
     CustomerTask task = CustomerTask.get(defaultCustomer.uuid, fakeTaskUUID);
     assertEquals(1, Backup.getExpiredBackups().get(defaultCustomer).size());
     assertEquals(CustomerTask.TaskType.Delete, task.getType());
-    verify(mockCommissioner, times(1)).submit(any(), any());
+    verify(mockCommissioner, times(1)).submit(any(), any(), any());
     assertEquals(1, Backup.getExpiredBackups().get(defaultCustomer).size());
   }
 
+  @Test
+  public void schedulerFailsBackupOfRejectedTask() {
+    when(mockCommissioner.submit(Matchers.any(), Matchers.any(), Matchers.any()))
+        .thenThrow(new YWServiceException(SERVICE_UNAVAILABLE, "Too many tasks"));
+
+    Universe universe = ModelFactory.createUniverse(defaultCustomer.getCustomerId());
+    ModelFactory.createScheduleBackup(
+        defaultCustomer.uuid, universe.universeUUID, s3StorageConfig.configUUID);
+    scheduler.scheduleRunner();
+
+    List<Backup> backups = Backup.fetchByUniverseUUID(defaultCustomer.uuid, universe.universeUUID);
+    assertEquals(1, backups.size());
+    assertEquals(Backup.BackupState.Failed, backups.get(0).state);
+  }
+
+  @Test
+  public void schedulerDeletesRemainingBackupsAfterRejectedTask() {
+    when(mockCommissioner.submit(Matchers.any(), Matchers.any(), Matchers.any()))
+        .thenThrow(new YWServiceException(SERVICE_UNAVAILABLE, "Too many tasks"));
+
+    Universe universe = ModelFactory.createUniverse(defaultCustomer.getCustomerId());
+    for (int i = 0; i < 2; i++) {
+      Backup backup =
+          ModelFactory.createBackupWithExpiry(
+              defaultCustomer.uuid, universe.universeUUID, s3StorageConfig.configUUID);
+      backup.transitionState(Backup.BackupState.Completed);
+    }
+    scheduler.scheduleRunner();
+
+    // The rejection of the first deletion doesn't skip the second one.
+    verify(mockCommissioner, times(2)).submit(any(), any(), any());
+    assertEquals(2, Backup.getExpiredBackups().get(defaultCustomer).size());
+  }
+
   public static void setUniversePaused(boolean value, Universe universe) {
     Universe.UniverseUpdater updater =
         new Universe.UniverseUpdater() {